@@ -2,6 +2,7 @@ package org.multibit.exchange.domain.event;
 
 import org.axonframework.commandhandling.annotation.TargetAggregateIdentifier;
 import org.multibit.exchange.domain.model.CurrencyPair;
+import org.multibit.exchange.domain.model.ItemPrice;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
@@ -21,8 +22,16 @@ public class CurrencyPairRegisteredEvent {
   private final CurrencyPairId currencyPairId;
   private final CurrencyId baseCurrencyId;
   private final CurrencyId counterCurrencyId;
+  private final ItemPrice tickSize;
 
   public CurrencyPairRegisteredEvent(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId) {
+    this(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId, null);
+  }
+
+  /**
+   * @param tickSize The minimum price increment of the pair, or null if prices are unrestricted
+   */
+  public CurrencyPairRegisteredEvent(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize) {
     checkNotNull(exchangeId, "exchangeId must not be null");
     checkNotNull(currencyPairId, "currencyPairId must not be null");
     checkNotNull(baseCurrencyId, "baseCurrencyId must not be null");
@@ -32,6 +41,7 @@ public class CurrencyPairRegisteredEvent {
     this.currencyPairId = currencyPairId;
     this.baseCurrencyId = baseCurrencyId;
     this.counterCurrencyId = counterCurrencyId;
+    this.tickSize = tickSize;
   }
 
   public ExchangeId getExchangeId() {
@@ -49,4 +59,11 @@ public class CurrencyPairRegisteredEvent {
   public CurrencyId getCounterCurrencyId() {
     return counterCurrencyId;
   }
+
+  /**
+   * @return The minimum price increment of the pair, or null if prices are unrestricted
+   */
+  public ItemPrice getTickSize() {
+    return tickSize;
+  }
 }
@@ -12,4 +12,8 @@ public class LimitOrderAddedToExistingPriceLevelEvent extends LimitOrderAddedEve
     super(exchangeId, order);
     this.priceLevel = priceLevel;
   }
+
+  public ItemPrice getPriceLevel() {
+    return priceLevel;
+  }
 }
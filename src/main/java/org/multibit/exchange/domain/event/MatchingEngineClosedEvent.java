@@ -0,0 +1,41 @@
+package org.multibit.exchange.domain.event;
+
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>Event used to indicate that a {@link org.multibit.exchange.domain.model.MatchingEngine} was closed because
+ * its {@link org.multibit.exchange.domain.model.CurrencyPair} was removed, so it rejects new orders.</p>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineClosedEvent {
+
+  private final MatchingEngineId matchingEngineId;
+  private final ExchangeId exchangeId;
+  private final CurrencyPairId currencyPairId;
+
+  public MatchingEngineClosedEvent(ExchangeId exchangeId, CurrencyPairId currencyPairId) {
+    checkNotNull(exchangeId, "exchangeId must not be null");
+    checkNotNull(currencyPairId, "currencyPairId must not be null");
+
+    this.matchingEngineId = new MatchingEngineId(exchangeId, currencyPairId);
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+  }
+
+  public MatchingEngineId getMatchingEngineId() {
+    return matchingEngineId;
+  }
+
+  public ExchangeId getExchangeId() {
+    return exchangeId;
+  }
+
+  public CurrencyPairId getCurrencyPairId() {
+    return currencyPairId;
+  }
+}
@@ -0,0 +1,67 @@
+package org.multibit.exchange.domain.event;
+
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>Event used to indicate that a {@link org.multibit.exchange.domain.model.MatchingEngine} was created
+ * for a registered {@link org.multibit.exchange.domain.model.CurrencyPair}.</p>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineCreatedEvent {
+
+  private final MatchingEngineId matchingEngineId;
+  private final ExchangeId exchangeId;
+  private final CurrencyPairId currencyPairId;
+  private final CurrencyId baseCurrencyId;
+  private final CurrencyId counterCurrencyId;
+  private final ItemPrice tickSize;
+
+  /**
+   * @param tickSize The minimum price increment of the pair, or null if prices are unrestricted
+   */
+  public MatchingEngineCreatedEvent(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize) {
+    checkNotNull(exchangeId, "exchangeId must not be null");
+    checkNotNull(currencyPairId, "currencyPairId must not be null");
+
+    this.matchingEngineId = new MatchingEngineId(exchangeId, currencyPairId);
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+    this.baseCurrencyId = baseCurrencyId;
+    this.counterCurrencyId = counterCurrencyId;
+    this.tickSize = tickSize;
+  }
+
+  public MatchingEngineId getMatchingEngineId() {
+    return matchingEngineId;
+  }
+
+  public ExchangeId getExchangeId() {
+    return exchangeId;
+  }
+
+  public CurrencyPairId getCurrencyPairId() {
+    return currencyPairId;
+  }
+
+  public CurrencyId getBaseCurrencyId() {
+    return baseCurrencyId;
+  }
+
+  public CurrencyId getCounterCurrencyId() {
+    return counterCurrencyId;
+  }
+
+  /**
+   * @return The minimum price increment of the pair, or null if prices are unrestricted
+   */
+  public ItemPrice getTickSize() {
+    return tickSize;
+  }
+}
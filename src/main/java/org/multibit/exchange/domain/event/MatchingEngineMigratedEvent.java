@@ -0,0 +1,96 @@
+package org.multibit.exchange.domain.event;
+
+import com.google.common.collect.ImmutableList;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.LimitOrder;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>Event used to indicate that a {@link org.multibit.exchange.domain.model.MatchingEngine} was created for a
+ * {@link org.multibit.exchange.domain.model.CurrencyPair} registered before each pair had an engine of its own,
+ * holding the orders that were resting on the pair's books in the Exchange.</p>
+ *
+ * <p>The read models already have those orders from the Exchange's own events, so they ignore this one.</p>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineMigratedEvent {
+
+  private final MatchingEngineId matchingEngineId;
+  private final ExchangeId exchangeId;
+  private final CurrencyPairId currencyPairId;
+  private final CurrencyId baseCurrencyId;
+  private final CurrencyId counterCurrencyId;
+  private final ItemPrice tickSize;
+  private final List<LimitOrder> buyOrders;
+  private final List<LimitOrder> sellOrders;
+
+  /**
+   * @param tickSize   The minimum price increment of the pair, or null if prices are unrestricted
+   * @param buyOrders  The resting buy orders in priority order
+   * @param sellOrders The resting sell orders in priority order
+   */
+  public MatchingEngineMigratedEvent(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId,
+                                     CurrencyId counterCurrencyId, ItemPrice tickSize,
+                                     List<LimitOrder> buyOrders, List<LimitOrder> sellOrders) {
+    checkNotNull(exchangeId, "exchangeId must not be null");
+    checkNotNull(currencyPairId, "currencyPairId must not be null");
+
+    this.matchingEngineId = new MatchingEngineId(exchangeId, currencyPairId);
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+    this.baseCurrencyId = baseCurrencyId;
+    this.counterCurrencyId = counterCurrencyId;
+    this.tickSize = tickSize;
+    this.buyOrders = ImmutableList.copyOf(buyOrders);
+    this.sellOrders = ImmutableList.copyOf(sellOrders);
+  }
+
+  public MatchingEngineId getMatchingEngineId() {
+    return matchingEngineId;
+  }
+
+  public ExchangeId getExchangeId() {
+    return exchangeId;
+  }
+
+  public CurrencyPairId getCurrencyPairId() {
+    return currencyPairId;
+  }
+
+  public CurrencyId getBaseCurrencyId() {
+    return baseCurrencyId;
+  }
+
+  public CurrencyId getCounterCurrencyId() {
+    return counterCurrencyId;
+  }
+
+  /**
+   * @return The minimum price increment of the pair, or null if prices are unrestricted
+   */
+  public ItemPrice getTickSize() {
+    return tickSize;
+  }
+
+  /**
+   * @return The resting buy orders in priority order
+   */
+  public List<LimitOrder> getBuyOrders() {
+    return buyOrders;
+  }
+
+  /**
+   * @return The resting sell orders in priority order
+   */
+  public List<LimitOrder> getSellOrders() {
+    return sellOrders;
+  }
+}
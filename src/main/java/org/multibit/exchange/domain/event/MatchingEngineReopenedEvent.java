@@ -0,0 +1,42 @@
+package org.multibit.exchange.domain.event;
+
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>Event used to indicate that a {@link org.multibit.exchange.domain.model.MatchingEngine} was reopened because
+ * its {@link org.multibit.exchange.domain.model.CurrencyPair} was registered again, so it takes orders on its
+ * existing books.</p>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineReopenedEvent {
+
+  private final MatchingEngineId matchingEngineId;
+  private final ExchangeId exchangeId;
+  private final CurrencyPairId currencyPairId;
+
+  public MatchingEngineReopenedEvent(ExchangeId exchangeId, CurrencyPairId currencyPairId) {
+    checkNotNull(exchangeId, "exchangeId must not be null");
+    checkNotNull(currencyPairId, "currencyPairId must not be null");
+
+    this.matchingEngineId = new MatchingEngineId(exchangeId, currencyPairId);
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+  }
+
+  public MatchingEngineId getMatchingEngineId() {
+    return matchingEngineId;
+  }
+
+  public ExchangeId getExchangeId() {
+    return exchangeId;
+  }
+
+  public CurrencyPairId getCurrencyPairId() {
+    return currencyPairId;
+  }
+}
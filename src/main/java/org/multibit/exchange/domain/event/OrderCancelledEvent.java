@@ -1,23 +1,33 @@
 package org.multibit.exchange.domain.event;
 
 import org.multibit.exchange.domain.model.Order;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
 
 /**
  * <p>Event used to indicate that a {@link org.multibit.exchange.domain.model.Order} was cancelled.</p>
  *
+ * <p>The order carries the quantity that was still unfilled at the time it was cancelled.</p>
+ *
  * @since 0.0.1
  */
 public class OrderCancelledEvent {
 
+  private final ExchangeId exchangeId;
+
   private Order order;
 
   private String reason;
 
-  public OrderCancelledEvent(Order order, String reason) {
+  public OrderCancelledEvent(ExchangeId exchangeId, Order order, String reason) {
+    this.exchangeId = exchangeId;
     this.order = order;
     this.reason = reason;
   }
 
+  public ExchangeId getExchangeId() {
+    return exchangeId;
+  }
+
   public Order getOrder() {
     return order;
   }
@@ -29,7 +39,8 @@ public class OrderCancelledEvent {
   @Override
   public String toString() {
     return "OrderCancelledEvent{" +
-        "order=" + order +
+        "exchangeId=" + exchangeId +
+        ", order=" + order +
         ", reason='" + reason + '\'' +
         '}';
   }
@@ -7,6 +7,6 @@ class BuySideComparator implements Comparator<PricedItem>, Serializable {
 
   @Override
   public int compare(PricedItem o1, PricedItem o2) {
-    return o2.getBigDecimalPrice().compareTo(o1.getBigDecimalPrice());
+    return PricedItemComparator.compareAscending(o2, o1);
   }
 }
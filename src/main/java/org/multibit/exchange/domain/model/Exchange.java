@@ -1,38 +1,35 @@
 package org.multibit.exchange.domain.model;
 
-import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.axonframework.commandhandling.annotation.CommandHandler;
 import org.axonframework.eventhandling.annotation.EventHandler;
 import org.axonframework.eventsourcing.annotation.AbstractAnnotatedAggregateRoot;
 import org.axonframework.eventsourcing.annotation.AggregateIdentifier;
-import org.axonframework.eventsourcing.annotation.EventSourcedMember;
 import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
 import org.multibit.exchange.domain.event.CurrencyPairRemovedEvent;
 import org.multibit.exchange.domain.event.ExchangeCreatedEvent;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CreateExchangeCommand;
-import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
-import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
-import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderFactory;
-import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.RegisterCurrencyPairCommand;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.RemoveCurrencyPairCommand;
 
-import java.util.Map;
+import java.util.Set;
 
 /**
  * <p>AggregateRoot to provide the following to the domain model:</p>
  * <ul>
  * <li>An Event sourced exchange.</li>
+ * <li>The registry of the exchange's currency pairs.</li>
  * </ul>
  *
+ * <p>Orders are not handled here: each registered pair has its own {@link MatchingEngine} aggregate.</p>
+ *
  * @since 0.0.1
  */
 public class Exchange extends AbstractAnnotatedAggregateRoot {
 
-  @EventSourcedMember
-  private Map<CurrencyPairId, MatchingEngine> matchingEngineMap = Maps.newHashMap();
+  private Set<CurrencyPairId> currencyPairIds = Sets.newHashSet();
 
   @AggregateIdentifier
   private ExchangeId exchangeId;
@@ -67,23 +64,18 @@ public class Exchange extends AbstractAnnotatedAggregateRoot {
   void registerCurrencyPair(RegisterCurrencyPairCommand command) throws DuplicateCurrencyPairSymbolException {
     checkForDuplicateCurrencyPair(command.getCurrencyPairId());
 
-    apply(new CurrencyPairRegisteredEvent(exchangeId, command.getCurrencyPairId(), command.getBaseCurrencyId(), command.getCounterCurrencyId()));
+    apply(new CurrencyPairRegisteredEvent(exchangeId, command.getCurrencyPairId(), command.getBaseCurrencyId(), command.getCounterCurrencyId(), command.getTickSize()));
   }
 
   private void checkForDuplicateCurrencyPair(CurrencyPairId symbol) throws DuplicateCurrencyPairSymbolException {
-    if (matchingEngineMap.containsKey(symbol)) {
+    if (currencyPairIds.contains(symbol)) {
       throw new DuplicateCurrencyPairSymbolException(symbol);
     }
   }
 
   @EventHandler
   public void on(CurrencyPairRegisteredEvent event) throws DuplicateCurrencyPairSymbolException {
-    CurrencyPairId currencyPairId = event.getCurrencyPairId();
-    matchingEngineMap.put(currencyPairId, createMatchingEngineForCurrencyPair(currencyPairId, event.getBaseCurrencyId(), event.getCounterCurrencyId()));
-  }
-
-  private MatchingEngine createMatchingEngineForCurrencyPair(CurrencyPairId currencyPairId, CurrencyId baseCurrency, CurrencyId counterCurrency) {
-    return new MatchingEngine(exchangeId, currencyPairId, baseCurrency, counterCurrency);
+    currencyPairIds.add(event.getCurrencyPairId());
   }
 
 
@@ -98,31 +90,14 @@ public class Exchange extends AbstractAnnotatedAggregateRoot {
   }
 
   private void validate(RemoveCurrencyPairCommand command) throws NoSuchCurrencyPairException {
-    if (!matchingEngineMap.containsKey(command.getCurrencyPairId())) {
+    if (!currencyPairIds.contains(command.getCurrencyPairId())) {
       throw new NoSuchCurrencyPairException(command.getCurrencyPairId());
     }
   }
 
   @EventHandler
   public void on(CurrencyPairRemovedEvent event) {
-    matchingEngineMap.remove(event.getCurrencyPairId());
-  }
-
-
-  /*
-   * Place Order
-   */
-  @CommandHandler
-  @SuppressWarnings("unused")
-  public void placeOrder(PlaceOrderCommand command) throws NoSuchCurrencyPairException {
-    OrderDescriptor orderDescriptor = command.getOrderDescriptor();
-    Order order = OrderFactory.createOrderFromDescriptor(orderDescriptor);
-    CurrencyPairId currencyPairId = new CurrencyPairId(order.getTicker().getSymbol());
-    if (!matchingEngineMap.containsKey(currencyPairId)) {
-      throw new NoSuchCurrencyPairException(currencyPairId);
-    }
-
-    matchingEngineMap.get(new CurrencyPairId(order.getTicker().getSymbol())).acceptOrder(order);
+    currencyPairIds.remove(event.getCurrencyPairId());
   }
 
   @Override
@@ -0,0 +1,73 @@
+package org.multibit.exchange.domain.model;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>Scaled long representation of prices and quantities used internally by the domain model.</p>
+ * <ul>
+ * <li>One unit is 1e-8 of a whole item, matching the maximum precision of {@link ItemPrice} and {@link ItemQuantity}</li>
+ * <li>Arithmetic and comparison on units never allocate or re-parse strings</li>
+ * <li>Conversions to and from {@link BigDecimal} are reserved for the REST and serialization edges</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public final class FixedPoint {
+
+  /**
+   * The number of decimal places represented by one unit
+   */
+  public static final int SCALE = 8;
+
+  /**
+   * The number of units in one whole item
+   */
+  public static final long UNITS_PER_WHOLE = 100000000L;
+
+  private static final BigDecimal MAX_VALUE = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+
+  private FixedPoint() {
+  }
+
+  /**
+   * @param value A value with no more than {@link #SCALE} decimal places
+   *
+   * @return True if the value can be held as a scaled long
+   */
+  public static boolean isRepresentable(BigDecimal value) {
+    return value.abs().compareTo(MAX_VALUE) <= 0 && value.stripTrailingZeros().scale() <= SCALE;
+  }
+
+  /**
+   * @param value A representable value (see {@link #isRepresentable(BigDecimal)})
+   *
+   * @return The value expressed in units
+   *
+   * @throws ArithmeticException If the value has more than {@link #SCALE} decimal places or does not fit in a long
+   */
+  public static long toUnits(BigDecimal value) {
+    return value.movePointRight(SCALE).longValueExact();
+  }
+
+  /**
+   * @param units The value expressed in units
+   *
+   * @return The equivalent {@link BigDecimal} with trailing zeros removed
+   */
+  public static BigDecimal toBigDecimal(long units) {
+    if (units == 0) {
+      // Avoid 0E-8 from stripTrailingZeros() on older JDKs
+      return BigDecimal.ZERO;
+    }
+    return BigDecimal.valueOf(units, SCALE).stripTrailingZeros();
+  }
+
+  /**
+   * @param units The value expressed in units
+   *
+   * @return The plain string form (no exponent, no trailing zeros)
+   */
+  public static String toPlainString(long units) {
+    return toBigDecimal(units).toPlainString();
+  }
+}
@@ -1,5 +1,6 @@
 package org.multibit.exchange.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Strings;
 
 import java.io.Serializable;
@@ -10,13 +11,22 @@ import static com.google.common.base.Preconditions.checkArgument;
 /**
  * <p>Price of an item.</p>
  *
+ * <p>Prices within the range of a scaled long are also held as {@link FixedPoint} units so that
+ * comparisons on the matching hot path avoid {@link BigDecimal}. The {@link BigDecimal} form is
+ * retained for the REST and serialization edges and for the (unrealistic) prices above that range.</p>
+ *
  * @since 0.0.1
  */
-public class ItemPrice implements PricedItem, Serializable {
+public class ItemPrice implements PricedItem, Comparable<ItemPrice>, Serializable {
 
   private static final BigDecimal ZERO = new BigDecimal("0");
 
-  public static final int MAX_PRECISION = 8;
+  public static final int MAX_PRECISION = FixedPoint.SCALE;
+
+  /**
+   * Marks a price that exceeds the range of {@link FixedPoint} units
+   */
+  private static final long NOT_REPRESENTABLE = -1;
 
   /*
    * MAX_PRICE is 1,000,000,000,000,000 - one quadrillion
@@ -26,6 +36,8 @@ public class ItemPrice implements PricedItem, Serializable {
 
   private final BigDecimal itemPrice;
 
+  private final long units;
+
   public ItemPrice(String priceStr) {
     checkArgument(!Strings.isNullOrEmpty(priceStr), "price must not be null or empty");
     checkArgument(priceStr.length() <= MAX_DIGITS, "price must not exceed max digits: " + MAX_DIGITS + " (including decimal)");
@@ -36,6 +48,24 @@ public class ItemPrice implements PricedItem, Serializable {
     int actualPrecision = getNumberOfDecimalPlaces(priceStr);
     checkArgument(actualPrecision <= MAX_PRECISION,
         "price must not have more than " + MAX_PRECISION + " decimal places, was: '%d'", actualPrecision);
+
+    units = FixedPoint.isRepresentable(itemPrice) ? FixedPoint.toUnits(itemPrice) : NOT_REPRESENTABLE;
+  }
+
+  private ItemPrice(long units) {
+    // Range checks only - the precision is guaranteed by the representation
+    checkArgument(units >= 0, "price must not be negative");
+    this.itemPrice = FixedPoint.toBigDecimal(units);
+    this.units = units;
+  }
+
+  /**
+   * @param units The price in {@link FixedPoint} units
+   *
+   * @return The price, without parsing it from a string
+   */
+  public static ItemPrice fromUnits(long units) {
+    return new ItemPrice(units);
   }
 
   public String getRaw() {
@@ -52,6 +82,40 @@ public class ItemPrice implements PricedItem, Serializable {
     return itemPrice;
   }
 
+  /**
+   * @return True if this price can be expressed in {@link FixedPoint} units
+   */
+  @JsonIgnore
+  public boolean isRepresentableInUnits() {
+    return units != NOT_REPRESENTABLE;
+  }
+
+  /**
+   * @return The price expressed in {@link FixedPoint} units
+   *
+   * @throws IllegalStateException If the price is outside the range of a scaled long
+   */
+  @JsonIgnore
+  public long getUnits() {
+    if (units == NOT_REPRESENTABLE) {
+      throw new IllegalStateException("price " + getRaw() + " cannot be expressed in units");
+    }
+    return units;
+  }
+
+  @JsonIgnore
+  public boolean isZero() {
+    return units == 0;
+  }
+
+  @Override
+  public int compareTo(ItemPrice that) {
+    if (units != NOT_REPRESENTABLE && that.units != NOT_REPRESENTABLE) {
+      return Long.compare(units, that.units);
+    }
+    return itemPrice.compareTo(that.itemPrice);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -59,11 +123,14 @@ public class ItemPrice implements PricedItem, Serializable {
 
     ItemPrice itemPrice1 = (ItemPrice) o;
 
-    return (itemPrice.compareTo(itemPrice1.itemPrice) == 0);
+    return (compareTo(itemPrice1) == 0);
   }
 
   @Override
   public int hashCode() {
+    if (units != NOT_REPRESENTABLE) {
+      return (int) (units ^ (units >>> 32));
+    }
     return itemPrice.hashCode();
   }
 
@@ -72,4 +139,14 @@ public class ItemPrice implements PricedItem, Serializable {
     return itemPrice.toString();
   }
 
+  /**
+   * Prices serialized before they were held in units are read back without them, so the units are recomputed
+   */
+  private Object readResolve() {
+    if (units == 0 && itemPrice.signum() != 0) {
+      return new ItemPrice(itemPrice.toPlainString());
+    }
+    return this;
+  }
+
 }
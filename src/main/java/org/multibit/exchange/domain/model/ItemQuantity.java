@@ -11,24 +11,36 @@ import static com.google.common.base.Preconditions.checkArgument;
 /**
  * An item quantity.
  *
+ * <p>Held internally as {@link FixedPoint} units so that arithmetic on the matching hot path
+ * does not allocate intermediate {@link BigDecimal}s or re-parse strings.</p>
+ *
  * @since 0.0.1
- *         
+ *         
  */
 public class ItemQuantity implements Comparable<ItemQuantity>, Serializable {
 
   private static final BigDecimal ZERO = new BigDecimal("0");
 
-  public static final int MAX_PRECISION = 8;
+  public static final int MAX_PRECISION = FixedPoint.SCALE;
 
   private static final BigDecimal MAX_QUANTITY = new BigDecimal("10000000");
 
   private static final BigDecimal MIN_QUANTITY = new BigDecimal("0");
 
-  private final BigDecimal quantity;
+  private static final long MAX_QUANTITY_UNITS = FixedPoint.toUnits(MAX_QUANTITY);
+
+  private static final long MIN_QUANTITY_UNITS = FixedPoint.toUnits(MIN_QUANTITY);
+
+  private final long units;
+
+  /**
+   * Only set when reading a quantity serialized before it was held in units (see {@link #readResolve()})
+   */
+  private BigDecimal quantity;
 
   public ItemQuantity(String itemQuantity) {
     checkArgument(!Strings.isNullOrEmpty(itemQuantity), "quantity must not be null or empty");
-    this.quantity = new BigDecimal(itemQuantity).stripTrailingZeros();
+    BigDecimal quantity = new BigDecimal(itemQuantity).stripTrailingZeros();
 
     checkArgument(quantity.compareTo(ZERO) >= 0,
         "quantity must not be negative, was " + quantity);
@@ -40,14 +52,47 @@ public class ItemQuantity implements Comparable<ItemQuantity>, Serializable {
         "quantity must not be greater than " + MAX_QUANTITY);
     checkArgument(quantity.compareTo(MIN_QUANTITY) >= 0,
         "quantity must be at least " + MIN_QUANTITY);
+
+    this.units = FixedPoint.toUnits(quantity);
+  }
+
+  private ItemQuantity(long units) {
+    // Range checks only - the precision is guaranteed by the representation
+    if (units < 0) {
+      throw new IllegalArgumentException("quantity must not be negative, was " + FixedPoint.toPlainString(units));
+    }
+    if (units > MAX_QUANTITY_UNITS) {
+      throw new IllegalArgumentException("quantity must not be greater than " + MAX_QUANTITY);
+    }
+    if (units < MIN_QUANTITY_UNITS) {
+      throw new IllegalArgumentException("quantity must be at least " + MIN_QUANTITY);
+    }
+    this.units = units;
+  }
+
+  /**
+   * @param units The quantity expressed in {@link FixedPoint} units
+   *
+   * @return A new quantity
+   */
+  public static ItemQuantity fromUnits(long units) {
+    return new ItemQuantity(units);
+  }
+
+  /**
+   * @return The quantity expressed in {@link FixedPoint} units
+   */
+  @JsonIgnore
+  public long getUnits() {
+    return units;
   }
 
   public BigDecimal getQuantity() {
-    return quantity;
+    return FixedPoint.toBigDecimal(units);
   }
 
   public String getRaw() {
-    return quantity.toPlainString();
+    return FixedPoint.toPlainString(units);
   }
 
   private static int getNumberOfDecimalPlaces(BigDecimal bigDecimal) {
@@ -62,36 +107,32 @@ public class ItemQuantity implements Comparable<ItemQuantity>, Serializable {
 
   @Override
   public int compareTo(ItemQuantity o) {
-    return quantity.compareTo(o.quantity);
+    return Long.compare(units, o.units);
   }
 
   public ItemQuantity plus(ItemQuantity that) {
-    // fixme - This immutability looks like it will be inefficient
-    return new ItemQuantity(this.quantity.add(that.quantity).toString());
+    return new ItemQuantity(this.units + that.units);
   }
 
   public ItemQuantity minus(ItemQuantity that) {
-    // fixme - This immutability looks like it will be inefficient
-    return new ItemQuantity(this.quantity.subtract(that.quantity).toString());
+    return new ItemQuantity(this.units - that.units);
   }
 
   public ItemQuantity min(ItemQuantity that) {
-    // fixme - This immutability looks like it will be inefficient
-    return new ItemQuantity(this.quantity.min(that.quantity).toString());
+    return this.units <= that.units ? this : that;
   }
 
   public ItemQuantity max(ItemQuantity that) {
-    // fixme - This immutability looks like it will be inefficient
-    return new ItemQuantity(this.quantity.max(that.quantity).toString());
+    return this.units >= that.units ? this : that;
   }
 
   @JsonIgnore
   public boolean isZero() {
-    return quantity.compareTo(BigDecimal.ZERO) == 0;
+    return units == 0;
   }
 
   public ItemQuantity add(ItemQuantity that) {
-    return new ItemQuantity(this.quantity.add(that.quantity).toString());
+    return plus(that);
   }
 
   @Override
@@ -101,20 +142,30 @@ public class ItemQuantity implements Comparable<ItemQuantity>, Serializable {
 
     ItemQuantity that = (ItemQuantity) o;
 
-    if (!quantity.equals(that.quantity)) return false;
+    if (units != that.units) return false;
 
     return true;
   }
 
   @Override
   public int hashCode() {
-    return quantity.hashCode();
+    return (int) (units ^ (units >>> 32));
   }
 
   @Override
   public String toString() {
     return "itemQuantity{" +
-        "quantity=" + quantity +
+        "quantity=" + getQuantity() +
         '}';
   }
+
+  /**
+   * Quantities serialized before they were held in units carry only their decimal form, which is converted
+   */
+  private Object readResolve() {
+    if (quantity != null) {
+      return new ItemQuantity(quantity.toPlainString());
+    }
+    return this;
+  }
 }
@@ -0,0 +1,57 @@
+package org.multibit.exchange.domain.model;
+
+import java.util.List;
+
+/**
+ * <p>Storage for the resting limit orders on one side of an {@link OrderBook}:</p>
+ * <ul>
+ * <li>Price levels are kept in priority order (best price first)</li>
+ * <li>Implementations are chosen per currency pair when it is registered</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+interface LimitBook {
+
+  Side getSide();
+
+  boolean isEmpty();
+
+  /**
+   * @param price The candidate limit price
+   *
+   * @return True if this book can hold a level at the given price
+   */
+  boolean acceptsPrice(ItemPrice price);
+
+  boolean containsPriceLevel(ItemPrice price);
+
+  /**
+   * @return The best price level, or null if the book is empty
+   */
+  PriceLevel getTopPriceLevel();
+
+  /**
+   * Appends the order to its price level, creating the level if required
+   */
+  void add(LimitOrder order);
+
+  void removeTopPriceLevel();
+
+  /**
+   * Removes a resting order from its price level, removing the level too if it becomes empty
+   */
+  void remove(LimitOrder order);
+
+  /**
+   * @param maxLevels The maximum number of levels to return
+   *
+   * @return Up to maxLevels of the best price levels in priority order
+   */
+  List<PriceLevel> getPriceLevels(int maxLevels);
+
+  /**
+   * @return All resting orders in priority order
+   */
+  List<LimitOrder> getOrders();
+}
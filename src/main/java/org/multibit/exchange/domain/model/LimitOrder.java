@@ -4,8 +4,6 @@ import com.google.common.base.Preconditions;
 import org.joda.time.DateTime;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
 
-import java.math.BigDecimal;
-
 /**
  * <p>A LimitOrder is a type of {@link Order} that may never be executed, but guarantees that if it
  * is executed it will be at the specified limitPrice or better.</p>
@@ -16,15 +14,35 @@ public class LimitOrder extends Order {
 
   private final ItemPrice limitPrice;
 
+  /*
+   * Links maintained by the PriceLevel this order is resting at (null when not resting)
+   */
+  transient PriceLevel priceLevel;
+  transient LimitOrder previousInLevel;
+  transient LimitOrder nextInLevel;
+
   public LimitOrder(OrderId orderId,
                     String broker,
                     Side side,
                     ItemQuantity itemQuantity,
                     Ticker ticker,
                     ItemPrice limitPrice) {
-    super(orderId, broker, side, itemQuantity, ticker, DateTime.now());
+    this(orderId, broker, side, itemQuantity, ticker, limitPrice, DateTime.now());
+  }
+
+  /**
+   * <p>Recreates an order placed at the given time, e.g. when reading it back from storage</p>
+   */
+  public LimitOrder(OrderId orderId,
+                    String broker,
+                    Side side,
+                    ItemQuantity itemQuantity,
+                    Ticker ticker,
+                    ItemPrice limitPrice,
+                    DateTime createdTime) {
+    super(orderId, broker, side, itemQuantity, ticker, createdTime);
 
-    Preconditions.checkArgument(!limitPrice.getBigDecimalPrice().equals(BigDecimal.ZERO),
+    Preconditions.checkArgument(!limitPrice.isZero(),
         "limit price must be greater than zero");
 
     this.limitPrice = limitPrice;
@@ -53,9 +71,9 @@ public class LimitOrder extends Order {
   @Override
   public boolean crossesAt(ItemPrice limitPrice) {
     if (getSide() == Side.BUY) {
-      return getLimitPrice().getBigDecimalPrice().compareTo(limitPrice.getBigDecimalPrice()) >= 0;
+      return getLimitPrice().compareTo(limitPrice) >= 0;
     } else {
-      return getLimitPrice().getBigDecimalPrice().compareTo(limitPrice.getBigDecimalPrice()) <= 0;
+      return getLimitPrice().compareTo(limitPrice) <= 0;
     }
   }
 
@@ -68,6 +86,22 @@ public class LimitOrder extends Order {
     return limitPrice;
   }
 
+  /**
+   * @return A copy of this order which is not resting at any price level
+   */
+  @Override
+  LimitOrder copy() {
+    LimitOrder copy = (LimitOrder) super.copy();
+    copy.unlink();
+    return copy;
+  }
+
+  void unlink() {
+    priceLevel = null;
+    previousInLevel = null;
+    nextInLevel = null;
+  }
+
   @Override
   public String toString() {
     return "Order{" +
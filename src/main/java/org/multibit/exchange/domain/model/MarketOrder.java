@@ -17,7 +17,19 @@ public class MarketOrder extends Order {
                      Side side,
                      ItemQuantity qty,
                      Ticker ticker) {
-    super(id, broker, side, qty, ticker, DateTime.now());
+    this(id, broker, side, qty, ticker, DateTime.now());
+  }
+
+  /**
+   * <p>Recreates an order placed at the given time, e.g. when reading it back from storage</p>
+   */
+  public MarketOrder(OrderId id,
+                     String broker,
+                     Side side,
+                     ItemQuantity qty,
+                     Ticker ticker,
+                     DateTime createdTime) {
+    super(id, broker, side, qty, ticker, createdTime);
   }
 
   @Override
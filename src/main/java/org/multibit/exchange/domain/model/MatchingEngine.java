@@ -2,105 +2,342 @@ package org.multibit.exchange.domain.model;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.axonframework.commandhandling.annotation.CommandHandler;
 import org.axonframework.eventhandling.annotation.EventHandler;
-import org.axonframework.eventsourcing.annotation.AbstractAnnotatedEntity;
+import org.axonframework.eventsourcing.annotation.AbstractAnnotatedAggregateRoot;
+import org.axonframework.eventsourcing.annotation.AggregateIdentifier;
 import org.axonframework.eventsourcing.annotation.EventSourcedMember;
 import org.multibit.exchange.domain.event.LimitOrderAddedToExistingPriceLevelEvent;
 import org.multibit.exchange.domain.event.LimitOrderAddedToNewPriceLevelEvent;
+import org.multibit.exchange.domain.event.MatchingEngineClosedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineCreatedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineMigratedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineReopenedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
 import org.multibit.exchange.domain.event.PriceLevelCompletelyFilledEvent;
+import org.multibit.exchange.domain.event.TopOrderCompletelyFilledEvent;
 import org.multibit.exchange.domain.event.TopOrderPartiallyFilledEvent;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.BatchPlaceOrdersCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CancelOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CloseMatchingEngineCommand;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderFactory;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+
+import java.util.List;
 
 /**
- * <p>MatchingEngine to provide the following to the core domain:</p>
+ * <p>AggregateRoot MatchingEngine to provide the following to the core domain:</p>
  * <ul>
  * <li>Keeps track of buy and sell orders submitted for a single ticker/symbol.</li>
  * <li>Supports Market orders</li>
  * <li>Supports Limit orders</li>
  * <li>When the order book becomes crossed the Matching Engine will execute trades automatically.</li>
+ * <li>Several orders for the pair can be placed atomically in one batch.</li>
+ * <li>Resting limit orders can be cancelled by their id.</li>
+ * <li>The best bid and ask and the depth of each side are available as read-only snapshots.</li>
+ * <li>The engine can be saved to and restored from a compact {@link MatchingEngineSnapshot}.</li>
+ * <li>The engine is closed while its pair is removed, rejecting new orders until it is reopened.</li>
  * </ul>
  *
+ * <p>Each currency pair on an exchange has its own MatchingEngine aggregate, opened by the
+ * {@link MatchingEngineCommandHandler} as the pair is registered with the {@link Exchange}, so that orders for
+ * different pairs are processed concurrently. A pair registered while the Exchange still matched its orders is
+ * given its engine by {@link #migrate(MatchingEngineSnapshot)}.</p>
+ *
  * @since 0.0.1
  */
-public class MatchingEngine extends AbstractAnnotatedEntity {
+public class MatchingEngine extends AbstractAnnotatedAggregateRoot {
+
+  private static final String CANCELLED_BY_REQUEST = "Cancelled by request.";
+
+  @AggregateIdentifier
+  private MatchingEngineId matchingEngineId;
 
   private ExchangeId exchangeId;
 
   private CurrencyPairId currencyPairId;
-  private final CurrencyId baseCurrencyId;
-  private final CurrencyId counterCurrencyId;
+  private CurrencyId baseCurrencyId;
+  private CurrencyId counterCurrencyId;
+  private ItemPrice tickSize;
+
+  /**
+   * Set while the pair is removed from the exchange
+   */
+  private boolean closed;
 
   @EventSourcedMember
-  private final OrderBook buyBook;
+  private OrderBook buyBook;
 
   @EventSourcedMember
-  private final OrderBook sellBook;
+  private OrderBook sellBook;
 
-  public MatchingEngine(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId) {
-    this.exchangeId = exchangeId;
-    this.currencyPairId = currencyPairId;
-    this.baseCurrencyId = baseCurrencyId;
-    this.counterCurrencyId = counterCurrencyId;
-    this.buyBook = new OrderBook(exchangeId, currencyPairId, Side.BUY);
-    this.sellBook = new OrderBook(exchangeId, currencyPairId, Side.SELL);
+  /**
+   * No-arg constructor required by Axon Framework.
+   */
+  @SuppressWarnings("unused")
+  public MatchingEngine() {
   }
 
-  public void acceptOrder(Order originalOrder) {
-    Side side = originalOrder.getSide();
-    OrderBook counterBook = getCounterBook(side);
-    Optional<Order> unmatchedOrderOption = tryMatch(originalOrder, counterBook);
-    if (unmatchedOrderOption.isPresent()) {
-      Order unmatchedOrder = unmatchedOrderOption.get();
-      if (unmatchedOrder.isMarketOrder()) {
-      } else {
-        getBook(side).add(unmatchedOrder);
-      }
+  /*
+   * Create Matching Engine, which the MatchingEngineCommandHandler does as a pair is first registered
+   */
+
+  /**
+   * @param tickSize The minimum price increment of the pair, or null if prices are unrestricted
+   */
+  public MatchingEngine(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize) {
+    apply(new MatchingEngineCreatedEvent(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId, tickSize));
+  }
+
+  /**
+   * The tick size selects a tick-indexed price ladder for both books, or sorted price levels accepting
+   * arbitrary prices if there is none
+   */
+  @EventHandler
+  public void on(MatchingEngineCreatedEvent event) {
+    this.matchingEngineId = event.getMatchingEngineId();
+    this.exchangeId = event.getExchangeId();
+    this.currencyPairId = event.getCurrencyPairId();
+    this.baseCurrencyId = event.getBaseCurrencyId();
+    this.counterCurrencyId = event.getCounterCurrencyId();
+    this.tickSize = event.getTickSize();
+    this.buyBook = new OrderBook(exchangeId, currencyPairId, Side.BUY, tickSize);
+    this.sellBook = new OrderBook(exchangeId, currencyPairId, Side.SELL, tickSize);
+  }
+
+
+  /*
+   * Migrate a pair registered before each pair had its own engine
+   */
+
+  /**
+   * <p>Creates the engine of a pair registered while its orders were still matched by the {@link Exchange}, holding
+   * the orders resting on the pair's books there</p>
+   *
+   * @param legacyBooks The pair and its resting orders, as replaying the Exchange's events for the pair left them
+   *
+   * @return The new engine, with its creation still to be committed
+   */
+  public static MatchingEngine migrate(MatchingEngineSnapshot legacyBooks) {
+    MatchingEngine matchingEngine = new MatchingEngine();
+    matchingEngine.apply(new MatchingEngineMigratedEvent(
+        legacyBooks.getExchangeId(),
+        legacyBooks.getCurrencyPairId(),
+        legacyBooks.getBaseCurrencyId(),
+        legacyBooks.getCounterCurrencyId(),
+        legacyBooks.getTickSize(),
+        legacyBooks.getBuyOrders(),
+        legacyBooks.getSellOrders()));
+    return matchingEngine;
+  }
+
+  @EventHandler
+  public void on(MatchingEngineMigratedEvent event) {
+    this.matchingEngineId = event.getMatchingEngineId();
+    this.exchangeId = event.getExchangeId();
+    this.currencyPairId = event.getCurrencyPairId();
+    this.baseCurrencyId = event.getBaseCurrencyId();
+    this.counterCurrencyId = event.getCounterCurrencyId();
+    this.tickSize = event.getTickSize();
+    this.buyBook = restoreBook(Side.BUY, event.getBuyOrders());
+    this.sellBook = restoreBook(Side.SELL, event.getSellOrders());
+  }
+
+
+  /*
+   * Close and reopen
+   */
+  @CommandHandler
+  @SuppressWarnings("unused")
+  public void close(CloseMatchingEngineCommand command) {
+    if (!closed) {
+      apply(new MatchingEngineClosedEvent(exchangeId, currencyPairId));
     }
   }
 
+  @EventHandler
+  public void on(MatchingEngineClosedEvent event) {
+    closed = true;
+  }
+
   /**
-   * Tries to match an order against the counterBook. Yielding zero or more trades.
+   * <p>Takes orders again on the books as they were when the engine was closed, with the tick size it was created
+   * with</p>
+   */
+  void reopen() {
+    if (closed) {
+      apply(new MatchingEngineReopenedEvent(exchangeId, currencyPairId));
+    }
+  }
+
+  @EventHandler
+  public void on(MatchingEngineReopenedEvent event) {
+    closed = false;
+  }
+
+  /**
+   * @return True if the pair is removed from the exchange, so new orders are rejected
+   */
+  public boolean isClosed() {
+    return closed;
+  }
+
+  private void checkOpen() throws NoSuchCurrencyPairException {
+    if (closed) {
+      throw new NoSuchCurrencyPairException(currencyPairId);
+    }
+  }
+
+
+  /*
+   * Snapshots
+   */
+
+  /**
+   * @return A snapshot of the engine's configuration and resting orders
+   */
+  public MatchingEngineSnapshot createSnapshot() {
+    return new MatchingEngineSnapshot(matchingEngineId, exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId,
+        tickSize, buyBook.getLimitOrders(), sellBook.getLimitOrders(), closed);
+  }
+
+  /**
+   * <p>Restores an engine from a snapshot. The resting orders are added back in priority order, so the engine is
+   * in the state it was in when the snapshot was taken.</p>
    *
-   * @param order       The order.
-   * @param counterBook The counterBook for the order. i.e., If a sell order, the counterBook is the buy book.
-   * @return Unmatched portion of order.
+   * @param snapshot The snapshot, which is left unchanged
+   *
+   * @return A new engine which has applied no events
    */
-  private Optional<Order> tryMatch(Order order, OrderBook counterBook) {
-    Preconditions.checkArgument(!order.getSide().equals(counterBook.getSide()), "order side and counterBook side must not match");
+  public static MatchingEngine fromSnapshot(MatchingEngineSnapshot snapshot) {
+    MatchingEngine matchingEngine = new MatchingEngine();
+    matchingEngine.matchingEngineId = snapshot.getMatchingEngineId();
+    matchingEngine.exchangeId = snapshot.getExchangeId();
+    matchingEngine.currencyPairId = snapshot.getCurrencyPairId();
+    matchingEngine.baseCurrencyId = snapshot.getBaseCurrencyId();
+    matchingEngine.counterCurrencyId = snapshot.getCounterCurrencyId();
+    matchingEngine.tickSize = snapshot.getTickSize();
+    matchingEngine.closed = snapshot.isClosed();
+    matchingEngine.buyBook = matchingEngine.restoreBook(Side.BUY, snapshot.getBuyOrders());
+    matchingEngine.sellBook = matchingEngine.restoreBook(Side.SELL, snapshot.getSellOrders());
+    return matchingEngine;
+  }
+
+  private OrderBook restoreBook(Side side, List<LimitOrder> orders) {
+    OrderBook book = new OrderBook(exchangeId, currencyPairId, side, tickSize);
+    // Books are otherwise registered as they handle their first event
+    book.registerAggregateRoot(this);
+    for (LimitOrder order : orders) {
+      // The book fills its orders in place so it must own a copy
+      book.limitOrderAddedToExistingPriceLevel((LimitOrder) order.copy());
+    }
+    return book;
+  }
 
-    if (order.isFilled()) {
-      return Optional.absent();
+
+  /*
+   * Place Order
+   */
+  @CommandHandler
+  @SuppressWarnings("unused")
+  public void placeOrder(PlaceOrderCommand command) throws NoSuchCurrencyPairException {
+    checkOpen();
+    Order order = OrderFactory.createOrderFromDescriptor(command.getOrderId(), command.getOrderDescriptor());
+    acceptOrder(order);
+  }
+
+
+  /*
+   * Cancel Order, which a closed engine still accepts so resting orders can be withdrawn
+   */
+  @CommandHandler
+  @SuppressWarnings("unused")
+  public void cancelOrder(CancelOrderCommand command) throws NoSuchOrderException {
+    OrderId orderId = command.getOrderId();
+    if (buyBook.containsOrder(orderId)) {
+      buyBook.cancelOrder(orderId, CANCELLED_BY_REQUEST);
+    } else if (sellBook.containsOrder(orderId)) {
+      sellBook.cancelOrder(orderId, CANCELLED_BY_REQUEST);
     } else {
-      Optional<Order> topOrderInCounterBook = counterBook.getTop();
-      if (topOrderInCounterBook.isPresent()) {
-        Order bestCounterOrder = topOrderInCounterBook.get();
-        Optional<Trade> tradeOptional = tryToTrade(order, bestCounterOrder);
-        if (tradeOptional.isPresent()) {
-          Trade trade = tradeOptional.get();
-          counterBook.decreaseTopByTradeQuantity(trade);
-          Order unfilledOrder = order.decreasedBy(trade.getQuantity());
-          return tryMatch(unfilledOrder, counterBook);
-        } else {
-          return Optional.of(order);
-        }
+      throw new NoSuchOrderException(orderId);
+    }
+  }
+
+  /*
+   * Place several orders in one unit of work
+   */
+  @CommandHandler
+  @SuppressWarnings("unused")
+  public void placeOrders(BatchPlaceOrdersCommand command) throws NoSuchCurrencyPairException {
+    checkOpen();
+    List<OrderId> orderIds = command.getOrderIds();
+    List<OrderDescriptor> orderDescriptors = command.getOrderDescriptors();
+
+    // Reject the whole batch before matching if any order is invalid so that no event is applied for it
+    List<Order> orders = Lists.newArrayListWithCapacity(orderDescriptors.size());
+    for (int i = 0; i < orderDescriptors.size(); i++) {
+      Order order = OrderFactory.createOrderFromDescriptor(orderIds.get(i), orderDescriptors.get(i));
+      checkAcceptsPrice(order);
+      orders.add(order);
+    }
+    for (Order order : orders) {
+      acceptOrder(order);
+    }
+  }
+
+  void acceptOrder(Order originalOrder) {
+    Side side = originalOrder.getSide();
+    // Reject before matching so that no trade is applied for an order that cannot rest
+    checkAcceptsPrice(originalOrder);
+    OrderBook counterBook = getCounterBook(side);
+    match(originalOrder, counterBook);
+    if (!originalOrder.isFilled()) {
+      if (originalOrder.isMarketOrder()) {
       } else {
-        return Optional.of(order);
+        getBook(side).add(originalOrder);
       }
     }
   }
 
-  private Optional<Trade> tryToTrade(Order order, Order bestCounterOrder) {
-    if (bestCounterOrder.isLimitOrder()) {
-      LimitOrder bestCounterLimitOrder = (LimitOrder) bestCounterOrder;
-      ItemPrice limitPrice = bestCounterLimitOrder.getLimitPrice();
-      if (order.crossesAt(limitPrice)) {
-        Trade trade = createTrade(order, bestCounterOrder, limitPrice);
-        return Optional.of(trade);
+  private void checkAcceptsPrice(Order order) {
+    if (order.isLimitOrder()) {
+      ItemPrice limitPrice = ((LimitOrder) order).getLimitPrice();
+      Preconditions.checkArgument(getBook(order.getSide()).acceptsPrice(limitPrice), "limit price must be a multiple of the tick size");
+    }
+  }
+
+  /**
+   * Matches an order against the counterBook until it is filled or no longer crosses, yielding zero or more trades.
+   *
+   * <p>The incoming order is filled in place and the resting orders are filled in place by the event handlers,
+   * so no intermediate orders are created per fill.</p>
+   *
+   * @param order       The order, which is left holding its unmatched portion.
+   * @param counterBook The counterBook for the order. i.e., If a sell order, the counterBook is the buy book.
+   */
+  private void match(Order order, OrderBook counterBook) {
+    Preconditions.checkArgument(order.getSide() != counterBook.getSide(), "order side and counterBook side must not match");
+
+    while (!order.isFilled()) {
+      LimitOrder bestCounterOrder = counterBook.peekTop();
+      if (bestCounterOrder == null) {
+        return;
+      }
+      ItemPrice limitPrice = bestCounterOrder.getLimitPrice();
+      if (!order.crossesAt(limitPrice)) {
+        return;
       }
+      Trade trade = createTrade(order, bestCounterOrder, limitPrice);
+      counterBook.decreaseTopByTradeQuantity(trade);
+      order.fill(trade.getQuantity().getUnits());
     }
-    return Optional.absent();
   }
 
   private Trade createTrade(Order order, Order counterOrder, ItemPrice limitPrice) {
@@ -113,9 +350,8 @@ public class MatchingEngine extends AbstractAnnotatedEntity {
       buy = counterOrder;
       sell = order;
     }
-    ItemQuantity buyQuantity = buy.getUnfilledQuantity();
-    ItemQuantity sellQuantity = sell.getUnfilledQuantity();
-    ItemQuantity quantityTraded = buyQuantity.min(sellQuantity);
+    long quantityTradedUnits = Math.min(buy.getUnfilledUnits(), sell.getUnfilledUnits());
+    ItemQuantity quantityTraded = ItemQuantity.fromUnits(quantityTradedUnits);
     return new Trade(currencyPairId, buy.getBroker(), sell.getBroker(), limitPrice, quantityTraded);
   }
 
@@ -124,13 +360,15 @@ public class MatchingEngine extends AbstractAnnotatedEntity {
     LimitOrder order = event.getOrder();
     ItemPrice newPriceLevel = event.getPriceLevel();
 
-    getBook(order.getSide()).limitOrderAddedToNewPriceLevel(newPriceLevel, order);
+    // The book fills its orders in place so it must own a copy rather than the published event payload
+
+    getBook(order.getSide()).limitOrderAddedToNewPriceLevel(newPriceLevel, (LimitOrder) order.copy());
   }
 
   @EventHandler
   private void handle(LimitOrderAddedToExistingPriceLevelEvent event) {
     LimitOrder order = event.getOrder();
-    getBook(order.getSide()).limitOrderAddedToExistingPriceLevel(order);
+    getBook(order.getSide()).limitOrderAddedToExistingPriceLevel((LimitOrder) order.copy());
   }
 
 
@@ -141,6 +379,13 @@ public class MatchingEngine extends AbstractAnnotatedEntity {
     getBook(side).topPriceLevelFilled();
   }
 
+  @EventHandler
+  @SuppressWarnings("unused")
+  private void handle(TopOrderCompletelyFilledEvent event) {
+    Side side = event.getSide();
+    getBook(side).topOrderCompletelyFilled();
+  }
+
   @EventHandler
   @SuppressWarnings("unused")
   private void handle(TopOrderPartiallyFilledEvent event) {
@@ -148,14 +393,66 @@ public class MatchingEngine extends AbstractAnnotatedEntity {
     getBook(side).topOrderPartiallyFilled(event.getTrade().getQuantity());
   }
 
+  @EventHandler
+  @SuppressWarnings("unused")
+  private void handle(OrderCancelledEvent event) {
+    Order order = event.getOrder();
+    // Unfilled market orders never rest so there is nothing to remove
+    if (!order.isLimitOrder()) {
+      return;
+    }
+    getBook(order.getSide()).orderCancelled(order.getId());
+  }
+
+
+  /**
+   * @return A snapshot of the best buy price level, or absent if there are no resting buy orders
+   */
+  public Optional<PriceLevelSnapshot> getBestBid() {
+    return buyBook.getBestPriceLevel();
+  }
+
+  /**
+   * @return A snapshot of the best sell price level, or absent if there are no resting sell orders
+   */
+  public Optional<PriceLevelSnapshot> getBestAsk() {
+    return sellBook.getBestPriceLevel();
+  }
+
+  /**
+   * @param side      The side of the book
+   * @param maxLevels The maximum number of price levels to include
+   *
+   * @return Snapshots of up to maxLevels of the best price levels on that side in priority order
+   */
+  public List<PriceLevelSnapshot> getDepth(Side side, int maxLevels) {
+    return getBook(side).getDepth(maxLevels);
+  }
 
   private OrderBook getCounterBook(Side side) {
     if (side == Side.BUY) return sellBook;
     else return buyBook;
   }
 
-  private OrderBook getBook(Side side) {
+  OrderBook getBook(Side side) {
     if (side == Side.BUY) return buyBook;
     else return sellBook;
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    MatchingEngine matchingEngine = (MatchingEngine) o;
+
+    if (matchingEngineId != null ? !matchingEngineId.equals(matchingEngine.matchingEngineId) : matchingEngine.matchingEngineId != null) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return matchingEngineId != null ? matchingEngineId.hashCode() : 0;
+  }
 }
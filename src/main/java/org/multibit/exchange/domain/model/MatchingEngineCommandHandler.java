@@ -0,0 +1,56 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.base.Preconditions;
+import org.axonframework.commandhandling.annotation.CommandHandler;
+import org.axonframework.eventstore.EventStreamNotFoundException;
+import org.axonframework.repository.AggregateNotFoundException;
+import org.axonframework.repository.Repository;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OpenMatchingEngineCommand;
+
+/**
+ * <p>CommandHandler to provide the following to the domain model:</p>
+ * <ul>
+ * <li>The {@link MatchingEngine} of a newly registered currency pair, created on its first registration</li>
+ * <li>The existing MatchingEngine of a pair registered again after being removed, reopened on its old books</li>
+ * </ul>
+ *
+ * <p>The engine of a pair is identified by its exchange and pair alone, so a pair registered again has to reuse
+ * the engine it had rather than create one under the same identifier.</p>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineCommandHandler {
+
+  private final Repository<MatchingEngine> repository;
+
+  public MatchingEngineCommandHandler(Repository<MatchingEngine> repository) {
+    Preconditions.checkNotNull(repository, "repository must not be null");
+    this.repository = repository;
+  }
+
+  @CommandHandler
+  public void openMatchingEngine(OpenMatchingEngineCommand command) {
+    MatchingEngine matchingEngine = loadIfExists(command);
+    if (matchingEngine == null) {
+      repository.add(new MatchingEngine(
+          command.getExchangeId(),
+          command.getCurrencyPairId(),
+          command.getBaseCurrencyId(),
+          command.getCounterCurrencyId(),
+          command.getTickSize()));
+    } else {
+      matchingEngine.reopen();
+    }
+  }
+
+  /**
+   * Depending on the repository and event store, a pair never registered is reported as either exception
+   */
+  private MatchingEngine loadIfExists(OpenMatchingEngineCommand command) {
+    try {
+      return repository.load(command.getMatchingEngineId());
+    } catch (AggregateNotFoundException | EventStreamNotFoundException e) {
+      return null;
+    }
+  }
+}
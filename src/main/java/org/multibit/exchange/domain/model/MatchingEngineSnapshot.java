@@ -0,0 +1,125 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.collect.ImmutableList;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * <p>An immutable snapshot of a {@link MatchingEngine} to provide the following to the event store:</p>
+ * <ul>
+ * <li>The identity and configuration of the engine</li>
+ * <li>The resting orders of each book in priority order</li>
+ * <li>Whether the engine is closed</li>
+ * </ul>
+ *
+ * <p>Only the resting orders are kept rather than the books themselves, so the snapshot is small and the price
+ * levels and order index are rebuilt as the orders are added back in sequence.</p>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineSnapshot implements Serializable {
+
+  public static final long serialVersionUID = 1L;
+
+  private final MatchingEngineId matchingEngineId;
+
+  private final ExchangeId exchangeId;
+
+  private final CurrencyPairId currencyPairId;
+
+  private final CurrencyId baseCurrencyId;
+
+  private final CurrencyId counterCurrencyId;
+
+  private final ItemPrice tickSize;
+
+  private final List<LimitOrder> buyOrders;
+
+  private final List<LimitOrder> sellOrders;
+
+  private final boolean closed;
+
+  /**
+   * @param tickSize   The tick size of both books, or null if they accept arbitrary prices
+   * @param buyOrders  The resting buy orders in priority order
+   * @param sellOrders The resting sell orders in priority order
+   */
+  public MatchingEngineSnapshot(MatchingEngineId matchingEngineId, ExchangeId exchangeId, CurrencyPairId currencyPairId,
+                                CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize,
+                                List<LimitOrder> buyOrders, List<LimitOrder> sellOrders) {
+    this(matchingEngineId, exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId, tickSize, buyOrders,
+        sellOrders, false);
+  }
+
+  /**
+   * @param tickSize   The tick size of both books, or null if they accept arbitrary prices
+   * @param buyOrders  The resting buy orders in priority order
+   * @param sellOrders The resting sell orders in priority order
+   * @param closed     True if the engine is closed because its pair was removed
+   */
+  public MatchingEngineSnapshot(MatchingEngineId matchingEngineId, ExchangeId exchangeId, CurrencyPairId currencyPairId,
+                                CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize,
+                                List<LimitOrder> buyOrders, List<LimitOrder> sellOrders, boolean closed) {
+    this.matchingEngineId = matchingEngineId;
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+    this.baseCurrencyId = baseCurrencyId;
+    this.counterCurrencyId = counterCurrencyId;
+    this.tickSize = tickSize;
+    this.buyOrders = ImmutableList.copyOf(buyOrders);
+    this.sellOrders = ImmutableList.copyOf(sellOrders);
+    this.closed = closed;
+  }
+
+  public MatchingEngineId getMatchingEngineId() {
+    return matchingEngineId;
+  }
+
+  public ExchangeId getExchangeId() {
+    return exchangeId;
+  }
+
+  public CurrencyPairId getCurrencyPairId() {
+    return currencyPairId;
+  }
+
+  public CurrencyId getBaseCurrencyId() {
+    return baseCurrencyId;
+  }
+
+  public CurrencyId getCounterCurrencyId() {
+    return counterCurrencyId;
+  }
+
+  public ItemPrice getTickSize() {
+    return tickSize;
+  }
+
+  public List<LimitOrder> getBuyOrders() {
+    return buyOrders;
+  }
+
+  public List<LimitOrder> getSellOrders() {
+    return sellOrders;
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public String toString() {
+    return "MatchingEngineSnapshot{" +
+        "matchingEngineId=" + matchingEngineId +
+        ", tickSize=" + tickSize +
+        ", buyOrders=" + buyOrders.size() +
+        ", sellOrders=" + sellOrders.size() +
+        ", closed=" + closed +
+        '}';
+  }
+}
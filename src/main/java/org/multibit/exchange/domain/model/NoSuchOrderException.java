@@ -0,0 +1,15 @@
+package org.multibit.exchange.domain.model;
+
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+
+/**
+ * <p>Exception to indicate that an Order is not resting in any order book.</p>
+ *
+ * @since 0.0.1
+ */
+public class NoSuchOrderException extends Exception {
+
+  public NoSuchOrderException(OrderId orderId) {
+    super("no such order " + orderId);
+  }
+}
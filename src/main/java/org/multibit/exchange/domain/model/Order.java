@@ -21,7 +21,12 @@ public abstract class Order implements Serializable, Cloneable {
 
   private final DateTime createdTime;
 
-  private ItemQuantity filledQuantity = new ItemQuantity("0");
+  private long filledUnits = 0;
+
+  /**
+   * Only set when reading an order serialized before its fill was held in units (see {@link #readResolve()})
+   */
+  private ItemQuantity filledQuantity;
 
   protected Order(OrderId id,
                   String broker,
@@ -53,11 +58,18 @@ public abstract class Order implements Serializable, Cloneable {
   }
 
   public ItemQuantity getFilledQuantity() {
-    return filledQuantity;
+    return ItemQuantity.fromUnits(filledUnits);
   }
 
   public ItemQuantity getUnfilledQuantity() {
-    return initialQuantity.minus(filledQuantity);
+    return ItemQuantity.fromUnits(getUnfilledUnits());
+  }
+
+  /**
+   * @return The unfilled quantity in {@link FixedPoint} units (no allocation)
+   */
+  long getUnfilledUnits() {
+    return initialQuantity.getUnits() - filledUnits;
   }
 
   public abstract boolean isLimitOrder();
@@ -88,16 +100,53 @@ public abstract class Order implements Serializable, Cloneable {
     Preconditions.checkArgument(!quantity.isZero(), "cannot decrease by zero");
     try {
       Order newOrder = (Order) this.clone();
-      newOrder.filledQuantity = filledQuantity.add(quantity);
-      assert (filledQuantity.compareTo(this.initialQuantity) <= 0);
+      newOrder.filledUnits = filledUnits + quantity.getUnits();
+      Preconditions.checkArgument(newOrder.filledUnits <= initialQuantity.getUnits(), "cannot decrease by more than the unfilled quantity");
       return newOrder;
     } catch (CloneNotSupportedException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Fills this order in place (used by the matching engine which owns the order)
+   *
+   * @param units The quantity filled in {@link FixedPoint} units
+   */
+  void fill(long units) {
+    if (units <= 0) {
+      throw new IllegalArgumentException("cannot fill by zero");
+    }
+    if (units > getUnfilledUnits()) {
+      throw new IllegalArgumentException("cannot fill by more than the unfilled quantity");
+    }
+    filledUnits += units;
+  }
+
+  /**
+   * @return A copy of this order which can be filled in place without affecting the original
+   */
+  Order copy() {
+    try {
+      return (Order) this.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   boolean isFilled() {
-    return getUnfilledQuantity().isZero();
+    return getUnfilledUnits() == 0;
+  }
+
+  /**
+   * Orders serialized before their fill was held in units carry it as a quantity, which is converted
+   */
+  protected Object readResolve() {
+    if (filledQuantity != null) {
+      filledUnits = filledQuantity.getUnits();
+      filledQuantity = null;
+    }
+    return this;
   }
 
   @Override
@@ -107,7 +156,7 @@ public abstract class Order implements Serializable, Cloneable {
         ", broker='" + broker + '\'' +
         ", side=" + side +
         ", initialQuantity=" + initialQuantity +
-        ", filledQuantity=" + filledQuantity +
+        ", filledQuantity=" + getFilledQuantity() +
         ", ticker=" + ticker +
         ", createdTime=" + createdTime +
         '}';
@@ -2,7 +2,9 @@ package org.multibit.exchange.domain.model;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import org.axonframework.eventsourcing.annotation.AbstractAnnotatedEntity;
 import org.multibit.exchange.domain.event.LimitOrderAddedToExistingPriceLevelEvent;
 import org.multibit.exchange.domain.event.LimitOrderAddedToNewPriceLevelEvent;
@@ -12,14 +14,22 @@ import org.multibit.exchange.domain.event.TopOrderCompletelyFilledEvent;
 import org.multibit.exchange.domain.event.TopOrderPartiallyFilledEvent;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
 
-import java.util.LinkedList;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.Map;
 
 /**
  * <p>An OrderBook representing a single side of an order book.</p>
  *
+ * <p>Resting limit orders are held by a {@link LimitBook} chosen when the currency pair is registered:
+ * a tick-indexed price ladder if a tick size was given, otherwise a sorted map of price levels.</p>
+ *
+ * <p>Resting orders are also indexed by {@link OrderId} so that a cancel finds and unlinks its order in O(1).</p>
+ *
+ * <p>The best level and the volume and order count of every level are maintained as orders are added, filled
+ * and cancelled, and are read through {@link PriceLevelSnapshot}s without walking any orders.</p>
+ *
  * @since 0.0.1
  */
 public class OrderBook extends AbstractAnnotatedEntity {
@@ -27,13 +37,22 @@ public class OrderBook extends AbstractAnnotatedEntity {
   private final ExchangeId exchangeId;
   private Side side;
 
-  private TreeMap<ItemPrice, LinkedList<LimitOrder>> limitBook;
+  private final LimitBook limitBook;
+
+  private final Map<OrderId, LimitOrder> restingOrders = Maps.newHashMap();
 
   public OrderBook(ExchangeId exchangeId, CurrencyPairId currencyPairId, Side side) {
+    this(exchangeId, currencyPairId, side, null);
+  }
+
+  /**
+   * @param tickSize The minimum price increment, or null to allow arbitrary prices
+   */
+  public OrderBook(ExchangeId exchangeId, CurrencyPairId currencyPairId, Side side, ItemPrice tickSize) {
     this.exchangeId = exchangeId;
     Preconditions.checkArgument(side != null, "side must not be null");
     this.side = side;
-    limitBook = new TreeMap<>(PricedItemComparator.forSide(this.side));
+    limitBook = (tickSize == null) ? new TreeMapLimitBook(side) : new TickLadderLimitBook(side, tickSize);
   }
 
   public Side getSide() {
@@ -50,12 +69,12 @@ public class OrderBook extends AbstractAnnotatedEntity {
   }
 
   protected void addMarketOrder(MarketOrder order) {
-    apply(new OrderCancelledEvent(order, "Unfilled market order cancelled."));
+    apply(new OrderCancelledEvent(exchangeId, order, "Unfilled market order cancelled."));
   }
 
   protected void addLimitOrder(LimitOrder order) {
     ItemPrice limitPrice = order.getLimitPrice();
-    if (limitBook.containsKey(limitPrice)) {
+    if (limitBook.containsPriceLevel(limitPrice)) {
       addLimitOrderToExistingPriceLevel(order, limitPrice);
     } else {
       addLimitOrderToNewPriceLevel(order, limitPrice);
@@ -70,25 +89,84 @@ public class OrderBook extends AbstractAnnotatedEntity {
     apply(new LimitOrderAddedToExistingPriceLevelEvent(exchangeId, order, priceLevel));
   }
 
+  /**
+   * @param price The candidate limit price
+   *
+   * @return True if a limit order at this price can rest in this book (e.g. it is on a tick boundary)
+   */
+  public boolean acceptsPrice(ItemPrice price) {
+    return limitBook.acceptsPrice(price);
+  }
+
+  public boolean containsOrder(OrderId orderId) {
+    return restingOrders.containsKey(orderId);
+  }
+
+  /**
+   * Cancels a resting limit order, leaving its removal from the book to the event handler
+   *
+   * @param orderId The id of an order resting in this book
+   * @param reason  The reason for the cancellation
+   */
+  public void cancelOrder(OrderId orderId, String reason) {
+    LimitOrder order = restingOrders.get(orderId);
+    Preconditions.checkArgument(order != null, "order must be resting in this book");
+
+    // The event carries a snapshot since the resting order would otherwise go on being filled in place
+    apply(new OrderCancelledEvent(exchangeId, order.copy(), reason));
+  }
+
   public List<Order> getOrders() {
-    List<Order> orders = Lists.newLinkedList();
-    for (ItemPrice limit : limitBook.keySet()) {
-      orders.addAll(limitBook.get(limit));
-    }
-    return orders;
+    return Lists.<Order>newLinkedList(limitBook.getOrders());
+  }
+
+  /**
+   * @return The resting orders in priority order
+   */
+  List<LimitOrder> getLimitOrders() {
+    return limitBook.getOrders();
+  }
+
+  /**
+   * @return The best resting order, or null if the book is empty (no allocation)
+   */
+  LimitOrder peekTop() {
+    PriceLevel topPriceLevel = limitBook.getTopPriceLevel();
+    return topPriceLevel == null ? null : topPriceLevel.peekFirst();
   }
 
   public Optional<Order> getTop() {
-    if (!limitBook.isEmpty()) {
-      List<LimitOrder> topLimitOrders = getTopLimitOrders();
-      if (!topLimitOrders.isEmpty()) {
-        return Optional.of((Order) topLimitOrders.get(0));
-      }
+    PriceLevel topPriceLevel = limitBook.getTopPriceLevel();
+    if (topPriceLevel != null && !topPriceLevel.isEmpty()) {
+      return Optional.of((Order) topPriceLevel.peekFirst());
     }
 
     return Optional.absent();
   }
 
+  /**
+   * @return A snapshot of the best price level, or absent if the book is empty
+   */
+  public Optional<PriceLevelSnapshot> getBestPriceLevel() {
+    PriceLevel topPriceLevel = limitBook.getTopPriceLevel();
+    return topPriceLevel == null ? Optional.<PriceLevelSnapshot>absent() : Optional.of(PriceLevelSnapshot.of(topPriceLevel));
+  }
+
+  /**
+   * @param maxLevels The maximum number of price levels to include
+   *
+   * @return Snapshots of up to maxLevels of the best price levels in priority order
+   */
+  public List<PriceLevelSnapshot> getDepth(int maxLevels) {
+    Preconditions.checkArgument(maxLevels >= 0, "maxLevels must not be negative");
+
+    ImmutableList.Builder<PriceLevelSnapshot> depth = ImmutableList.builder();
+    for (PriceLevel level : limitBook.getPriceLevels(maxLevels)) {
+      depth.add(PriceLevelSnapshot.of(level));
+    }
+    return depth.build();
+  }
+
   public void decreaseTopByTradeQuantity(Trade trade) {
     ItemQuantity quantity = trade.getQuantity();
     Preconditions.checkNotNull(quantity, "quantity must not be null");
@@ -105,17 +183,17 @@ public class OrderBook extends AbstractAnnotatedEntity {
 
   private void decreaseTopOfLimitBookByTradeQuantity(Trade trade) {
     ItemQuantity quantityToDecreaseBy = trade.getQuantity();
-    ItemPrice topPriceLevel = getTopPriceLevel();
-    LinkedList<LimitOrder> topLimitOrders = limitBook.get(topPriceLevel);
+    PriceLevel topLevel = limitBook.getTopPriceLevel();
+    ItemPrice topPriceLevel = topLevel.getPrice();
 
-    if (!topLimitOrders.isEmpty()) {
-      LimitOrder topLimitOrder = topLimitOrders.peek();
+    if (!topLevel.isEmpty()) {
+      LimitOrder topLimitOrder = topLevel.peekFirst();
 
-      int newUnfilledQuantity = topLimitOrder.getUnfilledQuantity().compareTo(quantityToDecreaseBy);
-      Preconditions.checkState(newUnfilledQuantity >= 0, "cannot decrease top of orderbook by more than available quantity");
+      long newUnfilledUnits = topLimitOrder.getUnfilledUnits() - quantityToDecreaseBy.getUnits();
+      Preconditions.checkState(newUnfilledUnits >= 0, "cannot decrease top of orderbook by more than available quantity");
 
-      boolean orderCompletelyFilled = newUnfilledQuantity == 0;
-      boolean priceLevelCompletelyFilled = topLimitOrders.size() == 1;
+      boolean orderCompletelyFilled = newUnfilledUnits == 0;
+      boolean priceLevelCompletelyFilled = topLevel.size() == 1;
       if (orderCompletelyFilled) {
 
         if (priceLevelCompletelyFilled) {
@@ -138,15 +216,6 @@ public class OrderBook extends AbstractAnnotatedEntity {
     apply(new TopOrderCompletelyFilledEvent(exchangeId, side, priceLevel, trade));
   }
 
-  private ItemPrice getTopPriceLevel() {
-    return limitBook.firstKey();
-  }
-
-  private LinkedList<LimitOrder> getTopLimitOrders() {
-    ItemPrice topPriceLevel = getTopPriceLevel();
-    return limitBook.get(topPriceLevel);
-  }
-
   private void priceLevelCompletelyFilled(ItemPrice priceLevel, Trade trade) {
     Preconditions.checkArgument(priceLevel.equals(trade.getPrice()), "priceLevel and trade price must match");
 
@@ -164,23 +233,33 @@ public class OrderBook extends AbstractAnnotatedEntity {
   }
 
   public void topPriceLevelFilled() {
-    limitBook.remove(getTopPriceLevel());
+    restingOrders.remove(limitBook.getTopPriceLevel().peekFirst().getId());
+    limitBook.removeTopPriceLevel();
+  }
+
+  public void topOrderCompletelyFilled() {
+    LimitOrder filledOrder = limitBook.getTopPriceLevel().removeFirst();
+    restingOrders.remove(filledOrder.getId());
   }
 
   public void topOrderPartiallyFilled(ItemQuantity quantity) {
-    LinkedList<LimitOrder> topLimitOrders = getTopLimitOrders();
-    LimitOrder topLimitOrder = topLimitOrders.removeFirst();
-    topLimitOrders.addFirst((LimitOrder) topLimitOrder.decreasedBy(quantity));
+    limitBook.getTopPriceLevel().fillFirst(quantity.getUnits());
   }
 
   public void limitOrderAddedToNewPriceLevel(ItemPrice newPriceLevel, LimitOrder order) {
-    LinkedList<LimitOrder> orders = Lists.newLinkedList();
-    orders.add(order);
-    limitBook.put(newPriceLevel, orders);
+    limitBook.add(order);
+    restingOrders.put(order.getId(), order);
   }
 
   public void limitOrderAddedToExistingPriceLevel(LimitOrder order) {
-    limitBook.get(order.getLimitPrice()).add(order);
+    limitBook.add(order);
+    restingOrders.put(order.getId(), order);
+  }
+
+  public void orderCancelled(OrderId orderId) {
+    LimitOrder order = restingOrders.remove(orderId);
+    Preconditions.checkState(order != null, "cancelled order is not resting in this book");
+    limitBook.remove(order);
   }
 }
 
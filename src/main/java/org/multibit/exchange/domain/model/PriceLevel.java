@@ -0,0 +1,147 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>A single price level within a {@link LimitBook}:</p>
+ * <ul>
+ * <li>Holds the resting {@link LimitOrder}s at one price in time priority</li>
+ * <li>The orders are linked to each other directly (an intrusive doubly-linked list) so that any order
+ * can be removed in O(1) however deep the level is</li>
+ * <li>The total unfilled volume and the order count are kept up to date as orders are added, filled and
+ * removed, so depth never has to be summed over the orders</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+class PriceLevel {
+
+  private final ItemPrice price;
+
+  private LimitOrder first;
+
+  private LimitOrder last;
+
+  private int size;
+
+  private long volumeUnits;
+
+  PriceLevel(ItemPrice price) {
+    this.price = price;
+  }
+
+  ItemPrice getPrice() {
+    return price;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return The total unfilled quantity of the orders at this level in {@link FixedPoint} units
+   */
+  long getVolumeUnits() {
+    return volumeUnits;
+  }
+
+  LimitOrder peekFirst() {
+    return first;
+  }
+
+  void add(LimitOrder order) {
+    Preconditions.checkArgument(order.priceLevel == null, "order is already resting at a price level");
+
+    order.priceLevel = this;
+    order.previousInLevel = last;
+    order.nextInLevel = null;
+    if (last == null) {
+      first = order;
+    } else {
+      last.nextInLevel = order;
+    }
+    last = order;
+    size++;
+    volumeUnits += order.getUnfilledUnits();
+  }
+
+  /**
+   * Fills the first order in place
+   *
+   * @param units The quantity filled in {@link FixedPoint} units
+   */
+  void fillFirst(long units) {
+    if (first == null) {
+      throw new NoSuchElementException();
+    }
+    first.fill(units);
+    volumeUnits -= units;
+  }
+
+  LimitOrder removeFirst() {
+    if (first == null) {
+      throw new NoSuchElementException();
+    }
+    LimitOrder order = first;
+    remove(order);
+    return order;
+  }
+
+  /**
+   * Unlinks an order resting at this level
+   */
+  void remove(LimitOrder order) {
+    Preconditions.checkArgument(order.priceLevel == this, "order is not resting at this price level");
+
+    LimitOrder previous = order.previousInLevel;
+    LimitOrder next = order.nextInLevel;
+    if (previous == null) {
+      first = next;
+    } else {
+      previous.nextInLevel = next;
+    }
+    if (next == null) {
+      last = previous;
+    } else {
+      next.previousInLevel = previous;
+    }
+    order.unlink();
+    size--;
+    volumeUnits -= order.getUnfilledUnits();
+  }
+
+  /**
+   * Unlinks every order, leaving the level empty
+   */
+  void clear() {
+    LimitOrder order = first;
+    while (order != null) {
+      LimitOrder next = order.nextInLevel;
+      order.unlink();
+      order = next;
+    }
+    first = null;
+    last = null;
+    size = 0;
+    volumeUnits = 0;
+  }
+
+  /**
+   * @return A copy of the orders at this level in time priority
+   */
+  List<LimitOrder> getOrders() {
+    List<LimitOrder> orders = Lists.newArrayListWithCapacity(size);
+    for (LimitOrder order = first; order != null; order = order.nextInLevel) {
+      orders.add(order);
+    }
+    return orders;
+  }
+}
@@ -0,0 +1,77 @@
+package org.multibit.exchange.domain.model;
+
+import java.io.Serializable;
+
+/**
+ * <p>An immutable summary of one price level of an {@link OrderBook}:</p>
+ * <ul>
+ * <li>The price of the level</li>
+ * <li>The total unfilled quantity resting at that price</li>
+ * <li>The number of orders resting at that price</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class PriceLevelSnapshot implements Serializable {
+
+  public static final long serialVersionUID = 1L;
+
+  private final ItemPrice price;
+
+  private final ItemQuantity volume;
+
+  private final int orderCount;
+
+  public PriceLevelSnapshot(ItemPrice price, ItemQuantity volume, int orderCount) {
+    this.price = price;
+    this.volume = volume;
+    this.orderCount = orderCount;
+  }
+
+  static PriceLevelSnapshot of(PriceLevel level) {
+    return new PriceLevelSnapshot(level.getPrice(), ItemQuantity.fromUnits(level.getVolumeUnits()), level.size());
+  }
+
+  public ItemPrice getPrice() {
+    return price;
+  }
+
+  public ItemQuantity getVolume() {
+    return volume;
+  }
+
+  public int getOrderCount() {
+    return orderCount;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    PriceLevelSnapshot that = (PriceLevelSnapshot) o;
+
+    if (orderCount != that.orderCount) return false;
+    if (price != null ? !price.equals(that.price) : that.price != null) return false;
+    if (volume != null ? !volume.equals(that.volume) : that.volume != null) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = price != null ? price.hashCode() : 0;
+    result = 31 * result + (volume != null ? volume.hashCode() : 0);
+    result = 31 * result + orderCount;
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "PriceLevelSnapshot{" +
+        "price=" + price +
+        ", volume=" + volume +
+        ", orderCount=" + orderCount +
+        '}';
+  }
+}
@@ -14,4 +14,14 @@ public class PricedItemComparator {
   public static Comparator<PricedItem> forSide(Side side) {
     return (side == Side.BUY) ? BUY_SIDE_COMPARATOR : SELL_SIDE_COMPARATOR;
   }
+
+  /**
+   * Compares in ascending price order, using {@link FixedPoint} units where both items are {@link ItemPrice}s.
+   */
+  static int compareAscending(PricedItem o1, PricedItem o2) {
+    if (o1 instanceof ItemPrice && o2 instanceof ItemPrice) {
+      return ((ItemPrice) o1).compareTo((ItemPrice) o2);
+    }
+    return o1.getBigDecimalPrice().compareTo(o2.getBigDecimalPrice());
+  }
 }
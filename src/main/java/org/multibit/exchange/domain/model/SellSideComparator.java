@@ -7,6 +7,6 @@ class SellSideComparator implements Comparator<PricedItem>, Serializable {
 
   @Override
   public int compare(PricedItem o1, PricedItem o2) {
-    return o1.getBigDecimalPrice().compareTo(o2.getBigDecimalPrice());
+    return PricedItemComparator.compareAscending(o1, o2);
   }
 }
@@ -0,0 +1,246 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>A {@link LimitBook} to provide the following to an {@link OrderBook}:</p>
+ * <ul>
+ * <li>A tick-size price ladder held in a circular array indexed by price offset from the best price</li>
+ * <li>O(1) adds, top of book, top level removal and order removal for dense books</li>
+ * <li>Levels further than the ladder capacity from the best price are parked in an overflow map
+ * and moved onto the ladder as the best price approaches them</li>
+ * </ul>
+ *
+ * <p>Prices are converted to a key in ticks where a lower key is always a better price
+ * (buy side keys are negated) so that both sides share the same ladder arithmetic.</p>
+ *
+ * @since 0.0.1
+ */
+class TickLadderLimitBook implements LimitBook {
+
+  /**
+   * The default number of ticks covered by the ladder (must be a power of 2)
+   */
+  static final int DEFAULT_CAPACITY = 4096;
+
+  private final Side side;
+
+  private final long tickUnits;
+
+  private final PriceLevel[] ladder;
+
+  private final int mask;
+
+  /**
+   * Levels beyond the ladder window keyed by tick key (only populated when the ladder is not empty)
+   */
+  private final TreeMap<Long, PriceLevel> overflow = Maps.newTreeMap();
+
+  /**
+   * The key of the best level, valid only when ladderLevelCount > 0
+   */
+  private long bestKey;
+
+  private int ladderLevelCount;
+
+  TickLadderLimitBook(Side side, ItemPrice tickSize) {
+    this(side, tickSize, DEFAULT_CAPACITY);
+  }
+
+  TickLadderLimitBook(Side side, ItemPrice tickSize, int capacity) {
+    Preconditions.checkArgument(side != null, "side must not be null");
+    Preconditions.checkArgument(tickSize != null && tickSize.isRepresentableInUnits() && !tickSize.isZero(),
+        "tick size must be greater than zero");
+    Preconditions.checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of 2");
+
+    this.side = side;
+    this.tickUnits = tickSize.getUnits();
+    this.ladder = new PriceLevel[capacity];
+    this.mask = capacity - 1;
+  }
+
+  @Override
+  public Side getSide() {
+    return side;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return ladderLevelCount == 0;
+  }
+
+  @Override
+  public boolean acceptsPrice(ItemPrice price) {
+    return price.isRepresentableInUnits() && price.getUnits() % tickUnits == 0;
+  }
+
+  @Override
+  public boolean containsPriceLevel(ItemPrice price) {
+    long key = toKey(price);
+    if (isWithinLadder(key)) {
+      return ladder[slot(key)] != null;
+    }
+    return overflow.containsKey(key);
+  }
+
+  @Override
+  public PriceLevel getTopPriceLevel() {
+    return ladderLevelCount == 0 ? null : ladder[slot(bestKey)];
+  }
+
+  @Override
+  public void add(LimitOrder order) {
+    ItemPrice price = order.getLimitPrice();
+    long key = toKey(price);
+
+    if (ladderLevelCount == 0) {
+      bestKey = key;
+    } else if (key < bestKey) {
+      shiftBestKeyTo(key);
+    }
+
+    if (isWithinLadder(key)) {
+      int slot = slot(key);
+      PriceLevel level = ladder[slot];
+      if (level == null) {
+        level = new PriceLevel(price);
+        ladder[slot] = level;
+        ladderLevelCount++;
+      }
+      level.add(order);
+    } else {
+      PriceLevel level = overflow.get(key);
+      if (level == null) {
+        level = new PriceLevel(price);
+        overflow.put(key, level);
+      }
+      level.add(order);
+    }
+  }
+
+  @Override
+  public void removeTopPriceLevel() {
+    Preconditions.checkState(ladderLevelCount > 0, "No top price level in empty book.");
+
+    int topSlot = slot(bestKey);
+    ladder[topSlot].clear();
+    ladder[topSlot] = null;
+    ladderLevelCount--;
+
+    if (ladderLevelCount > 0) {
+      // The next best level is guaranteed to be within the ladder window
+      long key = bestKey + 1;
+      while (ladder[slot(key)] == null) {
+        key++;
+      }
+      bestKey = key;
+    } else if (!overflow.isEmpty()) {
+      bestKey = overflow.firstKey();
+    }
+    drainOverflowIntoLadder();
+  }
+
+  @Override
+  public void remove(LimitOrder order) {
+    PriceLevel level = order.priceLevel;
+    Preconditions.checkArgument(level != null, "order is not resting in this book");
+
+    level.remove(order);
+    if (level.isEmpty()) {
+      if (level == getTopPriceLevel()) {
+        removeTopPriceLevel();
+      } else {
+        long key = toKey(level.getPrice());
+        if (isWithinLadder(key)) {
+          ladder[slot(key)] = null;
+          ladderLevelCount--;
+        } else {
+          overflow.remove(key);
+        }
+      }
+    }
+  }
+
+  @Override
+  public List<PriceLevel> getPriceLevels(int maxLevels) {
+    List<PriceLevel> priceLevels = Lists.newArrayListWithCapacity(Math.min(maxLevels, ladderLevelCount + overflow.size()));
+    int ladderLevelsSeen = 0;
+    for (long key = bestKey; ladderLevelsSeen < ladderLevelCount && priceLevels.size() < maxLevels; key++) {
+      PriceLevel level = ladder[slot(key)];
+      if (level != null) {
+        priceLevels.add(level);
+        ladderLevelsSeen++;
+      }
+    }
+    for (PriceLevel level : overflow.values()) {
+      if (priceLevels.size() == maxLevels) {
+        break;
+      }
+      priceLevels.add(level);
+    }
+    return priceLevels;
+  }
+
+  @Override
+  public List<LimitOrder> getOrders() {
+    List<LimitOrder> orders = Lists.newLinkedList();
+    if (ladderLevelCount > 0) {
+      for (long key = bestKey; key < bestKey + ladder.length; key++) {
+        PriceLevel level = ladder[slot(key)];
+        if (level != null) {
+          orders.addAll(level.getOrders());
+        }
+      }
+    }
+    for (PriceLevel level : overflow.values()) {
+      orders.addAll(level.getOrders());
+    }
+    return orders;
+  }
+
+  /**
+   * Moves the window so that it starts at a better key, parking any levels that fall off the far end
+   */
+  private void shiftBestKeyTo(long newBestKey) {
+    long oldWindowEnd = bestKey + ladder.length;
+    long newWindowEnd = newBestKey + ladder.length;
+    for (long key = Math.max(newWindowEnd, bestKey); key < oldWindowEnd; key++) {
+      int slot = slot(key);
+      PriceLevel level = ladder[slot];
+      if (level != null) {
+        overflow.put(key, level);
+        ladder[slot] = null;
+        ladderLevelCount--;
+      }
+    }
+    bestKey = newBestKey;
+  }
+
+  private void drainOverflowIntoLadder() {
+    while (!overflow.isEmpty() && isWithinLadder(overflow.firstKey())) {
+      Map.Entry<Long, PriceLevel> entry = overflow.pollFirstEntry();
+      ladder[slot(entry.getKey())] = entry.getValue();
+      ladderLevelCount++;
+    }
+  }
+
+  private boolean isWithinLadder(long key) {
+    return key >= bestKey && key < bestKey + ladder.length;
+  }
+
+  private int slot(long key) {
+    return (int) (key & mask);
+  }
+
+  private long toKey(ItemPrice price) {
+    Preconditions.checkArgument(acceptsPrice(price), "price must be a multiple of the tick size");
+    long ticks = price.getUnits() / tickUnits;
+    return side == Side.BUY ? -ticks : ticks;
+  }
+}
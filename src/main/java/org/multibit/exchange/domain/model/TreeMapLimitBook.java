@@ -0,0 +1,115 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * <p>A {@link LimitBook} to provide the following to an {@link OrderBook}:</p>
+ * <ul>
+ * <li>Price levels sorted by a side-specific comparator (O(log n) per level operation)</li>
+ * <li>Arbitrary prices with no tick size restriction</li>
+ * <li>O(1) removal of an order from within a level, O(log n) if that empties the level</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+class TreeMapLimitBook implements LimitBook {
+
+  private final Side side;
+
+  private final TreeMap<ItemPrice, PriceLevel> levels;
+
+  private PriceLevel topPriceLevel;
+
+  TreeMapLimitBook(Side side) {
+    Preconditions.checkArgument(side != null, "side must not be null");
+    this.side = side;
+    this.levels = new TreeMap<>(PricedItemComparator.forSide(side));
+  }
+
+  @Override
+  public Side getSide() {
+    return side;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return levels.isEmpty();
+  }
+
+  @Override
+  public boolean acceptsPrice(ItemPrice price) {
+    return true;
+  }
+
+  @Override
+  public boolean containsPriceLevel(ItemPrice price) {
+    return levels.containsKey(price);
+  }
+
+  @Override
+  public PriceLevel getTopPriceLevel() {
+    return topPriceLevel;
+  }
+
+  @Override
+  public void add(LimitOrder order) {
+    ItemPrice price = order.getLimitPrice();
+    PriceLevel level = levels.get(price);
+    if (level == null) {
+      level = new PriceLevel(price);
+      levels.put(price, level);
+      if (topPriceLevel == null || levels.comparator().compare(price, topPriceLevel.getPrice()) < 0) {
+        topPriceLevel = level;
+      }
+    }
+    level.add(order);
+  }
+
+  @Override
+  public void removeTopPriceLevel() {
+    Preconditions.checkState(topPriceLevel != null, "No top price level in empty book.");
+    levels.remove(topPriceLevel.getPrice());
+    topPriceLevel.clear();
+    topPriceLevel = levels.isEmpty() ? null : levels.get(levels.firstKey());
+  }
+
+  @Override
+  public void remove(LimitOrder order) {
+    PriceLevel level = order.priceLevel;
+    Preconditions.checkArgument(level != null, "order is not resting in this book");
+
+    level.remove(order);
+    if (level.isEmpty()) {
+      if (level == topPriceLevel) {
+        removeTopPriceLevel();
+      } else {
+        levels.remove(level.getPrice());
+      }
+    }
+  }
+
+  @Override
+  public List<PriceLevel> getPriceLevels(int maxLevels) {
+    List<PriceLevel> priceLevels = Lists.newArrayListWithCapacity(Math.min(maxLevels, levels.size()));
+    for (PriceLevel level : levels.values()) {
+      if (priceLevels.size() == maxLevels) {
+        break;
+      }
+      priceLevels.add(level);
+    }
+    return priceLevels;
+  }
+
+  @Override
+  public List<LimitOrder> getOrders() {
+    List<LimitOrder> orders = Lists.newLinkedList();
+    for (PriceLevel level : levels.values()) {
+      orders.addAll(level.getOrders());
+    }
+    return orders;
+  }
+}
@@ -0,0 +1,155 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.lifecycle.Managed;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Histogram;
+import org.atmosphere.cpr.Broadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Broadcaster to provide the following to the streams:</p>
+ * <ul>
+ * <li>Messages sent to a channel within one batch window, broadcast together as a single JSON array frame</li>
+ * <li>Serialization of each frame once, with the same text written to every client of the channel</li>
+ * </ul>
+ *
+ * <p>A batch is sent when its window ends, or sooner once it holds the maximum number of messages, so the trades
+ * of an order sweeping the book reach clients as one frame rather than one per trade. Channels nobody has
+ * subscribed to, or whose clients have all gone while the channel waits to be destroyed as idle, are dropped
+ * without being serialized.</p>
+ *
+ * @since 0.0.1
+ */
+public class BatchingBroadcaster implements Managed {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchingBroadcaster.class);
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private final int maxBatchSize;
+
+  private final ScheduledExecutorService flusher;
+
+  private final Histogram batchSizes;
+
+  /**
+   * Held while a drained batch is broadcast, so the frames of a channel cannot overtake one another
+   */
+  private final Object flushLock = new Object();
+
+  /**
+   * The messages waiting for the end of the window, by channel in the order they were first sent to
+   */
+  private Map<String, List<Object>> pending = Maps.newLinkedHashMap();
+
+  private int pendingCount;
+
+  /**
+   * @param name              The name of the batching in the metrics, such as <code>trades</code>
+   * @param batchWindowMillis How long a message waits for others to join its frame
+   * @param maxBatchSize      The most messages held before they are sent without waiting for the window
+   */
+  public BatchingBroadcaster(String name, long batchWindowMillis, int maxBatchSize) {
+    Preconditions.checkArgument(batchWindowMillis > 0, "batchWindowMillis must be greater than zero");
+    Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be greater than zero");
+
+    this.maxBatchSize = maxBatchSize;
+    this.batchSizes = Metrics.newHistogram(BatchingBroadcaster.class, "batch-size", name, true);
+
+    flusher = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat(name + "-batch-%d").setDaemon(true).build());
+    flusher.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          flush();
+        } catch (RuntimeException e) {
+          LOGGER.error("Could not broadcast a batch", e);
+        }
+      }
+    }, batchWindowMillis, batchWindowMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void start() throws Exception {
+  }
+
+  @Override
+  public void stop() throws Exception {
+    flusher.shutdown();
+    flush();
+  }
+
+  /**
+   * <p>Adds a message to the next frame of a channel</p>
+   */
+  public void add(String channel, Object message) {
+    boolean full;
+    synchronized (this) {
+      List<Object> messages = pending.get(channel);
+      if (messages == null) {
+        messages = Lists.newArrayList();
+        pending.put(channel, messages);
+      }
+      messages.add(message);
+      full = ++pendingCount >= maxBatchSize;
+    }
+    if (full) {
+      flush();
+    }
+  }
+
+  /**
+   * <p>Broadcasts a frame to each channel with pending messages and a client</p>
+   *
+   * @return The number of frames broadcast
+   */
+  public int flush() {
+    synchronized (flushLock) {
+      int frames = 0;
+      for (Map.Entry<String, List<Object>> batch : drain().entrySet()) {
+        Broadcaster broadcaster = BroadcastHelper.lookupIfSubscribed(batch.getKey());
+        if (broadcaster != null && !broadcaster.getAtmosphereResources().isEmpty()) {
+          batchSizes.update(batch.getValue().size());
+          BroadcastHelper.broadcastJson(broadcaster, frame(batch.getValue()));
+          frames++;
+        }
+      }
+      return frames;
+    }
+  }
+
+  /**
+   * @return The pending messages by channel, which are no longer pending
+   */
+  synchronized Map<String, List<Object>> drain() {
+    Map<String, List<Object>> batches = pending;
+    pending = Maps.newLinkedHashMap();
+    pendingCount = 0;
+    return batches;
+  }
+
+  /**
+   * @return The messages as one JSON array
+   */
+  static String frame(List<Object> messages) {
+    try {
+      return JSON.writeValueAsString(messages);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize " + messages.size() + " messages", e);
+    }
+  }
+}
@@ -1,26 +1,207 @@
 package org.multibit.exchange.infrastructure.adaptor.atmosphere;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Maps;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Histogram;
+import com.yammer.metrics.core.MetricName;
+import org.atmosphere.cache.DefaultBroadcasterCache;
 import org.atmosphere.cpr.Broadcaster;
 import org.atmosphere.cpr.BroadcasterFactory;
-import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.atmosphere.cpr.BroadcasterLifeCyclePolicy;
+import org.atmosphere.cpr.BroadcasterLifeCyclePolicyListener;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Utility to make it easier to work with Broadcasters.</p>
  *
+ * <p>Besides the global <code>/trades</code> channel, each currency pair on each exchange has its own trades and
+ * market depth and ticker channels. A pair's channel is created when its first client subscribes and destroyed once it has
+ * been idle for {@link #IDLE_CHANNEL_MINUTES}, so changes to pairs nobody is watching cost nothing to publish. The
+ * number of clients each message reaches is recorded per channel.</p>
+ *
+ * <p>Each message is serialized once and sent as a frame numbered per channel, which the
+ * {@link SequencedBroadcasterCache} keeps to replay to reconnecting clients. Ticker channels replay nothing, as
+ * a client only ever needs the latest ticker.</p>
+ *
  * @since 0.0.1
  */
 public class BroadcastHelper {
 
-  public static final BroadcasterFactory FACTORY = BroadcasterFactory.getDefault();
+  private static final ObjectMapper JSON = new ObjectMapper();
 
   public static final String TRADES_CHANNEL = "/trades";
 
+  /**
+   * How long a currency pair channel is kept without a client
+   */
+  public static final int IDLE_CHANNEL_MINUTES = 5;
+
+  private static final BroadcasterLifeCyclePolicy IDLE_DESTROY = new BroadcasterLifeCyclePolicy.Builder()
+      .policy(BroadcasterLifeCyclePolicy.ATMOSPHERE_RESOURCE_POLICY.IDLE_DESTROY)
+      .idleTime(IDLE_CHANNEL_MINUTES, TimeUnit.MINUTES)
+      .build();
+
+  /**
+   * The fan-out of each channel, by channel
+   */
+  private static final ConcurrentMap<String, Histogram> FAN_OUTS = Maps.newConcurrentMap();
+
   public static Broadcaster getTradeBroadcaster() {
-    return FACTORY.lookup(TRADES_CHANNEL, true);
+    return BroadcasterFactory.getDefault().lookup(TRADES_CHANNEL, true);
+  }
+
+  /**
+   * @param currencyPairId The currency pair identifier, such as <code>BTC/USD</code>
+   *
+   * @return The channel of the trades of a currency pair on an exchange
+   */
+  public static String tradesChannel(String exchangeId, String currencyPairId) {
+    return "/exchanges/" + exchangeId + "/pairs/" + currencyPairId + "/trades";
+  }
+
+  /**
+   * @param currencyPairId The currency pair identifier, such as <code>BTC/USD</code>
+   *
+   * @return The channel of the market depth changes of a currency pair on an exchange
+   */
+  public static String depthChannel(String exchangeId, String currencyPairId) {
+    return "/exchanges/" + exchangeId + "/pairs/" + currencyPairId + "/depth";
+  }
+
+  /**
+   * @param currencyPairId The currency pair identifier, such as <code>BTC/USD</code>
+   *
+   * @return The channel of the ticker of a currency pair on an exchange
+   */
+  public static String tickerChannel(String exchangeId, String currencyPairId) {
+    return "/exchanges/" + exchangeId + "/pairs/" + currencyPairId + "/ticker";
+  }
+
+  /**
+   * @return The broadcaster of the trades of a currency pair, created if it does not exist
+   */
+  public static Broadcaster getTradeBroadcaster(String exchangeId, String currencyPairId) {
+    return getPairBroadcaster(tradesChannel(exchangeId, currencyPairId), true);
+  }
+
+  /**
+   * @return The broadcaster of the market depth changes of a currency pair, created if it does not exist
+   */
+  public static Broadcaster getDepthBroadcaster(String exchangeId, String currencyPairId) {
+    return getPairBroadcaster(depthChannel(exchangeId, currencyPairId), true);
+  }
+
+  /**
+   * @return The broadcaster of the ticker of a currency pair, created if it does not exist
+   */
+  public static Broadcaster getTickerBroadcaster(String exchangeId, String currencyPairId) {
+    return getPairBroadcaster(tickerChannel(exchangeId, currencyPairId), false);
   }
 
-  public static void broadcastTrade(TradeExecutedEvent event) {
-    getTradeBroadcaster().broadcast(event);
+  /**
+   * <p>Broadcasts to a channel only if a client has created it, and not before Atmosphere has started</p>
+   */
+  public static void broadcastIfSubscribed(String channel, Object message) {
+    Broadcaster broadcaster = lookupIfSubscribed(channel);
+    if (broadcaster != null) {
+      broadcast(broadcaster, message);
+    }
   }
 
+  /**
+   * @return The broadcaster of a channel if a client has created it, otherwise null
+   */
+  static Broadcaster lookupIfSubscribed(String channel) {
+    BroadcasterFactory factory = BroadcasterFactory.getDefault();
+    return (factory == null) ? null : factory.lookup(channel, false);
+  }
+
+  /**
+   * <p>Creates and configures a channel as one step, so clients subscribing at the same time share one
+   * broadcaster with one policy and one listener. Replay is disabled before the channel exists, so no frame is
+   * numbered before it.</p>
+   *
+   * @param cached False to keep no messages for reconnecting clients, rather than the configured cache
+   */
+  private static synchronized Broadcaster getPairBroadcaster(String channel, boolean cached) {
+    BroadcasterFactory factory = BroadcasterFactory.getDefault();
+    Broadcaster broadcaster = factory.lookup(channel, false);
+    if (broadcaster == null) {
+      if (!cached) {
+        SequencedBroadcasterCache.disableReplay(channel);
+      }
+      broadcaster = factory.lookup(channel, true);
+      if (!cached) {
+        broadcaster.getBroadcasterConfig().setBroadcasterCache(new DefaultBroadcasterCache());
+      }
+      broadcaster.setBroadcasterLifeCyclePolicy(IDLE_DESTROY);
+      broadcaster.addBroadcasterLifeCyclePolicyListener(new ReleaseOnDestroy(channel));
+    }
+    return broadcaster;
+  }
+
+  static void broadcast(Broadcaster broadcaster, Object message) {
+    try {
+      broadcastJson(broadcaster, JSON.writeValueAsString(message));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize " + message, e);
+    }
+  }
+
+  /**
+   * @param json A message already serialized, sent as the data of the next frame of the channel
+   */
+  static void broadcastJson(Broadcaster broadcaster, String json) {
+    fanOut(broadcaster.getID()).update(broadcaster.getAtmosphereResources().size());
+    broadcaster.broadcast(SequencedBroadcasterCache.append(broadcaster.getID(), json));
+  }
+
+  private static Histogram fanOut(String channel) {
+    Histogram fanOut = FAN_OUTS.get(channel);
+    if (fanOut == null) {
+      Histogram created = Metrics.newHistogram(fanOutName(channel), true);
+      fanOut = FAN_OUTS.putIfAbsent(channel, created);
+      if (fanOut == null) {
+        fanOut = created;
+      }
+    }
+    return fanOut;
+  }
+
+  static MetricName fanOutName(String channel) {
+    return new MetricName(BroadcastHelper.class, "fan-out", channel);
+  }
+
+  /**
+   * Removes the fan-out and kept frames of a destroyed channel, so nothing is held for pairs nobody watches any
+   * more
+   */
+  private static class ReleaseOnDestroy implements BroadcasterLifeCyclePolicyListener {
+
+    private final String channel;
+
+    private ReleaseOnDestroy(String channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public void onEmpty() {
+    }
+
+    @Override
+    public void onIdle() {
+    }
+
+    @Override
+    public void onDestroy() {
+      if (FAN_OUTS.remove(channel) != null) {
+        Metrics.defaultRegistry().removeMetric(fanOutName(channel));
+      }
+      SequencedBroadcasterCache.release(channel);
+    }
+  }
 }
@@ -0,0 +1,198 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.mongodb.DB;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.annotation.AnnotationEventListenerAdapter;
+import org.axonframework.eventhandling.annotation.EventHandler;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoMarketDepthRepository;
+import org.multibit.exchange.presentation.model.marketdepth.DepthData;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthDelta;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthProjection;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthSnapshot;
+import org.multibit.exchange.presentation.model.ticker.TickerPresentationModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.Map;
+
+/**
+ * <p>Atmosphere/WebSocket stream to provide the following to clients watching market depth:</p>
+ * <ul>
+ * <li>A {@link MarketDepthDelta} for every price level an event changes, numbered in sequence per currency pair</li>
+ * <li>Snapshots of a currency pair's market depth, with the sequence number each one reflects</li>
+ * <li>The top of book and last trade of each currency pair to the {@link TickerStream}</li>
+ * </ul>
+ *
+ * <p>The market depths are held in memory, read once from Mongo when the stream is created and changed by the
+ * same projection as the read model builders from then on. Deltas and snapshots both come from that state, so a
+ * snapshot's sequence number always matches the deltas it includes, however far Mongo lags behind.</p>
+ *
+ * @since 0.0.1
+ */
+public class MarketDepthStream {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MarketDepthStream.class);
+
+  /**
+   * The market depths with their sequence numbers, by exchange and currency pair
+   */
+  private final Map<String, SequencedDepth> depths = Maps.newHashMap();
+
+  private final TickerStream tickers;
+
+  @Inject
+  public MarketDepthStream(DB mongoDb, EventBus eventBus, TickerStream tickers) {
+    this(new MongoMarketDepthRepository(mongoDb).findAll(), eventBus, tickers);
+  }
+
+  /**
+   * @param marketDepths The market depths before any event the stream handles
+   */
+  public MarketDepthStream(Iterable<MarketDepthPresentationModel> marketDepths, EventBus eventBus, TickerStream tickers) {
+    this.tickers = tickers;
+    for (MarketDepthPresentationModel marketDepth : marketDepths) {
+      SequencedDepth depth = new SequencedDepth(marketDepth);
+      depths.put(key(marketDepth.getExchangeId(), marketDepth.getCurrencyPairId()), depth);
+      tickers.update(depth.ticker());
+    }
+    LOGGER.debug("streaming deltas of {} market depths", depths.size());
+
+    AnnotationEventListenerAdapter.subscribe(this, eventBus);
+  }
+
+  @EventHandler
+  public synchronized void handle(CurrencyPairRegisteredEvent event) {
+    MarketDepthPresentationModel marketDepth = MarketDepthProjection.newMarketDepth(event);
+    SequencedDepth depth = new SequencedDepth(marketDepth);
+    depths.put(key(marketDepth.getExchangeId(), marketDepth.getCurrencyPairId()), depth);
+    tickers.update(depth.ticker());
+  }
+
+  @EventHandler
+  public synchronized void handle(LimitOrderAddedEvent event) {
+    SequencedDepth depth = depth(event.getExchangeId().getIdentifier(), event.getOrder().getTicker().getSymbol());
+    if (depth != null) {
+      MarketDepthProjection.apply(depth, event);
+      tickers.update(depth.ticker());
+    }
+  }
+
+  @EventHandler
+  public synchronized void handle(TradeExecutedEvent event) {
+    SequencedDepth depth = depth(event.getExchangeId().getIdentifier(), event.getTrade().getCurrencyPairId().getIdentifier());
+    if (depth != null) {
+      MarketDepthProjection.apply(depth, event);
+      depth.traded(event.getTrade().getPrice().getRaw(), event.getTrade().getQuantity().getRaw());
+      tickers.update(depth.ticker());
+    }
+  }
+
+  @EventHandler
+  public synchronized void handle(OrderCancelledEvent event) {
+    SequencedDepth depth = depth(event.getExchangeId().getIdentifier(), event.getOrder().getTicker().getSymbol());
+    if (depth != null) {
+      MarketDepthProjection.apply(depth, event);
+      tickers.update(depth.ticker());
+    }
+  }
+
+  /**
+   * @return A copy of the market depth with the sequence number of the last delta it includes, or null if the
+   * currency pair is not registered
+   */
+  public synchronized MarketDepthSnapshot snapshot(String exchangeId, String currencyPairId) {
+    SequencedDepth depth = depths.get(key(exchangeId, currencyPairId));
+    return (depth == null) ? null : depth.snapshot();
+  }
+
+  private SequencedDepth depth(String exchangeId, String currencyPairId) {
+    SequencedDepth depth = depths.get(key(exchangeId, currencyPairId));
+    if (depth == null) {
+      LOGGER.warn("No market depth for {} on {}, not streaming its changes", currencyPairId, exchangeId);
+    }
+    return depth;
+  }
+
+  private static String key(String exchangeId, String currencyPairId) {
+    return exchangeId + ":" + currencyPairId;
+  }
+
+  /**
+   * <p>The market depth and last trade of one currency pair, broadcasting each change to its volume at a price</p>
+   */
+  private static class SequencedDepth implements MarketDepthProjection.DepthChanges {
+
+    private final MarketDepthPresentationModel marketDepth;
+
+    private final String channel;
+
+    private long sequence;
+
+    private String lastPrice;
+
+    private String lastQuantity;
+
+    private SequencedDepth(MarketDepthPresentationModel marketDepth) {
+      this.marketDepth = marketDepth;
+      this.channel = BroadcastHelper.depthChannel(marketDepth.getExchangeId(), marketDepth.getCurrencyPairId());
+    }
+
+    @Override
+    public void increaseVolumeAtPrice(Side side, String price, String volume) {
+      depthData(side).increaseVolumeAtPrice(price, volume);
+      changed(side, price);
+    }
+
+    @Override
+    public void decreaseVolumeAtPrice(Side side, String price, String volume) {
+      depthData(side).decreaseVolumeAtPrice(price, volume);
+      changed(side, price);
+    }
+
+    private void changed(Side side, String price) {
+      sequence++;
+      BroadcastHelper.broadcastIfSubscribed(channel, new MarketDepthDelta(marketDepth.getExchangeId(),
+          marketDepth.getCurrencyPairId(), sequence, side, price, depthData(side).getVolumeAtPrice(price)));
+    }
+
+    private void traded(String price, String quantity) {
+      lastPrice = price;
+      lastQuantity = quantity;
+    }
+
+    private TickerPresentationModel ticker() {
+      return new TickerPresentationModel(marketDepth.getExchangeId(), marketDepth.getCurrencyPairId(),
+          best(Side.BUY), best(Side.SELL), lastPrice, lastQuantity);
+    }
+
+    /**
+     * The price levels of each side are ordered best first
+     */
+    private String best(Side side) {
+      ItemPrice best = Iterables.getFirst(depthData(side).getPriceLevels(), null);
+      return (best == null) ? null : best.getRaw();
+    }
+
+    private MarketDepthSnapshot snapshot() {
+      MarketDepthPresentationModel copy = new MarketDepthPresentationModel(
+          marketDepth.getId(), marketDepth.getExchangeId(), marketDepth.getCurrencyPairId());
+      copy.getBidDepthData().setPriceVolumeList(marketDepth.getBidDepthData().getPriceVolumeList());
+      copy.getAskDepthData().setPriceVolumeList(marketDepth.getAskDepthData().getPriceVolumeList());
+      return new MarketDepthSnapshot(sequence, copy);
+    }
+
+    private DepthData depthData(Side side) {
+      return (side == Side.BUY) ? marketDepth.getBidDepthData() : marketDepth.getAskDepthData();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.base.Preconditions;
+import org.atmosphere.annotation.Suspend;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.multibit.exchange.domain.model.Currency;
+import org.multibit.exchange.domain.model.CurrencyPair;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthSnapshot;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * <p>StreamResource to provide the following to the public REST API:</p>
+ * <ul>
+ * <li>A stream of the market depth deltas of one currency pair on one exchange.</li>
+ * <li>A snapshot of the market depth, with the sequence number of the last delta it includes.</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+@Path("/exchanges/{exchangeId}/pairs/{base}/{counter}/depth")
+@Produces("application/json")
+public class MarketDepthStreamResource {
+
+  /**
+   * Atmosphere instantiates its own resources, so the stream is handed over when the application starts
+   */
+  private static volatile MarketDepthStream marketDepthStream;
+
+  public static void setMarketDepthStream(MarketDepthStream marketDepthStream) {
+    MarketDepthStreamResource.marketDepthStream = marketDepthStream;
+  }
+
+  @Suspend(contentType = MediaType.APPLICATION_JSON)
+  @GET
+  public String suspend(
+      @PathParam("exchangeId") String exchangeId,
+      @PathParam("base") String baseCurrencySymbol,
+      @PathParam("counter") String counterCurrencySymbol,
+      @Context AtmosphereResource resource) {
+    resource.setBroadcaster(BroadcastHelper.getDepthBroadcaster(exchangeId, tickerSymbol(baseCurrencySymbol, counterCurrencySymbol)));
+    return "";
+  }
+
+  @GET
+  @Path("/snapshot")
+  public MarketDepthSnapshot getSnapshot(
+      @PathParam("exchangeId") String exchangeId,
+      @PathParam("base") String baseCurrencySymbol,
+      @PathParam("counter") String counterCurrencySymbol) {
+    Preconditions.checkState(marketDepthStream != null, "the market depth stream has not been set");
+    MarketDepthSnapshot snapshot = marketDepthStream.snapshot(exchangeId, tickerSymbol(baseCurrencySymbol, counterCurrencySymbol));
+    if (snapshot == null) {
+      throw new WebApplicationException(Response.Status.NOT_FOUND);
+    }
+    return snapshot;
+  }
+
+  private static String tickerSymbol(String baseCurrencySymbol, String counterCurrencySymbol) {
+    return new CurrencyPair(new Currency(baseCurrencySymbol), new Currency(counterCurrencySymbol)).getTicker().getSymbol();
+  }
+}
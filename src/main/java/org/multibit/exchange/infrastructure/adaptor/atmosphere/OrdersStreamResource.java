@@ -0,0 +1,239 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.atmosphere.annotation.Suspend;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResourceEvent;
+import org.atmosphere.cpr.AtmosphereResourceEventListenerAdapter;
+import org.atmosphere.cpr.AtmosphereResponse;
+import org.axonframework.commandhandling.CommandExecutionException;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.web.config.ErrorInfo;
+import org.multibit.exchange.service.AsyncExchangeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>StreamResource to provide the following to the public REST API:</p>
+ * <ul>
+ * <li>Order placement which does not hold a request thread while the order is processed.</li>
+ * </ul>
+ *
+ * <p>The response is suspended and the order submitted through the {@link AsyncExchangeService}. The command
+ * bus thread which completes the order then writes the response and resumes it, so thousands of orders can be in
+ * flight on a handful of threads. Errors are reported with the same status and body as the blocking resources.</p>
+ *
+ * <p>A response still suspended after {@link #ORDER_TIMEOUT_SECONDS} is resumed with 504 Gateway Timeout. Its
+ * order was not confirmed in time but may still be placed, so the client should check before submitting again.</p>
+ *
+ * @since 0.0.1
+ */
+@Path("/exchanges/{exchangeId}/orders")
+public class OrdersStreamResource {
+
+  private static Logger LOGGER = LoggerFactory.getLogger(OrdersStreamResource.class);
+
+  /**
+   * How long an order response stays suspended, far longer than an order takes unless the command bus is stuck
+   */
+  static final int ORDER_TIMEOUT_SECONDS = 5;
+
+  /**
+   * Atmosphere instantiates its own resources, so these are handed over when the application starts
+   */
+  private static volatile AsyncExchangeService exchangeService;
+
+  private static volatile ObjectMapper objectMapper;
+
+  private static volatile ExceptionMapper<RuntimeException> exceptionMapper;
+
+  /**
+   * @param exchangeService The service to submit orders through
+   * @param objectMapper    The application's mapper, to write responses as the blocking resources do
+   * @param exceptionMapper The application's exception mapper, to report errors as the blocking resources do
+   */
+  public static void configure(
+      AsyncExchangeService exchangeService,
+      ObjectMapper objectMapper,
+      ExceptionMapper<RuntimeException> exceptionMapper) {
+    Preconditions.checkNotNull(exchangeService, "exchangeService must not be null");
+    Preconditions.checkNotNull(objectMapper, "objectMapper must not be null");
+    Preconditions.checkNotNull(exceptionMapper, "exceptionMapper must not be null");
+    OrdersStreamResource.exchangeService = exchangeService;
+    OrdersStreamResource.objectMapper = objectMapper;
+    OrdersStreamResource.exceptionMapper = exceptionMapper;
+  }
+
+  /**
+   * <p>Places an order, responding with its id once it has been accepted by the matching engine</p>
+   *
+   * @param exchangeId      The exchange to place the order on
+   * @param orderDescriptor The order details
+   */
+  @POST
+  @Suspend(period = ORDER_TIMEOUT_SECONDS, timeUnit = TimeUnit.SECONDS, contentType = MediaType.APPLICATION_JSON)
+  @Consumes(MediaType.APPLICATION_JSON)
+  public void placeOrder(
+      @PathParam("exchangeId") final String exchangeId,
+      final OrderDescriptor orderDescriptor,
+      @Context AtmosphereResource resource) {
+    final OrderId orderId = new OrderId();
+    resource.addEventListener(new ResumeOnCompletion(resource, orderId.getIdentifier()) {
+      @Override
+      ListenableFuture<Void> submit() {
+        return getExchangeService().placeOrder(new ExchangeId(exchangeId), orderId, orderDescriptor);
+      }
+    });
+  }
+
+  /**
+   * <p>Places several orders for one currency pair atomically, responding with their ids in the same sequence</p>
+   *
+   * @param exchangeId       The exchange to place the orders on
+   * @param orderDescriptors The order details, all for the same currency pair
+   */
+  @POST
+  @Suspend(period = ORDER_TIMEOUT_SECONDS, timeUnit = TimeUnit.SECONDS, contentType = MediaType.APPLICATION_JSON)
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Path("/batch")
+  public void placeOrders(
+      @PathParam("exchangeId") final String exchangeId,
+      final List<OrderDescriptor> orderDescriptors,
+      @Context AtmosphereResource resource) {
+    final List<OrderId> orderIds = Lists.newArrayList();
+    List<String> identifiers = Lists.newArrayList();
+    int orderCount = (orderDescriptors == null) ? 0 : orderDescriptors.size();
+    for (int i = 0; i < orderCount; i++) {
+      OrderId orderId = new OrderId();
+      orderIds.add(orderId);
+      identifiers.add(orderId.getIdentifier());
+    }
+    resource.addEventListener(new ResumeOnCompletion(resource, identifiers) {
+      @Override
+      ListenableFuture<Void> submit() {
+        Preconditions.checkArgument(orderDescriptors != null && !orderDescriptors.isEmpty(), "orders must not be null or empty");
+        return getExchangeService().placeOrders(new ExchangeId(exchangeId), orderIds, orderDescriptors);
+      }
+    });
+  }
+
+  private static AsyncExchangeService getExchangeService() {
+    Preconditions.checkState(exchangeService != null, "the exchange service has not been set");
+    return exchangeService;
+  }
+
+  private static ObjectMapper getObjectMapper() {
+    Preconditions.checkState(objectMapper != null, "the object mapper has not been set");
+    return objectMapper;
+  }
+
+  private static ExceptionMapper<RuntimeException> getExceptionMapper() {
+    Preconditions.checkState(exceptionMapper != null, "the exception mapper has not been set");
+    return exceptionMapper;
+  }
+
+  /**
+   * <p>Submits once the response is suspended (so it cannot complete before the suspension) and writes
+   * the outcome when the submission completes, or the timeout if the suspension expires first. Only the first
+   * of the two is written.</p>
+   */
+  abstract static class ResumeOnCompletion extends AtmosphereResourceEventListenerAdapter implements FutureCallback<Void> {
+
+    private final AtmosphereResource resource;
+
+    private final Object successEntity;
+
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    ResumeOnCompletion(AtmosphereResource resource, Object successEntity) {
+      this.resource = resource;
+      this.successEntity = successEntity;
+    }
+
+    abstract ListenableFuture<Void> submit();
+
+    @Override
+    public void onSuspend(AtmosphereResourceEvent event) {
+      ListenableFuture<Void> future;
+      try {
+        future = submit();
+      } catch (RuntimeException e) {
+        onFailure(e);
+        return;
+      }
+      Futures.addCallback(future, this);
+    }
+
+    @Override
+    public void onSuccess(Void result) {
+      resume(Response.Status.OK.getStatusCode(), successEntity);
+    }
+
+    @Override
+    public void onFailure(Throwable cause) {
+      RuntimeException exception = (cause instanceof RuntimeException)
+          ? (RuntimeException) cause
+          : new CommandExecutionException(cause.getMessage(), cause);
+      Response response = getExceptionMapper().toResponse(exception);
+      resume(response.getStatus(), response.getEntity());
+    }
+
+    @Override
+    public void onResume(AtmosphereResourceEvent event) {
+      if (event.isResumedOnTimeout() && completed.compareAndSet(false, true)) {
+        LOGGER.warn("order {} was not confirmed within {}s", successEntity, ORDER_TIMEOUT_SECONDS);
+        write(HttpServletResponse.SC_GATEWAY_TIMEOUT, new ErrorInfo(
+            TimeoutException.class,
+            "The order was not confirmed within " + ORDER_TIMEOUT_SECONDS + "s and may still be placed",
+            "",
+            null));
+      }
+    }
+
+    private void resume(int status, Object entity) {
+      if (!completed.compareAndSet(false, true)) {
+        // Already resumed on timeout
+        return;
+      }
+      try {
+        write(status, entity);
+      } finally {
+        resource.resume();
+      }
+    }
+
+    private void write(int status, Object entity) {
+      try {
+        AtmosphereResponse response = resource.getResponse();
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON);
+        response.getWriter().write(getObjectMapper().writeValueAsString(entity));
+        response.flushBuffer();
+      } catch (IOException e) {
+        LOGGER.warn("could not write the order response", e);
+      }
+    }
+  }
+}
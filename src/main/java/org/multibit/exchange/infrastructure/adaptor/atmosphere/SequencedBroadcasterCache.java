@@ -0,0 +1,247 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.atmosphere.cache.BroadcastMessage;
+import org.atmosphere.cache.BroadcasterCacheInspector;
+import org.atmosphere.cache.CacheMessage;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.BroadcasterCache;
+import org.atmosphere.cpr.BroadcasterConfig;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>BroadcasterCache to provide the following to reconnecting clients:</p>
+ * <ul>
+ * <li>Exactly the frames of a channel broadcast after the <code>lastSeq</code> request parameter</li>
+ * <li>A resync frame when some of those have already been overwritten, so the client reloads its state</li>
+ * </ul>
+ *
+ * <p>Every frame is numbered per channel as it is broadcast (see {@link #append(String, String)}) and kept,
+ * already serialized, in a ring bounded both by a number of frames and by their total size (see
+ * {@link #setCapacity(int, int)}), whichever is reached first. A batched trade frame can be a thousand times the
+ * size of a single trade, so the frame count alone does not bound memory. The frames are held once per channel
+ * rather than once per client, and nothing is held for a client that has gone, so memory stays flat however many
+ * clients connect or reconnect. A client connecting without <code>lastSeq</code> is sent nothing from the
+ * cache.</p>
+ *
+ * @since 0.0.1
+ */
+public class SequencedBroadcasterCache implements BroadcasterCache {
+
+  /**
+   * The request parameter holding the sequence number of the last frame a client received
+   */
+  public static final String LAST_SEQ_PARAMETER = "lastSeq";
+
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  public static final int DEFAULT_CAPACITY_BYTES = 1024 * 1024;
+
+  /**
+   * The frames of each channel, by channel
+   */
+  private static final ConcurrentMap<String, Ring> RINGS = Maps.newConcurrentMap();
+
+  private static volatile int capacity = DEFAULT_CAPACITY;
+
+  private static volatile int capacityBytes = DEFAULT_CAPACITY_BYTES;
+
+  /**
+   * <p>Bounds the frames kept per channel, applied to channels created from now on. The newest frame is always
+   * kept, so a channel holds at most the larger of capacityBytes and its newest frame.</p>
+   *
+   * @param capacity      The most frames kept per channel
+   * @param capacityBytes The most characters of serialized frames kept per channel, which is their size on the wire
+   *                      for ASCII JSON. Java strings take about twice that in the heap.
+   */
+  public static void setCapacity(int capacity, int capacityBytes) {
+    Preconditions.checkArgument(capacity > 0, "capacity must be greater than zero");
+    Preconditions.checkArgument(capacityBytes > 0, "capacityBytes must be greater than zero");
+    SequencedBroadcasterCache.capacity = capacity;
+    SequencedBroadcasterCache.capacityBytes = capacityBytes;
+  }
+
+  /**
+   * <p>Numbers a message as the next frame of a channel and keeps it for reconnecting clients</p>
+   *
+   * @param json The message, already serialized
+   *
+   * @return The frame to broadcast, <code>{"seq":n,"data":json}</code>
+   */
+  public static String append(String channel, String json) {
+    return ring(channel).append(json);
+  }
+
+  /**
+   * <p>Numbers the frames of a channel without keeping them, for channels whose clients only need the latest</p>
+   */
+  public static void disableReplay(String channel) {
+    RINGS.put(channel, new Ring(0, 0));
+  }
+
+  /**
+   * <p>Drops the frames and numbering of a destroyed channel</p>
+   */
+  public static void release(String channel) {
+    RINGS.remove(channel);
+  }
+
+  /**
+   * @return The frames after lastSeq, or a single resync frame if they are no longer all kept
+   */
+  static List<Object> since(String channel, long lastSeq) {
+    Ring ring = RINGS.get(channel);
+    if (ring == null) {
+      return (lastSeq == 0) ? Collections.emptyList() : ImmutableList.<Object>of(resync(0));
+    }
+    return ring.since(lastSeq);
+  }
+
+  @Override
+  public List<Object> retrieveFromCache(String broadcasterId, AtmosphereResource resource) {
+    String lastSeq = resource.getRequest().getParameter(LAST_SEQ_PARAMETER);
+    if (lastSeq == null) {
+      return Collections.emptyList();
+    }
+    try {
+      return since(broadcasterId, Long.parseLong(lastSeq));
+    } catch (NumberFormatException e) {
+      return since(broadcasterId, -1);
+    }
+  }
+
+  /**
+   * Frames are kept by {@link #append(String, String)} as they are broadcast, not per client
+   */
+  @Override
+  public CacheMessage addToCache(String broadcasterId, AtmosphereResource resource, BroadcastMessage message) {
+    return null;
+  }
+
+  @Override
+  public void clearCache(String broadcasterId, AtmosphereResource resource, CacheMessage message) {
+  }
+
+  @Override
+  public void excludeFromCache(String broadcasterId, AtmosphereResource resource) {
+  }
+
+  @Override
+  public BroadcasterCache inspector(BroadcasterCacheInspector inspector) {
+    return this;
+  }
+
+  @Override
+  public void start() {
+  }
+
+  @Override
+  public void stop() {
+  }
+
+  @Override
+  public void cleanup() {
+  }
+
+  @Override
+  public void configure(BroadcasterConfig config) {
+  }
+
+  private static Ring ring(String channel) {
+    Ring ring = RINGS.get(channel);
+    if (ring == null) {
+      Ring created = new Ring(capacity, capacityBytes);
+      ring = RINGS.putIfAbsent(channel, created);
+      if (ring == null) {
+        ring = created;
+      }
+    }
+    return ring;
+  }
+
+  /**
+   * The client continues from seq once it has reloaded its state
+   */
+  private static String resync(long seq) {
+    return "{\"seq\":" + seq + ",\"resync\":true}";
+  }
+
+  /**
+   * <p>The last frames of one channel, each at its sequence number modulo the capacity</p>
+   */
+  private static class Ring {
+
+    private final String[] frames;
+
+    private final int capacityBytes;
+
+    /**
+     * The sequence number of the newest frame, zero before the first
+     */
+    private long last;
+
+    /**
+     * The sequence number of the oldest frame kept, one after the newest when none is kept
+     */
+    private long oldest = 1;
+
+    /**
+     * The total length of the frames kept
+     */
+    private long bytes;
+
+    private Ring(int capacity, int capacityBytes) {
+      this.frames = new String[capacity];
+      this.capacityBytes = capacityBytes;
+    }
+
+    private synchronized String append(String json) {
+      last++;
+      String frame = "{\"seq\":" + last + ",\"data\":" + json + "}";
+      if (frames.length == 0) {
+        oldest = last + 1;
+        return frame;
+      }
+      if (last - oldest == frames.length) {
+        dropOldest();
+      }
+      frames[slot(last)] = frame;
+      bytes += frame.length();
+      while (bytes > capacityBytes && oldest < last) {
+        dropOldest();
+      }
+      return frame;
+    }
+
+    private void dropOldest() {
+      int slot = slot(oldest);
+      bytes -= frames[slot].length();
+      frames[slot] = null;
+      oldest++;
+    }
+
+    /**
+     * A lastSeq after the newest frame means the channel has been recreated since, so the client resyncs too
+     */
+    private synchronized List<Object> since(long lastSeq) {
+      if (lastSeq > last || lastSeq < oldest - 1) {
+        return ImmutableList.<Object>of(resync(last));
+      }
+      List<Object> missed = Lists.newArrayListWithCapacity((int) (last - lastSeq));
+      for (long seq = lastSeq + 1; seq <= last; seq++) {
+        missed.add(frames[slot(seq)]);
+      }
+      return missed;
+    }
+
+    private int slot(long seq) {
+      return (int) (seq % frames.length);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.lifecycle.Managed;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import org.multibit.exchange.presentation.model.ticker.TickerPresentationModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Atmosphere/WebSocket stream to provide the following to clients watching tickers:</p>
+ * <ul>
+ * <li>The latest {@link TickerPresentationModel} of each currency pair, at most once per publish interval</li>
+ * <li>The latest ticker again to each new client, so it does not wait for the next change</li>
+ * </ul>
+ *
+ * <p>Tickers are conflated: an update only replaces the latest ticker of its currency pair, and a publish sends
+ * whatever is latest for each pair that changed since the one before. However fast the order book moves, each
+ * ticker channel carries at most one message per interval, and a slow client is never more than one value
+ * behind.</p>
+ *
+ * @since 0.0.1
+ */
+public class TickerStream implements Managed {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TickerStream.class);
+
+  /**
+   * The latest ticker, by channel
+   */
+  private final ConcurrentMap<String, TickerPresentationModel> latest = Maps.newConcurrentMap();
+
+  /**
+   * The channels whose latest ticker has not been published yet
+   */
+  private final Set<String> changed = Sets.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  private final ScheduledExecutorService publisher;
+
+  private final Meter updates = Metrics.newMeter(TickerStream.class, "updates", "tickers", TimeUnit.SECONDS);
+
+  private final Meter published = Metrics.newMeter(TickerStream.class, "published", "tickers", TimeUnit.SECONDS);
+
+  /**
+   * @param publishIntervalMillis How often the changed tickers are published
+   */
+  public TickerStream(long publishIntervalMillis) {
+    Preconditions.checkArgument(publishIntervalMillis > 0, "publishIntervalMillis must be greater than zero");
+
+    publisher = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("ticker-publish-%d").setDaemon(true).build());
+    publisher.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          publish();
+        } catch (RuntimeException e) {
+          LOGGER.error("Could not publish tickers", e);
+        }
+      }
+    }, publishIntervalMillis, publishIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void start() throws Exception {
+  }
+
+  @Override
+  public void stop() throws Exception {
+    publisher.shutdown();
+  }
+
+  /**
+   * <p>Replaces the latest ticker of its currency pair, to be published with the next interval if it changed</p>
+   */
+  public void update(TickerPresentationModel ticker) {
+    Preconditions.checkNotNull(ticker, "ticker must not be null");
+
+    String channel = BroadcastHelper.tickerChannel(ticker.getExchangeId(), ticker.getCurrencyPairId());
+    TickerPresentationModel previous = latest.put(channel, ticker);
+    if (!ticker.equals(previous)) {
+      updates.mark();
+      changed.add(channel);
+    }
+  }
+
+  /**
+   * @return The latest ticker of a currency pair, or null if there has been none
+   */
+  public TickerPresentationModel latest(String exchangeId, String currencyPairId) {
+    return latest.get(BroadcastHelper.tickerChannel(exchangeId, currencyPairId));
+  }
+
+  /**
+   * <p>Publishes the latest ticker of a currency pair with the next interval even if it has not changed, such as
+   * when a client subscribes</p>
+   */
+  public void republish(String exchangeId, String currencyPairId) {
+    String channel = BroadcastHelper.tickerChannel(exchangeId, currencyPairId);
+    if (latest.containsKey(channel)) {
+      changed.add(channel);
+    }
+  }
+
+  /**
+   * <p>Broadcasts the latest ticker of each channel that changed since the last publish</p>
+   *
+   * @return The number of tickers published
+   */
+  int publish() {
+    int count = 0;
+    for (Iterator<String> channels = changed.iterator(); channels.hasNext(); ) {
+      String channel = channels.next();
+      channels.remove();
+      BroadcastHelper.broadcastIfSubscribed(channel, latest.get(channel));
+      count++;
+    }
+    published.mark(count);
+    return count;
+  }
+}
@@ -0,0 +1,54 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.base.Preconditions;
+import org.atmosphere.annotation.Suspend;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.multibit.exchange.domain.model.Currency;
+import org.multibit.exchange.domain.model.CurrencyPair;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * <p>StreamResource to provide the following to the public REST API:</p>
+ * <ul>
+ * <li>A conflated stream of the ticker of one currency pair on one exchange.</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+@Path("/exchanges/{exchangeId}/pairs/{base}/{counter}/ticker")
+@Produces("application/json")
+public class TickerStreamResource {
+
+  /**
+   * Atmosphere instantiates its own resources, so the stream is handed over when the application starts
+   */
+  private static volatile TickerStream tickerStream;
+
+  public static void setTickerStream(TickerStream tickerStream) {
+    TickerStreamResource.tickerStream = tickerStream;
+  }
+
+  /**
+   * <p>The latest ticker is published again with the next interval, so a new client has it without waiting for
+   * the currency pair to change</p>
+   */
+  @Suspend(contentType = MediaType.APPLICATION_JSON)
+  @GET
+  public String suspend(
+      @PathParam("exchangeId") String exchangeId,
+      @PathParam("base") String baseCurrencySymbol,
+      @PathParam("counter") String counterCurrencySymbol,
+      @Context AtmosphereResource resource) {
+    Preconditions.checkState(tickerStream != null, "the ticker stream has not been set");
+    String currencyPairId = new CurrencyPair(new Currency(baseCurrencySymbol), new Currency(counterCurrencySymbol)).getTicker().getSymbol();
+    resource.setBroadcaster(BroadcastHelper.getTickerBroadcaster(exchangeId, currencyPairId));
+    tickerStream.republish(exchangeId, currencyPairId);
+    return "";
+  }
+}
@@ -1,6 +1,6 @@
 package org.multibit.exchange.infrastructure.adaptor.atmosphere;
 
-import org.atmosphere.cpr.BroadcasterFactory;
+import com.yammer.dropwizard.lifecycle.Managed;
 import org.axonframework.eventhandling.EventBus;
 import org.axonframework.eventhandling.annotation.AnnotationEventListenerAdapter;
 import org.axonframework.eventhandling.annotation.EventHandler;
@@ -8,27 +8,48 @@ import org.multibit.exchange.domain.event.TradeExecutedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
-
 /**
  * <p>Atmosphere/WebSocket stream that broadcasts trades.</p>
  *
+ * <p>Trades are sent through a {@link BatchingBroadcaster}, so each frame is a JSON array of the trades executed
+ * within one batch window, to the global channel and to the channel of their currency pair.</p>
+ *
  * @since 0.0.1
  */
-public class TradeStream {
+public class TradeStream implements Managed {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TradeStream.class);
+
+  private final BatchingBroadcaster broadcaster;
 
-  private static Logger LOGGER = LoggerFactory.getLogger(TradeStream.class);
+  /**
+   * @param batchWindowMillis How long a trade waits for others to join its frame
+   * @param maxBatchSize      The most trades held before they are sent without waiting for the window
+   */
+  public TradeStream(EventBus eventBus, long batchWindowMillis, int maxBatchSize) {
+    this.broadcaster = new BatchingBroadcaster("trades", batchWindowMillis, maxBatchSize);
 
-  @Inject
-  public TradeStream(EventBus eventBus) {
     AnnotationEventListenerAdapter.subscribe(this, eventBus);
   }
 
   @EventHandler
   public void handle(TradeExecutedEvent event) {
-    LOGGER.debug("all broadcasters: \n" + BroadcasterFactory.getDefault().lookupAll());
     LOGGER.debug("handling TradeExecutedEvent: {}", event);
 
-    BroadcastHelper.broadcastTrade(event);
+    broadcaster.add(BroadcastHelper.TRADES_CHANNEL, event);
+    broadcaster.add(BroadcastHelper.tradesChannel(event.getExchangeId().getIdentifier(),
+        event.getTrade().getCurrencyPairId().getIdentifier()), event);
+  }
+
+  @Override
+  public void start() throws Exception {
+  }
+
+  /**
+   * <p>Sends the trades still waiting for their window</p>
+   */
+  @Override
+  public void stop() throws Exception {
+    broadcaster.stop();
   }
 }
@@ -2,11 +2,14 @@ package org.multibit.exchange.infrastructure.adaptor.atmosphere;
 
 import org.atmosphere.annotation.Suspend;
 import org.atmosphere.cpr.AtmosphereResource;
+import org.multibit.exchange.domain.model.Currency;
+import org.multibit.exchange.domain.model.CurrencyPair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
@@ -15,11 +18,12 @@ import javax.ws.rs.core.MediaType;
  * <p>StreamResource to provide the following to the public REST API:</p>
  * <ul>
  * <li>JSON/WebSocket streams for trades.</li>
+ * <li>A stream for the trades of one currency pair on one exchange.</li>
  * </ul>
  *
  * @since 0.0.1
  */
-@Path("/trades")
+@Path("/")
 @Produces("application/json")
 public class TradesStreamResource {
 
@@ -27,8 +31,25 @@ public class TradesStreamResource {
 
   @Suspend(contentType = MediaType.APPLICATION_JSON)
   @GET
+  @Path("trades")
   public String suspend(@Context AtmosphereResource resource) {
     resource.setBroadcaster(BroadcastHelper.getTradeBroadcaster());
     return "";
   }
+
+  /**
+   * <p>Streams the trades of a currency pair, such as <code>/exchanges/test/pairs/BTC/USD/trades</code></p>
+   */
+  @Suspend(contentType = MediaType.APPLICATION_JSON)
+  @GET
+  @Path("exchanges/{exchangeId}/pairs/{base}/{counter}/trades")
+  public String suspend(
+      @PathParam("exchangeId") String exchangeId,
+      @PathParam("base") String baseCurrencySymbol,
+      @PathParam("counter") String counterCurrencySymbol,
+      @Context AtmosphereResource resource) {
+    CurrencyPair pair = new CurrencyPair(new Currency(baseCurrencySymbol), new Currency(counterCurrencySymbol));
+    resource.setBroadcaster(BroadcastHelper.getTradeBroadcaster(exchangeId, pair.getTicker().getSymbol()));
+    return "";
+  }
 }
@@ -0,0 +1,66 @@
+package org.multibit.exchange.infrastructure.adaptor.eventapi;
+
+import com.google.common.collect.ImmutableList;
+import org.multibit.exchange.domain.model.Ticker;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>Command used for placing several orders for one currency pair at once:</p>
+ * <ul>
+ * <li>The orders are placed in the given sequence within a single unit of work, so either all are placed or none</li>
+ * <li>All of the orders must be for the same currency pair since they are handled by its matching engine</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class BatchPlaceOrdersCommand extends MatchingEngineCommand {
+
+  private final List<OrderId> orderIds;
+
+  private final List<OrderDescriptor> orders;
+
+  /**
+   * @param orderIds The ids the orders will be known by, one for each order in the same sequence
+   * @param orders   The orders to place, all for the same currency pair
+   */
+  public BatchPlaceOrdersCommand(ExchangeId exchangeId, List<OrderId> orderIds, List<OrderDescriptor> orders) {
+    super(exchangeId, currencyPairOf(orders));
+
+    checkNotNull(orderIds, "orderIds must not be null");
+    checkArgument(orderIds.size() == orders.size(), "there must be one orderId for each order");
+    for (OrderDescriptor order : orders) {
+      checkArgument(currencyPairId.equals(new CurrencyPairId(new Ticker(order.getTicker()).getSymbol())),
+          "all orders in a batch must be for the same currency pair");
+    }
+
+    this.orderIds = ImmutableList.copyOf(orderIds);
+    this.orders = ImmutableList.copyOf(orders);
+  }
+
+  private static CurrencyPairId currencyPairOf(List<OrderDescriptor> orders) {
+    checkNotNull(orders, "orders must not be null");
+    checkArgument(!orders.isEmpty(), "orders must not be empty");
+    return new CurrencyPairId(new Ticker(orders.get(0).getTicker()).getSymbol());
+  }
+
+  public List<OrderId> getOrderIds() {
+    return orderIds;
+  }
+
+  public List<OrderDescriptor> getOrderDescriptors() {
+    return orders;
+  }
+
+  @Override
+  public String toString() {
+    return "BatchPlaceOrdersCommand{" +
+        "exchangeId=" + exchangeId +
+        ", orderIds=" + orderIds +
+        ", orders=" + orders +
+        '}';
+  }
+}
@@ -0,0 +1,33 @@
+package org.multibit.exchange.infrastructure.adaptor.eventapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>Command used for cancelling a resting {@link org.multibit.exchange.domain.model.Order}.</p>
+ *
+ * @since 0.0.1
+ */
+public class CancelOrderCommand extends MatchingEngineCommand {
+
+  private final OrderId orderId;
+
+  public CancelOrderCommand(ExchangeId exchangeId, CurrencyPairId currencyPairId, OrderId orderId) {
+    super(exchangeId, currencyPairId);
+
+    checkNotNull(orderId, "orderId must not be null");
+    this.orderId = orderId;
+  }
+
+  public OrderId getOrderId() {
+    return orderId;
+  }
+
+  @Override
+  public String toString() {
+    return "CancelOrderCommand{" +
+        "exchangeId=" + exchangeId +
+        ", currencyPairId=" + currencyPairId +
+        ", orderId=" + orderId +
+        '}';
+  }
+}
@@ -0,0 +1,23 @@
+package org.multibit.exchange.infrastructure.adaptor.eventapi;
+
+/**
+ * <p>Command used for closing the {@link org.multibit.exchange.domain.model.MatchingEngine} of a
+ * {@link org.multibit.exchange.domain.model.CurrencyPair} removed from its Exchange, so that it takes no
+ * further orders.</p>
+ *
+ * @since 0.0.1
+ */
+public class CloseMatchingEngineCommand extends MatchingEngineCommand {
+
+  public CloseMatchingEngineCommand(ExchangeId exchangeId, CurrencyPairId currencyPairId) {
+    super(exchangeId, currencyPairId);
+  }
+
+  @Override
+  public String toString() {
+    return "CloseMatchingEngineCommand{" +
+        "exchangeId=" + exchangeId +
+        ", currencyPairId=" + currencyPairId +
+        '}';
+  }
+}
@@ -1,5 +1,6 @@
 package org.multibit.exchange.infrastructure.adaptor.eventapi;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Strings;
 
@@ -22,9 +23,20 @@ public class CurrencyPairDescriptor {
 
   private final String symbol;
 
+  private final String tickSize;
+
+  public CurrencyPairDescriptor(String baseCurrency, String counterCurrency) {
+    this(baseCurrency, counterCurrency, null);
+  }
+
+  /**
+   * @param tickSize The optional minimum price increment (e.g. "0.01") which selects a price ladder order book
+   */
+  @JsonCreator
   public CurrencyPairDescriptor(
       @JsonProperty("baseCurrency") String baseCurrency,
-      @JsonProperty("counterCurrency") String counterCurrency) {
+      @JsonProperty("counterCurrency") String counterCurrency,
+      @JsonProperty("tickSize") String tickSize) {
 
     checkArgument(!Strings.isNullOrEmpty(baseCurrency), "baseCurrency must not be null or empty: '%s'", baseCurrency);
     checkArgument(!Strings.isNullOrEmpty(counterCurrency), "counterCurrency must not be null or empty: '%s'", counterCurrency);
@@ -32,6 +44,7 @@ public class CurrencyPairDescriptor {
     this.baseCurrency = baseCurrency;
     this.counterCurrency = counterCurrency;
     this.symbol = baseCurrency + "/" + counterCurrency;
+    this.tickSize = tickSize;
   }
 
   public String getBaseCurrency() {
@@ -45,4 +58,8 @@ public class CurrencyPairDescriptor {
   public String getSymbol() {
     return symbol;
   }
+
+  public String getTickSize() {
+    return tickSize;
+  }
 }
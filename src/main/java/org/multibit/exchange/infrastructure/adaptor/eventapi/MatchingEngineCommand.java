@@ -0,0 +1,42 @@
+package org.multibit.exchange.infrastructure.adaptor.eventapi;
+
+import org.axonframework.commandhandling.annotation.TargetAggregateIdentifier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>AbstractCommand targeting the {@link org.multibit.exchange.domain.model.MatchingEngine} aggregate root
+ * of a single currency pair, so that commands for different pairs are not serialized on one aggregate.</p>
+ *
+ * @since 0.0.1
+ */
+public abstract class MatchingEngineCommand {
+
+  protected final ExchangeId exchangeId;
+
+  protected final CurrencyPairId currencyPairId;
+
+  @TargetAggregateIdentifier
+  private final MatchingEngineId matchingEngineId;
+
+  public MatchingEngineCommand(ExchangeId exchangeId, CurrencyPairId currencyPairId) {
+    checkNotNull(exchangeId, "exchangeId must not be null");
+    checkNotNull(currencyPairId, "currencyPairId must not be null");
+
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+    this.matchingEngineId = new MatchingEngineId(exchangeId, currencyPairId);
+  }
+
+  public ExchangeId getExchangeId() {
+    return exchangeId;
+  }
+
+  public CurrencyPairId getCurrencyPairId() {
+    return currencyPairId;
+  }
+
+  public MatchingEngineId getMatchingEngineId() {
+    return matchingEngineId;
+  }
+}
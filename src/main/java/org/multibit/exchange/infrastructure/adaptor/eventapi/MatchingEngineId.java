@@ -0,0 +1,21 @@
+package org.multibit.exchange.infrastructure.adaptor.eventapi;
+
+import org.multibit.common.AbstractIdentifier;
+
+/**
+ * <p>Identifier to provide the following to the domain model:</p>
+ * <ul>
+ * <li>A unique identifier for the {@link org.multibit.exchange.domain.model.MatchingEngine} of one
+ * {@link org.multibit.exchange.domain.model.CurrencyPair} on one Exchange</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineId extends AbstractIdentifier<String> {
+
+  private static final String SEPARATOR = ":";
+
+  public MatchingEngineId(ExchangeId exchangeId, CurrencyPairId currencyPairId) {
+    super(exchangeId.getIdentifier() + SEPARATOR + currencyPairId.getIdentifier());
+  }
+}
@@ -0,0 +1,55 @@
+package org.multibit.exchange.infrastructure.adaptor.eventapi;
+
+import org.multibit.exchange.domain.model.ItemPrice;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>Command used for opening the {@link org.multibit.exchange.domain.model.MatchingEngine} of a
+ * {@link org.multibit.exchange.domain.model.CurrencyPair} as it is registered, creating it the first time and
+ * reopening it when the pair is registered again after being removed.</p>
+ *
+ * @since 0.0.1
+ */
+public class OpenMatchingEngineCommand extends MatchingEngineCommand {
+
+  private final CurrencyId baseCurrencyId;
+
+  private final CurrencyId counterCurrencyId;
+
+  private final ItemPrice tickSize;
+
+  /**
+   * @param tickSize The minimum price increment of the pair, or null if prices are unrestricted
+   */
+  public OpenMatchingEngineCommand(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize) {
+    super(exchangeId, currencyPairId);
+
+    checkNotNull(baseCurrencyId, "baseCurrencyId must not be null");
+    checkNotNull(counterCurrencyId, "counterCurrencyId must not be null");
+    this.baseCurrencyId = baseCurrencyId;
+    this.counterCurrencyId = counterCurrencyId;
+    this.tickSize = tickSize;
+  }
+
+  public CurrencyId getBaseCurrencyId() {
+    return baseCurrencyId;
+  }
+
+  public CurrencyId getCounterCurrencyId() {
+    return counterCurrencyId;
+  }
+
+  public ItemPrice getTickSize() {
+    return tickSize;
+  }
+
+  @Override
+  public String toString() {
+    return "OpenMatchingEngineCommand{" +
+        "exchangeId=" + exchangeId +
+        ", currencyPairId=" + currencyPairId +
+        ", tickSize=" + tickSize +
+        '}';
+  }
+}
@@ -17,18 +17,26 @@ import org.multibit.exchange.domain.model.Ticker;
 public class OrderFactory {
 
   public static Order createOrderFromDescriptor(OrderDescriptor orderDescriptor) {
+    return createOrderFromDescriptor(new OrderId(), orderDescriptor);
+  }
+
+  /**
+   * @param orderId         The id to give the order
+   * @param orderDescriptor The order details
+   */
+  public static Order createOrderFromDescriptor(OrderId orderId, OrderDescriptor orderDescriptor) {
     Order order;
     checkPriceIsMarketOrValidLimit(orderDescriptor.getPrice());
     if (orderDescriptor.getPrice().equals(MarketOrder.MARKET_PRICE)) {
       order = new MarketOrder(
-          new OrderId(),
+          orderId,
           orderDescriptor.getBroker(),
           Side.fromString(orderDescriptor.getSide()),
           new ItemQuantity(orderDescriptor.getQty()),
           new Ticker(orderDescriptor.getTicker()));
     } else {
       order = new LimitOrder(
-          new OrderId(),
+          orderId,
           orderDescriptor.getBroker(),
           Side.fromString(orderDescriptor.getSide()),
           new ItemQuantity(orderDescriptor.getQty()),
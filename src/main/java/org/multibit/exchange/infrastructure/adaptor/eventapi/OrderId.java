@@ -14,4 +14,11 @@ public class OrderId extends AbstractIdentifier<String> {
   public OrderId() {
     super(IdentifierFactory.getInstance().generateIdentifier());
   }
+
+  /**
+   * @param identifier An identifier previously issued for an order (e.g. from a REST path)
+   */
+  public OrderId(String identifier) {
+    super(identifier);
+  }
 }
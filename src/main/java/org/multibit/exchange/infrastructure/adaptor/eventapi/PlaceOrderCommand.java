@@ -1,19 +1,41 @@
 package org.multibit.exchange.infrastructure.adaptor.eventapi;
 
+import org.multibit.exchange.domain.model.Ticker;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * <p>Command used for placing an order.</li>
  *
+ * <p>The command is routed to the matching engine of the currency pair named by the order's ticker.</p>
+ *
  * @since 0.0.1
  */
-public class PlaceOrderCommand extends ExchangeCommand {
+public class PlaceOrderCommand extends MatchingEngineCommand {
+
+  private final OrderId orderId;
 
   private OrderDescriptor order;
 
   public PlaceOrderCommand(ExchangeId exchangeId, OrderDescriptor order) {
-    super(exchangeId);
+    this(exchangeId, new OrderId(), order);
+  }
+
+  /**
+   * @param orderId The id the order will be known by, so that the caller can later cancel it
+   */
+  public PlaceOrderCommand(ExchangeId exchangeId, OrderId orderId, OrderDescriptor order) {
+    super(exchangeId, new CurrencyPairId(new Ticker(order.getTicker()).getSymbol()));
+
+    checkNotNull(orderId, "orderId must not be null");
+    this.orderId = orderId;
     this.order = order;
   }
 
+  public OrderId getOrderId() {
+    return orderId;
+  }
+
   public OrderDescriptor getOrderDescriptor() {
     return order;
   }
@@ -22,6 +44,7 @@ public class PlaceOrderCommand extends ExchangeCommand {
   public String toString() {
     return "PlaceOrderCommand{" +
         "exchangeId=" + exchangeId +
+        ", orderId=" + orderId +
         ", order=" + order +
         '}';
   }
@@ -1,6 +1,7 @@
 package org.multibit.exchange.infrastructure.adaptor.eventapi;
 
 import com.google.common.base.Preconditions;
+import org.multibit.exchange.domain.model.ItemPrice;
 
 /**
  * <p>Command used for registering a {@link org.multibit.exchange.domain.model.CurrencyPair}.</li>
@@ -13,16 +14,27 @@ public class RegisterCurrencyPairCommand extends ExchangeCommand {
   private final CurrencyPairId currencyPairId;
   private final CurrencyId baseCurrencyId;
   private final CurrencyId counterCurrencyId;
+  private final ItemPrice tickSize;
 
   public RegisterCurrencyPairCommand(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId) {
+    this(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId, null);
+  }
+
+  /**
+   * @param tickSize The minimum price increment of the pair (selects a price ladder order book), or null if prices are unrestricted
+   */
+  public RegisterCurrencyPairCommand(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize) {
     super(exchangeId);
     Preconditions.checkNotNull(currencyPairId, "currencyPairId must not be null");
     Preconditions.checkNotNull(baseCurrencyId, "baseCurrencyId must not be null");
     Preconditions.checkNotNull(counterCurrencyId, "counterCurrencyId must not be null");
+    Preconditions.checkArgument(tickSize == null || (tickSize.isRepresentableInUnits() && !tickSize.isZero()),
+        "tickSize must be greater than zero");
 
     this.currencyPairId = currencyPairId;
     this.baseCurrencyId = baseCurrencyId;
     this.counterCurrencyId = counterCurrencyId;
+    this.tickSize = tickSize;
   }
 
   public CurrencyPairId getCurrencyPairId() {
@@ -36,4 +48,8 @@ public class RegisterCurrencyPairCommand extends ExchangeCommand {
   public CurrencyId getCounterCurrencyId() {
     return counterCurrencyId;
   }
+
+  public ItemPrice getTickSize() {
+    return tickSize;
+  }
 }
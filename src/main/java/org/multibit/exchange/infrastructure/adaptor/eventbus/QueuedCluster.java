@@ -0,0 +1,267 @@
+package org.multibit.exchange.infrastructure.adaptor.eventbus;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.Timer;
+import com.yammer.metrics.core.TimerContext;
+import org.axonframework.domain.EventMessage;
+import org.axonframework.eventhandling.AbstractCluster;
+import org.axonframework.eventhandling.EventListener;
+import org.axonframework.eventhandling.MultiplexingEventProcessingMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Cluster to provide the following to a group of event listeners:</p>
+ * <ul>
+ * <li>A bounded queue and a thread of its own, so publishing never waits on the listeners' I/O</li>
+ * <li>A back-pressure policy for when the queue is full: block the publisher or drop the event</li>
+ * <li>A failure policy: a transient failure is retried after a delay, anything else is skipped at once so the group carries on</li>
+ * <li>Queue depth, lag, handling time, dropped and failed event metrics for the group</li>
+ * </ul>
+ *
+ * <p>The group's events are handled one at a time in the order they were published, which is what the read
+ * model builders rely on. Groups are independent of each other, so a slow group only falls behind on its own.</p>
+ *
+ * @since 0.0.1
+ */
+public class QueuedCluster extends AbstractCluster implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueuedCluster.class);
+
+  private static final long POLL_MILLIS = 100;
+
+  public enum BackPressure {
+
+    /**
+     * Blocks the publisher until the group has room, so no event is lost
+     */
+    BLOCK,
+
+    /**
+     * Drops the event and carries on, for groups that can afford to miss events
+     */
+    DROP
+  }
+
+  private final BlockingQueue<QueuedEvent> queue;
+
+  private final BackPressure backPressure;
+
+  private final int maxRetries;
+
+  private final long retryDelayMillis;
+
+  private final Predicate<? super RuntimeException> retryable;
+
+  private final Timer handling;
+
+  private final Meter dropped;
+
+  private final Meter failed;
+
+  private final Thread worker;
+
+  private volatile QueuedEvent current;
+
+  private volatile boolean running = true;
+
+  /**
+   * @param name             The name of the group, also used for its thread and metrics
+   * @param queueCapacity    The most events waiting to be handled
+   * @param backPressure     What publishing does when the queue is full
+   * @param maxRetries       The number of times a transient failure is retried before the event is skipped
+   * @param retryDelayMillis How long to wait before retrying a failed event
+   * @param retryable        Whether a failure is transient and worth retrying
+   */
+  public QueuedCluster(String name, int queueCapacity, BackPressure backPressure, int maxRetries, long retryDelayMillis,
+                       Predicate<? super RuntimeException> retryable) {
+    super(name);
+    Preconditions.checkArgument(queueCapacity > 0, "queueCapacity must be greater than zero");
+    Preconditions.checkNotNull(backPressure, "backPressure must not be null");
+    Preconditions.checkArgument(maxRetries >= 0, "maxRetries must not be negative");
+    Preconditions.checkArgument(retryDelayMillis >= 0, "retryDelayMillis must not be negative");
+    Preconditions.checkNotNull(retryable, "retryable must not be null");
+
+    this.queue = new ArrayBlockingQueue<QueuedEvent>(queueCapacity);
+    this.backPressure = backPressure;
+    this.maxRetries = maxRetries;
+    this.retryDelayMillis = retryDelayMillis;
+    this.retryable = retryable;
+
+    handling = Metrics.newTimer(QueuedCluster.class, "handling", name, TimeUnit.MILLISECONDS, TimeUnit.SECONDS);
+    dropped = Metrics.newMeter(QueuedCluster.class, "dropped", name, "events", TimeUnit.SECONDS);
+    failed = Metrics.newMeter(QueuedCluster.class, "failed", name, "events", TimeUnit.SECONDS);
+    Metrics.newGauge(QueuedCluster.class, "queued", name, new Gauge<Integer>() {
+      @Override
+      public Integer value() {
+        return queued();
+      }
+    });
+    Metrics.newGauge(QueuedCluster.class, "lag-millis", name, new Gauge<Long>() {
+      @Override
+      public Long value() {
+        return getLagMillis();
+      }
+    });
+
+    worker = new ThreadFactoryBuilder().setNameFormat("event-group-" + name + "-%d").setDaemon(true).build()
+        .newThread(new Runnable() {
+          @Override
+          public void run() {
+            handleEvents();
+          }
+        });
+    worker.start();
+  }
+
+  @Override
+  protected void doPublish(List<EventMessage> events, Set<EventListener> eventListeners, MultiplexingEventProcessingMonitor eventProcessingMonitor) {
+    Preconditions.checkState(running, "The %s event listener group is closed", getName());
+    long publishedMillis = System.currentTimeMillis();
+    for (EventMessage event : events) {
+      QueuedEvent queued = new QueuedEvent(event, eventListeners, eventProcessingMonitor, publishedMillis);
+      if (backPressure == BackPressure.BLOCK) {
+        Uninterruptibles.putUninterruptibly(queue, queued);
+      } else if (!queue.offer(queued)) {
+        dropped.mark();
+        LOGGER.warn("The {} event listener group is full, dropped {}", getName(), event.getPayloadType().getSimpleName());
+      }
+    }
+  }
+
+  /**
+   * @return The number of events waiting to be handled
+   */
+  public int queued() {
+    return queue.size();
+  }
+
+  /**
+   * @return How long ago the oldest event not yet handled was published, zero if the group has caught up
+   */
+  public long getLagMillis() {
+    QueuedEvent oldest = current;
+    if (oldest == null) {
+      oldest = queue.peek();
+    }
+    return (oldest == null) ? 0 : Math.max(0, System.currentTimeMillis() - oldest.publishedMillis);
+  }
+
+  /**
+   * @return The number of events dropped because the queue was full
+   */
+  public long getDroppedCount() {
+    return dropped.count();
+  }
+
+  /**
+   * @return The number of events skipped after a listener kept failing on them
+   */
+  public long getFailedCount() {
+    return failed.count();
+  }
+
+  /**
+   * Handles the events already queued, then stops the group's thread
+   */
+  @Override
+  public void close() {
+    running = false;
+    Uninterruptibles.joinUninterruptibly(worker);
+  }
+
+  private void handleEvents() {
+    while (running || !queue.isEmpty()) {
+      QueuedEvent queued;
+      try {
+        queued = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        LOGGER.warn("Interrupted while waiting for events in the {} group, carrying on until closed", getName());
+        continue;
+      }
+      if (queued == null) {
+        continue;
+      }
+      current = queued;
+      TimerContext context = handling.time();
+      try {
+        handle(queued);
+      } finally {
+        context.stop();
+        current = null;
+      }
+    }
+  }
+
+  private void handle(QueuedEvent queued) {
+    RuntimeException failure = null;
+    for (EventListener listener : queued.listeners) {
+      RuntimeException listenerFailure = handle(queued.event, listener);
+      if (failure == null) {
+        failure = listenerFailure;
+      }
+    }
+
+    List<EventMessage> events = Collections.singletonList(queued.event);
+    if (failure == null) {
+      queued.monitor.onEventProcessingCompleted(events);
+    } else {
+      queued.monitor.onEventProcessingFailed(events, failure);
+    }
+  }
+
+  /**
+   * @return The failure if the listener failed for good or still failed after its retries, otherwise null
+   */
+  private RuntimeException handle(EventMessage event, EventListener listener) {
+    for (int attempt = 0; ; attempt++) {
+      try {
+        listener.handle(event);
+        return null;
+      } catch (RuntimeException e) {
+        if (attempt >= maxRetries || !retryable.apply(e)) {
+          failed.mark();
+          LOGGER.error("Skipped {} in the {} group after {} attempts", event.getPayloadType().getSimpleName(), getName(), attempt + 1, e);
+          return e;
+        }
+        LOGGER.warn("Could not handle {} in the {} group, retrying in {} ms", event.getPayloadType().getSimpleName(), getName(), retryDelayMillis, e);
+        Uninterruptibles.sleepUninterruptibly(retryDelayMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * <p>An event waiting to be handled by the group</p>
+   */
+  private static class QueuedEvent {
+
+    private final EventMessage event;
+
+    private final Set<EventListener> listeners;
+
+    private final MultiplexingEventProcessingMonitor monitor;
+
+    private final long publishedMillis;
+
+    QueuedEvent(EventMessage event, Set<EventListener> listeners, MultiplexingEventProcessingMonitor monitor, long publishedMillis) {
+      this.event = event;
+      this.listeners = listeners;
+      this.monitor = monitor;
+      this.publishedMillis = publishedMillis;
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.batch;
+
+import org.axonframework.eventstore.SnapshotEventStore;
+
+import java.util.List;
+
+/**
+ * <p>EventStore to provide the following to the {@link BatchingEventStore}:</p>
+ * <ul>
+ * <li>Appending the events of several units of work in a single write</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public interface BatchAppendingEventStore extends SnapshotEventStore {
+
+  /**
+   * <p>Appends several units of work in one write, each in order and with its sequence numbers checked as
+   * {@link #appendEvents} would.</p>
+   *
+   * @param appends The units of work to append, in the order they arrived
+   *
+   * @return The appends that were not written, for the caller to append one at a time so each gets its own
+   *         failure. Empty when the whole batch was written.
+   */
+  List<EventAppend> appendBatch(List<EventAppend> appends);
+}
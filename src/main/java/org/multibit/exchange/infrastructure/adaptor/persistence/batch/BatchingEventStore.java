@@ -0,0 +1,235 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.batch;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Histogram;
+import com.yammer.metrics.core.Timer;
+import com.yammer.metrics.core.TimerContext;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.eventstore.SnapshotEventStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>EventStore decorator to provide the following to the command bus:</p>
+ * <ul>
+ * <li>Group commit: appends from concurrent units of work are written together in one bulk write</li>
+ * <li>Each caller blocks until the batch holding its events is written, and sees its own failure</li>
+ * <li>A window to wait for more appends after the first, and a limit on the size of a batch</li>
+ * <li>Batch size and write time metrics</li>
+ * </ul>
+ *
+ * <p>With no window a batch is whatever arrived while the previous one was being written, so a lone committer
+ * is never delayed. The DisruptorCommandBus appends from its publisher threads, so batches only grow beyond one
+ * when there are several of them.</p>
+ *
+ * <p>Appends keep their arrival order within a batch. An aggregate is only ever appended by one publisher thread
+ * at a time, so its units of work reach the store in order.</p>
+ *
+ * @since 0.0.1
+ */
+public class BatchingEventStore implements SnapshotEventStore, Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchingEventStore.class);
+
+  private static final long POLL_MILLIS = 100;
+
+  private final BatchAppendingEventStore eventStore;
+
+  private final int maxBatchSize;
+
+  private final long windowNanos;
+
+  private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<PendingAppend>();
+
+  private final Histogram batchSizes = Metrics.newHistogram(BatchingEventStore.class, "batch-size", true);
+
+  private final Timer batchWrites = Metrics.newTimer(BatchingEventStore.class, "batch-write", TimeUnit.MILLISECONDS, TimeUnit.SECONDS);
+
+  private final Thread writer;
+
+  private volatile boolean running = true;
+
+  /**
+   * @param eventStore   The event store to write the batches to
+   * @param maxBatchSize The most units of work written in one batch
+   * @param windowMillis How long to wait for more units of work after the first of a batch, zero for not at all
+   */
+  public BatchingEventStore(BatchAppendingEventStore eventStore, int maxBatchSize, long windowMillis) {
+    Preconditions.checkNotNull(eventStore, "eventStore must not be null");
+    Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be greater than zero");
+    Preconditions.checkArgument(windowMillis >= 0, "windowMillis must not be negative");
+
+    this.eventStore = eventStore;
+    this.maxBatchSize = maxBatchSize;
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+
+    writer = new ThreadFactoryBuilder().setNameFormat("event-store-batch-%d").setDaemon(true).build()
+        .newThread(new Runnable() {
+          @Override
+          public void run() {
+            writeBatches();
+          }
+        });
+    writer.start();
+  }
+
+  @Override
+  public void appendEvents(String type, DomainEventStream events) {
+    List<DomainEventMessage> messages = Lists.newArrayList();
+    while (events.hasNext()) {
+      messages.add(events.next());
+    }
+    if (messages.isEmpty()) {
+      return;
+    }
+
+    PendingAppend pending = new PendingAppend(new EventAppend(type, messages));
+    Preconditions.checkState(running, "The event store is closed");
+    queue.add(pending);
+    // The writer may have drained the queue for the last time between the check and the add
+    if (!running && queue.remove(pending)) {
+      throw new IllegalStateException("The event store is closed");
+    }
+    pending.await();
+  }
+
+  @Override
+  public void appendSnapshotEvent(String type, DomainEventMessage snapshotEvent) {
+    eventStore.appendSnapshotEvent(type, snapshotEvent);
+  }
+
+  @Override
+  public DomainEventStream readEvents(String type, Object identifier) {
+    return eventStore.readEvents(type, identifier);
+  }
+
+  /**
+   * Writes the appends already waiting, then closes the underlying store if it is closeable
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    Uninterruptibles.joinUninterruptibly(writer);
+    if (eventStore instanceof Closeable) {
+      ((Closeable) eventStore).close();
+    }
+  }
+
+  /**
+   * @return The number of appends waiting for a batch to start
+   */
+  int queuedAppends() {
+    return queue.size();
+  }
+
+  private void writeBatches() {
+    List<PendingAppend> batch = Lists.newArrayListWithCapacity(maxBatchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingAppend first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, maxBatchSize - 1);
+        fillWindow(batch, System.nanoTime() + windowNanos);
+      } catch (InterruptedException e) {
+        LOGGER.warn("Interrupted while waiting for events to append, carrying on until closed");
+      }
+      if (!batch.isEmpty()) {
+        write(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private void fillWindow(List<PendingAppend> batch, long deadline) throws InterruptedException {
+    while (windowNanos > 0 && batch.size() < maxBatchSize) {
+      long remaining = deadline - System.nanoTime();
+      PendingAppend next = (remaining > 0) ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+      queue.drainTo(batch, maxBatchSize - batch.size());
+    }
+  }
+
+  private void write(List<PendingAppend> batch) {
+    List<EventAppend> appends = Lists.newArrayListWithCapacity(batch.size());
+    for (PendingAppend pending : batch) {
+      appends.add(pending.append);
+    }
+    batchSizes.update(batch.size());
+
+    Set<EventAppend> unwritten = Sets.newIdentityHashSet();
+    TimerContext context = batchWrites.time();
+    try {
+      unwritten.addAll(eventStore.appendBatch(appends));
+    } catch (RuntimeException e) {
+      LOGGER.warn("Could not append a batch of {}, appending one at a time", batch.size(), e);
+      unwritten.addAll(appends);
+    } finally {
+      context.stop();
+    }
+
+    for (PendingAppend pending : batch) {
+      if (!unwritten.contains(pending.append)) {
+        pending.complete(null);
+        continue;
+      }
+      try {
+        eventStore.appendEvents(pending.append.getType(), pending.append.newEventStream());
+        pending.complete(null);
+      } catch (RuntimeException e) {
+        pending.complete(e);
+      }
+    }
+  }
+
+  /**
+   * <p>A unit of work waiting for its batch to be written</p>
+   */
+  private static class PendingAppend {
+
+    private final EventAppend append;
+
+    private final CountDownLatch written = new CountDownLatch(1);
+
+    private volatile RuntimeException failure;
+
+    PendingAppend(EventAppend append) {
+      this.append = append;
+    }
+
+    void complete(RuntimeException failure) {
+      this.failure = failure;
+      written.countDown();
+    }
+
+    /**
+     * Waits for the batch to be written, throwing this unit of work's failure if it had one
+     */
+    void await() {
+      Uninterruptibles.awaitUninterruptibly(written);
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+}
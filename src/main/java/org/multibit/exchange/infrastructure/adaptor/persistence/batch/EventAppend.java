@@ -0,0 +1,55 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.batch;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.SimpleDomainEventStream;
+
+import java.util.List;
+
+/**
+ * <p>Value object to provide the following to the batching event store:</p>
+ * <ul>
+ * <li>The events a single unit of work appends for an aggregate type, in order</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public final class EventAppend {
+
+  private final String type;
+
+  private final List<DomainEventMessage> events;
+
+  public EventAppend(String type, List<DomainEventMessage> events) {
+    Preconditions.checkNotNull(type, "type must not be null");
+    Preconditions.checkArgument(!events.isEmpty(), "events must not be empty");
+
+    this.type = type;
+    this.events = ImmutableList.copyOf(events);
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public List<DomainEventMessage> getEvents() {
+    return events;
+  }
+
+  /**
+   * @return A new stream over the events, for appending them on their own
+   */
+  public DomainEventStream newEventStream() {
+    return new SimpleDomainEventStream(events);
+  }
+
+  @Override
+  public String toString() {
+    return "EventAppend{" +
+        "type='" + type + '\'' +
+        ", events=" + events.size() +
+        '}';
+  }
+}
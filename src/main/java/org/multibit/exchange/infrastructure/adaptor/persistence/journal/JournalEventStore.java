@@ -0,0 +1,667 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.journal;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.MetaData;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventstore.EventStoreException;
+import org.axonframework.eventstore.EventVisitor;
+import org.axonframework.eventstore.EventStreamNotFoundException;
+import org.axonframework.repository.ConcurrencyException;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.Serializer;
+import org.axonframework.serializer.SimpleSerializedObject;
+import org.joda.time.DateTime;
+import org.multibit.exchange.infrastructure.adaptor.persistence.batch.BatchAppendingEventStore;
+import org.multibit.exchange.infrastructure.adaptor.persistence.batch.EventAppend;
+import org.multibit.exchange.infrastructure.adaptor.persistence.rebuild.StoredEvents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>EventStore to provide the following to the command bus:</p>
+ * <ul>
+ * <li>Local storage of events and snapshots in an append-only journal of memory-mapped segment files</li>
+ * <li>Length-prefixed records with a CRC32 checksum, recovered on start up up to the last whole commit</li>
+ * <li>Group commit: concurrent committers waiting on the disk share a single fsync, and a batch of appends is
+ * written under one hold of the lock</li>
+ * <li>An fsync policy trading durability against throughput</li>
+ * <li>An in-memory index from each aggregate to its latest snapshot and the events after it</li>
+ * <li>A visit of every journalled event in order, for rebuilding read models</li>
+ * </ul>
+ *
+ * <p>A new segment is started when a commit does not fit in the current one, so a commit never spans segments.
+ * Old segments stay mapped for reads and are not compacted.</p>
+ *
+ * <p>Aggregate identifiers are read back as strings, as they are from the Mongo event store.</p>
+ *
+ * @since 0.0.1
+ */
+public class JournalEventStore implements BatchAppendingEventStore, StoredEvents, Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JournalEventStore.class);
+
+  public enum FsyncPolicy {
+
+    /**
+     * Forces every commit to disk before it returns, sharing the fsync between concurrent commits
+     */
+    ALWAYS,
+
+    /**
+     * Forces the journal to disk at a fixed interval, so a crash of the host loses at most that interval
+     */
+    INTERVAL,
+
+    /**
+     * Leaves writing to disk to the operating system
+     */
+    NEVER
+  }
+
+  private static final String SEGMENT_PREFIX = "journal-";
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private static final byte EVENT = 0;
+
+  private static final byte SNAPSHOT = 1;
+
+  /**
+   * Flags the last record of a commit
+   */
+  private static final byte END_OF_COMMIT = (byte) 0x80;
+
+  private final File directory;
+
+  private final int segmentSize;
+
+  private final Serializer serializer;
+
+  private final FsyncPolicy fsyncPolicy;
+
+  private final ConcurrentMap<Long, JournalSegment> segments = Maps.newConcurrentMap();
+
+  private final ConcurrentMap<String, AggregateEntries> index = Maps.newConcurrentMap();
+
+  private final Object appendLock = new Object();
+
+  private final Object syncLock = new Object();
+
+  private final ScheduledExecutorService syncer;
+
+  private volatile JournalSegment currentSegment;
+
+  /**
+   * The total bytes appended since this store was opened, written only under the append lock
+   */
+  private volatile long appendedBytes;
+
+  /**
+   * The total bytes known to be on disk, written only under the sync lock
+   */
+  private volatile long syncedBytes;
+
+  /**
+   * @param directory           The directory holding the segment files, created if it does not exist
+   * @param segmentSize         The size of each segment file in bytes
+   * @param serializer          The serializer for event payloads and meta data
+   * @param fsyncPolicy         When appended records are forced to disk
+   * @param fsyncIntervalMillis The interval between forces for {@link FsyncPolicy#INTERVAL}
+   */
+  public JournalEventStore(File directory, int segmentSize, Serializer serializer, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+    Preconditions.checkNotNull(directory, "directory must not be null");
+    Preconditions.checkArgument(segmentSize > JournalSegment.HEADER_SIZE, "segmentSize must be greater than %s", JournalSegment.HEADER_SIZE);
+    Preconditions.checkNotNull(serializer, "serializer must not be null");
+    Preconditions.checkNotNull(fsyncPolicy, "fsyncPolicy must not be null");
+    Preconditions.checkArgument(fsyncPolicy != FsyncPolicy.INTERVAL || fsyncIntervalMillis > 0, "fsyncIntervalMillis must be greater than zero");
+
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.serializer = serializer;
+    this.fsyncPolicy = fsyncPolicy;
+
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new EventStoreException("Could not create journal directory " + directory);
+    }
+    try {
+      recover();
+    } catch (IOException e) {
+      throw new EventStoreException("Could not open journal in " + directory, e);
+    }
+
+    if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+      syncer = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("journal-sync-%d").setDaemon(true).build());
+      syncer.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          sync(appendedBytes);
+        }
+      }, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      syncer = null;
+    }
+  }
+
+  @Override
+  public void appendEvents(String type, DomainEventStream events) {
+    List<DomainEventMessage> messages = Lists.newArrayList();
+    while (events.hasNext()) {
+      messages.add(events.next());
+    }
+    if (!messages.isEmpty()) {
+      append(type, messages, EVENT);
+    }
+  }
+
+  @Override
+  public void appendSnapshotEvent(String type, DomainEventMessage snapshotEvent) {
+    append(type, Collections.singletonList(snapshotEvent), SNAPSHOT);
+  }
+
+  @Override
+  public DomainEventStream readEvents(String type, Object identifier) {
+    AggregateEntries entries = index.get(key(type, identifier.toString()));
+    if (entries == null) {
+      throw new EventStreamNotFoundException(type, identifier);
+    }
+
+    long snapshot;
+    long[] pointers;
+    synchronized (entries) {
+      snapshot = entries.snapshot;
+      pointers = Arrays.copyOf(entries.pointers, entries.size);
+    }
+
+    List<DomainEventMessage> messages = Lists.newArrayListWithCapacity(pointers.length + 1);
+    if (snapshot != AggregateEntries.NONE) {
+      messages.add(decode(read(snapshot)));
+    }
+    for (long pointer : pointers) {
+      messages.add(decode(read(pointer)));
+    }
+    return new SimpleDomainEventStream(messages);
+  }
+
+  /**
+   * <p>Visits every event in the order it was journalled, including those covered by snapshots. Commits made
+   * while visiting are not included.</p>
+   */
+  @Override
+  public void visitEvents(final EventVisitor visitor) {
+    List<Long> numbers;
+    long current;
+    int currentEnd;
+    synchronized (appendLock) {
+      Preconditions.checkState(currentSegment != null, "The journal is closed");
+      numbers = Lists.newArrayList(segments.keySet());
+      current = currentSegment.getNumber();
+      currentEnd = currentSegment.getWritePosition();
+    }
+    Collections.sort(numbers);
+
+    for (long number : numbers) {
+      JournalSegment segment = segments.get(number);
+      int end = (number == current) ? currentEnd : segment.getWritePosition();
+      segment.scan(end, new JournalSegment.RecordVisitor() {
+        @Override
+        public boolean visit(int offset, ByteBuffer body) {
+          if (RecordHeader.read(body.duplicate()).kind() == EVENT) {
+            visitor.doWithEvent(decode(body));
+          }
+          return true;
+        }
+      });
+    }
+  }
+
+  /**
+   * Forces the journal to disk and closes its segments
+   */
+  @Override
+  public void close() throws IOException {
+    if (syncer != null) {
+      syncer.shutdown();
+    }
+    synchronized (appendLock) {
+      for (JournalSegment segment : segments.values()) {
+        segment.force();
+        segment.close();
+      }
+      segments.clear();
+      currentSegment = null;
+    }
+  }
+
+  private void append(String type, List<DomainEventMessage> messages, byte kind) {
+    // Encoding and serializing happen outside the lock so only the copy into the journal is serialized
+    Commit commit = encode(type, messages, kind);
+    commit.checkFits(segmentSize);
+
+    long target;
+    synchronized (appendLock) {
+      Preconditions.checkState(currentSegment != null, "The journal is closed");
+      if (kind == EVENT) {
+        checkSequenceNumbers(type, messages);
+      }
+      write(commit);
+      target = appendedBytes;
+    }
+
+    if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+      sync(target);
+    }
+  }
+
+  /**
+   * <p>Writes each append as a commit of its own, all under one hold of the lock and forced to disk together.
+   * An append that fails its sequence number check or does not fit in a segment is left out and returned.</p>
+   */
+  @Override
+  public List<EventAppend> appendBatch(List<EventAppend> appends) {
+    List<Commit> commits = Lists.newArrayListWithCapacity(appends.size());
+    for (EventAppend append : appends) {
+      commits.add(encode(append.getType(), append.getEvents(), EVENT));
+    }
+
+    List<EventAppend> unwritten = Lists.newArrayList();
+    long target;
+    synchronized (appendLock) {
+      Preconditions.checkState(currentSegment != null, "The journal is closed");
+      for (int i = 0; i < commits.size(); i++) {
+        Commit commit = commits.get(i);
+        try {
+          commit.checkFits(segmentSize);
+          checkSequenceNumbers(commit.type, commit.messages);
+        } catch (RuntimeException e) {
+          unwritten.add(appends.get(i));
+          continue;
+        }
+        write(commit);
+      }
+      target = appendedBytes;
+    }
+
+    if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+      sync(target);
+    }
+    return unwritten;
+  }
+
+  private Commit encode(String type, List<DomainEventMessage> messages, byte kind) {
+    Commit commit = new Commit(type, messages, kind);
+    for (int i = 0; i < messages.size(); i++) {
+      byte flags = (i == messages.size() - 1) ? (byte) (kind | END_OF_COMMIT) : kind;
+      byte[] record = encode(type, messages.get(i), flags);
+      commit.records.add(record);
+      commit.size += JournalSegment.HEADER_SIZE + record.length;
+    }
+    return commit;
+  }
+
+  /**
+   * Copies a commit into the journal and indexes it, rolling to a new segment if it does not fit. Called under the
+   * append lock.
+   */
+  private void write(Commit commit) {
+    if (!currentSegment.hasRoomFor(commit.size - JournalSegment.HEADER_SIZE)) {
+      roll();
+    }
+
+    long[] pointers = new long[commit.records.size()];
+    for (int i = 0; i < commit.records.size(); i++) {
+      byte[] record = commit.records.get(i);
+      pointers[i] = pointer(currentSegment.getNumber(), currentSegment.append(record, record.length));
+    }
+    for (int i = 0; i < commit.messages.size(); i++) {
+      DomainEventMessage message = commit.messages.get(i);
+      index(commit.type, message.getAggregateIdentifier().toString(), message.getSequenceNumber(), pointers[i], commit.kind);
+    }
+    appendedBytes += commit.size;
+  }
+
+  private void checkSequenceNumbers(String type, List<DomainEventMessage> messages) {
+    Map<String, Long> lastSequenceNumbers = Maps.newHashMap();
+    for (DomainEventMessage message : messages) {
+      String aggregateIdentifier = message.getAggregateIdentifier().toString();
+      Long lastSequenceNumber = lastSequenceNumbers.get(aggregateIdentifier);
+      if (lastSequenceNumber == null) {
+        AggregateEntries entries = index.get(key(type, aggregateIdentifier));
+        lastSequenceNumber = (entries == null) ? AggregateEntries.NONE : entries.lastSequenceNumber();
+      }
+      if (message.getSequenceNumber() <= lastSequenceNumber) {
+        throw new ConcurrencyException(String.format("Event %s of aggregate %s %s has already been stored",
+            message.getSequenceNumber(), type, aggregateIdentifier));
+      }
+      lastSequenceNumbers.put(aggregateIdentifier, message.getSequenceNumber());
+    }
+  }
+
+  /**
+   * <p>Forces the journal to disk up to at least the given appended byte count. A thread that finds its bytes
+   * already forced by another returns at once, so waiting committers share one fsync.</p>
+   */
+  private void sync(long target) {
+    synchronized (syncLock) {
+      if (syncedBytes >= target) {
+        return;
+      }
+      // Read before forcing: everything appended up to here goes out with this force
+      long appended = appendedBytes;
+      JournalSegment segment = currentSegment;
+      if (segment != null) {
+        segment.force();
+      }
+      syncedBytes = appended;
+    }
+  }
+
+  /**
+   * Starts a new segment, forcing the full one unless the operating system is left to write it
+   */
+  private void roll() {
+    if (fsyncPolicy != FsyncPolicy.NEVER) {
+      currentSegment.force();
+    }
+    long number = currentSegment.getNumber() + 1;
+    try {
+      currentSegment = openSegment(number);
+    } catch (IOException e) {
+      throw new EventStoreException("Could not create journal segment " + number, e);
+    }
+    LOGGER.debug("Rolled journal to segment {}", number);
+  }
+
+  private JournalSegment openSegment(long number) throws IOException {
+    JournalSegment segment = new JournalSegment(number, new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX)), segmentSize);
+    segments.put(number, segment);
+    return segment;
+  }
+
+  /**
+   * <p>Opens the existing segments in order and rebuilds the index from their records. Records are only
+   * indexed once the record ending their commit is found, so a commit cut short by a crash is dropped.</p>
+   */
+  private void recover() throws IOException {
+    File[] files = directory.listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+      }
+    });
+    List<Long> numbers = Lists.newArrayList();
+    for (File file : files) {
+      String name = file.getName();
+      numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+    }
+    Collections.sort(numbers);
+    if (numbers.isEmpty()) {
+      numbers.add(0L);
+    }
+
+    for (long number : numbers) {
+      final JournalSegment segment = openSegment(number);
+      final List<RecordHeader> pending = Lists.newArrayList();
+      segment.recover(new JournalSegment.RecordVisitor() {
+        @Override
+        public boolean visit(int offset, ByteBuffer body) {
+          RecordHeader header = RecordHeader.read(body);
+          header.pointer = pointer(segment.getNumber(), offset);
+          pending.add(header);
+          if ((header.flags & END_OF_COMMIT) == 0) {
+            return false;
+          }
+          for (RecordHeader committed : pending) {
+            index(committed.type, committed.aggregateIdentifier, committed.sequenceNumber, committed.pointer, committed.kind());
+          }
+          pending.clear();
+          return true;
+        }
+      });
+      currentSegment = segment;
+    }
+    LOGGER.info("Opened journal in {} with {} segment(s) and {} aggregate(s)", directory, segments.size(), index.size());
+  }
+
+  private void index(String type, String aggregateIdentifier, long sequenceNumber, long pointer, byte kind) {
+    String key = key(type, aggregateIdentifier);
+    AggregateEntries entries = index.get(key);
+    if (entries == null) {
+      AggregateEntries newEntries = new AggregateEntries();
+      entries = Objects.firstNonNull(index.putIfAbsent(key, newEntries), newEntries);
+    }
+    synchronized (entries) {
+      if (kind == SNAPSHOT) {
+        entries.addSnapshot(sequenceNumber, pointer);
+      } else {
+        entries.addEvent(sequenceNumber, pointer);
+      }
+    }
+  }
+
+  private ByteBuffer read(long pointer) {
+    JournalSegment segment = segments.get(pointer >>> 32);
+    if (segment == null) {
+      throw new EventStoreException("Journal segment " + (pointer >>> 32) + " is not open");
+    }
+    return segment.read((int) pointer);
+  }
+
+  private byte[] encode(String type, DomainEventMessage message, byte flags) {
+    SerializedObject<byte[]> payload = serializer.serialize(message.getPayload(), byte[].class);
+    SerializedObject<byte[]> metaData = message.getMetaData().isEmpty() ? null : serializer.serialize(message.getMetaData(), byte[].class);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + payload.getData().length);
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeByte(flags);
+      writeString(out, type);
+      writeString(out, message.getAggregateIdentifier().toString());
+      out.writeLong(message.getSequenceNumber());
+      writeString(out, message.getIdentifier());
+      out.writeLong(message.getTimestamp().getMillis());
+      writeSerializedObject(out, payload);
+      writeSerializedObject(out, metaData);
+      out.flush();
+    } catch (IOException e) {
+      throw new EventStoreException("Could not encode event " + message.getIdentifier(), e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @SuppressWarnings("unchecked")
+  private DomainEventMessage decode(ByteBuffer body) {
+    RecordHeader header = RecordHeader.read(body);
+    String eventIdentifier = readString(body);
+    DateTime timestamp = new DateTime(body.getLong());
+    Object payload = serializer.deserialize(readSerializedObject(body));
+    SerializedObject<byte[]> serializedMetaData = readSerializedObject(body);
+    Map<String, ?> metaData = (serializedMetaData == null) ? MetaData.emptyInstance() : (Map<String, ?>) serializer.deserialize(serializedMetaData);
+
+    return new GenericDomainEventMessage<Object>(eventIdentifier, timestamp, header.aggregateIdentifier, header.sequenceNumber, payload, metaData);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(Charsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer in) {
+    byte[] bytes = new byte[in.getInt()];
+    in.get(bytes);
+    return new String(bytes, Charsets.UTF_8);
+  }
+
+  /**
+   * Writes the type, revision and data, with an empty type standing for no object
+   */
+  private static void writeSerializedObject(DataOutputStream out, SerializedObject<byte[]> serializedObject) throws IOException {
+    if (serializedObject == null) {
+      writeString(out, "");
+      return;
+    }
+    writeString(out, serializedObject.getType().getName());
+    writeString(out, Objects.firstNonNull(serializedObject.getType().getRevision(), ""));
+    out.writeInt(serializedObject.getData().length);
+    out.write(serializedObject.getData());
+  }
+
+  private static SerializedObject<byte[]> readSerializedObject(ByteBuffer in) {
+    String typeName = readString(in);
+    if (typeName.isEmpty()) {
+      return null;
+    }
+    String revision = readString(in);
+    byte[] data = new byte[in.getInt()];
+    in.get(data);
+    return new SimpleSerializedObject<byte[]>(data, byte[].class, typeName, revision.isEmpty() ? null : revision);
+  }
+
+  private static String key(String type, String aggregateIdentifier) {
+    return type + '/' + aggregateIdentifier;
+  }
+
+  private static long pointer(long segmentNumber, int offset) {
+    return (segmentNumber << 32) | offset;
+  }
+
+  /**
+   * <p>The encoded records of one commit, ready to be copied into the journal</p>
+   */
+  private static class Commit {
+
+    private final String type;
+
+    private final List<DomainEventMessage> messages;
+
+    private final byte kind;
+
+    private final List<byte[]> records;
+
+    private int size;
+
+    Commit(String type, List<DomainEventMessage> messages, byte kind) {
+      this.type = type;
+      this.messages = messages;
+      this.kind = kind;
+      this.records = Lists.newArrayListWithCapacity(messages.size());
+    }
+
+    void checkFits(int segmentSize) {
+      if (size > segmentSize) {
+        throw new EventStoreException("A commit of " + size + " bytes does not fit in a journal segment of " + segmentSize + " bytes");
+      }
+    }
+  }
+
+  /**
+   * <p>The fields ahead of the payload in every record, which are all that recovery needs</p>
+   */
+  private static class RecordHeader {
+
+    private byte flags;
+
+    private String type;
+
+    private String aggregateIdentifier;
+
+    private long sequenceNumber;
+
+    private long pointer;
+
+    static RecordHeader read(ByteBuffer in) {
+      RecordHeader header = new RecordHeader();
+      header.flags = in.get();
+      header.type = readString(in);
+      header.aggregateIdentifier = readString(in);
+      header.sequenceNumber = in.getLong();
+      return header;
+    }
+
+    byte kind() {
+      return (byte) (flags & ~END_OF_COMMIT);
+    }
+  }
+
+  /**
+   * <p>The journal positions of an aggregate's latest snapshot and of its events after it, in order</p>
+   */
+  private static class AggregateEntries {
+
+    static final long NONE = -1;
+
+    private long snapshot = NONE;
+
+    private long snapshotSequenceNumber = NONE;
+
+    private long[] pointers = new long[8];
+
+    private long[] sequenceNumbers = new long[8];
+
+    private int size;
+
+    private long lastSequenceNumber = NONE;
+
+    long lastSequenceNumber() {
+      return lastSequenceNumber;
+    }
+
+    void addEvent(long sequenceNumber, long pointer) {
+      if (size == pointers.length) {
+        pointers = Arrays.copyOf(pointers, size * 2);
+        sequenceNumbers = Arrays.copyOf(sequenceNumbers, size * 2);
+      }
+      pointers[size] = pointer;
+      sequenceNumbers[size] = sequenceNumber;
+      size++;
+      lastSequenceNumber = Math.max(lastSequenceNumber, sequenceNumber);
+    }
+
+    /**
+     * Keeps the snapshot if it is newer than the last one, dropping the events it covers
+     */
+    void addSnapshot(long sequenceNumber, long pointer) {
+      if (sequenceNumber <= snapshotSequenceNumber) {
+        return;
+      }
+      snapshot = pointer;
+      snapshotSequenceNumber = sequenceNumber;
+
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        if (sequenceNumbers[i] > sequenceNumber) {
+          pointers[kept] = pointers[i];
+          sequenceNumbers[kept] = sequenceNumbers[i];
+          kept++;
+        }
+      }
+      size = kept;
+      lastSequenceNumber = Math.max(lastSequenceNumber, sequenceNumber);
+    }
+  }
+}
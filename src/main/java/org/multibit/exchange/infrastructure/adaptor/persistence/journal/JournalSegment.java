@@ -0,0 +1,186 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * <p>One memory-mapped file of a {@link JournalEventStore} to provide the following:</p>
+ * <ul>
+ * <li>Append-only storage of records, each prefixed with its length and a CRC32 of its body</li>
+ * <li>Recovery on open, which keeps every whole record and discards a torn one at the end</li>
+ * <li>Reads of a record by its offset</li>
+ * </ul>
+ *
+ * <p>Appends are not thread safe: the journal serializes them. Reads may run concurrently with appends
+ * since they only touch records which have been completely written.</p>
+ *
+ * @since 0.0.1
+ */
+class JournalSegment implements Closeable {
+
+  /**
+   * The length and checksum ahead of every record body
+   */
+  static final int HEADER_SIZE = 8;
+
+  private final long number;
+
+  private final File file;
+
+  private final RandomAccessFile randomAccessFile;
+
+  private final MappedByteBuffer buffer;
+
+  private int writePosition;
+
+  /**
+   * @param number The position of this segment in the journal
+   * @param file   The segment file, created with the given size if it does not exist
+   * @param size   The size of a new segment in bytes
+   */
+  JournalSegment(long number, File file, int size) throws IOException {
+    this.number = number;
+    this.file = file;
+    randomAccessFile = new RandomAccessFile(file, "rw");
+    if (randomAccessFile.length() == 0) {
+      randomAccessFile.setLength(size);
+    }
+    buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, randomAccessFile.length());
+  }
+
+  long getNumber() {
+    return number;
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  int getWritePosition() {
+    return writePosition;
+  }
+
+  /**
+   * <p>Finds the end of the records in this segment, handing each whole record to the visitor. Records are
+   * written in commits and the visitor says which record ends one, so anything after the last whole commit (a
+   * torn write or a commit cut short) is zeroed so that it cannot be mistaken for records later.</p>
+   */
+  void recover(RecordVisitor visitor) {
+    int position = 0;
+    int committedPosition = 0;
+    while (position + HEADER_SIZE <= buffer.capacity()) {
+      int length = buffer.getInt(position);
+      if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+        break;
+      }
+      ByteBuffer body = slice(position + HEADER_SIZE, length);
+      if (checksum(body.duplicate()) != buffer.getInt(position + 4)) {
+        break;
+      }
+      boolean endOfCommit = visitor.visit(position, body);
+      position += HEADER_SIZE + length;
+      if (endOfCommit) {
+        committedPosition = position;
+      }
+    }
+    writePosition = committedPosition;
+
+    boolean torn = committedPosition + HEADER_SIZE <= buffer.capacity()
+        && (buffer.getInt(committedPosition) != 0 || buffer.getInt(committedPosition + 4) != 0);
+    if (torn) {
+      for (int i = committedPosition; i < buffer.capacity(); i++) {
+        buffer.put(i, (byte) 0);
+      }
+      buffer.force();
+    }
+  }
+
+  /**
+   * <p>Hands each record before the given position to the visitor, in order. The position must be one this
+   * segment has written up to, so every record before it is whole.</p>
+   */
+  void scan(int endPosition, RecordVisitor visitor) {
+    int position = 0;
+    while (position < endPosition) {
+      int length = buffer.getInt(position);
+      visitor.visit(position, slice(position + HEADER_SIZE, length));
+      position += HEADER_SIZE + length;
+    }
+  }
+
+  /**
+   * @return True if a record with a body of the given length fits in the remaining space
+   */
+  boolean hasRoomFor(int length) {
+    return writePosition + HEADER_SIZE + length <= buffer.capacity();
+  }
+
+  /**
+   * @return The offset of the record in this segment
+   */
+  int append(byte[] body, int length) {
+    int position = writePosition;
+    ByteBuffer target = buffer.duplicate();
+    target.position(position + HEADER_SIZE);
+    target.put(body, 0, length);
+    buffer.putInt(position + 4, checksum(ByteBuffer.wrap(body, 0, length)));
+    // The length goes last so a torn record never looks whole
+    buffer.putInt(position, length);
+    writePosition = position + HEADER_SIZE + length;
+    return position;
+  }
+
+  /**
+   * @param offset The offset of a record returned by {@link #append}
+   *
+   * @return A read-only view of the record body
+   */
+  ByteBuffer read(int offset) {
+    return slice(offset + HEADER_SIZE, buffer.getInt(offset));
+  }
+
+  /**
+   * Writes the appended records through to the file
+   */
+  void force() {
+    buffer.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    randomAccessFile.close();
+  }
+
+  private ByteBuffer slice(int position, int length) {
+    ByteBuffer view = buffer.asReadOnlyBuffer();
+    view.position(position);
+    view.limit(position + length);
+    return view.slice();
+  }
+
+  private static int checksum(ByteBuffer body) {
+    CRC32 crc = new CRC32();
+    if (body.hasArray()) {
+      crc.update(body.array(), body.arrayOffset() + body.position(), body.remaining());
+    } else {
+      byte[] bytes = new byte[body.remaining()];
+      body.get(bytes);
+      crc.update(bytes, 0, bytes.length);
+    }
+    return (int) crc.getValue();
+  }
+
+  interface RecordVisitor {
+
+    /**
+     * @return True if the record is the last of its commit
+     */
+    boolean visit(int offset, ByteBuffer body);
+  }
+}
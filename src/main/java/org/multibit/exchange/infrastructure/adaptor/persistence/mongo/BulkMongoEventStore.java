@@ -0,0 +1,110 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.google.common.collect.Lists;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.eventstore.mongo.DocumentPerEventStorageStrategy;
+import org.axonframework.eventstore.mongo.MongoEventStore;
+import org.axonframework.eventstore.mongo.MongoTemplate;
+import org.axonframework.eventstore.mongo.StorageStrategy;
+import org.axonframework.serializer.Serializer;
+import org.multibit.exchange.infrastructure.adaptor.persistence.batch.BatchAppendingEventStore;
+import org.multibit.exchange.infrastructure.adaptor.persistence.batch.EventAppend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>EventStore to provide the following to the batching event store:</p>
+ * <ul>
+ * <li>The Axon MongoDB event store, with a document per event</li>
+ * <li>A batch of appends written as one bulk insert</li>
+ * </ul>
+ *
+ * <p>A bulk insert stops at the first document that fails, such as an event whose sequence number is already
+ * stored. Each append is then checked event by event. The appends with none of their events stored are
+ * returned, to be appended one at a time as the plain Mongo event store would. An append stored only in part has
+ * the events it did store deleted first, so it is appended whole or not at all. Should that delete fail too, the
+ * append is still returned: appending it again fails on the events already stored, so its unit of work fails
+ * rather than leaving part of it stored unnoticed.</p>
+ *
+ * @since 0.0.1
+ */
+public class BulkMongoEventStore extends MongoEventStore implements BatchAppendingEventStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BulkMongoEventStore.class);
+
+  private static final String EVENT_IDENTIFIER = "eventIdentifier";
+
+  private final MongoTemplate mongoTemplate;
+
+  private final Serializer serializer;
+
+  private final StorageStrategy storageStrategy;
+
+  public BulkMongoEventStore(Serializer serializer, MongoTemplate mongoTemplate) {
+    this(serializer, mongoTemplate, new DocumentPerEventStorageStrategy());
+  }
+
+  private BulkMongoEventStore(Serializer serializer, MongoTemplate mongoTemplate, DocumentPerEventStorageStrategy storageStrategy) {
+    super(mongoTemplate, serializer, storageStrategy);
+    this.mongoTemplate = mongoTemplate;
+    this.serializer = serializer;
+    this.storageStrategy = storageStrategy;
+  }
+
+  @Override
+  public List<EventAppend> appendBatch(List<EventAppend> appends) {
+    List<DBObject> documents = Lists.newArrayList();
+    for (EventAppend append : appends) {
+      documents.addAll(Arrays.asList(storageStrategy.createDocuments(append.getType(), serializer, append.getEvents())));
+    }
+
+    DBCollection events = mongoTemplate.domainEventCollection();
+    try {
+      events.insert(documents);
+      return Collections.emptyList();
+    } catch (MongoException e) {
+      LOGGER.warn("Bulk insert of {} events failed, finding the appends that were not stored", documents.size(), e);
+    }
+
+    List<EventAppend> unwritten = Lists.newArrayList();
+    for (EventAppend append : appends) {
+      DBObject appended = new BasicDBObject(EVENT_IDENTIFIER, new BasicDBObject("$in", identifiersOf(append)));
+      long stored = events.count(appended);
+      if (stored == append.getEvents().size()) {
+        continue;
+      }
+      if (stored > 0) {
+        removePartialAppend(events, append, appended, stored);
+      }
+      unwritten.add(append);
+    }
+    return unwritten;
+  }
+
+  private void removePartialAppend(DBCollection events, EventAppend append, DBObject appended, long stored) {
+    LOGGER.warn("Only {} of the {} events of {} were stored, deleting them to append it again", stored,
+        append.getEvents().size(), append);
+    try {
+      events.remove(appended);
+    } catch (MongoException e) {
+      LOGGER.error("Could not delete the {} stored events of {} ({}), appending it again will fail", stored,
+          append, identifiersOf(append), e);
+    }
+  }
+
+  private static List<String> identifiersOf(EventAppend append) {
+    List<String> identifiers = Lists.newArrayListWithCapacity(append.getEvents().size());
+    for (DomainEventMessage event : append.getEvents()) {
+      identifiers.add(event.getIdentifier());
+    }
+    return identifiers;
+  }
+}
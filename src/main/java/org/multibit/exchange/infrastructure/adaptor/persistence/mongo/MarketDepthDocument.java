@@ -0,0 +1,146 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.Maps;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.multibit.exchange.domain.model.FixedPoint;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.presentation.model.marketdepth.DepthData;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * <p>Document to provide the following to the market depth collection:</p>
+ * <ul>
+ * <li>The stored layout of a {@link MarketDepthPresentationModel}</li>
+ * <li>Each side's volumes as {@link FixedPoint} units keyed by price, so one level can be changed by an atomic
+ * <code>$inc</code> or <code>$unset</code> without rewriting the document</li>
+ * </ul>
+ *
+ * <p>A price key is the plain price with its decimal point replaced, since Mongo field names cannot hold dots:</p>
+ * <pre>
+ * { exchangeId: "...", currencyPairId: "BTC/USD", bids: { "10_5": 150000000 }, asks: { "11": 2000000000 } }
+ * </pre>
+ *
+ * @since 0.0.1
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MarketDepthDocument {
+
+  public static final String BIDS = "bids";
+
+  public static final String ASKS = "asks";
+
+  public static final String LAST_UPDATED = "lastUpdated";
+
+  private static final char DECIMAL_POINT = '.';
+
+  private static final char KEY_DECIMAL_POINT = '_';
+
+  @JsonProperty("_id")
+  private String id;
+
+  @JsonProperty
+  private String exchangeId;
+
+  @JsonProperty
+  private String currencyPairId;
+
+  @JsonProperty(BIDS)
+  private Map<String, Long> bids = Maps.newHashMap();
+
+  @JsonProperty(ASKS)
+  private Map<String, Long> asks = Maps.newHashMap();
+
+  @JsonProperty(LAST_UPDATED)
+  private Date lastUpdated;
+
+  public MarketDepthDocument() {
+  }
+
+  public static MarketDepthDocument fromPresentationModel(MarketDepthPresentationModel model) {
+    MarketDepthDocument document = new MarketDepthDocument();
+    document.id = model.getId();
+    document.exchangeId = model.getExchangeId();
+    document.currencyPairId = model.getCurrencyPairId();
+    document.bids = toLevels(model.getBidDepthData());
+    document.asks = toLevels(model.getAskDepthData());
+    DateTime lastUpdatedTimestamp = model.getMetaData().getLastUpdatedTimestamp();
+    document.lastUpdated = (lastUpdatedTimestamp == null) ? new Date() : lastUpdatedTimestamp.toDate();
+    return document;
+  }
+
+  public MarketDepthPresentationModel toPresentationModel() {
+    MarketDepthPresentationModel model = new MarketDepthPresentationModel(id, exchangeId, currencyPairId);
+    fromLevels(bids, model.getBidDepthData());
+    fromLevels(asks, model.getAskDepthData());
+    if (lastUpdated != null) {
+      model.setLastUpdatedTimestamp(new DateTime(lastUpdated, DateTimeZone.UTC));
+    }
+    return model;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getExchangeId() {
+    return exchangeId;
+  }
+
+  public String getCurrencyPairId() {
+    return currencyPairId;
+  }
+
+  Map<String, Long> getBids() {
+    return bids;
+  }
+
+  Map<String, Long> getAsks() {
+    return asks;
+  }
+
+  /**
+   * @return The path of the volume at a price on a side, for use in an update
+   */
+  public static String levelField(Side side, String price) {
+    return ((side == Side.BUY) ? BIDS : ASKS) + DECIMAL_POINT + priceKey(price);
+  }
+
+  /**
+   * @return The key of a price within a side, the same for every way of writing the price
+   */
+  static String priceKey(String price) {
+    return new ItemPrice(price).getRaw().replace(DECIMAL_POINT, KEY_DECIMAL_POINT);
+  }
+
+  private static String priceOf(String priceKey) {
+    return priceKey.replace(KEY_DECIMAL_POINT, DECIMAL_POINT);
+  }
+
+  private static Map<String, Long> toLevels(DepthData depthData) {
+    Map<String, Long> levels = Maps.newHashMap();
+    for (Map.Entry<ItemPrice, String> level : depthData.getPriceVolumeMap().entrySet()) {
+      levels.put(priceKey(level.getKey().getRaw()), FixedPoint.toUnits(new BigDecimal(level.getValue())));
+    }
+    return levels;
+  }
+
+  private static void fromLevels(Map<String, Long> levels, DepthData depthData) {
+    if (levels == null) {
+      return;
+    }
+    for (Map.Entry<String, Long> level : levels.entrySet()) {
+      // A level decreased to nothing is unset straight after, but a reader may see it in between
+      if (level.getValue() > 0) {
+        depthData.increaseVolumeAtPrice(priceOf(level.getKey()), FixedPoint.toPlainString(level.getValue()));
+      }
+    }
+  }
+}
@@ -1,14 +1,18 @@
 package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
 
+import com.google.common.base.Joiner;
 import com.google.inject.Inject;
 import com.mongodb.Mongo;
 import com.yammer.metrics.core.HealthCheck;
 
+import java.util.List;
+
 /**
  * <p>HealthCheck to provide the following to the application:</p>
  * <ul>
  * <li>Verifies that the connection to MongoDB is healthy</li>
  * <li>Verifies that MongoDB can return its set of database names</li>
+ * <li>Verifies that every index declared by the {@link MongoIndexBootstrapper} exists</li>
  * </ul>
  *
  * @since 0.0.1
@@ -17,15 +21,23 @@ public class MongoDbHealthCheck extends HealthCheck {
 
   private final Mongo mongo;
 
+  private final MongoIndexBootstrapper indexes;
+
   @Inject
-  public MongoDbHealthCheck(Mongo mongo) {
+  public MongoDbHealthCheck(Mongo mongo, MongoIndexBootstrapper indexes) {
     super("MongoHealthCheck");
     this.mongo = mongo;
+    this.indexes = indexes;
   }
 
   @Override
   protected Result check() throws Exception {
     verifyConnection();
+
+    List<String> missingIndexes = indexes.missingIndexes();
+    if (!missingIndexes.isEmpty()) {
+      return Result.unhealthy("Missing indexes: " + Joiner.on(", ").join(missingIndexes));
+    }
     return Result.healthy();
   }
 
@@ -0,0 +1,174 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.yammer.dropwizard.lifecycle.Managed;
+import org.axonframework.eventstore.mongo.MongoTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Managed service (see {@link Managed}) to provide the following to dropwizard:</p>
+ * <ul>
+ * <li>Creation on start up of the indexes behind every read model query, and optionally the event store's</li>
+ * <li>The indexes that are still missing, for the {@link MongoDbHealthCheck}</li>
+ * </ul>
+ *
+ * <p>An index that cannot be created, such as a unique index over duplicated documents, is logged and left
+ * missing rather than stopping the application, so reads carry on with a collection scan until it is fixed.</p>
+ *
+ * @since 0.0.1
+ */
+public class MongoIndexBootstrapper implements Managed {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MongoIndexBootstrapper.class);
+
+  private static final String READ_MODEL_INDEX = "exchangeCurrencyPairIndex";
+
+  /**
+   * The fields each read model is queried by. Queries on the exchange alone are served by the prefix of the index.
+   */
+  private static final Map<String, List<String>> READ_MODEL_KEYS = ImmutableMap.<String, List<String>>of(
+      ReadModelCollections.CURRENCY_PAIRS, ImmutableList.of("exchangeId", "ticker"),
+      ReadModelCollections.QUOTES, ImmutableList.of("exchangeId", "ticker"),
+      ReadModelCollections.ORDERBOOKS, ImmutableList.of("exchangeId", "currencyPairId"),
+      ReadModelCollections.MARKET_DEPTH, ImmutableList.of("exchangeId", "currencyPairId"));
+
+  private final List<Index> indexes = Lists.newArrayList();
+
+  /**
+   * @param readModelDb The database holding the {@link ReadModelCollections}
+   */
+  public MongoIndexBootstrapper(DB readModelDb) {
+    this(readModelDb, "", READ_MODEL_KEYS.keySet());
+  }
+
+  /**
+   * @param collectionSuffix Appended to each collection name, to index the collections of a rebuild before they are
+   *                         swapped in
+   * @param collectionNames  The {@link ReadModelCollections} to index
+   */
+  public MongoIndexBootstrapper(DB readModelDb, String collectionSuffix, Collection<String> collectionNames) {
+    for (String collectionName : collectionNames) {
+      List<String> keys = READ_MODEL_KEYS.get(collectionName);
+      Preconditions.checkArgument(keys != null, "%s is not a read model collection", collectionName);
+      declare(readModelDb.getCollection(collectionName + collectionSuffix), READ_MODEL_INDEX, false, keys);
+    }
+  }
+
+  /**
+   * <p>Also declares the indexes of a Mongo event store, named as Axon names them</p>
+   *
+   * @return This bootstrapper
+   */
+  public MongoIndexBootstrapper withEventStore(MongoTemplate mongoTemplate) {
+    DBCollection events = mongoTemplate.domainEventCollection();
+    declare(events, "uniqueAggregateIndex", true, ImmutableList.of("aggregateIdentifier", "type", "sequenceNumber"));
+    declare(events, "orderedEventStreamIndex", false, ImmutableList.of("timeStamp", "sequenceNumber"));
+    // Looked up by the BulkMongoEventStore after a failed bulk insert
+    declare(events, "eventIdentifierIndex", false, ImmutableList.of("eventIdentifier"));
+    declare(mongoTemplate.snapshotEventCollection(), "uniqueAggregateIndex", true,
+        ImmutableList.of("aggregateIdentifier", "type", "sequenceNumber"));
+    return this;
+  }
+
+  @Override
+  public void start() throws Exception {
+    ensureIndexes();
+  }
+
+  @Override
+  public void stop() throws Exception {
+  }
+
+  /**
+   * <p>Creates every declared index that does not exist yet</p>
+   */
+  public void ensureIndexes() {
+    for (Index index : indexes) {
+      try {
+        index.collection.ensureIndex(index.keys, new BasicDBObject("name", index.name).append("unique", index.unique));
+      } catch (MongoException e) {
+        LOGGER.error("Could not create index {}", index, e);
+      }
+    }
+
+    List<String> missing = missingIndexes();
+    if (missing.isEmpty()) {
+      LOGGER.info("Verified {} indexes", indexes.size());
+    } else {
+      LOGGER.warn("Missing indexes: {}", Joiner.on(", ").join(missing));
+    }
+  }
+
+  /**
+   * @return A description of each declared index the database does not hold, empty if there are none
+   */
+  public List<String> missingIndexes() {
+    List<String> missing = Lists.newArrayList();
+    for (Index index : indexes) {
+      if (!index.exists()) {
+        missing.add(index.toString());
+      }
+    }
+    return missing;
+  }
+
+  private void declare(DBCollection collection, String name, boolean unique, List<String> fields) {
+    BasicDBObject keys = new BasicDBObject();
+    for (String field : fields) {
+      keys.append(field, 1);
+    }
+    indexes.add(new Index(collection, name, keys, unique));
+  }
+
+  private static class Index {
+
+    private final DBCollection collection;
+
+    private final String name;
+
+    private final BasicDBObject keys;
+
+    private final boolean unique;
+
+    private Index(DBCollection collection, String name, BasicDBObject keys, boolean unique) {
+      this.collection = collection;
+      this.name = name;
+      this.keys = keys;
+      this.unique = unique;
+    }
+
+    /**
+     * An index of another name over the same keys serves the queries just as well
+     */
+    private boolean exists() {
+      List<String> fields = ImmutableList.copyOf(keys.keySet());
+      for (DBObject indexInfo : collection.getIndexInfo()) {
+        DBObject existingKeys = (DBObject) indexInfo.get("key");
+        if (existingKeys != null && ImmutableList.copyOf(existingKeys.keySet()).equals(fields)
+            && (!unique || Boolean.TRUE.equals(indexInfo.get("unique")))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return collection.getFullName() + keys + (unique ? " unique" : "");
+    }
+  }
+}
@@ -1,75 +1,264 @@
 package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
 
-import com.google.inject.Inject;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mongodb.DB;
+import com.yammer.dropwizard.lifecycle.Managed;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Histogram;
 import org.axonframework.eventhandling.EventBus;
 import org.axonframework.eventhandling.annotation.AnnotationEventListenerAdapter;
 import org.axonframework.eventhandling.annotation.EventHandler;
-import org.bson.types.ObjectId;
-import org.mongojack.JacksonDBCollection;
 import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
 import org.multibit.exchange.domain.event.LimitOrderAddedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
 import org.multibit.exchange.domain.event.TradeExecutedEvent;
 import org.multibit.exchange.domain.model.Side;
-import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
-import org.multibit.exchange.presentation.model.marketdepth.DepthData;
 import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
-import org.multibit.exchange.service.QueryProcessor;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthProjection;
+import org.multibit.exchange.service.ReadModelListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-public class MongoMarketDepthPresentationModelBuilder
-    extends BaseMongoRepository<MarketDepthPresentationModel, String> {
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-  private QueryProcessor queryProcessor;
+/**
+ * <p>Builder to provide the following to the market depth read model:</p>
+ * <ul>
+ * <li>The market depth of each currency pair, kept up to date from the domain events</li>
+ * <li>Atomic changes to one price level at a time, with no read of the stored market depth</li>
+ * <li>An optional coalescing mode, writing the net result of a burst of events once per currency pair</li>
+ * </ul>
+ *
+ * <p>Without coalescing, each event becomes an <code>$inc</code> of the volume at its price, so concurrent
+ * builders never lose each other's changes.</p>
+ *
+ * <p>When coalescing, the market depths are kept in memory after they are first read, and a currency pair changed
+ * by any number of events is written once on the next flush. A flush happens every flush interval and whenever
+ * the given number of events has been applied since the last one, so the writes per second are bounded however
+ * many orders arrive. Reads of the market depth lag by up to the flush interval. This builder must be the only
+ * writer of the market depth collection while it runs.</p>
+ *
+ * <p>The given {@link ReadModelListener} is told of each market depth once it is written, so when coalescing only
+ * once it is flushed.</p>
+ *
+ * @since 0.0.1
+ */
+public class MongoMarketDepthPresentationModelBuilder implements Managed {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MongoMarketDepthPresentationModelBuilder.class);
+
+  private final MongoMarketDepthRepository repository;
+
+  private final ReadModelListener readModelListener;
+
+  private final int flushEvery;
+
+  private final boolean coalescing;
+
+  /**
+   * The market depths held in memory when coalescing, by exchange and currency pair
+   */
+  private final Map<String, MarketDepthPresentationModel> marketDepths = Maps.newHashMap();
+
+  /**
+   * The market depths changed since the last flush
+   */
+  private final Map<String, MarketDepthPresentationModel> changed = Maps.newLinkedHashMap();
+
+  private final Histogram flushSizes = Metrics.newHistogram(MongoMarketDepthPresentationModelBuilder.class, "flush-size", true);
+
+  private final ScheduledExecutorService flusher;
+
+  private int eventsSinceFlush;
+
+  /**
+   * Changes the stored market depth after every event
+   */
+  public MongoMarketDepthPresentationModelBuilder(DB mongoDb, EventBus eventBus, ReadModelListener readModelListener) {
+    this(mongoDb, eventBus, readModelListener, 0, 1);
+  }
+
+  /**
+   * @param flushIntervalMillis How often the changed market depths are written, zero for no periodic flush
+   * @param flushEvery          The number of events after which the changed market depths are written, one to write
+   *                            after every event
+   */
+  public MongoMarketDepthPresentationModelBuilder(DB mongoDb, EventBus eventBus, ReadModelListener readModelListener,
+                                                  long flushIntervalMillis, int flushEvery) {
+    Preconditions.checkNotNull(readModelListener, "readModelListener must not be null");
+    Preconditions.checkArgument(flushIntervalMillis >= 0, "flushIntervalMillis must not be negative");
+    Preconditions.checkArgument(flushEvery > 0, "flushEvery must be greater than zero");
+
+    this.repository = new MongoMarketDepthRepository(mongoDb);
+    this.readModelListener = readModelListener;
+    this.flushEvery = flushEvery;
+    this.coalescing = flushIntervalMillis > 0 || flushEvery > 1;
+
+    if (flushIntervalMillis > 0) {
+      flusher = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("market-depth-flush-%d").setDaemon(true).build());
+      flusher.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          flushQuietly();
+        }
+      }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      flusher = null;
+    }
 
-  @Inject
-  public MongoMarketDepthPresentationModelBuilder(DB mongoDb, EventBus eventBus, QueryProcessor queryProcessor) {
-    super(mongoDb, JacksonDBCollection.wrap(
-        mongoDb.getCollection(ReadModelCollections.MARKET_DEPTH),
-        MarketDepthPresentationModel.class,
-        String.class));
-    this.queryProcessor = queryProcessor;
     AnnotationEventListenerAdapter.subscribe(this, eventBus);
   }
 
   @EventHandler
-  public void handle(CurrencyPairRegisteredEvent event) {
-    MarketDepthPresentationModel model = new MarketDepthPresentationModel(
-        new ObjectId().toString(),
-        event.getExchangeId().getIdentifier(),
-        event.getCurrencyPairId().getIdentifier());
-    super.save(model);
+  public synchronized void handle(CurrencyPairRegisteredEvent event) {
+    MarketDepthPresentationModel model = MarketDepthProjection.newMarketDepth(event);
+    if (coalescing) {
+      marketDepths.put(key(model.getExchangeId(), model.getCurrencyPairId()), model);
+      changed(model);
+    } else {
+      repository.save(model);
+      readModelListener.marketDepthChanged(model.getExchangeId(), model.getCurrencyPairId());
+    }
   }
 
   @EventHandler
-  public void handle(LimitOrderAddedEvent event) {
+  public synchronized void handle(LimitOrderAddedEvent event) {
     String exchangeId = event.getExchangeId().getIdentifier();
     String ticker = event.getOrder().getTicker().getSymbol();
-    MarketDepthPresentationModel model = queryProcessor.fetchMarketDepth(exchangeId, new CurrencyPairId(ticker));
-
-    Side side = event.getOrder().getSide();
-    String price = event.getOrder().getLimitPrice().getRaw();
-    String volumeToIncreaseBy = event.getOrder().getUnfilledQuantity().getRaw();
-    DepthData depthData = getDepthData(model, side);
-    depthData.increaseVolumeAtPrice(price, volumeToIncreaseBy);
-    super.save(model);
+    if (!coalescing) {
+      MarketDepthProjection.apply(storedDepth(exchangeId, ticker), event);
+      return;
+    }
+    MarketDepthPresentationModel model = marketDepth(exchangeId, ticker);
+
+    MarketDepthProjection.apply(model, event);
+    changed(model);
+  }
+
+  @EventHandler
+  public synchronized void handle(TradeExecutedEvent event) {
+    String exchangeId = event.getExchangeId().getIdentifier();
+    String currencyPairId = event.getTrade().getCurrencyPairId().getIdentifier();
+    if (!coalescing) {
+      MarketDepthProjection.apply(storedDepth(exchangeId, currencyPairId), event);
+      return;
+    }
+    MarketDepthPresentationModel model = marketDepth(exchangeId, currencyPairId);
+
+    MarketDepthProjection.apply(model, event);
+    changed(model);
   }
 
   @EventHandler
-  public void handle(TradeExecutedEvent event) {
+  public synchronized void handle(OrderCancelledEvent event) {
+    if (!event.getOrder().isLimitOrder()) {
+      return;
+    }
     String exchangeId = event.getExchangeId().getIdentifier();
-    CurrencyPairId currencyPairId = event.getTrade().getCurrencyPairId();
-    MarketDepthPresentationModel model = queryProcessor.fetchMarketDepth(exchangeId, currencyPairId);
-
-    Side side = event.getSide();
-    String price = event.getTrade().getPrice().getRaw();
-    String volumeToDecreaseBy = event.getTrade().getQuantity().getRaw();
-    DepthData depthData = getDepthData(model, side);
-    depthData.decreaseVolumeAtPrice(price, volumeToDecreaseBy);
-    super.save(model);
+    String currencyPairId = event.getOrder().getTicker().getSymbol();
+    if (!coalescing) {
+      MarketDepthProjection.apply(storedDepth(exchangeId, currencyPairId), event);
+      return;
+    }
+    MarketDepthPresentationModel model = marketDepth(exchangeId, currencyPairId);
+
+    MarketDepthProjection.apply(model, event);
+    changed(model);
+  }
+
+  /**
+   * <p>Writes every market depth changed since the last flush. A market depth that cannot be written stays
+   * changed, so the next flush tries it again.</p>
+   */
+  public synchronized void flush() {
+    int written = 0;
+    Iterator<MarketDepthPresentationModel> models = changed.values().iterator();
+    while (models.hasNext()) {
+      MarketDepthPresentationModel model = models.next();
+      repository.save(model);
+      models.remove();
+      readModelListener.marketDepthChanged(model.getExchangeId(), model.getCurrencyPairId());
+      written++;
+    }
+    eventsSinceFlush = 0;
+    if (written > 0) {
+      flushSizes.update(written);
+    }
+  }
+
+  @Override
+  public void start() throws Exception {
+  }
+
+  /**
+   * Stops the periodic flush and writes what is still changed
+   */
+  @Override
+  public void stop() throws Exception {
+    if (flusher != null) {
+      flusher.shutdown();
+      flusher.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    flush();
   }
 
-  private DepthData getDepthData(MarketDepthPresentationModel model, Side side) {
-    return (side == Side.BUY) ? model.getBidDepthData() : model.getAskDepthData();
+  /**
+   * @return The market depth held in memory, read from Mongo the first time
+   */
+  private MarketDepthPresentationModel marketDepth(String exchangeId, String currencyPairId) {
+    String key = key(exchangeId, currencyPairId);
+    MarketDepthPresentationModel model = marketDepths.get(key);
+    if (model == null) {
+      model = repository.find(exchangeId, currencyPairId);
+      Preconditions.checkState(model != null, "No market depth for %s on %s", currencyPairId, exchangeId);
+      marketDepths.put(key, model);
+    }
+    return model;
   }
 
+  /**
+   * @return The stored market depth, changed one price level at a time with atomic updates
+   */
+  private MarketDepthProjection.DepthChanges storedDepth(final String exchangeId, final String currencyPairId) {
+    return new MarketDepthProjection.DepthChanges() {
+      @Override
+      public void increaseVolumeAtPrice(Side side, String price, String volume) {
+        repository.increaseVolume(exchangeId, currencyPairId, side, price, volume);
+        readModelListener.marketDepthChanged(exchangeId, currencyPairId);
+      }
+
+      @Override
+      public void decreaseVolumeAtPrice(Side side, String price, String volume) {
+        repository.decreaseVolume(exchangeId, currencyPairId, side, price, volume);
+        readModelListener.marketDepthChanged(exchangeId, currencyPairId);
+      }
+    };
+  }
+
+  private void changed(MarketDepthPresentationModel model) {
+    changed.put(key(model.getExchangeId(), model.getCurrencyPairId()), model);
+    if (++eventsSinceFlush >= flushEvery) {
+      // The event is already applied in memory, so a failed write must not fail the event and have it applied twice
+      flushQuietly();
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      LOGGER.warn("Could not write the changed market depths, retrying on the next flush", e);
+    }
+  }
+
+  private static String key(String exchangeId, String currencyPairId) {
+    return exchangeId + ":" + currencyPairId;
+  }
 }
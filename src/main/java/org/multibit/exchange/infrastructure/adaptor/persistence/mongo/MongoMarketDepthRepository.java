@@ -0,0 +1,166 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
+import org.mongojack.JacksonDBCollection;
+import org.multibit.exchange.domain.model.FixedPoint;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Repository to provide the following to the market depth read model:</p>
+ * <ul>
+ * <li>Whole market depths, stored as {@link MarketDepthDocument}s</li>
+ * <li>Atomic increments and decrements of the volume at one price level, made with <code>findAndModify</code>
+ * so that concurrent writers never lose each other's changes</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class MongoMarketDepthRepository {
+
+  private static final String EXCHANGE_ID = "exchangeId";
+
+  private static final String CURRENCY_PAIR_ID = "currencyPairId";
+
+  private final JacksonDBCollection<MarketDepthDocument, String> marketDepths;
+
+  public MongoMarketDepthRepository(DB mongoDb) {
+    this(mongoDb, ReadModelCollections.MARKET_DEPTH);
+  }
+
+  /**
+   * @param collectionName The collection holding the market depths, other than the live one during a rebuild
+   */
+  public MongoMarketDepthRepository(DB mongoDb, String collectionName) {
+    marketDepths = JacksonDBCollection.wrap(mongoDb.getCollection(collectionName), MarketDepthDocument.class, String.class);
+  }
+
+  /**
+   * @return The market depth, or null if the currency pair has none
+   */
+  public MarketDepthPresentationModel find(String exchangeId, String currencyPairId) {
+    MarketDepthDocument document = marketDepths.findOne(marketDepth(exchangeId, currencyPairId));
+    return (document == null) ? null : document.toPresentationModel();
+  }
+
+  /**
+   * @return Every stored market depth
+   */
+  public List<MarketDepthPresentationModel> findAll() {
+    List<MarketDepthPresentationModel> models = Lists.newArrayList();
+    for (MarketDepthDocument document : marketDepths.find()) {
+      models.add(document.toPresentationModel());
+    }
+    return models;
+  }
+
+  /**
+   * <p>Writes the whole market depth, replacing the stored one with the same id</p>
+   */
+  public void save(MarketDepthPresentationModel model) {
+    marketDepths.save(MarketDepthDocument.fromPresentationModel(model));
+  }
+
+  /**
+   * <p>Writes whole market depths in one insert, into an empty collection</p>
+   */
+  public void insertAll(Iterable<MarketDepthPresentationModel> models) {
+    List<MarketDepthDocument> documents = Lists.newArrayList();
+    for (MarketDepthPresentationModel model : models) {
+      documents.add(MarketDepthDocument.fromPresentationModel(model));
+    }
+    marketDepths.insert(documents, WriteConcern.SAFE);
+  }
+
+  /**
+   * @return The volume at the price after the increase, in {@link FixedPoint} units
+   *
+   * @throws IllegalStateException If the currency pair has no market depth
+   */
+  public long increaseVolume(String exchangeId, String currencyPairId, Side side, String price, String volume) {
+    long units = toUnits(volume);
+    String level = MarketDepthDocument.levelField(side, price);
+
+    MarketDepthDocument updated = marketDepths.findAndModify(
+        marketDepth(exchangeId, currencyPairId),
+        new BasicDBObject(level, 1),
+        null,
+        false,
+        new BasicDBObject("$inc", new BasicDBObject(level, units)).append("$set", lastUpdatedNow()),
+        true,
+        false);
+    Preconditions.checkState(updated != null, "No market depth for %s on %s", currencyPairId, exchangeId);
+    return volumeAt(updated, side);
+  }
+
+  /**
+   * <p>Decreases the volume at a price, removing the level once it has none left. A level is only removed while it
+   * is still empty, so an increase made in between is kept.</p>
+   *
+   * @return The volume at the price after the decrease, in {@link FixedPoint} units
+   *
+   * @throws IllegalArgumentException If the price has less volume than the decrease
+   * @throws IllegalStateException    If the currency pair has no market depth
+   */
+  public long decreaseVolume(String exchangeId, String currencyPairId, Side side, String price, String volume) {
+    long units = toUnits(volume);
+    String level = MarketDepthDocument.levelField(side, price);
+
+    DBObject enoughVolume = marketDepth(exchangeId, currencyPairId)
+        .append(level, new BasicDBObject("$gte", units));
+    MarketDepthDocument updated = marketDepths.findAndModify(
+        enoughVolume,
+        new BasicDBObject(level, 1),
+        null,
+        false,
+        new BasicDBObject("$inc", new BasicDBObject(level, -units)).append("$set", lastUpdatedNow()),
+        true,
+        false);
+    if (updated == null) {
+      Preconditions.checkState(marketDepths.getCount(marketDepth(exchangeId, currencyPairId)) > 0,
+          "No market depth for %s on %s", currencyPairId, exchangeId);
+      throw new IllegalArgumentException(String.format("Volume cannot be decreased by more than total volume. " +
+          "Cannot decrease volume at price %s by %s.", price, volume));
+    }
+
+    long remaining = volumeAt(updated, side);
+    if (remaining == 0) {
+      marketDepths.update(marketDepth(exchangeId, currencyPairId).append(level, 0L),
+          new BasicDBObject("$unset", new BasicDBObject(level, "")), false, false);
+    }
+    return remaining;
+  }
+
+  private static BasicDBObject marketDepth(String exchangeId, String currencyPairId) {
+    return new BasicDBObject(EXCHANGE_ID, exchangeId).append(CURRENCY_PAIR_ID, currencyPairId);
+  }
+
+  private static BasicDBObject lastUpdatedNow() {
+    return new BasicDBObject(MarketDepthDocument.LAST_UPDATED, new Date());
+  }
+
+  private static long toUnits(String volume) {
+    long units = FixedPoint.toUnits(new BigDecimal(volume));
+    Preconditions.checkArgument(units > 0, "volume must be greater than zero");
+    return units;
+  }
+
+  /**
+   * The projection of an updated document holds only the changed level
+   */
+  private static long volumeAt(MarketDepthDocument updated, Side side) {
+    Map<String, Long> levels = (side == Side.BUY) ? updated.getBids() : updated.getAsks();
+    Long units = levels.isEmpty() ? null : levels.values().iterator().next();
+    return (units == null) ? 0 : units;
+  }
+}
@@ -31,7 +31,7 @@ public class MongoQueryProcessor implements QueryProcessor {
 
   private final JacksonDBCollection<OrderBookReadModel, String> orderBooks;
 
-  private final JacksonDBCollection<MarketDepthPresentationModel, String> marketDepth;
+  private final MongoMarketDepthRepository marketDepth;
 
   @Inject
   public MongoQueryProcessor(DB mongoDb) {
@@ -39,7 +39,7 @@ public class MongoQueryProcessor implements QueryProcessor {
     currencyPairs = getInitializedCollection(ReadModelCollections.CURRENCY_PAIRS, CurrencyPairReadModel.class);
     quotes = getInitializedCollection(ReadModelCollections.QUOTES, QuoteReadModel.class);
     orderBooks = getInitializedCollection(ReadModelCollections.ORDERBOOKS, OrderBookReadModel.class);
-    marketDepth = getInitializedCollection(ReadModelCollections.MARKET_DEPTH, MarketDepthPresentationModel.class);
+    marketDepth = new MongoMarketDepthRepository(mongoDb);
   }
 
   private <T> JacksonDBCollection<T, String> getInitializedCollection(String collectionName, Class<T> collectionType) {
@@ -66,7 +66,7 @@ public class MongoQueryProcessor implements QueryProcessor {
 
   @Override
   public MarketDepthPresentationModel fetchMarketDepth(String exchangeId, CurrencyPairId currencyPairId) {
-    return marketDepth.findOne(withExchangeIdAndTickerSymbol(exchangeId, currencyPairId.getIdentifier()));
+    return marketDepth.find(exchangeId, currencyPairId.getIdentifier());
   }
 
   private DBQuery.Query withExchangeIdAndTickerSymbol(String exchangeId, String tickerSymbol) {
@@ -20,12 +20,15 @@ import org.multibit.exchange.domain.model.Ticker;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
 import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.OrderBookReadModel;
 import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.QuoteReadModel;
+import org.multibit.exchange.service.ReadModelListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * <p>Builds a read-only representation of each symbol's quote details.</p>
  *
+ * <p>The given {@link ReadModelListener} is told of each quote once it is written.</p>
+ *
  * @since 0.0.1
  *  
  */
@@ -40,9 +43,12 @@ public class MongoQuoteReadModelBuilder {
 
   private final MongoQuoteReadModelRepository repository;
 
+  private final ReadModelListener readModelListener;
+
   @Inject
-  public MongoQuoteReadModelBuilder(DB mongoDb, EventBus eventBus) {
+  public MongoQuoteReadModelBuilder(DB mongoDb, EventBus eventBus, ReadModelListener readModelListener) {
     repository = new MongoQuoteReadModelRepository(mongoDb);
+    this.readModelListener = readModelListener;
 
     LOGGER.debug("subscribing to events on {}", eventBus);
     AnnotationEventListenerAdapter.subscribe(this, eventBus);
@@ -54,6 +60,7 @@ public class MongoQuoteReadModelBuilder {
     String tickerSymbol = event.getCurrencyPairId().getIdentifier();
     QuoteReadModel quoteReadModel = new QuoteReadModel(exchangeId, tickerSymbol);
     repository.upsert(quoteReadModel);
+    readModelListener.quoteChanged(exchangeId, tickerSymbol);
   }
 
   @EventHandler
@@ -61,6 +68,7 @@ public class MongoQuoteReadModelBuilder {
     String exchangeId = event.getExchangeId().getIdentifier();
     String tickerSymbol = event.getCurrencyPairId().getIdentifier();
     repository.deleteByExchangeAndTicker(exchangeId, tickerSymbol);
+    readModelListener.quoteChanged(exchangeId, tickerSymbol);
   }
 
   @EventHandler
@@ -68,6 +76,10 @@ public class MongoQuoteReadModelBuilder {
     String exchangeId = event.getExchangeId().getIdentifier();
     String tickerSymbol = event.getOrder().getTicker().getSymbol();
     QuoteReadModel readModel = repository.findByExchangeAndTicker(exchangeId, tickerSymbol);
+    if (readModel == null) {
+      LOGGER.debug("no quote for {} on {}, nothing to update", tickerSymbol, exchangeId);
+      return;
+    }
     readModel.getBook(event.getOrder().getSide());
   }
 
@@ -76,6 +88,7 @@ public class MongoQuoteReadModelBuilder {
     String exchangeId = event.getExchangeId().getIdentifier();
     String tickerSymbol = event.getOrder().getTicker().getSymbol();
     repository.deleteByExchangeAndTicker(exchangeId, tickerSymbol);
+    readModelListener.quoteChanged(exchangeId, tickerSymbol);
   }
 
   @EventHandler
@@ -83,6 +96,7 @@ public class MongoQuoteReadModelBuilder {
     String exchangeId = event.getExchangeId().getIdentifier();
     String tickerSymbol = event.getTrade().getCurrencyPairId().getIdentifier();
     repository.deleteByExchangeAndTicker(exchangeId, tickerSymbol);
+    readModelListener.quoteChanged(exchangeId, tickerSymbol);
   }
 
   @EventHandler
@@ -90,6 +104,7 @@ public class MongoQuoteReadModelBuilder {
     String exchangeId = event.getExchangeId().getIdentifier();
     String tickerSymbol = event.getTrade().getCurrencyPairId().getIdentifier();
     repository.deleteByExchangeAndTicker(exchangeId, tickerSymbol);
+    readModelListener.quoteChanged(exchangeId, tickerSymbol);
   }
 
   @EventHandler
@@ -97,6 +112,7 @@ public class MongoQuoteReadModelBuilder {
     String exchangeId = event.getExchangeId().getIdentifier();
     String tickerSymbol = event.getTrade().getCurrencyPairId().getIdentifier();
     repository.deleteByExchangeAndTicker(exchangeId, tickerSymbol);
+    readModelListener.quoteChanged(exchangeId, tickerSymbol);
   }
 
 
@@ -29,6 +29,9 @@ public class MongoQuoteReadModelRepository extends BaseMongoRepository<QuoteRead
   }
 
   public void deleteByExchangeAndTicker(String exchangeId, String tickerSymbol) {
-    hardDelete(findByExchangeAndTicker(exchangeId, tickerSymbol));
+    QuoteReadModel quote = findByExchangeAndTicker(exchangeId, tickerSymbol);
+    if (quote != null) {
+      hardDelete(quote);
+    }
   }
 }
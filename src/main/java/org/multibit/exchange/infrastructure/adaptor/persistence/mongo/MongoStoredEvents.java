@@ -0,0 +1,30 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.google.common.base.Preconditions;
+import org.axonframework.eventstore.EventVisitor;
+import org.axonframework.eventstore.mongo.MongoEventStore;
+import org.multibit.exchange.infrastructure.adaptor.persistence.rebuild.StoredEvents;
+
+/**
+ * <p>StoredEvents to provide the following to the read model rebuild and the migrations:</p>
+ * <ul>
+ * <li>Every event in the {@link MongoEventStore}, as its event store management visits them</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class MongoStoredEvents implements StoredEvents {
+
+  private final MongoEventStore eventStore;
+
+  public MongoStoredEvents(MongoEventStore eventStore) {
+    Preconditions.checkNotNull(eventStore, "eventStore must not be null");
+
+    this.eventStore = eventStore;
+  }
+
+  @Override
+  public void visitEvents(EventVisitor visitor) {
+    eventStore.visitEvents(visitor);
+  }
+}
@@ -0,0 +1,35 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.google.common.base.Predicate;
+import com.mongodb.MongoException;
+import org.mongojack.MongoJsonMappingException;
+
+/**
+ * <p>Predicate to provide the following to the event listener groups:</p>
+ * <ul>
+ * <li>Recognition of the failures worth retrying: a MongoDB error anywhere in the cause chain</li>
+ * <li>Exclusion of the MongoDB errors that fail the same way every time: duplicate keys and mapping errors</li>
+ * </ul>
+ *
+ * <p>Anything else (a null pointer, an illegal state) is a bug in the listener, so retrying it only holds up the
+ * group.</p>
+ *
+ * @since 0.0.1
+ */
+public class TransientMongoFailure implements Predicate<Throwable> {
+
+  public static final TransientMongoFailure INSTANCE = new TransientMongoFailure();
+
+  private TransientMongoFailure() {
+  }
+
+  @Override
+  public boolean apply(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof MongoException) {
+        return !(cause instanceof MongoException.DuplicateKey) && !(cause instanceof MongoJsonMappingException);
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,177 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.rebuild;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventstore.EventStore;
+import org.axonframework.eventstore.EventVisitor;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.CurrencyPairRemovedEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineCreatedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineMigratedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.domain.model.MatchingEngineSnapshot;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Migration to provide the following to the upgrade to an engine per currency pair:</p>
+ * <ul>
+ * <li>A {@link MatchingEngine} for every pair its Exchange has registered but that has no engine of its own</li>
+ * <li>The orders resting on each such pair, found by replaying the order events the Exchange stored for it</li>
+ * </ul>
+ *
+ * <p>Before each pair had its own engine, the Exchange matched the orders and stored the order events in its own
+ * stream. Those pairs have no engine, so their orders are rejected until this has run. A pair registered since has
+ * an engine already and is left alone, so running the migration again changes nothing.</p>
+ *
+ * <p>The events are read from the store as stored, not from snapshots, so an Exchange snapshot taken since the
+ * upgrade does not hide the orders.</p>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineMigration {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MatchingEngineMigration.class);
+
+  /**
+   * The type the command bus stores matching engines under, see MatchingEngineAggregateFactory
+   */
+  private static final String MATCHING_ENGINE_TYPE = MatchingEngine.class.getSimpleName();
+
+  private final StoredEvents storedEvents;
+
+  private final EventStore eventStore;
+
+  /**
+   * @param storedEvents The events to find the pairs and their orders in
+   * @param eventStore   The event store to add the new engines to, usually the same store
+   */
+  public MatchingEngineMigration(StoredEvents storedEvents, EventStore eventStore) {
+    Preconditions.checkNotNull(storedEvents, "storedEvents must not be null");
+    Preconditions.checkNotNull(eventStore, "eventStore must not be null");
+
+    this.storedEvents = storedEvents;
+    this.eventStore = eventStore;
+  }
+
+  /**
+   * @return The identifiers of the engines created
+   */
+  public List<MatchingEngineId> migrate() {
+    final Map<MatchingEngineId, Pair> pairs = Maps.newLinkedHashMap();
+    storedEvents.visitEvents(new EventVisitor() {
+      @Override
+      public void doWithEvent(DomainEventMessage domainEvent) {
+        Object payload = domainEvent.getPayload();
+        MatchingEngineId matchingEngineId = matchingEngineIdOf(payload);
+        if (matchingEngineId == null) {
+          return;
+        }
+        Pair pair = pairs.get(matchingEngineId);
+        if (pair == null) {
+          pair = new Pair();
+          pairs.put(matchingEngineId, pair);
+        }
+        pair.apply(domainEvent);
+      }
+    });
+
+    List<MatchingEngineId> migrated = Lists.newArrayList();
+    for (Map.Entry<MatchingEngineId, Pair> entry : pairs.entrySet()) {
+      Pair pair = entry.getValue();
+      if (pair.hasEngine || pair.legacyBooks == null) {
+        continue;
+      }
+      MatchingEngineSnapshot resting = pair.legacyBooks.createSnapshot();
+      MatchingEngine matchingEngine = MatchingEngine.migrate(resting);
+      eventStore.appendEvents(MATCHING_ENGINE_TYPE, matchingEngine.getUncommittedEvents());
+      matchingEngine.commitEvents();
+
+      LOGGER.info("Opened {} with {} resting buy and {} resting sell orders", entry.getKey(),
+          resting.getBuyOrders().size(), resting.getSellOrders().size());
+      migrated.add(entry.getKey());
+    }
+    return migrated;
+  }
+
+  /**
+   * @return The engine of the pair the event belongs to, or null if it belongs to none
+   */
+  private static MatchingEngineId matchingEngineIdOf(Object event) {
+    if (event instanceof CurrencyPairRegisteredEvent) {
+      CurrencyPairRegisteredEvent registered = (CurrencyPairRegisteredEvent) event;
+      return new MatchingEngineId(registered.getExchangeId(), registered.getCurrencyPairId());
+    }
+    if (event instanceof CurrencyPairRemovedEvent) {
+      CurrencyPairRemovedEvent removed = (CurrencyPairRemovedEvent) event;
+      return new MatchingEngineId(removed.getExchangeId(), removed.getCurrencyPairId());
+    }
+    if (event instanceof MatchingEngineCreatedEvent) {
+      return ((MatchingEngineCreatedEvent) event).getMatchingEngineId();
+    }
+    if (event instanceof MatchingEngineMigratedEvent) {
+      return ((MatchingEngineMigratedEvent) event).getMatchingEngineId();
+    }
+    if (event instanceof LimitOrderAddedEvent) {
+      LimitOrderAddedEvent added = (LimitOrderAddedEvent) event;
+      return new MatchingEngineId(added.getExchangeId(), new CurrencyPairId(added.getOrder().getTicker().getSymbol()));
+    }
+    if (event instanceof TradeExecutedEvent) {
+      TradeExecutedEvent traded = (TradeExecutedEvent) event;
+      return new MatchingEngineId(traded.getExchangeId(), traded.getTrade().getCurrencyPairId());
+    }
+    if (event instanceof OrderCancelledEvent) {
+      OrderCancelledEvent cancelled = (OrderCancelledEvent) event;
+      return new MatchingEngineId(cancelled.getExchangeId(), new CurrencyPairId(cancelled.getOrder().getTicker().getSymbol()));
+    }
+    return null;
+  }
+
+  /**
+   * <p>What the stored events say about one currency pair of an exchange</p>
+   */
+  private static class Pair {
+
+    /**
+     * Set once the pair has an engine of its own, whose events are then no concern of the migration
+     */
+    private boolean hasEngine;
+
+    /**
+     * The pair's books as the Exchange matched them, or null while the pair is not registered
+     */
+    private MatchingEngine legacyBooks;
+
+    void apply(DomainEventMessage domainEvent) {
+      Object event = domainEvent.getPayload();
+      if (event instanceof MatchingEngineCreatedEvent || event instanceof MatchingEngineMigratedEvent) {
+        hasEngine = true;
+        legacyBooks = null;
+      } else if (hasEngine) {
+        return;
+      } else if (event instanceof CurrencyPairRegisteredEvent) {
+        // The Exchange started a pair registered again on empty books
+        CurrencyPairRegisteredEvent registered = (CurrencyPairRegisteredEvent) event;
+        legacyBooks = new MatchingEngine(registered.getExchangeId(), registered.getCurrencyPairId(),
+            registered.getBaseCurrencyId(), registered.getCounterCurrencyId(), registered.getTickSize());
+        legacyBooks.commitEvents();
+      } else if (event instanceof CurrencyPairRemovedEvent) {
+        legacyBooks = null;
+      } else if (legacyBooks != null) {
+        // The engine applies a stored order event to its books as it would on loading its own stream
+        legacyBooks.initializeState(new SimpleDomainEventStream(domainEvent));
+      }
+    }
+  }
+}
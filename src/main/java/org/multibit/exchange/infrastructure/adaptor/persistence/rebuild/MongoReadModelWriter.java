@@ -0,0 +1,150 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.rebuild;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.WriteConcern;
+import org.mongojack.JacksonDBCollection;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoIndexBootstrapper;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoMarketDepthRepository;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.ReadModelCollections;
+import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.QuoteReadModel;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Writer to provide the following to the read model rebuild:</p>
+ * <ul>
+ * <li>Bulk inserts of the rebuilt read models into fresh collections, from parallel workers</li>
+ * <li>An atomic swap of each fresh collection for the live one once it is complete</li>
+ * </ul>
+ *
+ * <p>The live collections keep serving reads until the swap, which renames each fresh collection over its live
+ * one in a single step. Events stored after the replay started are not in the fresh collections, so the rebuild
+ * is best run while no orders are being placed.</p>
+ *
+ * @since 0.0.1
+ */
+public class MongoReadModelWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MongoReadModelWriter.class);
+
+  /**
+   * Appended to a live collection name for the collection it is rebuilt in
+   */
+  public static final String REBUILD_SUFFIX = "_rebuild";
+
+  private final DB mongoDb;
+
+  private final int batchSize;
+
+  private final int workerCount;
+
+  /**
+   * @param mongoDb     The database holding the read models
+   * @param batchSize   The most read models written by one insert
+   * @param workerCount The number of inserts made in parallel
+   */
+  public MongoReadModelWriter(DB mongoDb, int batchSize, int workerCount) {
+    Preconditions.checkNotNull(mongoDb, "mongoDb must not be null");
+    Preconditions.checkArgument(batchSize > 0, "batchSize must be greater than zero");
+    Preconditions.checkArgument(workerCount > 0, "workerCount must be greater than zero");
+
+    this.mongoDb = mongoDb;
+    this.batchSize = batchSize;
+    this.workerCount = workerCount;
+  }
+
+  /**
+   * <p>Writes the read models of the partitions to fresh collections, then swaps them for the live ones</p>
+   */
+  public void write(Collection<ReadModelPartition> partitions) {
+    List<MarketDepthPresentationModel> marketDepths = Lists.newArrayList();
+    List<QuoteReadModel> quotes = Lists.newArrayList();
+    for (ReadModelPartition partition : partitions) {
+      if (partition.getMarketDepth() != null) {
+        marketDepths.add(partition.getMarketDepth());
+      }
+      if (partition.getQuote() != null) {
+        quotes.add(partition.getQuote());
+      }
+    }
+
+    freshCollection(ReadModelCollections.MARKET_DEPTH);
+    final MongoMarketDepthRepository freshMarketDepths = new MongoMarketDepthRepository(mongoDb, ReadModelCollections.MARKET_DEPTH + REBUILD_SUFFIX);
+    final JacksonDBCollection<QuoteReadModel, String> freshQuotes = JacksonDBCollection.wrap(
+        freshCollection(ReadModelCollections.QUOTES), QuoteReadModel.class, String.class);
+
+    ExecutorService executor = Executors.newFixedThreadPool(workerCount,
+        new ThreadFactoryBuilder().setNameFormat("read-model-writer-%d").build());
+    try {
+      List<Future<?>> inserts = Lists.newArrayList();
+      for (final List<MarketDepthPresentationModel> batch : Lists.partition(marketDepths, batchSize)) {
+        inserts.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            freshMarketDepths.insertAll(batch);
+          }
+        }));
+      }
+      for (final List<QuoteReadModel> batch : Lists.partition(quotes, batchSize)) {
+        inserts.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            // Acknowledged, so every document is in place before the swap
+            freshQuotes.insert(batch, WriteConcern.SAFE);
+          }
+        }));
+      }
+      for (Future<?> insert : inserts) {
+        Uninterruptibles.getUninterruptibly(insert);
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Could not write the rebuilt read models, the live ones are unchanged", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // A renamed collection keeps its indexes, so the live ones are never without them
+    new MongoIndexBootstrapper(mongoDb, REBUILD_SUFFIX,
+        ImmutableList.of(ReadModelCollections.MARKET_DEPTH, ReadModelCollections.QUOTES)).ensureIndexes();
+    swap(ReadModelCollections.MARKET_DEPTH, marketDepths.size());
+    swap(ReadModelCollections.QUOTES, quotes.size());
+  }
+
+  /**
+   * @return The collection a live one is rebuilt in, emptied of anything left over from a rebuild that did not finish
+   */
+  private DBCollection freshCollection(String name) {
+    DBCollection collection = mongoDb.getCollection(name + REBUILD_SUFFIX);
+    collection.drop();
+    return collection;
+  }
+
+  /**
+   * Renames the fresh collection over the live one, or empties the live one, keeping its indexes, if nothing was
+   * rebuilt for it
+   */
+  private void swap(String name, int count) {
+    if (count == 0) {
+      mongoDb.getCollection(name).remove(new BasicDBObject());
+      mongoDb.getCollection(name + REBUILD_SUFFIX).drop();
+    } else {
+      mongoDb.getCollection(name + REBUILD_SUFFIX).rename(name, true);
+    }
+    LOGGER.info("Swapped in {} rebuilt documents for {}", count, name);
+  }
+}
@@ -0,0 +1,155 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.rebuild;
+
+import com.google.common.base.Objects;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.CurrencyPairRemovedEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedToNewPriceLevelEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.PriceLevelCompletelyFilledEvent;
+import org.multibit.exchange.domain.event.TopOrderCompletelyFilledEvent;
+import org.multibit.exchange.domain.event.TopOrderPartiallyFilledEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.QuoteReadModel;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthProjection;
+
+/**
+ * <p>Read models to provide the following to the rebuild:</p>
+ * <ul>
+ * <li>The market depth and quote of one currency pair on one exchange, built up in memory from its events</li>
+ * </ul>
+ *
+ * <p>Every event of a partition is applied by the same worker in the order it was stored, so a partition needs no
+ * locking. Events are applied as the live builders apply them: the market depth through the
+ * {@link MarketDepthProjection}, and the quote created and removed on the events that make the
+ * {@link org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoQuoteReadModelBuilder} create and
+ * delete it.</p>
+ *
+ * @since 0.0.1
+ */
+public class ReadModelPartition {
+
+  private final Key key;
+
+  private MarketDepthPresentationModel marketDepth;
+
+  private QuoteReadModel quote;
+
+  ReadModelPartition(Key key) {
+    this.key = key;
+  }
+
+  public Key getKey() {
+    return key;
+  }
+
+  /**
+   * @return The market depth, or null if the currency pair was never registered
+   */
+  public MarketDepthPresentationModel getMarketDepth() {
+    return marketDepth;
+  }
+
+  /**
+   * @return The quote, or null if there is none in the live read model either
+   */
+  public QuoteReadModel getQuote() {
+    return quote;
+  }
+
+  void apply(Object event) {
+    if (event instanceof CurrencyPairRegisteredEvent) {
+      marketDepth = MarketDepthProjection.newMarketDepth((CurrencyPairRegisteredEvent) event);
+      quote = new QuoteReadModel(key.getExchangeId(), key.getCurrencyPairId());
+    } else if (event instanceof CurrencyPairRemovedEvent) {
+      quote = null;
+    } else if (marketDepth == null) {
+      // Nothing to apply to until the pair is registered
+      return;
+    } else if (event instanceof LimitOrderAddedEvent) {
+      MarketDepthProjection.apply(marketDepth, (LimitOrderAddedEvent) event);
+      if (event instanceof LimitOrderAddedToNewPriceLevelEvent) {
+        quote = null;
+      }
+    } else if (event instanceof TradeExecutedEvent) {
+      MarketDepthProjection.apply(marketDepth, (TradeExecutedEvent) event);
+      if (event instanceof TopOrderPartiallyFilledEvent
+          || event instanceof TopOrderCompletelyFilledEvent
+          || event instanceof PriceLevelCompletelyFilledEvent) {
+        quote = null;
+      }
+    } else if (event instanceof OrderCancelledEvent) {
+      MarketDepthProjection.apply(marketDepth, (OrderCancelledEvent) event);
+    }
+  }
+
+  /**
+   * @return The partition an event belongs to, or null if it changes none of the rebuilt read models
+   */
+  static Key keyOf(Object event) {
+    if (event instanceof CurrencyPairRegisteredEvent) {
+      CurrencyPairRegisteredEvent registered = (CurrencyPairRegisteredEvent) event;
+      return new Key(registered.getExchangeId().getIdentifier(), registered.getCurrencyPairId().getIdentifier());
+    }
+    if (event instanceof CurrencyPairRemovedEvent) {
+      CurrencyPairRemovedEvent removed = (CurrencyPairRemovedEvent) event;
+      return new Key(removed.getExchangeId().getIdentifier(), removed.getCurrencyPairId().getIdentifier());
+    }
+    if (event instanceof LimitOrderAddedEvent) {
+      LimitOrderAddedEvent added = (LimitOrderAddedEvent) event;
+      return new Key(added.getExchangeId().getIdentifier(), added.getOrder().getTicker().getSymbol());
+    }
+    if (event instanceof TradeExecutedEvent) {
+      TradeExecutedEvent traded = (TradeExecutedEvent) event;
+      return new Key(traded.getExchangeId().getIdentifier(), traded.getTrade().getCurrencyPairId().getIdentifier());
+    }
+    if (event instanceof OrderCancelledEvent) {
+      OrderCancelledEvent cancelled = (OrderCancelledEvent) event;
+      return new Key(cancelled.getExchangeId().getIdentifier(), cancelled.getOrder().getTicker().getSymbol());
+    }
+    return null;
+  }
+
+  /**
+   * <p>Identifies a partition by exchange and currency pair</p>
+   */
+  public static final class Key {
+
+    private final String exchangeId;
+
+    private final String currencyPairId;
+
+    Key(String exchangeId, String currencyPairId) {
+      this.exchangeId = exchangeId;
+      this.currencyPairId = currencyPairId;
+    }
+
+    public String getExchangeId() {
+      return exchangeId;
+    }
+
+    public String getCurrencyPairId() {
+      return currencyPairId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      Key that = (Key) o;
+      return exchangeId.equals(that.exchangeId) && currencyPairId.equals(that.currencyPairId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(exchangeId, currencyPairId);
+    }
+
+    @Override
+    public String toString() {
+      return exchangeId + ":" + currencyPairId;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.rebuild;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.eventstore.EventVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Replay to provide the following to the read model rebuild:</p>
+ * <ul>
+ * <li>Every stored domain event, streamed once from the event store</li>
+ * <li>The events partitioned by exchange and currency pair and applied by parallel workers</li>
+ * <li>The resulting read models of every partition, held in memory</li>
+ * </ul>
+ *
+ * <p>A partition always goes to the same worker, so its events are applied in the order they were stored.</p>
+ *
+ * @since 0.0.1
+ */
+public class ReadModelReplay {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReadModelReplay.class);
+
+  private static final int QUEUE_SIZE = 4096;
+
+  private static final int PROGRESS_INTERVAL = 100000;
+
+  /**
+   * Tells a worker that the stream has ended
+   */
+  private static final Routed END = new Routed(null, null);
+
+  private final StoredEvents storedEvents;
+
+  private final int workerCount;
+
+  private final AtomicLong eventCount = new AtomicLong();
+
+  /**
+   * @param storedEvents The events to stream
+   * @param workerCount  The number of workers applying events in parallel
+   */
+  public ReadModelReplay(StoredEvents storedEvents, int workerCount) {
+    Preconditions.checkNotNull(storedEvents, "storedEvents must not be null");
+    Preconditions.checkArgument(workerCount > 0, "workerCount must be greater than zero");
+
+    this.storedEvents = storedEvents;
+    this.workerCount = workerCount;
+  }
+
+  /**
+   * @return The number of events streamed by the last replay
+   */
+  public long getEventCount() {
+    return eventCount.get();
+  }
+
+  /**
+   * @return The read models of every partition with events
+   */
+  public Collection<ReadModelPartition> replay() {
+    ExecutorService executor = Executors.newFixedThreadPool(workerCount,
+        new ThreadFactoryBuilder().setNameFormat("read-model-replay-%d").build());
+    try {
+      final List<Worker> workers = Lists.newArrayListWithCapacity(workerCount);
+      List<Future<?>> futures = Lists.newArrayListWithCapacity(workerCount);
+      for (int i = 0; i < workerCount; i++) {
+        Worker worker = new Worker();
+        workers.add(worker);
+        futures.add(executor.submit(worker));
+      }
+
+      eventCount.set(0);
+      storedEvents.visitEvents(new EventVisitor() {
+        @Override
+        public void doWithEvent(DomainEventMessage domainEvent) {
+          long count = eventCount.incrementAndGet();
+          if (count % PROGRESS_INTERVAL == 0) {
+            LOGGER.info("Replayed {} events", count);
+          }
+
+          Object payload = domainEvent.getPayload();
+          ReadModelPartition.Key key = ReadModelPartition.keyOf(payload);
+          if (key != null) {
+            Worker worker = workers.get((key.hashCode() & Integer.MAX_VALUE) % workers.size());
+            Uninterruptibles.putUninterruptibly(worker.queue, new Routed(key, payload));
+          }
+        }
+      });
+
+      Map<ReadModelPartition.Key, ReadModelPartition> partitions = Maps.newHashMap();
+      for (int i = 0; i < workerCount; i++) {
+        Uninterruptibles.putUninterruptibly(workers.get(i).queue, END);
+        Uninterruptibles.getUninterruptibly(futures.get(i));
+        Worker worker = workers.get(i);
+        if (worker.failure != null) {
+          throw new IllegalStateException("Could not apply the events of " + worker.failedKey, worker.failure);
+        }
+        partitions.putAll(worker.partitions);
+      }
+      LOGGER.info("Replayed {} events into {} partitions", eventCount.get(), partitions.size());
+      return partitions.values();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A replay worker failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * <p>An event on its way to the worker of its partition</p>
+   */
+  private static class Routed {
+
+    private final ReadModelPartition.Key key;
+
+    private final Object event;
+
+    Routed(ReadModelPartition.Key key, Object event) {
+      this.key = key;
+      this.event = event;
+    }
+  }
+
+  /**
+   * <p>Applies the events of its partitions until the stream ends. A failure stops the worker applying events
+   * but not taking them, so the stream is never blocked on a full queue.</p>
+   */
+  private static class Worker implements Runnable {
+
+    private final BlockingQueue<Routed> queue = new ArrayBlockingQueue<Routed>(QUEUE_SIZE);
+
+    private final Map<ReadModelPartition.Key, ReadModelPartition> partitions = Maps.newHashMap();
+
+    private RuntimeException failure;
+
+    private ReadModelPartition.Key failedKey;
+
+    @Override
+    public void run() {
+      while (true) {
+        Routed routed;
+        try {
+          routed = queue.take();
+        } catch (InterruptedException e) {
+          // The replay was abandoned
+          return;
+        }
+        if (routed == END) {
+          return;
+        }
+        if (failure != null) {
+          continue;
+        }
+        try {
+          partition(routed.key).apply(routed.event);
+        } catch (RuntimeException e) {
+          failure = e;
+          failedKey = routed.key;
+        }
+      }
+    }
+
+    private ReadModelPartition partition(ReadModelPartition.Key key) {
+      ReadModelPartition partition = partitions.get(key);
+      if (partition == null) {
+        partition = new ReadModelPartition(key);
+        partitions.put(key, partition);
+      }
+      return partition;
+    }
+  }
+}
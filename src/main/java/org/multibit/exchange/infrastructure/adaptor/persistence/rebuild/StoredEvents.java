@@ -0,0 +1,19 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.rebuild;
+
+import org.axonframework.eventstore.EventVisitor;
+
+/**
+ * <p>Source to provide the following to the read model rebuild and the migrations:</p>
+ * <ul>
+ * <li>Every stored domain event, in the order it was stored, including those covered by snapshots</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public interface StoredEvents {
+
+  /**
+   * @param visitor The visitor given each event in turn
+   */
+  void visitEvents(EventVisitor visitor);
+}
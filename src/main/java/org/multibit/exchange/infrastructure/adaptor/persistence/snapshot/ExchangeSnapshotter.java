@@ -0,0 +1,53 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.snapshot;
+
+import com.google.common.collect.ImmutableMap;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.AbstractSnapshotter;
+import org.axonframework.eventsourcing.AggregateFactory;
+import org.axonframework.eventsourcing.EventSourcedAggregateRoot;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.multibit.exchange.domain.model.Exchange;
+import org.multibit.exchange.domain.model.MatchingEngine;
+
+import java.util.Map;
+
+/**
+ * <p>Snapshotter to provide the following to the event store:</p>
+ * <ul>
+ * <li>Snapshots of {@link Exchange} aggregates, which hold little more than their currency pairs</li>
+ * <li>Compact snapshots of {@link MatchingEngine} aggregates holding only their resting orders</li>
+ * </ul>
+ *
+ * <p>The aggregate is rebuilt from the stored events (starting from its last snapshot) rather than taken from
+ * the command bus, so a snapshot never sees a unit of work in progress.</p>
+ *
+ * @since 0.0.1
+ */
+public class ExchangeSnapshotter extends AbstractSnapshotter {
+
+  private final Map<String, AggregateFactory<?>> aggregateFactories;
+
+  public ExchangeSnapshotter() {
+    AggregateFactory<Exchange> exchangeFactory = new GenericAggregateFactory<Exchange>(Exchange.class);
+    AggregateFactory<MatchingEngine> matchingEngineFactory = new MatchingEngineAggregateFactory();
+    aggregateFactories = ImmutableMap.<String, AggregateFactory<?>>of(
+        exchangeFactory.getTypeIdentifier(), exchangeFactory,
+        matchingEngineFactory.getTypeIdentifier(), matchingEngineFactory);
+  }
+
+  @Override
+  protected DomainEventMessage createSnapshot(String typeIdentifier, Object aggregateIdentifier, DomainEventStream eventStream) {
+    AggregateFactory<?> aggregateFactory = aggregateFactories.get(typeIdentifier);
+    if (aggregateFactory == null || !eventStream.hasNext()) {
+      return null;
+    }
+
+    EventSourcedAggregateRoot aggregate = aggregateFactory.createAggregate(aggregateIdentifier, eventStream.peek());
+    aggregate.initializeState(eventStream);
+
+    Object snapshot = (aggregate instanceof MatchingEngine) ? ((MatchingEngine) aggregate).createSnapshot() : aggregate;
+    return new GenericDomainEventMessage<Object>(aggregate.getIdentifier(), aggregate.getVersion(), snapshot);
+  }
+}
@@ -0,0 +1,36 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.snapshot;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.eventsourcing.AbstractAggregateFactory;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.domain.model.MatchingEngineSnapshot;
+
+/**
+ * <p>AggregateFactory to provide the following to repositories:</p>
+ * <ul>
+ * <li>A {@link MatchingEngine} restored from a {@link MatchingEngineSnapshot} if the event stream starts with one</li>
+ * <li>An empty MatchingEngine to replay the events into otherwise</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineAggregateFactory extends AbstractAggregateFactory<MatchingEngine> {
+
+  @Override
+  protected MatchingEngine doCreateAggregate(Object aggregateIdentifier, DomainEventMessage firstEvent) {
+    if (firstEvent.getPayload() instanceof MatchingEngineSnapshot) {
+      return MatchingEngine.fromSnapshot((MatchingEngineSnapshot) firstEvent.getPayload());
+    }
+    return new MatchingEngine();
+  }
+
+  @Override
+  public String getTypeIdentifier() {
+    return MatchingEngine.class.getSimpleName();
+  }
+
+  @Override
+  public Class<MatchingEngine> getAggregateType() {
+    return MatchingEngine.class;
+  }
+}
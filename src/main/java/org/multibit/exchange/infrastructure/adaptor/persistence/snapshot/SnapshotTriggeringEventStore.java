@@ -0,0 +1,178 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.snapshot;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import org.axonframework.common.io.IOUtils;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.axonframework.eventstore.SnapshotEventStore;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>EventStore decorator to provide the following to the command bus:</p>
+ * <ul>
+ * <li>A snapshot of an aggregate once a given number of events has been read or appended for it since its last
+ * snapshot</li>
+ * <li>Snapshots on demand of every aggregate with events since its last snapshot, e.g. from a timer</li>
+ * </ul>
+ *
+ * <p>The DisruptorCommandBus cannot decorate its repositories with a snapshotter trigger, so events are counted
+ * here as they pass to and from the store. Snapshots are only scheduled here and are taken by the
+ * {@link Snapshotter} on its own executor.</p>
+ *
+ * @since 0.0.1
+ */
+public class SnapshotTriggeringEventStore implements SnapshotEventStore {
+
+  private final SnapshotEventStore eventStore;
+
+  private final Snapshotter snapshotter;
+
+  private final int eventsPerSnapshot;
+
+  private final ConcurrentMap<AggregateKey, AtomicInteger> eventsSinceSnapshot = Maps.newConcurrentMap();
+
+  /**
+   * @param eventStore        The store to decorate
+   * @param snapshotter       The snapshotter to schedule snapshots with
+   * @param eventsPerSnapshot The number of events after which an aggregate is snapshotted
+   */
+  public SnapshotTriggeringEventStore(SnapshotEventStore eventStore, Snapshotter snapshotter, int eventsPerSnapshot) {
+    Preconditions.checkNotNull(eventStore, "eventStore must not be null");
+    Preconditions.checkNotNull(snapshotter, "snapshotter must not be null");
+    Preconditions.checkArgument(eventsPerSnapshot > 0, "eventsPerSnapshot must be greater than zero");
+
+    this.eventStore = eventStore;
+    this.snapshotter = snapshotter;
+    this.eventsPerSnapshot = eventsPerSnapshot;
+  }
+
+  @Override
+  public void appendEvents(String type, DomainEventStream events) {
+    CountingEventStream countingEvents = new CountingEventStream(events);
+    eventStore.appendEvents(type, countingEvents);
+
+    if (countingEvents.count > 0) {
+      AggregateKey key = new AggregateKey(type, countingEvents.aggregateIdentifier);
+      int count = counterFor(key).addAndGet(countingEvents.count);
+      if (count >= eventsPerSnapshot && counterFor(key).compareAndSet(count, 0)) {
+        snapshotter.scheduleSnapshot(type, key.aggregateIdentifier);
+      }
+    }
+  }
+
+  @Override
+  public DomainEventStream readEvents(String type, Object identifier) {
+    // Reading starts from the last snapshot so this counts the events since it
+    AtomicInteger counter = counterFor(new AggregateKey(type, identifier));
+    counter.set(0);
+    return new CountingEventStream(eventStore.readEvents(type, identifier), counter);
+  }
+
+  @Override
+  public void appendSnapshotEvent(String type, DomainEventMessage snapshotEvent) {
+    eventStore.appendSnapshotEvent(type, snapshotEvent);
+  }
+
+  /**
+   * Schedules a snapshot of every aggregate with events since its last snapshot
+   */
+  public void snapshotPendingAggregates() {
+    for (Map.Entry<AggregateKey, AtomicInteger> entry : eventsSinceSnapshot.entrySet()) {
+      if (entry.getValue().getAndSet(0) > 0) {
+        snapshotter.scheduleSnapshot(entry.getKey().type, entry.getKey().aggregateIdentifier);
+      }
+    }
+  }
+
+  private AtomicInteger counterFor(AggregateKey key) {
+    AtomicInteger counter = eventsSinceSnapshot.get(key);
+    if (counter == null) {
+      AtomicInteger newCounter = new AtomicInteger();
+      counter = Objects.firstNonNull(eventsSinceSnapshot.putIfAbsent(key, newCounter), newCounter);
+    }
+    return counter;
+  }
+
+  /**
+   * <p>Counts the events taken from a stream, noting the aggregate they belong to</p>
+   */
+  private static class CountingEventStream implements DomainEventStream, Closeable {
+
+    private final DomainEventStream events;
+
+    private final AtomicInteger counter;
+
+    private Object aggregateIdentifier;
+
+    private int count;
+
+    CountingEventStream(DomainEventStream events) {
+      this(events, null);
+    }
+
+    CountingEventStream(DomainEventStream events, AtomicInteger counter) {
+      this.events = events;
+      this.counter = counter;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return events.hasNext();
+    }
+
+    @Override
+    public DomainEventMessage next() {
+      DomainEventMessage event = events.next();
+      aggregateIdentifier = event.getAggregateIdentifier();
+      count++;
+      if (counter != null) {
+        counter.incrementAndGet();
+      }
+      return event;
+    }
+
+    @Override
+    public DomainEventMessage peek() {
+      return events.peek();
+    }
+
+    @Override
+    public void close() {
+      IOUtils.closeQuietlyIfCloseable(events);
+    }
+  }
+
+  private static class AggregateKey {
+
+    private final String type;
+
+    private final Object aggregateIdentifier;
+
+    AggregateKey(String type, Object aggregateIdentifier) {
+      this.type = type;
+      this.aggregateIdentifier = aggregateIdentifier;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      AggregateKey that = (AggregateKey) o;
+
+      return type.equals(that.type) && aggregateIdentifier.equals(that.aggregateIdentifier);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * type.hashCode() + aggregateIdentifier.hashCode();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+/**
+ * <p>Hand-written binary form of one message type to provide the following to the
+ * {@link ExchangeBinarySerializer}:</p>
+ * <ul>
+ * <li>Writing the fields of a message through its getters</li>
+ * <li>Reading them back in the same order through its constructor, without reflection</li>
+ * </ul>
+ *
+ * <p>A codec that changes its fields must keep reading the older layouts, switching on
+ * {@link BinaryReader#getVersion()}.</p>
+ *
+ * @since 0.0.1
+ */
+abstract class BinaryCodec<T> {
+
+  private final Class<T> type;
+
+  BinaryCodec(Class<T> type) {
+    this.type = type;
+  }
+
+  Class<T> getType() {
+    return type;
+  }
+
+  abstract void write(T message, BinaryWriter out);
+
+  abstract T read(BinaryReader in);
+}
@@ -0,0 +1,111 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import org.axonframework.serializer.SerializationException;
+
+import java.util.List;
+
+/**
+ * <p>Input of the {@link ExchangeBinarySerializer} to provide the following to its codecs:</p>
+ * <ul>
+ * <li>The values written by a {@link BinaryWriter}, in the same order</li>
+ * <li>The schema version the message was written with</li>
+ * <li>Shared instances of the identifiers the message refers to</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+final class BinaryReader {
+
+  private final byte[] buffer;
+
+  private final int version;
+
+  private final IdentifierCache identifiers;
+
+  private final List<String> strings = Lists.newArrayList();
+
+  private int position;
+
+  BinaryReader(byte[] buffer, int version, IdentifierCache identifiers) {
+    this.buffer = buffer;
+    this.version = version;
+    this.identifiers = identifiers;
+  }
+
+  /**
+   * @return The schema version the message was written with
+   */
+  int getVersion() {
+    return version;
+  }
+
+  IdentifierCache identifiers() {
+    return identifiers;
+  }
+
+  int readByte() {
+    if (position >= buffer.length) {
+      throw new SerializationException("Unexpected end of binary message after " + position + " bytes");
+    }
+    return buffer[position++];
+  }
+
+  boolean readBoolean() {
+    return readByte() != 0;
+  }
+
+  long readUnsignedVarLong() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new SerializationException("Malformed variable-length number at byte " + position);
+  }
+
+  long readVarLong() {
+    long value = readUnsignedVarLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  int readLength() {
+    long length = readUnsignedVarLong();
+    if (length > buffer.length - position) {
+      throw new SerializationException("Length " + length + " at byte " + position + " exceeds the message");
+    }
+    return (int) length;
+  }
+
+  String readString() {
+    long tag = readUnsignedVarLong();
+    if (tag == BinaryWriter.NULL_STRING) {
+      return null;
+    }
+    if (tag == BinaryWriter.NEW_STRING) {
+      int length = readLength();
+      String value = new String(buffer, position, length, Charsets.UTF_8);
+      position += length;
+      strings.add(value);
+      return value;
+    }
+    long index = tag - BinaryWriter.FIRST_STRING_REFERENCE;
+    if (index >= strings.size()) {
+      throw new SerializationException("Reference to unknown string " + index + " at byte " + position);
+    }
+    return strings.get((int) index);
+  }
+
+  /**
+   * @throws SerializationException If any bytes were left unread
+   */
+  void checkFullyRead() {
+    if (position != buffer.length) {
+      throw new SerializationException((buffer.length - position) + " unexpected bytes at the end of binary message");
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * <p>Output of the {@link ExchangeBinarySerializer} to provide the following to its codecs:</p>
+ * <ul>
+ * <li>Variable-length integers, so that small numbers take a single byte</li>
+ * <li>Strings written once per message and referred to by position after that</li>
+ * </ul>
+ *
+ * <p>A string is written as a variable-length tag: 0 for null, 1 for a new string followed by its length and
+ * UTF-8 bytes, or 2 and up for the (tag - 2)th new string of the message.</p>
+ *
+ * @since 0.0.1
+ */
+final class BinaryWriter {
+
+  static final int NULL_STRING = 0;
+
+  static final int NEW_STRING = 1;
+
+  static final int FIRST_STRING_REFERENCE = 2;
+
+  private final Map<String, Integer> strings = Maps.newHashMap();
+
+  private byte[] buffer = new byte[128];
+
+  private int position;
+
+  void writeByte(int value) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) value;
+  }
+
+  void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  /**
+   * Writes a non-negative number in 7-bit groups, lowest first
+   */
+  void writeUnsignedVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  /**
+   * Writes a number of either sign, zig-zag encoded so that small negative numbers stay short
+   */
+  void writeVarLong(long value) {
+    writeUnsignedVarLong((value << 1) ^ (value >> 63));
+  }
+
+  void writeString(String value) {
+    if (value == null) {
+      writeUnsignedVarLong(NULL_STRING);
+      return;
+    }
+    Integer index = strings.get(value);
+    if (index != null) {
+      writeUnsignedVarLong(FIRST_STRING_REFERENCE + index);
+      return;
+    }
+    strings.put(value, strings.size());
+
+    byte[] bytes = value.getBytes(Charsets.UTF_8);
+    writeUnsignedVarLong(NEW_STRING);
+    writeUnsignedVarLong(bytes.length);
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(buffer, position);
+  }
+
+  private void ensureCapacity(int length) {
+    if (position + length > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+    }
+  }
+}
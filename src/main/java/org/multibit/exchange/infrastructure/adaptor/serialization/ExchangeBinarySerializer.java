@@ -0,0 +1,166 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import org.axonframework.serializer.ConverterFactory;
+import org.axonframework.serializer.SerializationException;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.SerializedType;
+import org.axonframework.serializer.Serializer;
+import org.axonframework.serializer.SimpleSerializedObject;
+import org.axonframework.serializer.SimpleSerializedType;
+import org.axonframework.serializer.UnknownSerializedTypeException;
+
+import java.util.Map;
+
+/**
+ * <p>Axon Serializer to provide the following to the event stores:</p>
+ * <ul>
+ * <li>A compact, hand-written binary form of the domain events, the exchange commands and the matching engine
+ * snapshot, written and read without reflection</li>
+ * <li>Fixed-point prices and quantities, and identifiers written once per message and shared when read</li>
+ * <li>A schema version in the revision of every binary message, so codecs can read older layouts</li>
+ * <li>Everything else (meta data, the Exchange snapshot, messages stored before this serializer was used) handled
+ * by a fallback serializer</li>
+ * </ul>
+ *
+ * <p>Binary messages are held as byte arrays. Stores which ask for a String, such as the Mongo event store, get
+ * the bytes Base64 encoded, since the default byte array to String conversion is only safe for text.</p>
+ *
+ * @since 0.0.1
+ */
+public class ExchangeBinarySerializer implements Serializer {
+
+  /**
+   * The current schema version of the binary messages. Version 2 added whether a matching engine snapshot is closed.
+   */
+  public static final int SCHEMA_VERSION = 2;
+
+  private static final String REVISION_PREFIX = "binary-";
+
+  private static final String REVISION = REVISION_PREFIX + SCHEMA_VERSION;
+
+  private static final BaseEncoding BASE64 = BaseEncoding.base64();
+
+  private final Serializer fallback;
+
+  private final Map<Class<?>, BinaryCodec<?>> codecsByType;
+
+  private final Map<String, BinaryCodec<?>> codecsByName;
+
+  private final IdentifierCache identifiers = new IdentifierCache();
+
+  /**
+   * @param fallback The serializer for the messages without a binary form
+   */
+  public ExchangeBinarySerializer(Serializer fallback) {
+    Preconditions.checkNotNull(fallback, "fallback must not be null");
+    this.fallback = fallback;
+
+    ImmutableMap.Builder<Class<?>, BinaryCodec<?>> byType = ImmutableMap.builder();
+    ImmutableMap.Builder<String, BinaryCodec<?>> byName = ImmutableMap.builder();
+    for (BinaryCodec<?> codec : ExchangeCodecs.all()) {
+      byType.put(codec.getType(), codec);
+      byName.put(codec.getType().getName(), codec);
+    }
+    codecsByType = byType.build();
+    codecsByName = byName.build();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> SerializedObject<T> serialize(Object object, Class<T> expectedRepresentation) {
+    BinaryCodec<Object> codec = (BinaryCodec<Object>) codecsByType.get(object.getClass());
+    if (codec == null) {
+      return fallback.serialize(object, expectedRepresentation);
+    }
+
+    BinaryWriter out = new BinaryWriter();
+    codec.write(object, out);
+    byte[] bytes = out.toByteArray();
+
+    SerializedType type = typeForClass(codec.getType());
+    if (expectedRepresentation == byte[].class) {
+      return new SimpleSerializedObject<T>((T) bytes, expectedRepresentation, type);
+    }
+    if (expectedRepresentation == String.class) {
+      return new SimpleSerializedObject<T>((T) BASE64.encode(bytes), expectedRepresentation, type);
+    }
+    return getConverterFactory().getConverter(byte[].class, expectedRepresentation)
+        .convert(new SimpleSerializedObject<byte[]>(bytes, byte[].class, type));
+  }
+
+  @Override
+  public <T> boolean canSerializeTo(Class<T> expectedRepresentation) {
+    return fallback.canSerializeTo(expectedRepresentation)
+        && (expectedRepresentation == byte[].class
+        || expectedRepresentation == String.class
+        || getConverterFactory().hasConverter(byte[].class, expectedRepresentation));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <S, T> T deserialize(SerializedObject<S> serializedObject) {
+    BinaryCodec<?> codec = codecFor(serializedObject.getType());
+    if (codec == null) {
+      return fallback.deserialize(serializedObject);
+    }
+
+    int version = Integer.parseInt(serializedObject.getType().getRevision().substring(REVISION_PREFIX.length()));
+    if (version > SCHEMA_VERSION) {
+      throw new SerializationException("Cannot read " + serializedObject.getType().getName() + " of schema version "
+          + version + ", the latest known is " + SCHEMA_VERSION);
+    }
+
+    BinaryReader in = new BinaryReader(bytesOf(serializedObject), version, identifiers);
+    T message = (T) codec.read(in);
+    in.checkFullyRead();
+    return message;
+  }
+
+  @Override
+  public Class classForType(SerializedType type) throws UnknownSerializedTypeException {
+    BinaryCodec<?> codec = codecFor(type);
+    return (codec == null) ? fallback.classForType(type) : codec.getType();
+  }
+
+  @Override
+  public SerializedType typeForClass(Class type) {
+    return codecsByType.containsKey(type)
+        ? new SimpleSerializedType(type.getName(), REVISION)
+        : fallback.typeForClass(type);
+  }
+
+  @Override
+  public ConverterFactory getConverterFactory() {
+    return fallback.getConverterFactory();
+  }
+
+  /**
+   * @return The codec for a binary message, or null for one of the fallback serializer
+   */
+  private BinaryCodec<?> codecFor(SerializedType type) {
+    String revision = type.getRevision();
+    if (revision == null || !revision.startsWith(REVISION_PREFIX)) {
+      return null;
+    }
+    return codecsByName.get(type.getName());
+  }
+
+  private byte[] bytesOf(SerializedObject<?> serializedObject) {
+    Object data = serializedObject.getData();
+    if (data instanceof byte[]) {
+      return (byte[]) data;
+    }
+    if (data instanceof String) {
+      return BASE64.decode((String) data);
+    }
+    return convertToBytes(serializedObject);
+  }
+
+  private <S> byte[] convertToBytes(SerializedObject<S> serializedObject) {
+    return getConverterFactory().getConverter(serializedObject.getContentType(), byte[].class)
+        .convert(serializedObject).getData();
+  }
+}
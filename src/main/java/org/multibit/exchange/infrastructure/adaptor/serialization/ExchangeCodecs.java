@@ -0,0 +1,625 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.axonframework.serializer.SerializationException;
+import org.joda.time.DateTime;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.CurrencyPairRemovedEvent;
+import org.multibit.exchange.domain.event.ExchangeCreatedEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedToExistingPriceLevelEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedToNewPriceLevelEvent;
+import org.multibit.exchange.domain.event.MarketOrderAddedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineClosedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineCreatedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineMigratedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineReopenedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.PriceLevelCompletelyFilledEvent;
+import org.multibit.exchange.domain.event.TopOrderCompletelyFilledEvent;
+import org.multibit.exchange.domain.event.TopOrderPartiallyFilledEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.ItemQuantity;
+import org.multibit.exchange.domain.model.LimitOrder;
+import org.multibit.exchange.domain.model.MarketOrder;
+import org.multibit.exchange.domain.model.MatchingEngineSnapshot;
+import org.multibit.exchange.domain.model.Order;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.domain.model.Ticker;
+import org.multibit.exchange.domain.model.Trade;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.BatchPlaceOrdersCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CancelOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CreateExchangeCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CloseMatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OpenMatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.RegisterCurrencyPairCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.RemoveCurrencyPairCommand;
+
+import java.util.List;
+
+/**
+ * <p>The codecs of the {@link ExchangeBinarySerializer} to provide the following:</p>
+ * <ul>
+ * <li>Binary forms of every domain event, every exchange command and the matching engine snapshot</li>
+ * <li>Shared forms of the values they hold: identifiers, prices, quantities, orders and trades</li>
+ * </ul>
+ *
+ * <p>Prices and quantities are written as their {@link org.multibit.exchange.domain.model.FixedPoint} units and
+ * times as epoch milliseconds. The field order of a codec is its schema: append new fields at the end and read
+ * them only from the version that added them.</p>
+ *
+ * @since 0.0.1
+ */
+final class ExchangeCodecs {
+
+  private static final int NULL = -1;
+
+  private static final int LIMIT_ORDER = 0;
+
+  private static final int MARKET_ORDER = 1;
+
+  private static final int PRICE_IN_UNITS = 0;
+
+  private static final int PRICE_AS_STRING = 1;
+
+  private ExchangeCodecs() {
+  }
+
+  /**
+   * @return A codec for each supported message type
+   */
+  static List<BinaryCodec<?>> all() {
+    return ImmutableList.<BinaryCodec<?>>of(
+        // Exchange events
+        new BinaryCodec<ExchangeCreatedEvent>(ExchangeCreatedEvent.class) {
+          @Override
+          void write(ExchangeCreatedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+          }
+
+          @Override
+          ExchangeCreatedEvent read(BinaryReader in) {
+            return new ExchangeCreatedEvent(readExchangeId(in));
+          }
+        },
+        new BinaryCodec<CurrencyPairRegisteredEvent>(CurrencyPairRegisteredEvent.class) {
+          @Override
+          void write(CurrencyPairRegisteredEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeCurrencyPairId(event.getCurrencyPairId(), out);
+            writeCurrencyId(event.getBaseCurrencyId(), out);
+            writeCurrencyId(event.getCounterCurrencyId(), out);
+            writePrice(event.getTickSize(), out);
+          }
+
+          @Override
+          CurrencyPairRegisteredEvent read(BinaryReader in) {
+            return new CurrencyPairRegisteredEvent(readExchangeId(in), readCurrencyPairId(in), readCurrencyId(in),
+                readCurrencyId(in), readPrice(in));
+          }
+        },
+        new BinaryCodec<CurrencyPairRemovedEvent>(CurrencyPairRemovedEvent.class) {
+          @Override
+          void write(CurrencyPairRemovedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeCurrencyPairId(event.getCurrencyPairId(), out);
+          }
+
+          @Override
+          CurrencyPairRemovedEvent read(BinaryReader in) {
+            return new CurrencyPairRemovedEvent(readExchangeId(in), readCurrencyPairId(in));
+          }
+        },
+
+        // Matching engine events
+        new BinaryCodec<MatchingEngineCreatedEvent>(MatchingEngineCreatedEvent.class) {
+          @Override
+          void write(MatchingEngineCreatedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeCurrencyPairId(event.getCurrencyPairId(), out);
+            writeCurrencyId(event.getBaseCurrencyId(), out);
+            writeCurrencyId(event.getCounterCurrencyId(), out);
+            writePrice(event.getTickSize(), out);
+          }
+
+          @Override
+          MatchingEngineCreatedEvent read(BinaryReader in) {
+            return new MatchingEngineCreatedEvent(readExchangeId(in), readCurrencyPairId(in), readCurrencyId(in),
+                readCurrencyId(in), readPrice(in));
+          }
+        },
+        new BinaryCodec<MatchingEngineMigratedEvent>(MatchingEngineMigratedEvent.class) {
+          @Override
+          void write(MatchingEngineMigratedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeCurrencyPairId(event.getCurrencyPairId(), out);
+            writeCurrencyId(event.getBaseCurrencyId(), out);
+            writeCurrencyId(event.getCounterCurrencyId(), out);
+            writePrice(event.getTickSize(), out);
+            writeLimitOrders(event.getBuyOrders(), out);
+            writeLimitOrders(event.getSellOrders(), out);
+          }
+
+          @Override
+          MatchingEngineMigratedEvent read(BinaryReader in) {
+            return new MatchingEngineMigratedEvent(readExchangeId(in), readCurrencyPairId(in), readCurrencyId(in),
+                readCurrencyId(in), readPrice(in), readLimitOrders(in), readLimitOrders(in));
+          }
+        },
+        new BinaryCodec<MatchingEngineClosedEvent>(MatchingEngineClosedEvent.class) {
+          @Override
+          void write(MatchingEngineClosedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeCurrencyPairId(event.getCurrencyPairId(), out);
+          }
+
+          @Override
+          MatchingEngineClosedEvent read(BinaryReader in) {
+            return new MatchingEngineClosedEvent(readExchangeId(in), readCurrencyPairId(in));
+          }
+        },
+        new BinaryCodec<MatchingEngineReopenedEvent>(MatchingEngineReopenedEvent.class) {
+          @Override
+          void write(MatchingEngineReopenedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeCurrencyPairId(event.getCurrencyPairId(), out);
+          }
+
+          @Override
+          MatchingEngineReopenedEvent read(BinaryReader in) {
+            return new MatchingEngineReopenedEvent(readExchangeId(in), readCurrencyPairId(in));
+          }
+        },
+        new BinaryCodec<LimitOrderAddedEvent>(LimitOrderAddedEvent.class) {
+          @Override
+          void write(LimitOrderAddedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeOrder(event.getOrder(), out);
+          }
+
+          @Override
+          LimitOrderAddedEvent read(BinaryReader in) {
+            return new LimitOrderAddedEvent(readExchangeId(in), (LimitOrder) readOrder(in));
+          }
+        },
+        new BinaryCodec<LimitOrderAddedToNewPriceLevelEvent>(LimitOrderAddedToNewPriceLevelEvent.class) {
+          @Override
+          void write(LimitOrderAddedToNewPriceLevelEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeOrder(event.getOrder(), out);
+            writePrice(event.getPriceLevel(), out);
+          }
+
+          @Override
+          LimitOrderAddedToNewPriceLevelEvent read(BinaryReader in) {
+            return new LimitOrderAddedToNewPriceLevelEvent(readExchangeId(in), (LimitOrder) readOrder(in), readPrice(in));
+          }
+        },
+        new BinaryCodec<LimitOrderAddedToExistingPriceLevelEvent>(LimitOrderAddedToExistingPriceLevelEvent.class) {
+          @Override
+          void write(LimitOrderAddedToExistingPriceLevelEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeOrder(event.getOrder(), out);
+            writePrice(event.getPriceLevel(), out);
+          }
+
+          @Override
+          LimitOrderAddedToExistingPriceLevelEvent read(BinaryReader in) {
+            return new LimitOrderAddedToExistingPriceLevelEvent(readExchangeId(in), (LimitOrder) readOrder(in), readPrice(in));
+          }
+        },
+        new BinaryCodec<MarketOrderAddedEvent>(MarketOrderAddedEvent.class) {
+          @Override
+          void write(MarketOrderAddedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeTicker(event.getTicker(), out);
+            writeSide(event.getSide(), out);
+            writeOrder(event.getOrder(), out);
+          }
+
+          @Override
+          MarketOrderAddedEvent read(BinaryReader in) {
+            return new MarketOrderAddedEvent(readExchangeId(in), readTicker(in), readSide(in), (MarketOrder) readOrder(in));
+          }
+        },
+        new BinaryCodec<OrderCancelledEvent>(OrderCancelledEvent.class) {
+          @Override
+          void write(OrderCancelledEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeOrder(event.getOrder(), out);
+            out.writeString(event.getReason());
+          }
+
+          @Override
+          OrderCancelledEvent read(BinaryReader in) {
+            return new OrderCancelledEvent(readExchangeId(in), readOrder(in), in.readString());
+          }
+        },
+        new BinaryCodec<TradeExecutedEvent>(TradeExecutedEvent.class) {
+          @Override
+          void write(TradeExecutedEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeSide(event.getSide(), out);
+            writeTrade(event.getTrade(), out);
+          }
+
+          @Override
+          TradeExecutedEvent read(BinaryReader in) {
+            ExchangeId exchangeId = readExchangeId(in);
+            Side side = readSide(in);
+            return new TradeExecutedEvent(exchangeId, readTrade(in), side);
+          }
+        },
+        new BinaryCodec<TopOrderPartiallyFilledEvent>(TopOrderPartiallyFilledEvent.class) {
+          @Override
+          void write(TopOrderPartiallyFilledEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeSide(event.getSide(), out);
+            writePrice(event.getPriceLevel(), out);
+            writeTrade(event.getTrade(), out);
+          }
+
+          @Override
+          TopOrderPartiallyFilledEvent read(BinaryReader in) {
+            return new TopOrderPartiallyFilledEvent(readExchangeId(in), readSide(in), readPrice(in), readTrade(in));
+          }
+        },
+        new BinaryCodec<TopOrderCompletelyFilledEvent>(TopOrderCompletelyFilledEvent.class) {
+          @Override
+          void write(TopOrderCompletelyFilledEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeSide(event.getSide(), out);
+            writePrice(event.getPriceLevel(), out);
+            writeTrade(event.getTrade(), out);
+          }
+
+          @Override
+          TopOrderCompletelyFilledEvent read(BinaryReader in) {
+            return new TopOrderCompletelyFilledEvent(readExchangeId(in), readSide(in), readPrice(in), readTrade(in));
+          }
+        },
+        new BinaryCodec<PriceLevelCompletelyFilledEvent>(PriceLevelCompletelyFilledEvent.class) {
+          @Override
+          void write(PriceLevelCompletelyFilledEvent event, BinaryWriter out) {
+            writeExchangeId(event.getExchangeId(), out);
+            writeSide(event.getSide(), out);
+            writePrice(event.getPriceLevel(), out);
+            writeTrade(event.getTrade(), out);
+          }
+
+          @Override
+          PriceLevelCompletelyFilledEvent read(BinaryReader in) {
+            return new PriceLevelCompletelyFilledEvent(readExchangeId(in), readSide(in), readPrice(in), readTrade(in));
+          }
+        },
+
+        // Snapshots
+        new BinaryCodec<MatchingEngineSnapshot>(MatchingEngineSnapshot.class) {
+          @Override
+          void write(MatchingEngineSnapshot snapshot, BinaryWriter out) {
+            writeExchangeId(snapshot.getExchangeId(), out);
+            writeCurrencyPairId(snapshot.getCurrencyPairId(), out);
+            writeCurrencyId(snapshot.getBaseCurrencyId(), out);
+            writeCurrencyId(snapshot.getCounterCurrencyId(), out);
+            writePrice(snapshot.getTickSize(), out);
+            writeLimitOrders(snapshot.getBuyOrders(), out);
+            writeLimitOrders(snapshot.getSellOrders(), out);
+            out.writeBoolean(snapshot.isClosed());
+          }
+
+          @Override
+          MatchingEngineSnapshot read(BinaryReader in) {
+            ExchangeId exchangeId = readExchangeId(in);
+            CurrencyPairId currencyPairId = readCurrencyPairId(in);
+            return new MatchingEngineSnapshot(new MatchingEngineId(exchangeId, currencyPairId), exchangeId,
+                currencyPairId, readCurrencyId(in), readCurrencyId(in), readPrice(in), readLimitOrders(in), readLimitOrders(in),
+                // Engines could not be closed before schema version 2
+                in.getVersion() >= 2 && in.readBoolean());
+          }
+        },
+
+        // Exchange commands
+        new BinaryCodec<CreateExchangeCommand>(CreateExchangeCommand.class) {
+          @Override
+          void write(CreateExchangeCommand command, BinaryWriter out) {
+            writeExchangeId(command.getExchangeId(), out);
+          }
+
+          @Override
+          CreateExchangeCommand read(BinaryReader in) {
+            return new CreateExchangeCommand(readExchangeId(in));
+          }
+        },
+        new BinaryCodec<RegisterCurrencyPairCommand>(RegisterCurrencyPairCommand.class) {
+          @Override
+          void write(RegisterCurrencyPairCommand command, BinaryWriter out) {
+            writeExchangeId(command.getExchangeId(), out);
+            writeCurrencyPairId(command.getCurrencyPairId(), out);
+            writeCurrencyId(command.getBaseCurrencyId(), out);
+            writeCurrencyId(command.getCounterCurrencyId(), out);
+            writePrice(command.getTickSize(), out);
+          }
+
+          @Override
+          RegisterCurrencyPairCommand read(BinaryReader in) {
+            return new RegisterCurrencyPairCommand(readExchangeId(in), readCurrencyPairId(in), readCurrencyId(in),
+                readCurrencyId(in), readPrice(in));
+          }
+        },
+        new BinaryCodec<RemoveCurrencyPairCommand>(RemoveCurrencyPairCommand.class) {
+          @Override
+          void write(RemoveCurrencyPairCommand command, BinaryWriter out) {
+            writeExchangeId(command.getExchangeId(), out);
+            writeCurrencyPairId(command.getCurrencyPairId(), out);
+          }
+
+          @Override
+          RemoveCurrencyPairCommand read(BinaryReader in) {
+            return new RemoveCurrencyPairCommand(readExchangeId(in), readCurrencyPairId(in));
+          }
+        },
+
+        // Matching engine commands
+        new BinaryCodec<OpenMatchingEngineCommand>(OpenMatchingEngineCommand.class) {
+          @Override
+          void write(OpenMatchingEngineCommand command, BinaryWriter out) {
+            writeExchangeId(command.getExchangeId(), out);
+            writeCurrencyPairId(command.getCurrencyPairId(), out);
+            writeCurrencyId(command.getBaseCurrencyId(), out);
+            writeCurrencyId(command.getCounterCurrencyId(), out);
+            writePrice(command.getTickSize(), out);
+          }
+
+          @Override
+          OpenMatchingEngineCommand read(BinaryReader in) {
+            return new OpenMatchingEngineCommand(readExchangeId(in), readCurrencyPairId(in), readCurrencyId(in),
+                readCurrencyId(in), readPrice(in));
+          }
+        },
+        new BinaryCodec<CloseMatchingEngineCommand>(CloseMatchingEngineCommand.class) {
+          @Override
+          void write(CloseMatchingEngineCommand command, BinaryWriter out) {
+            writeExchangeId(command.getExchangeId(), out);
+            writeCurrencyPairId(command.getCurrencyPairId(), out);
+          }
+
+          @Override
+          CloseMatchingEngineCommand read(BinaryReader in) {
+            return new CloseMatchingEngineCommand(readExchangeId(in), readCurrencyPairId(in));
+          }
+        },
+        new BinaryCodec<PlaceOrderCommand>(PlaceOrderCommand.class) {
+          @Override
+          void write(PlaceOrderCommand command, BinaryWriter out) {
+            writeExchangeId(command.getExchangeId(), out);
+            writeOrderId(command.getOrderId(), out);
+            writeOrderDescriptor(command.getOrderDescriptor(), out);
+          }
+
+          @Override
+          PlaceOrderCommand read(BinaryReader in) {
+            return new PlaceOrderCommand(readExchangeId(in), readOrderId(in), readOrderDescriptor(in));
+          }
+        },
+        new BinaryCodec<BatchPlaceOrdersCommand>(BatchPlaceOrdersCommand.class) {
+          @Override
+          void write(BatchPlaceOrdersCommand command, BinaryWriter out) {
+            writeExchangeId(command.getExchangeId(), out);
+            out.writeUnsignedVarLong(command.getOrderIds().size());
+            for (int i = 0; i < command.getOrderIds().size(); i++) {
+              writeOrderId(command.getOrderIds().get(i), out);
+              writeOrderDescriptor(command.getOrderDescriptors().get(i), out);
+            }
+          }
+
+          @Override
+          BatchPlaceOrdersCommand read(BinaryReader in) {
+            ExchangeId exchangeId = readExchangeId(in);
+            int size = in.readLength();
+            List<OrderId> orderIds = Lists.newArrayListWithCapacity(size);
+            List<OrderDescriptor> orders = Lists.newArrayListWithCapacity(size);
+            for (int i = 0; i < size; i++) {
+              orderIds.add(readOrderId(in));
+              orders.add(readOrderDescriptor(in));
+            }
+            return new BatchPlaceOrdersCommand(exchangeId, orderIds, orders);
+          }
+        },
+        new BinaryCodec<CancelOrderCommand>(CancelOrderCommand.class) {
+          @Override
+          void write(CancelOrderCommand command, BinaryWriter out) {
+            writeExchangeId(command.getExchangeId(), out);
+            writeCurrencyPairId(command.getCurrencyPairId(), out);
+            writeOrderId(command.getOrderId(), out);
+          }
+
+          @Override
+          CancelOrderCommand read(BinaryReader in) {
+            return new CancelOrderCommand(readExchangeId(in), readCurrencyPairId(in), readOrderId(in));
+          }
+        }
+    );
+  }
+
+  // Identifiers
+
+  static void writeExchangeId(ExchangeId exchangeId, BinaryWriter out) {
+    out.writeString((exchangeId == null) ? null : exchangeId.getIdentifier());
+  }
+
+  static ExchangeId readExchangeId(BinaryReader in) {
+    return in.identifiers().exchangeId(in.readString());
+  }
+
+  static void writeCurrencyPairId(CurrencyPairId currencyPairId, BinaryWriter out) {
+    out.writeString((currencyPairId == null) ? null : currencyPairId.getIdentifier());
+  }
+
+  static CurrencyPairId readCurrencyPairId(BinaryReader in) {
+    return in.identifiers().currencyPairId(in.readString());
+  }
+
+  static void writeCurrencyId(CurrencyId currencyId, BinaryWriter out) {
+    out.writeString((currencyId == null) ? null : currencyId.getIdentifier());
+  }
+
+  static CurrencyId readCurrencyId(BinaryReader in) {
+    return in.identifiers().currencyId(in.readString());
+  }
+
+  static void writeTicker(Ticker ticker, BinaryWriter out) {
+    out.writeString((ticker == null) ? null : ticker.getSymbol());
+  }
+
+  static Ticker readTicker(BinaryReader in) {
+    return in.identifiers().ticker(in.readString());
+  }
+
+  static void writeOrderId(OrderId orderId, BinaryWriter out) {
+    out.writeString((orderId == null) ? null : orderId.getIdentifier());
+  }
+
+  static OrderId readOrderId(BinaryReader in) {
+    String identifier = in.readString();
+    return (identifier == null) ? null : new OrderId(identifier);
+  }
+
+  // Values
+
+  static void writeSide(Side side, BinaryWriter out) {
+    out.writeByte((side == null) ? NULL : (side == Side.BUY) ? 0 : 1);
+  }
+
+  static Side readSide(BinaryReader in) {
+    int side = in.readByte();
+    return (side == NULL) ? null : (side == 0) ? Side.BUY : Side.SELL;
+  }
+
+  /**
+   * Writes a price as its units, or as its digits if it is too large to have units
+   */
+  static void writePrice(ItemPrice price, BinaryWriter out) {
+    if (price == null) {
+      out.writeByte(NULL);
+    } else if (price.isRepresentableInUnits()) {
+      out.writeByte(PRICE_IN_UNITS);
+      out.writeUnsignedVarLong(price.getUnits());
+    } else {
+      out.writeByte(PRICE_AS_STRING);
+      out.writeString(price.getRaw());
+    }
+  }
+
+  static ItemPrice readPrice(BinaryReader in) {
+    int kind = in.readByte();
+    switch (kind) {
+      case NULL:
+        return null;
+      case PRICE_IN_UNITS:
+        return ItemPrice.fromUnits(in.readUnsignedVarLong());
+      case PRICE_AS_STRING:
+        return new ItemPrice(in.readString());
+      default:
+        throw new SerializationException("Unknown price kind " + kind);
+    }
+  }
+
+  static void writeQuantity(ItemQuantity quantity, BinaryWriter out) {
+    out.writeUnsignedVarLong(quantity.getUnits());
+  }
+
+  static ItemQuantity readQuantity(BinaryReader in) {
+    return ItemQuantity.fromUnits(in.readUnsignedVarLong());
+  }
+
+  static void writeOrder(Order order, BinaryWriter out) {
+    if (order == null) {
+      out.writeByte(NULL);
+      return;
+    }
+    out.writeByte(order.isLimitOrder() ? LIMIT_ORDER : MARKET_ORDER);
+    writeOrderId(order.getId(), out);
+    out.writeString(order.getBroker());
+    writeSide(order.getSide(), out);
+    writeQuantity(order.getInitialQuantity(), out);
+    writeTicker(order.getTicker(), out);
+    out.writeVarLong(order.getCreatedTime().getMillis());
+    writeQuantity(order.getFilledQuantity(), out);
+    if (order.isLimitOrder()) {
+      writePrice(((LimitOrder) order).getLimitPrice(), out);
+    }
+  }
+
+  static Order readOrder(BinaryReader in) {
+    int kind = in.readByte();
+    if (kind == NULL) {
+      return null;
+    }
+    if (kind != LIMIT_ORDER && kind != MARKET_ORDER) {
+      throw new SerializationException("Unknown order kind " + kind);
+    }
+    OrderId orderId = readOrderId(in);
+    String broker = in.identifiers().broker(in.readString());
+    Side side = readSide(in);
+    ItemQuantity initialQuantity = readQuantity(in);
+    Ticker ticker = readTicker(in);
+    DateTime createdTime = new DateTime(in.readVarLong());
+    ItemQuantity filledQuantity = readQuantity(in);
+
+    Order order = (kind == LIMIT_ORDER)
+        ? new LimitOrder(orderId, broker, side, initialQuantity, ticker, readPrice(in), createdTime)
+        : new MarketOrder(orderId, broker, side, initialQuantity, ticker, createdTime);
+    return filledQuantity.isZero() ? order : order.decreasedBy(filledQuantity);
+  }
+
+  static void writeLimitOrders(List<LimitOrder> orders, BinaryWriter out) {
+    out.writeUnsignedVarLong(orders.size());
+    for (LimitOrder order : orders) {
+      writeOrder(order, out);
+    }
+  }
+
+  static List<LimitOrder> readLimitOrders(BinaryReader in) {
+    int size = in.readLength();
+    List<LimitOrder> orders = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      orders.add((LimitOrder) readOrder(in));
+    }
+    return orders;
+  }
+
+  static void writeTrade(Trade trade, BinaryWriter out) {
+    writeCurrencyPairId(trade.getCurrencyPairId(), out);
+    out.writeString(trade.getBuySideBroker());
+    out.writeString(trade.getSellSideBroker());
+    writePrice(trade.getPrice(), out);
+    writeQuantity(trade.getQuantity(), out);
+  }
+
+  static Trade readTrade(BinaryReader in) {
+    return new Trade(readCurrencyPairId(in), in.identifiers().broker(in.readString()),
+        in.identifiers().broker(in.readString()), readPrice(in), readQuantity(in));
+  }
+
+  static void writeOrderDescriptor(OrderDescriptor order, BinaryWriter out) {
+    out.writeString(order.getBroker());
+    out.writeString(order.getSide());
+    out.writeString(order.getQty());
+    out.writeString(order.getTicker());
+    out.writeString(order.getPrice());
+  }
+
+  static OrderDescriptor readOrderDescriptor(BinaryReader in) {
+    return new OrderDescriptor(in.identifiers().broker(in.readString()), in.readString(), in.readString(),
+        in.readString(), in.readString());
+  }
+}
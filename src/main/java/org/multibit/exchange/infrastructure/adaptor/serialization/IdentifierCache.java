@@ -0,0 +1,85 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.multibit.exchange.domain.model.Ticker;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+
+/**
+ * <p>Interned identifiers to provide the following to the {@link ExchangeBinarySerializer}:</p>
+ * <ul>
+ * <li>One shared instance of each exchange, currency pair, currency and ticker identifier</li>
+ * <li>One shared instance of each broker name</li>
+ * </ul>
+ *
+ * <p>There are few of these and nearly every event repeats them, so sharing them saves validating, upper-casing
+ * and allocating them on each read. Order identifiers are unique and are not interned.</p>
+ *
+ * @since 0.0.1
+ */
+final class IdentifierCache {
+
+  private static final int MAXIMUM_SIZE = 4096;
+
+  private final LoadingCache<String, ExchangeId> exchangeIds = newCache(new CacheLoader<String, ExchangeId>() {
+    @Override
+    public ExchangeId load(String identifier) {
+      return new ExchangeId(identifier);
+    }
+  });
+
+  private final LoadingCache<String, CurrencyPairId> currencyPairIds = newCache(new CacheLoader<String, CurrencyPairId>() {
+    @Override
+    public CurrencyPairId load(String identifier) {
+      return new CurrencyPairId(identifier);
+    }
+  });
+
+  private final LoadingCache<String, CurrencyId> currencyIds = newCache(new CacheLoader<String, CurrencyId>() {
+    @Override
+    public CurrencyId load(String identifier) {
+      return new CurrencyId(identifier);
+    }
+  });
+
+  private final LoadingCache<String, Ticker> tickers = newCache(new CacheLoader<String, Ticker>() {
+    @Override
+    public Ticker load(String symbol) {
+      return new Ticker(symbol);
+    }
+  });
+
+  private final LoadingCache<String, String> brokers = newCache(new CacheLoader<String, String>() {
+    @Override
+    public String load(String broker) {
+      return broker;
+    }
+  });
+
+  ExchangeId exchangeId(String identifier) {
+    return (identifier == null) ? null : exchangeIds.getUnchecked(identifier);
+  }
+
+  CurrencyPairId currencyPairId(String identifier) {
+    return (identifier == null) ? null : currencyPairIds.getUnchecked(identifier);
+  }
+
+  CurrencyId currencyId(String identifier) {
+    return (identifier == null) ? null : currencyIds.getUnchecked(identifier);
+  }
+
+  Ticker ticker(String symbol) {
+    return (symbol == null) ? null : tickers.getUnchecked(symbol);
+  }
+
+  String broker(String broker) {
+    return (broker == null) ? null : brokers.getUnchecked(broker);
+  }
+
+  private static <T> LoadingCache<String, T> newCache(CacheLoader<String, T> loader) {
+    return CacheBuilder.newBuilder().maximumSize(MAXIMUM_SIZE).build(loader);
+  }
+}
@@ -0,0 +1,182 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import org.axonframework.commandhandling.annotation.AnnotationCommandTargetResolver;
+import org.axonframework.commandhandling.disruptor.DisruptorConfiguration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>Configuration to provide the following to the command bus:</p>
+ * <ul>
+ * <li>Ring buffer size, wait strategy and thread counts of the DisruptorCommandBus</li>
+ * <li>Named profiles giving sensible defaults for low latency or low CPU deployments</li>
+ * </ul>
+ *
+ * <p>Settings left out of the YAML come from the profile, so a deployment can pick a profile and override only
+ * what its hardware needs, for example:</p>
+ * <pre>
+ * commandBus:
+ *   profile: LOW_LATENCY
+ *   invokerThreads: 2
+ * </pre>
+ *
+ * @since 0.0.1
+ */
+public class CommandBusConfiguration {
+
+  public enum Profile {
+
+    /**
+     * Blocks waiting threads as Axon does by default, with an invoker thread per core
+     */
+    DEFAULT(Strategy.BLOCKING, Runtime.getRuntime().availableProcessors()),
+
+    /**
+     * Busy-spins waiting threads for the lowest hand-off latency at the cost of a core per thread
+     */
+    LOW_LATENCY(Strategy.BUSY_SPIN, Runtime.getRuntime().availableProcessors()),
+
+    /**
+     * Blocks waiting threads with a single invoker thread, for shared or small hosts
+     */
+    LOW_CPU(Strategy.BLOCKING, 1);
+
+    private final Strategy waitStrategy;
+
+    private final int invokerThreads;
+
+    Profile(Strategy waitStrategy, int invokerThreads) {
+      this.waitStrategy = waitStrategy;
+      this.invokerThreads = invokerThreads;
+    }
+  }
+
+  public enum Strategy {
+
+    BLOCKING {
+      @Override
+      WaitStrategy create() {
+        return new BlockingWaitStrategy();
+      }
+    },
+
+    SLEEPING {
+      @Override
+      WaitStrategy create() {
+        return new SleepingWaitStrategy();
+      }
+    },
+
+    YIELDING {
+      @Override
+      WaitStrategy create() {
+        return new YieldingWaitStrategy();
+      }
+    },
+
+    BUSY_SPIN {
+      @Override
+      WaitStrategy create() {
+        return new BusySpinWaitStrategy();
+      }
+    };
+
+    abstract WaitStrategy create();
+  }
+
+  public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+  @NotNull
+  @JsonProperty
+  private Profile profile = Profile.DEFAULT;
+
+  @Min(1)
+  @JsonProperty
+  private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+  @JsonProperty
+  private Strategy waitStrategy;
+
+  @Min(1)
+  @JsonProperty
+  private Integer invokerThreads;
+
+  @Min(1)
+  @JsonProperty
+  private int publisherThreads = 1;
+
+  public Profile getProfile() {
+    return profile;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * @return The configured wait strategy, or the profile's if none is configured
+   */
+  public Strategy getWaitStrategy() {
+    return (waitStrategy == null) ? profile.waitStrategy : waitStrategy;
+  }
+
+  /**
+   * @return The configured invoker thread count, or the profile's if none is configured
+   */
+  public int getInvokerThreads() {
+    return (invokerThreads == null) ? profile.invokerThreads : invokerThreads;
+  }
+
+  public int getPublisherThreads() {
+    return publisherThreads;
+  }
+
+  /**
+   * <p>Builds the executor the bus threads run on. They are named so they can be told apart in thread dumps and
+   * profilers. Whoever builds it shuts it down, as the command bus does not.</p>
+   */
+  public ExecutorService newExecutor() {
+    return Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("command-bus-%d").build());
+  }
+
+  /**
+   * <p>Builds the Axon configuration for these settings</p>
+   *
+   * @param executor The executor to run the bus threads on, see {@link #newExecutor()}
+   */
+  public DisruptorConfiguration newDisruptorConfiguration(Executor executor) {
+    Preconditions.checkState(Integer.bitCount(bufferSize) == 1, "bufferSize must be a power of 2 but was %s", bufferSize);
+
+    DisruptorConfiguration configuration = new DisruptorConfiguration();
+    configuration.setCommandTargetResolver(new AnnotationCommandTargetResolver());
+    configuration.setBufferSize(bufferSize);
+    configuration.setWaitStrategy(getWaitStrategy().create());
+    configuration.setInvokerThreadCount(getInvokerThreads());
+    configuration.setPublisherThreadCount(getPublisherThreads());
+    configuration.setExecutor(executor);
+    return configuration;
+  }
+
+  @Override
+  public String toString() {
+    return "CommandBusConfiguration{" +
+        "profile=" + profile +
+        ", bufferSize=" + bufferSize +
+        ", waitStrategy=" + getWaitStrategy() +
+        ", invokerThreads=" + getInvokerThreads() +
+        ", publisherThreads=" + publisherThreads +
+        '}';
+  }
+}
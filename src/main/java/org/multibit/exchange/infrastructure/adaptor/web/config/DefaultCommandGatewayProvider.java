@@ -1,15 +1,15 @@
 package org.multibit.exchange.infrastructure.adaptor.web.config;
 
 import org.axonframework.commandhandling.annotation.AggregateAnnotationCommandHandler;
-import org.axonframework.commandhandling.annotation.AnnotationCommandTargetResolver;
+import org.axonframework.commandhandling.annotation.AnnotationCommandHandlerAdapter;
 import org.axonframework.commandhandling.disruptor.DisruptorCommandBus;
-import org.axonframework.commandhandling.disruptor.DisruptorConfiguration;
 import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
-import org.axonframework.eventhandling.EventBus;
 import org.axonframework.eventsourcing.GenericAggregateFactory;
-import org.axonframework.eventstore.EventStore;
 import org.axonframework.repository.Repository;
 import org.multibit.exchange.domain.model.Exchange;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.domain.model.MatchingEngineCommandHandler;
+import org.multibit.exchange.infrastructure.adaptor.persistence.snapshot.MatchingEngineAggregateFactory;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -20,6 +20,9 @@ import javax.inject.Provider;
  * <li>Instance of CommandGateway</li>
  * </ul>
  *
+ * <p>Each currency pair's {@link MatchingEngine} is a separate aggregate and the command bus has an invoker
+ * thread per core unless configured otherwise, so commands for different pairs are handled concurrently.</p>
+ *
  * @since 0.0.1
  *  
  */
@@ -29,19 +32,24 @@ public class DefaultCommandGatewayProvider implements Provider<DefaultCommandGat
 
   private final Repository<Exchange> repository;
 
-  @Inject
-  public DefaultCommandGatewayProvider(EventStore eventStore, EventBus eventBus) {
-    DisruptorConfiguration configuration = new DisruptorConfiguration();
-    configuration.setCommandTargetResolver(new AnnotationCommandTargetResolver());
+  private final Repository<MatchingEngine> matchingEngineRepository;
 
-    commandBus = new DisruptorCommandBus(eventStore, eventBus, configuration);
+  /**
+   * @param commandBus The single command bus, see {@link DisruptorCommandBusProvider}
+   */
+  @Inject
+  public DefaultCommandGatewayProvider(DisruptorCommandBus commandBus) {
+    this.commandBus = commandBus;
     repository = commandBus.createRepository(new GenericAggregateFactory(Exchange.class));
+    matchingEngineRepository = commandBus.createRepository(new MatchingEngineAggregateFactory());
 
     registerCommandHandlers();
   }
 
   private void registerCommandHandlers() {
     AggregateAnnotationCommandHandler.subscribe(Exchange.class, repository, commandBus);
+    AggregateAnnotationCommandHandler.subscribe(MatchingEngine.class, matchingEngineRepository, commandBus);
+    AnnotationCommandHandlerAdapter.subscribe(new MatchingEngineCommandHandler(matchingEngineRepository), commandBus);
   }
 
   @Override
@@ -2,40 +2,58 @@ package org.multibit.exchange.infrastructure.adaptor.web.config;
 
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
-import org.axonframework.commandhandling.annotation.AnnotationCommandTargetResolver;
+import com.yammer.dropwizard.lifecycle.Managed;
 import org.axonframework.commandhandling.disruptor.DisruptorCommandBus;
-import org.axonframework.commandhandling.disruptor.DisruptorConfiguration;
 import org.axonframework.eventhandling.EventBus;
 import org.axonframework.eventstore.EventStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.util.concurrent.ExecutorService;
 
 /**
  * <p>Provider to provide the following to guice:</p>
  * <ul>
- * <li>Instance of {@link DisruptorCommandBus}</li>
+ * <li>The single instance of {@link DisruptorCommandBus}, which the CommandBus and the CommandGateway share</li>
  * </ul>
  *
+ * <p>It is also {@link Managed}, so dropwizard stops the command bus and the threads it runs on at shutdown.
+ * Axon only shuts down an executor it created itself, not the one given to it here.</p>
+ *
  * @since 0.0.1
- *  
+ *  
  */
 @Singleton
-public class DisruptorCommandBusProvider implements Provider<DisruptorCommandBus> {
+public class DisruptorCommandBusProvider implements Provider<DisruptorCommandBus>, Managed {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DisruptorCommandBusProvider.class);
 
-  private final EventStore eventStore;
-  private final EventBus eventBus;
+  private final ExecutorService executor;
+
+  private final DisruptorCommandBus commandBus;
 
   @Inject
-  public DisruptorCommandBusProvider(EventStore eventStore, EventBus eventBus) {
-    this.eventStore = eventStore;
-    this.eventBus = eventBus;
+  public DisruptorCommandBusProvider(EventStore eventStore, EventBus eventBus, CommandBusConfiguration configuration) {
+    LOGGER.info("Starting command bus with {}", configuration);
+    executor = configuration.newExecutor();
+    commandBus = new DisruptorCommandBus(eventStore, eventBus, configuration.newDisruptorConfiguration(executor));
   }
 
   @Override
   public DisruptorCommandBus get() {
-    DisruptorConfiguration configuration = new DisruptorConfiguration();
-    configuration.setCommandTargetResolver(new AnnotationCommandTargetResolver());
-    return new DisruptorCommandBus(eventStore, eventBus, configuration);
+    return commandBus;
+  }
 
+  @Override
+  public void start() throws Exception {
+    // The command bus is started on construction
+  }
+
+  @Override
+  public void stop() throws Exception {
+    LOGGER.info("Stopping command bus");
+    commandBus.stop();
+    executor.shutdown();
   }
 }
@@ -0,0 +1,108 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.axonframework.eventhandling.ClassNamePrefixClusterSelector;
+import org.axonframework.eventhandling.Cluster;
+import org.axonframework.eventhandling.ClusteringEventBus;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.SimpleCluster;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.MarketDepthStream;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.TradeStream;
+import org.multibit.exchange.infrastructure.adaptor.eventbus.QueuedCluster;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoMarketDepthPresentationModelBuilder;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoQuoteReadModelBuilder;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Configuration to provide the following to the event bus:</p>
+ * <ul>
+ * <li>Whether listeners are handled on the publishing thread or in groups on threads of their own</li>
+ * <li>The listener groups, each with its own queue, back-pressure and failure policy</li>
+ * </ul>
+ *
+ * <p>Listeners in no group are handled on the publishing thread. By default the read model builders and the
+ * streams each have a group, so the command bus never waits on Mongo or a slow client:</p>
+ * <pre>
+ * eventBus:
+ *   type: GROUPED
+ *   groups:
+ *     - name: quotes
+ *       listeners: [org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoQuoteReadModelBuilder]
+ *       queueSize: 8192
+ *       backPressure: BLOCK
+ * </pre>
+ *
+ * @since 0.0.1
+ */
+public class EventBusConfiguration {
+
+  public enum Type {
+
+    /**
+     * Every listener is handled on the publishing thread, as the SimpleEventBus does
+     */
+    SIMPLE,
+
+    /**
+     * Listeners in a group are handled on the group's thread, the rest on the publishing thread
+     */
+    GROUPED
+  }
+
+  @NotNull
+  @JsonProperty
+  private Type type = Type.GROUPED;
+
+  @Valid
+  @NotNull
+  @JsonProperty
+  private List<ListenerGroupConfiguration> groups = Lists.newArrayList(
+      new ListenerGroupConfiguration("quotes", QueuedCluster.BackPressure.BLOCK, MongoQuoteReadModelBuilder.class),
+      new ListenerGroupConfiguration("market-depth", QueuedCluster.BackPressure.BLOCK, MongoMarketDepthPresentationModelBuilder.class),
+      new ListenerGroupConfiguration("trade-stream", QueuedCluster.BackPressure.DROP, TradeStream.class),
+      new ListenerGroupConfiguration("depth-stream", QueuedCluster.BackPressure.BLOCK, MarketDepthStream.class));
+
+  public Type getType() {
+    return type;
+  }
+
+  public List<ListenerGroupConfiguration> getGroups() {
+    return groups;
+  }
+
+  /**
+   * @param groupClusters Receives the cluster created for each listener group, which the caller closes on shutdown
+   *
+   * @return The event bus
+   */
+  public EventBus newEventBus(List<QueuedCluster> groupClusters) {
+    if (type == Type.SIMPLE) {
+      return new SimpleEventBus();
+    }
+
+    Map<String, Cluster> clusters = Maps.newLinkedHashMap();
+    for (ListenerGroupConfiguration group : groups) {
+      QueuedCluster cluster = group.newCluster();
+      groupClusters.add(cluster);
+      for (String listener : group.getListeners()) {
+        clusters.put(listener, cluster);
+      }
+    }
+    return new ClusteringEventBus(new ClassNamePrefixClusterSelector(clusters, new SimpleCluster("publishing-thread")));
+  }
+
+  @Override
+  public String toString() {
+    return "EventBusConfiguration{" +
+        "type=" + type +
+        ", groups=" + groups +
+        '}';
+  }
+}
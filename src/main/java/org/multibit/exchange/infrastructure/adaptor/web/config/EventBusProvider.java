@@ -0,0 +1,58 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.yammer.dropwizard.lifecycle.Managed;
+import org.axonframework.eventhandling.EventBus;
+import org.multibit.exchange.infrastructure.adaptor.eventbus.QueuedCluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * <p>Provider to provide the following to guice:</p>
+ * <ul>
+ * <li>The single instance of {@link EventBus} with the configured listener groups</li>
+ * </ul>
+ *
+ * <p>It is also {@link Managed}, so dropwizard drains the listener groups' queues at shutdown. Their threads are
+ * daemons, so without this the events still queued would be lost with the JVM.</p>
+ *
+ * @since 0.0.1
+ *  
+ */
+@Singleton
+public class EventBusProvider implements Provider<EventBus>, Managed {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventBusProvider.class);
+
+  private final List<QueuedCluster> clusters = Lists.newArrayList();
+
+  private final EventBus eventBus;
+
+  @Inject
+  public EventBusProvider(EventBusConfiguration configuration) {
+    eventBus = configuration.newEventBus(clusters);
+  }
+
+  @Override
+  public EventBus get() {
+    return eventBus;
+  }
+
+  @Override
+  public void start() throws Exception {
+    // The listener groups are started on construction
+  }
+
+  @Override
+  public void stop() throws Exception {
+    for (QueuedCluster cluster : clusters) {
+      LOGGER.info("Draining {} events from the {} listener group", cluster.queued(), cluster.getName());
+      cluster.close();
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
+import org.axonframework.eventstore.SnapshotEventStore;
+import org.axonframework.serializer.Serializer;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.multibit.exchange.infrastructure.adaptor.persistence.batch.BatchAppendingEventStore;
+import org.multibit.exchange.infrastructure.adaptor.persistence.batch.BatchingEventStore;
+import org.multibit.exchange.infrastructure.adaptor.persistence.journal.JournalEventStore;
+import org.multibit.exchange.infrastructure.adaptor.serialization.ExchangeBinarySerializer;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.File;
+
+/**
+ * <p>Configuration to provide the following to the application:</p>
+ * <ul>
+ * <li>The kind of event store: MongoDB, or a local memory-mapped journal</li>
+ * <li>The serializer for the stored events: compact binary, or XStream XML</li>
+ * <li>The journal's directory, segment size and fsync policy</li>
+ * <li>How appends from concurrent units of work are batched into one write</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class EventStoreConfiguration {
+
+  public enum Type {
+    MONGO,
+    JOURNAL
+  }
+
+  public enum Format {
+
+    /**
+     * The binary form of the exchange's own messages, reading anything else (including events stored as XML) with
+     * XStream
+     */
+    BINARY,
+
+    /**
+     * XStream XML for everything, which cannot read events stored in binary
+     */
+    XSTREAM
+  }
+
+  @NotNull
+  @JsonProperty
+  private Type type = Type.MONGO;
+
+  @NotNull
+  @JsonProperty
+  private Format serializer = Format.BINARY;
+
+  @NotNull
+  @JsonProperty
+  private String journalDirectory = "./journal";
+
+  @NotNull
+  @JsonProperty
+  private Size segmentSize = Size.megabytes(64);
+
+  @NotNull
+  @JsonProperty
+  private JournalEventStore.FsyncPolicy fsync = JournalEventStore.FsyncPolicy.INTERVAL;
+
+  @NotNull
+  @JsonProperty
+  private Duration fsyncInterval = Duration.milliseconds(100);
+
+  @Min(1)
+  @JsonProperty
+  private int batchSize = 256;
+
+  @NotNull
+  @JsonProperty
+  private Duration batchWindow = Duration.milliseconds(0);
+
+  public Type getType() {
+    return type;
+  }
+
+  public Format getSerializer() {
+    return serializer;
+  }
+
+  public String getJournalDirectory() {
+    return journalDirectory;
+  }
+
+  public Size getSegmentSize() {
+    return segmentSize;
+  }
+
+  public JournalEventStore.FsyncPolicy getFsync() {
+    return fsync;
+  }
+
+  public Duration getFsyncInterval() {
+    return fsyncInterval;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public Duration getBatchWindow() {
+    return batchWindow;
+  }
+
+  /**
+   * @return The serializer for the stored events and snapshots
+   */
+  public Serializer newSerializer() {
+    XStreamSerializer xStreamSerializer = new XStreamSerializer();
+    return (serializer == Format.BINARY) ? new ExchangeBinarySerializer(xStreamSerializer) : xStreamSerializer;
+  }
+
+  /**
+   * <p>Opens the journal as configured</p>
+   *
+   * @param serializer The serializer for the journalled events and snapshots
+   */
+  public JournalEventStore newJournalEventStore(Serializer serializer) {
+    long segmentBytes = segmentSize.toBytes();
+    Preconditions.checkState(segmentBytes <= Integer.MAX_VALUE, "segmentSize must be under 2GB but was %s", segmentSize);
+
+    return new JournalEventStore(new File(journalDirectory), (int) segmentBytes, serializer, fsync,
+        fsyncInterval.toMilliseconds());
+  }
+
+  /**
+   * <p>Decorates an event store so that appends from concurrent units of work are written in batches, unless the
+   * batch size is one</p>
+   *
+   * @param eventStore The event store to write the batches to
+   *
+   * @return The event store to snapshot and give the command bus
+   */
+  public SnapshotEventStore batching(BatchAppendingEventStore eventStore) {
+    if (batchSize == 1) {
+      return eventStore;
+    }
+    return new BatchingEventStore(eventStore, batchSize, batchWindow.toMilliseconds());
+  }
+
+  @Override
+  public String toString() {
+    return "EventStoreConfiguration{" +
+        "type=" + type +
+        ", serializer=" + serializer +
+        ", journalDirectory='" + journalDirectory + '\'' +
+        ", segmentSize=" + segmentSize +
+        ", fsync=" + fsync +
+        ", fsyncInterval=" + fsyncInterval +
+        ", batchSize=" + batchSize +
+        ", batchWindow=" + batchWindow +
+        '}';
+  }
+}
@@ -4,6 +4,7 @@ import com.google.inject.Provider;
 import org.axonframework.eventstore.EventStore;
 import org.axonframework.eventstore.fs.FileSystemEventStore;
 import org.axonframework.eventstore.fs.SimpleEventFileResolver;
+import org.axonframework.serializer.Serializer;
 
 import java.io.File;
 
@@ -11,6 +12,7 @@ import java.io.File;
  * <p>Provider to provide the following to guice:</p>
  * <ul>
  * <li>Instances of an EventStore</li>
+ * <li>Snapshots of the aggregates as configured, kept alongside the event files</li>
  * </ul>
  *
  * @since 0.0.1
@@ -20,12 +22,18 @@ public class FileSystemEventStoreProvider implements Provider<EventStore> {
 
   private final String pathToEventStoreDir;
 
-  public FileSystemEventStoreProvider(String pathToEventStoreDir) {
+  private final SnapshotConfiguration snapshotConfiguration;
+
+  private final Serializer serializer;
+
+  public FileSystemEventStoreProvider(String pathToEventStoreDir, SnapshotConfiguration snapshotConfiguration, Serializer serializer) {
     this.pathToEventStoreDir = pathToEventStoreDir;
+    this.snapshotConfiguration = snapshotConfiguration;
+    this.serializer = serializer;
   }
 
   @Override
   public EventStore get() {
-    return new FileSystemEventStore(new SimpleEventFileResolver(new File(pathToEventStoreDir)));
+    return snapshotConfiguration.decorate(new FileSystemEventStore(serializer, new SimpleEventFileResolver(new File(pathToEventStoreDir))));
   }
 }
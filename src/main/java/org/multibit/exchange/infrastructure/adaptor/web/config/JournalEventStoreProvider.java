@@ -0,0 +1,38 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.inject.Provider;
+import org.axonframework.eventstore.EventStore;
+import org.axonframework.serializer.Serializer;
+
+import javax.inject.Inject;
+
+/**
+ * <p>Provider to provide the following to guice:</p>
+ * <ul>
+ * <li>Instance of an EventStore backed by a local memory-mapped journal</li>
+ * <li>Appends from concurrent units of work batched into one journal write</li>
+ * <li>Snapshots of the aggregates as configured, kept in the journal</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class JournalEventStoreProvider implements Provider<EventStore> {
+
+  private final EventStoreConfiguration eventStoreConfiguration;
+
+  private final SnapshotConfiguration snapshotConfiguration;
+
+  private final Serializer serializer;
+
+  @Inject
+  public JournalEventStoreProvider(EventStoreConfiguration eventStoreConfiguration, SnapshotConfiguration snapshotConfiguration, Serializer serializer) {
+    this.eventStoreConfiguration = eventStoreConfiguration;
+    this.snapshotConfiguration = snapshotConfiguration;
+    this.serializer = serializer;
+  }
+
+  @Override
+  public EventStore get() {
+    return snapshotConfiguration.decorate(eventStoreConfiguration.batching(eventStoreConfiguration.newJournalEventStore(serializer)));
+  }
+}
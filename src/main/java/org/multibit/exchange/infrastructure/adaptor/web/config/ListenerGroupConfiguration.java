@@ -0,0 +1,108 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.Lists;
+import com.yammer.dropwizard.util.Duration;
+import org.hibernate.validator.constraints.NotEmpty;
+import org.multibit.exchange.infrastructure.adaptor.eventbus.QueuedCluster;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.TransientMongoFailure;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * <p>Configuration to provide the following to the event bus:</p>
+ * <ul>
+ * <li>A named group of event listeners, chosen by class name prefix, handled on their own thread</li>
+ * <li>The size of the group's queue, and whether a full queue blocks the publisher or drops the event</li>
+ * <li>How often and how soon an event a listener failed on transiently is retried before it is skipped</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class ListenerGroupConfiguration {
+
+  @NotEmpty
+  @JsonProperty
+  private String name;
+
+  @NotEmpty
+  @JsonProperty
+  private List<String> listeners = Lists.newArrayList();
+
+  @Min(1)
+  @JsonProperty
+  private int queueSize = 8192;
+
+  @NotNull
+  @JsonProperty
+  private QueuedCluster.BackPressure backPressure = QueuedCluster.BackPressure.BLOCK;
+
+  @Min(0)
+  @JsonProperty
+  private int maxRetries = 3;
+
+  @NotNull
+  @JsonProperty
+  private Duration retryDelay = Duration.milliseconds(100);
+
+  public ListenerGroupConfiguration() {
+  }
+
+  /**
+   * @param name         The name of the group
+   * @param backPressure What publishing does when the group's queue is full
+   * @param listeners    The listener classes in the group
+   */
+  public ListenerGroupConfiguration(String name, QueuedCluster.BackPressure backPressure, Class<?>... listeners) {
+    this.name = name;
+    this.backPressure = backPressure;
+    for (Class<?> listener : listeners) {
+      this.listeners.add(listener.getName());
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return The class name prefixes of the listeners in the group
+   */
+  public List<String> getListeners() {
+    return listeners;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public QueuedCluster.BackPressure getBackPressure() {
+    return backPressure;
+  }
+
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public Duration getRetryDelay() {
+    return retryDelay;
+  }
+
+  public QueuedCluster newCluster() {
+    return new QueuedCluster(name, queueSize, backPressure, maxRetries, retryDelay.toMilliseconds(), TransientMongoFailure.INSTANCE);
+  }
+
+  @Override
+  public String toString() {
+    return "ListenerGroupConfiguration{" +
+        "name=" + name +
+        ", listeners=" + listeners +
+        ", queueSize=" + queueSize +
+        ", backPressure=" + backPressure +
+        ", maxRetries=" + maxRetries +
+        ", retryDelay=" + retryDelay +
+        '}';
+  }
+}
@@ -0,0 +1,41 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.mongodb.DB;
+import org.axonframework.eventhandling.EventBus;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoMarketDepthPresentationModelBuilder;
+import org.multibit.exchange.service.ReadModelListener;
+
+import javax.inject.Inject;
+
+/**
+ * <p>Provider to provide the following to guice:</p>
+ * <ul>
+ * <li>Instance of {@link MongoMarketDepthPresentationModelBuilder} flushing as configured</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+@Singleton
+public class MarketDepthBuilderProvider implements Provider<MongoMarketDepthPresentationModelBuilder> {
+
+  private final DB mongoDb;
+  private final EventBus eventBus;
+  private final ReadModelListener readModelListener;
+  private final ReadModelConfiguration configuration;
+
+  @Inject
+  public MarketDepthBuilderProvider(DB mongoDb, EventBus eventBus, ReadModelListener readModelListener, ReadModelConfiguration configuration) {
+    this.mongoDb = mongoDb;
+    this.eventBus = eventBus;
+    this.readModelListener = readModelListener;
+    this.configuration = configuration;
+  }
+
+  @Override
+  public MongoMarketDepthPresentationModelBuilder get() {
+    return new MongoMarketDepthPresentationModelBuilder(mongoDb, eventBus, readModelListener,
+        configuration.getMarketDepthFlushInterval().toMilliseconds(), configuration.getMarketDepthFlushEvery());
+  }
+}
@@ -0,0 +1,63 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.common.base.Objects;
+import com.mongodb.Mongo;
+import com.yammer.dropwizard.cli.ConfiguredCommand;
+import com.yammer.dropwizard.config.Bootstrap;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.axonframework.eventstore.mongo.DefaultMongoTemplate;
+import org.axonframework.eventstore.mongo.MongoEventStore;
+import org.axonframework.serializer.Serializer;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+import org.multibit.exchange.infrastructure.adaptor.persistence.journal.JournalEventStore;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoStoredEvents;
+import org.multibit.exchange.infrastructure.adaptor.persistence.rebuild.MatchingEngineMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * <p>Command to provide the following to operators:</p>
+ * <ul>
+ * <li>A matching engine for every currency pair registered before each pair had an engine of its own</li>
+ * <li>The orders resting on those pairs carried over from the Exchange's events into their engines</li>
+ * </ul>
+ * <p>Use <code>java -jar web-develop-SNAPSHOT.jar migrate-matching-engines mbexchange-demo.yml</code> once after
+ * upgrading from an event store in which the Exchange matched the orders, before starting the server. Until then
+ * orders for those pairs are rejected as for an unknown pair. Running it again does nothing.</p>
+ *
+ * @since 0.0.1
+ */
+public class MigrateMatchingEnginesCommand extends ConfiguredCommand<MultiBitExchangeApiConfiguration> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MigrateMatchingEnginesCommand.class);
+
+  public MigrateMatchingEnginesCommand() {
+    super("migrate-matching-engines", "Opens a matching engine for each currency pair registered without one");
+  }
+
+  @Override
+  protected void run(Bootstrap<MultiBitExchangeApiConfiguration> bootstrap, Namespace namespace, MultiBitExchangeApiConfiguration configuration) throws Exception {
+    EventStoreConfiguration eventStoreConfiguration = Objects.firstNonNull(configuration.getEventStore(), new EventStoreConfiguration());
+    LOGGER.info("Migrating matching engines in {}", eventStoreConfiguration);
+
+    List<MatchingEngineId> migrated;
+    Serializer serializer = eventStoreConfiguration.newSerializer();
+    if (eventStoreConfiguration.getType() == EventStoreConfiguration.Type.JOURNAL) {
+      try (JournalEventStore journal = eventStoreConfiguration.newJournalEventStore(serializer)) {
+        migrated = new MatchingEngineMigration(journal, journal).migrate();
+      }
+    } else {
+      // The same Mongo as guice gives the MongoEventStoreProvider
+      Mongo mongo = new Mongo();
+      try {
+        MongoEventStore eventStore = new MongoEventStore(serializer, new DefaultMongoTemplate(mongo));
+        migrated = new MatchingEngineMigration(new MongoStoredEvents(eventStore), eventStore).migrate();
+      } finally {
+        mongo.close();
+      }
+    }
+    LOGGER.info("Opened {} matching engines", migrated.size());
+  }
+}
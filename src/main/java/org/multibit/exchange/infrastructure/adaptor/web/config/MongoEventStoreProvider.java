@@ -4,8 +4,9 @@ import com.google.inject.Provider;
 import com.mongodb.Mongo;
 import org.axonframework.eventstore.EventStore;
 import org.axonframework.eventstore.mongo.DefaultMongoTemplate;
-import org.axonframework.eventstore.mongo.MongoEventStore;
 import org.axonframework.eventstore.mongo.MongoTemplate;
+import org.axonframework.serializer.Serializer;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.BulkMongoEventStore;
 
 import javax.inject.Inject;
 
@@ -13,6 +14,8 @@ import javax.inject.Inject;
  * <p>Provider to provide the following to guice:</p>
  * <ul>
  * <li>Instance of an EventStore backed by MongoDB</li>
+ * <li>Appends from concurrent units of work batched into one bulk insert</li>
+ * <li>Snapshots of the aggregates as configured, kept in the store's snapshot collection</li>
  * </ul>
  *
  * @since 0.0.1
@@ -20,13 +23,22 @@ import javax.inject.Inject;
 public class MongoEventStoreProvider implements Provider<EventStore> {
   private final MongoTemplate mongoTemplate;
 
+  private final EventStoreConfiguration eventStoreConfiguration;
+
+  private final SnapshotConfiguration snapshotConfiguration;
+
+  private final Serializer serializer;
+
   @Inject
-  public MongoEventStoreProvider(Mongo mongo) {
+  public MongoEventStoreProvider(Mongo mongo, EventStoreConfiguration eventStoreConfiguration, SnapshotConfiguration snapshotConfiguration, Serializer serializer) {
     mongoTemplate = new DefaultMongoTemplate(mongo);
+    this.eventStoreConfiguration = eventStoreConfiguration;
+    this.snapshotConfiguration = snapshotConfiguration;
+    this.serializer = serializer;
   }
 
   @Override
   public EventStore get() {
-    return new MongoEventStore(mongoTemplate);
+    return snapshotConfiguration.decorate(eventStoreConfiguration.batching(new BulkMongoEventStore(serializer, mongoTemplate)));
   }
 }
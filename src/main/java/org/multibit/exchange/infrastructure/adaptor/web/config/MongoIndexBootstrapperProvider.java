@@ -0,0 +1,42 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.inject.Provider;
+import com.mongodb.DB;
+import com.mongodb.Mongo;
+import org.axonframework.eventstore.mongo.DefaultMongoTemplate;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoIndexBootstrapper;
+
+import javax.inject.Inject;
+
+/**
+ * <p>Provider to provide the following to guice:</p>
+ * <ul>
+ * <li>Instance of {@link MongoIndexBootstrapper} declaring the read model indexes</li>
+ * <li>The event store indexes as well when the events are kept in Mongo</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class MongoIndexBootstrapperProvider implements Provider<MongoIndexBootstrapper> {
+
+  private final DB mongoDb;
+  private final Mongo mongo;
+  private final EventStoreConfiguration eventStoreConfiguration;
+
+  @Inject
+  public MongoIndexBootstrapperProvider(DB mongoDb, Mongo mongo, EventStoreConfiguration eventStoreConfiguration) {
+    this.mongoDb = mongoDb;
+    this.mongo = mongo;
+    this.eventStoreConfiguration = eventStoreConfiguration;
+  }
+
+  @Override
+  public MongoIndexBootstrapper get() {
+    MongoIndexBootstrapper indexes = new MongoIndexBootstrapper(mongoDb);
+    if (eventStoreConfiguration.getType() == EventStoreConfiguration.Type.MONGO) {
+      // The same Mongo as guice gives the MongoEventStoreProvider
+      indexes.withEventStore(new DefaultMongoTemplate(mongo));
+    }
+    return indexes;
+  }
+}
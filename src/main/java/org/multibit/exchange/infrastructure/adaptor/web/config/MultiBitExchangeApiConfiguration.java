@@ -38,8 +38,61 @@ public class MultiBitExchangeApiConfiguration extends Configuration {
   @JsonProperty
   private String mongoUri;
 
+  @Valid
+  @NotNull
+  @JsonProperty
+  private EventStoreConfiguration eventStore = new EventStoreConfiguration();
+
+  @Valid
+  @NotNull
+  @JsonProperty
+  private CommandBusConfiguration commandBus = new CommandBusConfiguration();
+
+  @Valid
+  @NotNull
+  @JsonProperty
+  private EventBusConfiguration eventBus = new EventBusConfiguration();
+
+  @Valid
+  @NotNull
+  @JsonProperty
+  private SnapshotConfiguration snapshots = new SnapshotConfiguration();
+
+  @Valid
+  @NotNull
+  @JsonProperty
+  private ReadModelConfiguration readModels = new ReadModelConfiguration();
+
+  @Valid
+  @NotNull
+  @JsonProperty
+  private StreamConfiguration streams = new StreamConfiguration();
+
   public String getMongoUri() {
     return mongoUri;
   }
-}
 
+  public EventStoreConfiguration getEventStore() {
+    return eventStore;
+  }
+
+  public CommandBusConfiguration getCommandBus() {
+    return commandBus;
+  }
+
+  public EventBusConfiguration getEventBus() {
+    return eventBus;
+  }
+
+  public SnapshotConfiguration getSnapshots() {
+    return snapshots;
+  }
+
+  public ReadModelConfiguration getReadModels() {
+    return readModels;
+  }
+
+  public StreamConfiguration getStreams() {
+    return streams;
+  }
+}
@@ -1,5 +1,6 @@
 package org.multibit.exchange.infrastructure.adaptor.web.config;
 
+import com.google.common.base.Objects;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
@@ -8,16 +9,23 @@ import org.axonframework.commandhandling.CommandBus;
 import org.axonframework.commandhandling.disruptor.DisruptorCommandBus;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.axonframework.eventhandling.EventBus;
-import org.axonframework.eventhandling.SimpleEventBus;
 import org.axonframework.eventstore.EventStore;
+import org.axonframework.serializer.Serializer;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.MarketDepthStream;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.TickerStream;
 import org.multibit.exchange.infrastructure.adaptor.atmosphere.TradeStream;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoIndexBootstrapper;
 import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoMarketDepthPresentationModelBuilder;
-import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoQueryProcessor;
 import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoQuoteReadModelBuilder;
 import org.multibit.exchange.infrastructure.common.DefaultLocale;
+import org.multibit.exchange.infrastructure.service.AxonEventBasedAsyncExchangeService;
 import org.multibit.exchange.infrastructure.service.AxonEventBasedExchangeService;
+import org.multibit.exchange.infrastructure.service.MatchingEngineLifecycleListener;
+import org.multibit.exchange.infrastructure.service.ReadModelListeners;
+import org.multibit.exchange.service.AsyncExchangeService;
 import org.multibit.exchange.service.ExchangeService;
 import org.multibit.exchange.service.QueryProcessor;
+import org.multibit.exchange.service.ReadModelListener;
 
 import java.util.Locale;
 
@@ -60,50 +68,98 @@ public class MultiBitExchangeApiServiceModule extends AbstractModule {
   protected void configure() {
 
     // Event Store
-    // Provider<EventStore>  eventStoreProvider = new FileSystemEventStoreProvider(PATH_TO_EVENT_STORE_DIR);
+    SnapshotConfiguration snapshotConfiguration = Objects.firstNonNull(configuration.getSnapshots(), new SnapshotConfiguration());
+    bind(SnapshotConfiguration.class)
+        .toInstance(snapshotConfiguration);
+
+    EventStoreConfiguration eventStoreConfiguration = Objects.firstNonNull(configuration.getEventStore(), new EventStoreConfiguration());
+    bind(EventStoreConfiguration.class)
+        .toInstance(eventStoreConfiguration);
+
+    bind(Serializer.class)
+        .toInstance(eventStoreConfiguration.newSerializer());
+
+    // Provider<EventStore>  eventStoreProvider = new FileSystemEventStoreProvider(PATH_TO_EVENT_STORE_DIR, snapshotConfiguration, serializer);
     bind(EventStore.class)
-        .toProvider(MongoEventStoreProvider.class)
+        .toProvider(eventStoreConfiguration.getType() == EventStoreConfiguration.Type.JOURNAL
+            ? JournalEventStoreProvider.class
+            : MongoEventStoreProvider.class)
         .asEagerSingleton();
 
     // Event Bus
+    bind(EventBusConfiguration.class)
+        .toInstance(Objects.firstNonNull(configuration.getEventBus(), new EventBusConfiguration()));
+
     bind(EventBus.class)
-        .to(SimpleEventBus.class)
+        .toProvider(EventBusProvider.class)
         .asEagerSingleton();
 
     // Command Bus
-    bind(CommandBus.class)
-        .toProvider(DisruptorCommandBusProvider.class)
-        .asEagerSingleton();
+    bind(CommandBusConfiguration.class)
+        .toInstance(Objects.firstNonNull(configuration.getCommandBus(), new CommandBusConfiguration()));
 
     bind(DisruptorCommandBus.class)
         .toProvider(DisruptorCommandBusProvider.class)
         .asEagerSingleton();
 
+    bind(CommandBus.class)
+        .to(DisruptorCommandBus.class);
+
     // Command Gateway
     bind(CommandGateway.class)
         .toProvider(DefaultCommandGatewayProvider.class)
         .asEagerSingleton();
 
+    // Matching Engines follow the registered currency pairs
+    bind(MatchingEngineLifecycleListener.class)
+        .asEagerSingleton();
+
+
+    // Mongo Indexes
+    bind(MongoIndexBootstrapper.class)
+        .toProvider(MongoIndexBootstrapperProvider.class)
+        .in(Singleton.class);
 
     // ReadModel Builders
+    bind(ReadModelConfiguration.class)
+        .toInstance(Objects.firstNonNull(configuration.getReadModels(), new ReadModelConfiguration()));
+
+    bind(ReadModelListener.class)
+        .to(ReadModelListeners.class);
+
     bind(MongoQuoteReadModelBuilder.class)
         .asEagerSingleton();
 
     bind(MongoMarketDepthPresentationModelBuilder.class)
+        .toProvider(MarketDepthBuilderProvider.class)
         .asEagerSingleton();
 
 
     // Stream Broadcasters
-    bind(TradeStream.class).asEagerSingleton();
+    bind(StreamConfiguration.class)
+        .toInstance(Objects.firstNonNull(configuration.getStreams(), new StreamConfiguration()));
+
+    bind(TickerStream.class)
+        .toProvider(TickerStreamProvider.class)
+        .asEagerSingleton();
+
+    bind(TradeStream.class)
+        .toProvider(TradeStreamProvider.class)
+        .asEagerSingleton();
+
+    bind(MarketDepthStream.class).asEagerSingleton();
 
     // Api Service
     bind(ExchangeService.class)
         .to(AxonEventBasedExchangeService.class)
         .asEagerSingleton();
+    bind(AsyncExchangeService.class)
+        .to(AxonEventBasedAsyncExchangeService.class)
+        .asEagerSingleton();
 
     // Read Services
     bind(QueryProcessor.class)
-        .to(MongoQueryProcessor.class)
+        .toProvider(QueryProcessorProvider.class)
         .asEagerSingleton();
 
     // Default Locale
@@ -7,7 +7,6 @@ import com.google.common.collect.Lists;
 import com.google.inject.CreationException;
 import com.hubspot.dropwizard.guice.GuiceBundle;
 import com.sun.jersey.api.core.ResourceConfig;
-import com.yammer.dropwizard.ConfiguredBundle;
 import com.yammer.dropwizard.Service;
 import com.yammer.dropwizard.assets.AssetsBundle;
 import com.yammer.dropwizard.config.Bootstrap;
@@ -17,6 +16,17 @@ import com.yammer.dropwizard.config.HttpConfiguration;
 import org.atmosphere.cpr.ApplicationConfig;
 import org.atmosphere.cpr.AtmosphereServlet;
 import org.eclipse.jetty.servlets.CrossOriginFilter;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.MarketDepthStream;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.MarketDepthStreamResource;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.SequencedBroadcasterCache;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.TickerStream;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.TickerStreamResource;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.TradeStream;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.OrdersStreamResource;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoDbHealthCheck;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoIndexBootstrapper;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoMarketDepthPresentationModelBuilder;
+import org.multibit.exchange.service.AsyncExchangeService;
 
 import javax.ws.rs.ext.ExceptionMapper;
 import java.io.FileInputStream;
@@ -42,11 +52,18 @@ public class MultiBitExchangeApiWebService extends Service<MultiBitExchangeApiCo
   public static final String WEB_RESOURCE_BASE_PACKAGE = "org.multibit.exchange.infrastructure.adaptor.web";
   public static final String ATMOSPHERE_RESOURCE_BASE_PACKAGE = "org.multibit.exchange.infrastructure.adaptor.atmosphere";
 
+  /**
+   * The package of the Jackson JSON provider, so Atmosphere resources can read JSON request bodies
+   */
+  private static final String JSON_PROVIDER_PACKAGE = "com.fasterxml.jackson.jaxrs.json";
+
   /**
    * The command line arguments to allow DB configuration to take place by Guice
    */
   private String[] args;
 
+  private GuiceBundle<MultiBitExchangeApiConfiguration> guiceBundle;
+
   /**
    * Main entry point to the application
    *
@@ -75,13 +92,16 @@ public class MultiBitExchangeApiWebService extends Service<MultiBitExchangeApiCo
     bootstrap.setName("multibit-exchange");
 
     // Configure Guice
-    ConfiguredBundle guiceBundle = GuiceBundle
-        .newBuilder()
+    guiceBundle = GuiceBundle.<MultiBitExchangeApiConfiguration>newBuilder()
         .addModule(new MultiBitExchangeApiServiceModule(loadConfigurationFromFile(args))) // The main Guice module with bindings
         .enableAutoConfig("org.multibit.exchange.infrastructure.adaptor.web.restapi") // Scan application classes
         .build();
     bootstrap.addBundle(guiceBundle);
 
+    // Add commands
+    bootstrap.addCommand(new RebuildReadModelsCommand());
+    bootstrap.addCommand(new MigrateMatchingEnginesCommand());
+
     // Add asset bundles
     bootstrap.addBundle(new AssetsBundle("/assets/app", "/app", "index.html"));
     bootstrap.addBundle(new AssetsBundle("/assets/css", "/css"));
@@ -112,11 +132,32 @@ public class MultiBitExchangeApiWebService extends Service<MultiBitExchangeApiCo
   @Override
   public void run(MultiBitExchangeApiConfiguration configuration, Environment environment) throws Exception {
     configuration.getHttpConfiguration().setConnectorType(HttpConfiguration.ConnectorType.NONBLOCKING);
-    initializeAtmosphere(configuration, environment);
-    initializeExceptionMappers(configuration, environment);
+    MultiBitExchangeExceptionMapper exceptionMapper = new MultiBitExchangeExceptionMapper();
+    initializeExceptionMappers(configuration, environment, exceptionMapper);
+    initializeAtmosphere(configuration, environment, exceptionMapper);
+
+    // Create the Mongo indexes before serving, and report any that are missing
+    environment.manage(guiceBundle.getInjector().getInstance(MongoIndexBootstrapper.class));
+    environment.addHealthCheck(guiceBundle.getInjector().getInstance(MongoDbHealthCheck.class));
+
+    // Write what the market depth builder holds in memory on shutdown
+    environment.manage(guiceBundle.getInjector().getInstance(MongoMarketDepthPresentationModelBuilder.class));
+
+    // Stop publishing tickers and send the trades still batched on shutdown
+    environment.manage(guiceBundle.getInjector().getInstance(TickerStream.class));
+    environment.manage(guiceBundle.getInjector().getInstance(TradeStream.class));
+
+    // Handle the events still queued in the listener groups before the builders and streams above stop
+    environment.manage(guiceBundle.getInjector().getInstance(EventBusProvider.class));
+
+    // Managed objects are stopped in the reverse order, so the command bus stops before anything it publishes to
+    environment.manage(guiceBundle.getInjector().getInstance(DisruptorCommandBusProvider.class));
   }
 
-  private void initializeExceptionMappers(MultiBitExchangeApiConfiguration configuration, Environment environment) {
+  private void initializeExceptionMappers(
+      MultiBitExchangeApiConfiguration configuration,
+      Environment environment,
+      MultiBitExchangeExceptionMapper multiBitExchangeExceptionMapper) {
     ResourceConfig jerseyResourceConfig = environment.getJerseyResourceConfig();
     Set<Object> singletons = jerseyResourceConfig.getSingletons();
     List<Object> toRemove = Lists.newArrayList();
@@ -132,19 +173,33 @@ public class MultiBitExchangeApiWebService extends Service<MultiBitExchangeApiCo
       jerseyResourceConfig.getSingletons().remove(exceptionMapper);
     }
 
-    environment.addProvider(new MultiBitExchangeExceptionMapper());
+    environment.addProvider(multiBitExchangeExceptionMapper);
   }
 
-  private void initializeAtmosphere(MultiBitExchangeApiConfiguration configuration, Environment environment) {
+  private void initializeAtmosphere(
+      MultiBitExchangeApiConfiguration configuration,
+      Environment environment,
+      MultiBitExchangeExceptionMapper exceptionMapper) {
     FilterBuilder fconfig = environment.addFilter(CrossOriginFilter.class, "/stream");
     fconfig.setInitParam(CrossOriginFilter.ALLOWED_ORIGINS_PARAM, "*");
 
+    // Atmosphere instantiates its own resources so they cannot be injected
+    OrdersStreamResource.configure(
+        guiceBundle.getInjector().getInstance(AsyncExchangeService.class),
+        environment.getObjectMapperFactory().build(),
+        exceptionMapper);
+    MarketDepthStreamResource.setMarketDepthStream(guiceBundle.getInjector().getInstance(MarketDepthStream.class));
+    TickerStreamResource.setTickerStream(guiceBundle.getInjector().getInstance(TickerStream.class));
+    StreamConfiguration streamConfiguration = guiceBundle.getInjector().getInstance(StreamConfiguration.class);
+    SequencedBroadcasterCache.setCapacity(streamConfiguration.getReplayBufferSize(), streamConfiguration.getReplayBufferBytes());
+
     AtmosphereServlet atmosphereServlet = new AtmosphereServlet();
-    atmosphereServlet.framework().addInitParameter("com.sun.jersey.config.property.packages", ATMOSPHERE_RESOURCE_BASE_PACKAGE);
+    atmosphereServlet.framework().addInitParameter("com.sun.jersey.config.property.packages",
+        ATMOSPHERE_RESOURCE_BASE_PACKAGE + ";" + JSON_PROVIDER_PACKAGE);
     atmosphereServlet.framework().addInitParameter("org.atmosphere.websocket.messageContentType", "application/json");
     atmosphereServlet.framework().addInitParameter("com.sun.jersey.config.feature.DisableWADL", "true");
     atmosphereServlet.framework().addInitParameter("org.atmosphere.cpr.AtmosphereInterceptor.disableDefaults", "true");
-    atmosphereServlet.framework().addInitParameter("org.atmosphere.cpr.broadcasterCacheClass", "org.atmosphere.cache.UUIDBroadcasterCache");
+    atmosphereServlet.framework().addInitParameter("org.atmosphere.cpr.broadcasterCacheClass", SequencedBroadcasterCache.class.getName());
     atmosphereServlet.framework().addInitParameter("org.atmosphere.cpr.sessionSupport", "true");
     atmosphereServlet.framework().addInitParameter("org.atmosphere.cpr.AtmosphereResource.uniqueUUID", "true");
     atmosphereServlet.framework().addInitParameter(ApplicationConfig.class.getName() + ".scanClassPath", "false");
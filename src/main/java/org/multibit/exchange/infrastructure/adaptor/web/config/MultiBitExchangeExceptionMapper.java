@@ -4,6 +4,8 @@ import org.axonframework.commandhandling.CommandExecutionException;
 import org.axonframework.repository.AggregateNotFoundException;
 import org.multibit.common.ExceptionUtils;
 import org.multibit.exchange.domain.model.DuplicateCurrencyPairSymbolException;
+import org.multibit.exchange.domain.model.NoSuchOrderException;
+import org.multibit.exchange.infrastructure.service.NoSuchMatchingEngineException;
 
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
@@ -74,6 +76,10 @@ public class MultiBitExchangeExceptionMapper implements ExceptionMapper<RuntimeE
       status = Response.Status.BAD_REQUEST;
     } else if (DuplicateCurrencyPairSymbolException.class.isAssignableFrom(type)) {
       status = Response.Status.BAD_REQUEST;
+    } else if (NoSuchOrderException.class.isAssignableFrom(type)) {
+      status = Response.Status.NOT_FOUND;
+    } else if (NoSuchMatchingEngineException.class.isAssignableFrom(type)) {
+      status = Response.Status.NOT_FOUND;
     }
     return status;
   }
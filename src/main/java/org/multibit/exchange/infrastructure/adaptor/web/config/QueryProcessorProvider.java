@@ -0,0 +1,47 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.mongodb.DB;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoQueryProcessor;
+import org.multibit.exchange.infrastructure.service.CachingQueryProcessor;
+import org.multibit.exchange.infrastructure.service.ReadModelListeners;
+import org.multibit.exchange.service.QueryProcessor;
+
+import javax.inject.Inject;
+
+/**
+ * <p>Provider to provide the following to guice:</p>
+ * <ul>
+ * <li>Instance of {@link QueryProcessor} reading from Mongo, behind a {@link CachingQueryProcessor} when configured</li>
+ * <li>The cache added to the {@link ReadModelListeners}, so the read model builders invalidate it as they write</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+@Singleton
+public class QueryProcessorProvider implements Provider<QueryProcessor> {
+
+  private final DB mongoDb;
+  private final ReadModelListeners readModelListeners;
+  private final ReadModelConfiguration configuration;
+
+  @Inject
+  public QueryProcessorProvider(DB mongoDb, ReadModelListeners readModelListeners, ReadModelConfiguration configuration) {
+    this.mongoDb = mongoDb;
+    this.readModelListeners = readModelListeners;
+    this.configuration = configuration;
+  }
+
+  @Override
+  public QueryProcessor get() {
+    QueryProcessor queryProcessor = new MongoQueryProcessor(mongoDb);
+    if (configuration.getQueryCacheSize() == 0) {
+      return queryProcessor;
+    }
+    CachingQueryProcessor cachingQueryProcessor = new CachingQueryProcessor(queryProcessor,
+        configuration.getQueryCacheSize(), configuration.getQueryCacheExpiry().toMilliseconds());
+    readModelListeners.add(cachingQueryProcessor);
+    return cachingQueryProcessor;
+  }
+}
@@ -0,0 +1,65 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.util.Duration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * <p>Configuration to provide the following to the read model builders:</p>
+ * <ul>
+ * <li>How often the market depth changes applied in memory are written to Mongo</li>
+ * <li>The number of events after which they are written regardless</li>
+ * <li>How many query results are held in memory, and for how long</li>
+ * </ul>
+ *
+ * <p>A zero interval with one event per flush writes the market depth after every event. A query cache size of
+ * zero reads every query from Mongo.</p>
+ *
+ * @since 0.0.1
+ */
+public class ReadModelConfiguration {
+
+  @NotNull
+  @JsonProperty
+  private Duration marketDepthFlushInterval = Duration.milliseconds(250);
+
+  @Min(1)
+  @JsonProperty
+  private int marketDepthFlushEvery = 1000;
+
+  @Min(0)
+  @JsonProperty
+  private long queryCacheSize = 10000;
+
+  @NotNull
+  @JsonProperty
+  private Duration queryCacheExpiry = Duration.seconds(1);
+
+  public Duration getMarketDepthFlushInterval() {
+    return marketDepthFlushInterval;
+  }
+
+  public int getMarketDepthFlushEvery() {
+    return marketDepthFlushEvery;
+  }
+
+  public long getQueryCacheSize() {
+    return queryCacheSize;
+  }
+
+  public Duration getQueryCacheExpiry() {
+    return queryCacheExpiry;
+  }
+
+  @Override
+  public String toString() {
+    return "ReadModelConfiguration{" +
+        "marketDepthFlushInterval=" + marketDepthFlushInterval +
+        ", marketDepthFlushEvery=" + marketDepthFlushEvery +
+        ", queryCacheSize=" + queryCacheSize +
+        ", queryCacheExpiry=" + queryCacheExpiry +
+        '}';
+  }
+}
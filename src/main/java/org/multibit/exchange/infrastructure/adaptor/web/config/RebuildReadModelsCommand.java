@@ -0,0 +1,95 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.common.base.Objects;
+import com.mongodb.DB;
+import com.mongodb.Mongo;
+import com.yammer.dropwizard.cli.ConfiguredCommand;
+import com.yammer.dropwizard.config.Bootstrap;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.axonframework.eventstore.mongo.DefaultMongoTemplate;
+import org.axonframework.eventstore.mongo.MongoEventStore;
+import org.axonframework.serializer.Serializer;
+import org.multibit.exchange.infrastructure.adaptor.persistence.journal.JournalEventStore;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoStoredEvents;
+import org.multibit.exchange.infrastructure.adaptor.persistence.rebuild.MongoReadModelWriter;
+import org.multibit.exchange.infrastructure.adaptor.persistence.rebuild.ReadModelPartition;
+import org.multibit.exchange.infrastructure.adaptor.persistence.rebuild.ReadModelReplay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+
+/**
+ * <p>Command to provide the following to operators:</p>
+ * <ul>
+ * <li>A rebuild of the market depth and quote read models from every event in the configured event store</li>
+ * <li>Replay in parallel workers partitioned by exchange and currency pair, then bulk writes</li>
+ * <li>An atomic swap of the rebuilt collections for the live ones, so reads carry on throughout</li>
+ * </ul>
+ * <p>Use <code>java -jar web-develop-SNAPSHOT.jar rebuild-read-models mbexchange-demo.yml</code> after changing a
+ * read model builder. A journal belongs to the server that has it open, so stop the server first when the event
+ * store is a journal.</p>
+ *
+ * @since 0.0.1
+ */
+public class RebuildReadModelsCommand extends ConfiguredCommand<MultiBitExchangeApiConfiguration> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RebuildReadModelsCommand.class);
+
+  private static final int DEFAULT_BATCH_SIZE = 500;
+
+  public RebuildReadModelsCommand() {
+    super("rebuild-read-models", "Rebuilds the read models from the event store and swaps them in");
+  }
+
+  @Override
+  public void configure(Subparser subparser) {
+    super.configure(subparser);
+    subparser.addArgument("--workers")
+        .type(Integer.class)
+        .setDefault(Runtime.getRuntime().availableProcessors())
+        .help("the number of workers replaying events and writing read models");
+    subparser.addArgument("--batch-size")
+        .type(Integer.class)
+        .setDefault(DEFAULT_BATCH_SIZE)
+        .help("the most read models written by one insert");
+  }
+
+  @Override
+  protected void run(Bootstrap<MultiBitExchangeApiConfiguration> bootstrap, Namespace namespace, MultiBitExchangeApiConfiguration configuration) throws Exception {
+    int workers = namespace.getInt("workers");
+    int batchSize = namespace.getInt("batch_size");
+
+    EventStoreConfiguration eventStoreConfiguration = Objects.firstNonNull(configuration.getEventStore(), new EventStoreConfiguration());
+    LOGGER.info("Rebuilding read models from {} with {} workers", eventStoreConfiguration, workers);
+
+    long start = System.currentTimeMillis();
+    Collection<ReadModelPartition> partitions;
+    ReadModelReplay replay;
+    Serializer serializer = eventStoreConfiguration.newSerializer();
+    if (eventStoreConfiguration.getType() == EventStoreConfiguration.Type.JOURNAL) {
+      try (JournalEventStore journal = eventStoreConfiguration.newJournalEventStore(serializer)) {
+        replay = new ReadModelReplay(journal, workers);
+        partitions = replay.replay();
+      }
+    } else {
+      // The same Mongo as guice gives the MongoEventStoreProvider
+      Mongo mongo = new Mongo();
+      try {
+        replay = new ReadModelReplay(new MongoStoredEvents(new MongoEventStore(serializer, new DefaultMongoTemplate(mongo))), workers);
+        partitions = replay.replay();
+      } finally {
+        mongo.close();
+      }
+    }
+
+    DB readModelDb = new ProductionMongoDBProvider(configuration).get();
+    try {
+      new MongoReadModelWriter(readModelDb, batchSize, workers).write(partitions);
+    } finally {
+      readModelDb.getMongo().close();
+    }
+    LOGGER.info("Rebuilt {} partitions from {} events in {} ms", partitions.size(), replay.getEventCount(), System.currentTimeMillis() - start);
+  }
+}
@@ -0,0 +1,93 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.util.Duration;
+import org.axonframework.eventstore.EventStore;
+import org.axonframework.eventstore.SnapshotEventStore;
+import org.multibit.exchange.infrastructure.adaptor.persistence.snapshot.ExchangeSnapshotter;
+import org.multibit.exchange.infrastructure.adaptor.persistence.snapshot.SnapshotTriggeringEventStore;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Configuration to provide the following to the event stores:</p>
+ * <ul>
+ * <li>Whether aggregates are snapshotted</li>
+ * <li>The number of events after which an aggregate is snapshotted</li>
+ * <li>The interval at which every aggregate with newer events is snapshotted (zero to disable)</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class SnapshotConfiguration {
+
+  @JsonProperty
+  private boolean enabled = true;
+
+  @Min(1)
+  @JsonProperty
+  private int eventsPerSnapshot = 1000;
+
+  @NotNull
+  @JsonProperty
+  private Duration interval = Duration.minutes(5);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getEventsPerSnapshot() {
+    return eventsPerSnapshot;
+  }
+
+  public Duration getInterval() {
+    return interval;
+  }
+
+  /**
+   * <p>Decorates an event store so that aggregates are snapshotted as configured. Snapshots are taken on a
+   * single background thread so they never delay the command bus.</p>
+   *
+   * @param eventStore The event store to keep the snapshots in
+   *
+   * @return The event store to give the command bus
+   */
+  public EventStore decorate(SnapshotEventStore eventStore) {
+    if (!enabled) {
+      return eventStore;
+    }
+
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("snapshotter-%d").setDaemon(true).build());
+
+    ExchangeSnapshotter snapshotter = new ExchangeSnapshotter();
+    snapshotter.setEventStore(eventStore);
+    snapshotter.setExecutor(executor);
+
+    final SnapshotTriggeringEventStore snapshottingEventStore = new SnapshotTriggeringEventStore(eventStore, snapshotter, eventsPerSnapshot);
+    long intervalMillis = interval.toMilliseconds();
+    if (intervalMillis > 0) {
+      executor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          snapshottingEventStore.snapshotPendingAggregates();
+        }
+      }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    return snapshottingEventStore;
+  }
+
+  @Override
+  public String toString() {
+    return "SnapshotConfiguration{" +
+        "enabled=" + enabled +
+        ", eventsPerSnapshot=" + eventsPerSnapshot +
+        ", interval=" + interval +
+        '}';
+  }
+}
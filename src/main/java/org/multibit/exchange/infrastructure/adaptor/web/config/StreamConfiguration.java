@@ -0,0 +1,75 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.util.Duration;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.SequencedBroadcasterCache;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * <p>Configuration to provide the following to the Atmosphere streams:</p>
+ * <ul>
+ * <li>How often the latest ticker of a changed currency pair is pushed to its clients</li>
+ * <li>How long trades are gathered into one frame, and how many at most</li>
+ * <li>How many frames, and how many bytes of them, each channel keeps to replay to reconnecting clients</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class StreamConfiguration {
+
+  @NotNull
+  @JsonProperty
+  private Duration tickerPublishInterval = Duration.milliseconds(250);
+
+  @NotNull
+  @JsonProperty
+  private Duration tradeBatchWindow = Duration.milliseconds(10);
+
+  @Min(1)
+  @JsonProperty
+  private int tradeBatchSize = 500;
+
+  @Min(1)
+  @JsonProperty
+  private int replayBufferSize = SequencedBroadcasterCache.DEFAULT_CAPACITY;
+
+  /**
+   * Bounds the replay buffer of a channel in memory, since a frame can hold up to tradeBatchSize trades
+   */
+  @Min(1)
+  @JsonProperty
+  private int replayBufferBytes = SequencedBroadcasterCache.DEFAULT_CAPACITY_BYTES;
+
+  public Duration getTickerPublishInterval() {
+    return tickerPublishInterval;
+  }
+
+  public Duration getTradeBatchWindow() {
+    return tradeBatchWindow;
+  }
+
+  public int getTradeBatchSize() {
+    return tradeBatchSize;
+  }
+
+  public int getReplayBufferSize() {
+    return replayBufferSize;
+  }
+
+  public int getReplayBufferBytes() {
+    return replayBufferBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "StreamConfiguration{" +
+        "tickerPublishInterval=" + tickerPublishInterval +
+        ", tradeBatchWindow=" + tradeBatchWindow +
+        ", tradeBatchSize=" + tradeBatchSize +
+        ", replayBufferSize=" + replayBufferSize +
+        ", replayBufferBytes=" + replayBufferBytes +
+        '}';
+  }
+}
@@ -0,0 +1,29 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.inject.Provider;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.TickerStream;
+
+import javax.inject.Inject;
+
+/**
+ * <p>Provider to provide the following to guice:</p>
+ * <ul>
+ * <li>Instance of {@link TickerStream} publishing as often as configured</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class TickerStreamProvider implements Provider<TickerStream> {
+
+  private final StreamConfiguration configuration;
+
+  @Inject
+  public TickerStreamProvider(StreamConfiguration configuration) {
+    this.configuration = configuration;
+  }
+
+  @Override
+  public TickerStream get() {
+    return new TickerStream(configuration.getTickerPublishInterval().toMilliseconds());
+  }
+}
@@ -0,0 +1,32 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.google.inject.Provider;
+import org.axonframework.eventhandling.EventBus;
+import org.multibit.exchange.infrastructure.adaptor.atmosphere.TradeStream;
+
+import javax.inject.Inject;
+
+/**
+ * <p>Provider to provide the following to guice:</p>
+ * <ul>
+ * <li>Instance of {@link TradeStream} batching trades as configured</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class TradeStreamProvider implements Provider<TradeStream> {
+
+  private final EventBus eventBus;
+  private final StreamConfiguration configuration;
+
+  @Inject
+  public TradeStreamProvider(EventBus eventBus, StreamConfiguration configuration) {
+    this.eventBus = eventBus;
+    this.configuration = configuration;
+  }
+
+  @Override
+  public TradeStream get() {
+    return new TradeStream(eventBus, configuration.getTradeBatchWindow().toMilliseconds(), configuration.getTradeBatchSize());
+  }
+}
@@ -62,9 +62,15 @@ public class OrderBookReadModel {
     return book.get(priceLevel);
   }
 
+  /**
+   * @return The total unfilled quantity of the orders at the given price level, or zero if there is no such level
+   */
   public BigDecimal getUnfilledQuantity(ItemPrice priceLevel) {
     BigDecimal totalQuantity = BigDecimal.ZERO;
-    LinkedList<LimitOrder> openOrders = getOpenOrders();
+    LinkedList<LimitOrder> openOrders = getOpenOrders(priceLevel);
+    if (openOrders == null) {
+      return totalQuantity;
+    }
     for (LimitOrder limitOrder : openOrders) {
       totalQuantity = totalQuantity.add(limitOrder.getUnfilledQuantity().getQuantity());
     }
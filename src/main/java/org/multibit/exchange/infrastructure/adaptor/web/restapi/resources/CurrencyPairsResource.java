@@ -5,10 +5,12 @@ import com.yammer.dropwizard.jersey.caching.CacheControl;
 import com.yammer.metrics.annotation.Timed;
 import org.multibit.exchange.domain.model.Currency;
 import org.multibit.exchange.domain.model.CurrencyPair;
+import org.multibit.exchange.domain.model.ItemPrice;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairDescriptor;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
 import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.CurrencyPairListViewModel;
 import org.multibit.exchange.infrastructure.web.BaseResource;
 import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
@@ -17,6 +19,7 @@ import org.multibit.exchange.service.QueryProcessor;
 
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -59,7 +62,9 @@ public class CurrencyPairsResource extends BaseResource {
     CurrencyPairId currencyPairId = new CurrencyPairId(currencyPairDescriptor.getSymbol());
     CurrencyId baseCurrencyId = new CurrencyId(currencyPairDescriptor.getBaseCurrency());
     CurrencyId counterCurrencyId = new CurrencyId(currencyPairDescriptor.getCounterCurrency());
-    exchangeService.registerCurrencyPair(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId);
+    String tickSizeString = currencyPairDescriptor.getTickSize();
+    ItemPrice tickSize = (tickSizeString == null) ? null : new ItemPrice(tickSizeString);
+    exchangeService.registerCurrencyPair(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId, tickSize);
   }
 
   /**
@@ -99,4 +104,25 @@ public class CurrencyPairsResource extends BaseResource {
     }
     return model;
   }
+
+  /**
+   * <p>Cancels a resting limit order</p>
+   *
+   * @param exchangeId The exchange the order was placed on
+   * @param orderId    The id returned when the order was placed
+   */
+  @DELETE
+  @Timed
+  @CacheControl(noCache = true)
+  @Path("/{base}/{counter}/orders/{orderId}")
+  public void cancelOrder(
+      @PathParam("exchangeId") String exchangeId,
+      @PathParam("base") String baseCurrencySymbol,
+      @PathParam("counter") String counterCurrencySymbol,
+      @PathParam("orderId") String orderId) {
+    CurrencyPair pair = new CurrencyPair(new Currency(baseCurrencySymbol), new Currency(counterCurrencySymbol));
+    CurrencyPairId currencyPairId = new CurrencyPairId(pair.getTicker().getSymbol());
+
+    exchangeService.cancelOrder(new ExchangeId(exchangeId), currencyPairId, new OrderId(orderId));
+  }
 }
@@ -2,6 +2,7 @@ package org.multibit.exchange.infrastructure.adaptor.web.restapi.resources;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.yammer.dropwizard.jersey.caching.CacheControl;
 import com.yammer.metrics.annotation.Timed;
 import org.multibit.exchange.domain.model.MarketOrder;
@@ -17,7 +18,9 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
+import java.util.List;
 
 /**
  * <p>Resource to provide the following to REST clients:</p>
@@ -72,4 +75,36 @@ public class ExchangeResource extends BaseResource {
     return orderId.getIdentifier();
   }
 
+  /**
+   * <p>Places several orders for one currency pair at once, e.g. to re-quote many price levels</p>
+   *
+   * <p>The orders are placed atomically in the given sequence: if any order is invalid none are placed.</p>
+   *
+   * @param exchangeId       The exchange to place the orders on
+   * @param orderDescriptors The order details, all for the same currency pair
+   *
+   * @return The ids given to the orders, in the same sequence
+   */
+  @POST
+  @Timed
+  @CacheControl(noCache = true)
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("/{exchangeId}/orders/batch")
+  public List<String> placeOrders(
+      @PathParam("exchangeId") String exchangeId,
+      List<OrderDescriptor> orderDescriptors) {
+    Preconditions.checkArgument(orderDescriptors != null && !orderDescriptors.isEmpty(), "orders must not be null or empty");
+
+    List<OrderId> orderIds = Lists.newArrayListWithCapacity(orderDescriptors.size());
+    List<String> identifiers = Lists.newArrayListWithCapacity(orderDescriptors.size());
+    for (int i = 0; i < orderDescriptors.size(); i++) {
+      OrderId orderId = new OrderId();
+      orderIds.add(orderId);
+      identifiers.add(orderId.getIdentifier());
+    }
+    exchangeService.placeOrders(new ExchangeId(exchangeId), orderIds, orderDescriptors);
+    return identifiers;
+  }
+
 }
@@ -0,0 +1,85 @@
+package org.multibit.exchange.infrastructure.service;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.repository.AggregateNotFoundException;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.BatchPlaceOrdersCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CancelOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.multibit.exchange.service.AsyncExchangeService;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * <p>Service to provide the following to the application:</p>
+ * <ul>
+ * <li>Concrete implementation of {@link org.multibit.exchange.service.AsyncExchangeService} based on the Axon Framework</li>
+ * </ul>
+ *
+ * <p>Commands are sent with a callback rather than waited on, so the future is completed by the command bus
+ * thread that handled the command.</p>
+ *
+ * @since 0.0.1
+ */
+public class AxonEventBasedAsyncExchangeService implements AsyncExchangeService {
+
+  private final CommandGateway commandGateway;
+
+  @Inject
+  public AxonEventBasedAsyncExchangeService(CommandGateway commandGateway) {
+    this.commandGateway = commandGateway;
+  }
+
+  @Override
+  public ListenableFuture<Void> placeOrder(ExchangeId exchangeId, OrderId orderId, OrderDescriptor orderDescriptor) {
+    Preconditions.checkNotNull(exchangeId, "exchangeId must not be null");
+    Preconditions.checkNotNull(orderId, "orderId must not be null");
+    Preconditions.checkNotNull(orderDescriptor, "orderDescriptor must not be null");
+    return send(new PlaceOrderCommand(exchangeId, orderId, orderDescriptor));
+  }
+
+  @Override
+  public ListenableFuture<Void> placeOrders(ExchangeId exchangeId, List<OrderId> orderIds, List<OrderDescriptor> orderDescriptors) {
+    Preconditions.checkNotNull(exchangeId, "exchangeId must not be null");
+    Preconditions.checkNotNull(orderIds, "orderIds must not be null");
+    Preconditions.checkNotNull(orderDescriptors, "orderDescriptors must not be null");
+    return send(new BatchPlaceOrdersCommand(exchangeId, orderIds, orderDescriptors));
+  }
+
+  @Override
+  public ListenableFuture<Void> cancelOrder(ExchangeId exchangeId, CurrencyPairId currencyPairId, OrderId orderId) {
+    Preconditions.checkNotNull(exchangeId, "exchangeId must not be null");
+    Preconditions.checkNotNull(currencyPairId, "currencyPairId must not be null");
+    Preconditions.checkNotNull(orderId, "orderId must not be null");
+    return send(new CancelOrderCommand(exchangeId, currencyPairId, orderId));
+  }
+
+  private ListenableFuture<Void> send(final MatchingEngineCommand command) {
+    final SettableFuture<Void> future = SettableFuture.create();
+    commandGateway.send(command, new CommandCallback<Object>() {
+      @Override
+      public void onSuccess(Object result) {
+        future.set(null);
+      }
+
+      @Override
+      public void onFailure(Throwable cause) {
+        if (cause instanceof AggregateNotFoundException) {
+          future.setException(new NoSuchMatchingEngineException(command.getExchangeId(), command.getCurrencyPairId(), cause));
+        } else {
+          future.setException(cause);
+        }
+      }
+    });
+    return future;
+  }
+}
@@ -3,11 +3,15 @@ package org.multibit.exchange.infrastructure.service;
 import com.google.common.base.Preconditions;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.axonframework.repository.AggregateNotFoundException;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.BatchPlaceOrdersCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CancelOrderCommand;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CreateExchangeCommand;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeCommand;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineCommand;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
@@ -15,6 +19,7 @@ import org.multibit.exchange.infrastructure.adaptor.eventapi.RegisterCurrencyPai
 import org.multibit.exchange.service.ExchangeService;
 
 import javax.inject.Inject;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -46,6 +51,11 @@ public class AxonEventBasedExchangeService implements ExchangeService {
 
   @Override
   public void registerCurrencyPair(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId) {
+    registerCurrencyPair(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId, null);
+  }
+
+  @Override
+  public void registerCurrencyPair(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize) {
     Preconditions.checkNotNull(exchangeId, "exchangeId must not be null");
     Preconditions.checkNotNull(currencyPairId, "currencyPairId must not be null");
     Preconditions.checkNotNull(baseCurrencyId, "baseCurrencyId must not be null");
@@ -55,7 +65,8 @@ public class AxonEventBasedExchangeService implements ExchangeService {
         exchangeId,
         currencyPairId,
         baseCurrencyId,
-        counterCurrencyId);
+        counterCurrencyId,
+        tickSize);
     safeSendAndWait(command);
   }
 
@@ -64,7 +75,25 @@ public class AxonEventBasedExchangeService implements ExchangeService {
     Preconditions.checkNotNull(exchangeId, "exchangeId must not be null");
     Preconditions.checkNotNull(orderId, "orderId must not be null");
     Preconditions.checkNotNull(orderDescriptor, "orderDescriptor must not be null");
-    PlaceOrderCommand command = new PlaceOrderCommand(exchangeId, orderDescriptor);
+    PlaceOrderCommand command = new PlaceOrderCommand(exchangeId, orderId, orderDescriptor);
+    safeSendAndWait(command);
+  }
+
+  @Override
+  public void placeOrders(ExchangeId exchangeId, List<OrderId> orderIds, List<OrderDescriptor> orderDescriptors) {
+    Preconditions.checkNotNull(exchangeId, "exchangeId must not be null");
+    Preconditions.checkNotNull(orderIds, "orderIds must not be null");
+    Preconditions.checkNotNull(orderDescriptors, "orderDescriptors must not be null");
+    BatchPlaceOrdersCommand command = new BatchPlaceOrdersCommand(exchangeId, orderIds, orderDescriptors);
+    safeSendAndWait(command);
+  }
+
+  @Override
+  public void cancelOrder(ExchangeId exchangeId, CurrencyPairId currencyPairId, OrderId orderId) {
+    Preconditions.checkNotNull(exchangeId, "exchangeId must not be null");
+    Preconditions.checkNotNull(currencyPairId, "currencyPairId must not be null");
+    Preconditions.checkNotNull(orderId, "orderId must not be null");
+    CancelOrderCommand command = new CancelOrderCommand(exchangeId, currencyPairId, orderId);
     safeSendAndWait(command);
   }
 
@@ -75,4 +104,12 @@ public class AxonEventBasedExchangeService implements ExchangeService {
       throw new NoSuchExchangeException(command.getExchangeId(), e);
     }
   }
+
+  private void safeSendAndWait(MatchingEngineCommand command) {
+    try {
+      commandGateway.sendAndWait(command, TIMEOUT, TimeUnit.SECONDS);
+    } catch (AggregateNotFoundException e) {
+      throw new NoSuchMatchingEngineException(command.getExchangeId(), command.getCurrencyPairId(), e);
+    }
+  }
 }
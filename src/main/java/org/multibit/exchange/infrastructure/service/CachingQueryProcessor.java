@@ -0,0 +1,230 @@
+package org.multibit.exchange.infrastructure.service;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.CurrencyPairReadModel;
+import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.OrderBookReadModel;
+import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.QuoteReadModel;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+import org.multibit.exchange.service.QueryProcessor;
+import org.multibit.exchange.service.ReadModelListener;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>QueryProcessor to provide the following to the REST resources:</p>
+ * <ul>
+ * <li>The results of another {@link QueryProcessor}, held in memory so repeated reads do not reach the database</li>
+ * <li>Invalidation of the results a read model builder has just written, as a {@link ReadModelListener}</li>
+ * <li>One bound on the number of results held across all exchanges, evicting the least recently used</li>
+ * <li>Hit, miss and eviction metrics</li>
+ * </ul>
+ *
+ * <p>The builders tell this cache of a change once it is written, including a coalesced market depth once it is
+ * flushed, so a result read after the invalidation is read from the changed read model. A read from the delegate
+ * that started before the write may still be held after it, so every result is also dropped once it has been held
+ * for the expiry, which bounds how stale that read can be.</p>
+ *
+ * @since 0.0.1
+ */
+public class CachingQueryProcessor implements QueryProcessor, ReadModelListener {
+
+  private final QueryProcessor delegate;
+
+  private final Cache<Key, Optional<Object>> results;
+
+  /**
+   * @param maximumSize  The most results held across all exchanges
+   * @param expiryMillis How long a result is held after it is read from the delegate
+   */
+  public CachingQueryProcessor(QueryProcessor delegate, long maximumSize, long expiryMillis) {
+    Preconditions.checkNotNull(delegate, "delegate must not be null");
+    Preconditions.checkArgument(maximumSize > 0, "maximumSize must be greater than zero");
+    Preconditions.checkArgument(expiryMillis > 0, "expiryMillis must be greater than zero");
+
+    this.delegate = delegate;
+    this.results = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expiryMillis, TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build();
+
+    Metrics.newGauge(CachingQueryProcessor.class, "hits", new Gauge<Long>() {
+      @Override
+      public Long value() {
+        return results.stats().hitCount();
+      }
+    });
+    Metrics.newGauge(CachingQueryProcessor.class, "misses", new Gauge<Long>() {
+      @Override
+      public Long value() {
+        return results.stats().missCount();
+      }
+    });
+    Metrics.newGauge(CachingQueryProcessor.class, "hit-ratio", new Gauge<Double>() {
+      @Override
+      public Double value() {
+        return results.stats().hitRate();
+      }
+    });
+    Metrics.newGauge(CachingQueryProcessor.class, "evictions", new Gauge<Long>() {
+      @Override
+      public Long value() {
+        return results.stats().evictionCount();
+      }
+    });
+    Metrics.newGauge(CachingQueryProcessor.class, "size", new Gauge<Long>() {
+      @Override
+      public Long value() {
+        return results.size();
+      }
+    });
+  }
+
+  @Override
+  public List<CurrencyPairReadModel> fetchCurrencyPairs(final String exchangeId) {
+    return fetch(Key.currencyPairs(exchangeId), new Callable<List<CurrencyPairReadModel>>() {
+      @Override
+      public List<CurrencyPairReadModel> call() {
+        return delegate.fetchCurrencyPairs(exchangeId);
+      }
+    });
+  }
+
+  @Override
+  public List<QuoteReadModel> fetchQuotes(final String exchangeId) {
+    return fetch(Key.quotes(exchangeId), new Callable<List<QuoteReadModel>>() {
+      @Override
+      public List<QuoteReadModel> call() {
+        return delegate.fetchQuotes(exchangeId);
+      }
+    });
+  }
+
+  @Override
+  public OrderBookReadModel fetchOrderBook(final String exchangeId, final String tickerSymbol) {
+    return fetch(Key.orderBook(exchangeId, tickerSymbol), new Callable<OrderBookReadModel>() {
+      @Override
+      public OrderBookReadModel call() {
+        return delegate.fetchOrderBook(exchangeId, tickerSymbol);
+      }
+    });
+  }
+
+  @Override
+  public MarketDepthPresentationModel fetchMarketDepth(final String exchangeId, final CurrencyPairId currencyPairId) {
+    return fetch(Key.marketDepth(exchangeId, currencyPairId.getIdentifier()), new Callable<MarketDepthPresentationModel>() {
+      @Override
+      public MarketDepthPresentationModel call() {
+        return delegate.fetchMarketDepth(exchangeId, currencyPairId);
+      }
+    });
+  }
+
+  /**
+   * @return The number of results held
+   */
+  public long size() {
+    return results.size();
+  }
+
+  /**
+   * A quote is written as its currency pair is registered or removed, so the currency pairs are dropped with it
+   */
+  @Override
+  public void quoteChanged(String exchangeId, String currencyPairId) {
+    results.invalidate(Key.currencyPairs(exchangeId));
+    results.invalidate(Key.quotes(exchangeId));
+    results.invalidate(Key.orderBook(exchangeId, currencyPairId));
+  }
+
+  @Override
+  public void marketDepthChanged(String exchangeId, String currencyPairId) {
+    results.invalidate(Key.marketDepth(exchangeId, currencyPairId));
+  }
+
+  /**
+   * A missing result is held too, so polling an unknown currency pair does not reach the database either
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T fetch(Key key, final Callable<T> query) {
+    try {
+      return (T) results.get(key, new Callable<Optional<Object>>() {
+        @Override
+        public Optional<Object> call() throws Exception {
+          return Optional.<Object>fromNullable(query.call());
+        }
+      }).orNull();
+    } catch (ExecutionException e) {
+      throw new UncheckedExecutionException(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw e;
+    }
+  }
+
+  private static final class Key {
+
+    private enum Kind {
+      CURRENCY_PAIRS, QUOTES, ORDER_BOOK, MARKET_DEPTH
+    }
+
+    private final Kind kind;
+
+    private final String exchangeId;
+
+    private final String currencyPairId;
+
+    private Key(Kind kind, String exchangeId, String currencyPairId) {
+      this.kind = kind;
+      this.exchangeId = exchangeId;
+      this.currencyPairId = currencyPairId;
+    }
+
+    static Key currencyPairs(String exchangeId) {
+      return new Key(Kind.CURRENCY_PAIRS, exchangeId, null);
+    }
+
+    static Key quotes(String exchangeId) {
+      return new Key(Kind.QUOTES, exchangeId, null);
+    }
+
+    static Key orderBook(String exchangeId, String currencyPairId) {
+      return new Key(Kind.ORDER_BOOK, exchangeId, currencyPairId);
+    }
+
+    static Key marketDepth(String exchangeId, String currencyPairId) {
+      return new Key(Kind.MARKET_DEPTH, exchangeId, currencyPairId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      Key that = (Key) o;
+
+      return kind == that.kind
+          && Objects.equal(exchangeId, that.exchangeId)
+          && Objects.equal(currencyPairId, that.currencyPairId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(kind, exchangeId, currencyPairId);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package org.multibit.exchange.infrastructure.service;
+
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.annotation.AnnotationEventListenerAdapter;
+import org.axonframework.eventhandling.annotation.EventHandler;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.CurrencyPairRemovedEvent;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CloseMatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OpenMatchingEngineCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+
+/**
+ * <p>EventListener to provide the following to the application:</p>
+ * <ul>
+ * <li>The {@link org.multibit.exchange.domain.model.MatchingEngine} of each currency pair opened as the pair is
+ * registered with its Exchange</li>
+ * <li>The MatchingEngine closed as its pair is removed, so it rejects further orders</li>
+ * </ul>
+ *
+ * <p>The engine follows from the Exchange's own events rather than from a second command sent by the caller, so a
+ * registration cannot be left without its engine. The commands are sent as the events are published, before the
+ * registration is reported complete, so orders sent after it reach the engine after it has been opened. That holds while the listener is handled on
+ * the publishing thread, so it belongs to none of the queued listener groups of the event bus.</p>
+ *
+ * @since 0.0.1
+ */
+public class MatchingEngineLifecycleListener {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MatchingEngineLifecycleListener.class);
+
+  private final CommandGateway commandGateway;
+
+  @Inject
+  public MatchingEngineLifecycleListener(CommandGateway commandGateway, EventBus eventBus) {
+    this.commandGateway = commandGateway;
+
+    LOGGER.debug("subscribing to events on {}", eventBus);
+    AnnotationEventListenerAdapter.subscribe(this, eventBus);
+  }
+
+  @EventHandler
+  public void handle(CurrencyPairRegisteredEvent event) {
+    send(new OpenMatchingEngineCommand(
+        event.getExchangeId(),
+        event.getCurrencyPairId(),
+        event.getBaseCurrencyId(),
+        event.getCounterCurrencyId(),
+        event.getTickSize()));
+  }
+
+  @EventHandler
+  public void handle(CurrencyPairRemovedEvent event) {
+    send(new CloseMatchingEngineCommand(event.getExchangeId(), event.getCurrencyPairId()));
+  }
+
+  /**
+   * Nobody waits on these commands, so a failure is logged rather than lost
+   */
+  private void send(final MatchingEngineCommand command) {
+    commandGateway.send(command, new CommandCallback<Object>() {
+      @Override
+      public void onSuccess(Object result) {
+      }
+
+      @Override
+      public void onFailure(Throwable cause) {
+        LOGGER.error("Could not handle " + command, cause);
+      }
+    });
+  }
+}
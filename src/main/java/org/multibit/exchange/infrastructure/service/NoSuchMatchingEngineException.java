@@ -0,0 +1,34 @@
+package org.multibit.exchange.infrastructure.service;
+
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+
+/**
+ * <p>Exception to provide the following to clients of the service layer:</p>
+ * <ul>
+ * <li>An indication that no currency pair has been registered with the given id on the given exchange,
+ * so there is no matching engine to take its orders.</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+public class NoSuchMatchingEngineException extends RuntimeException {
+
+  private final ExchangeId exchangeId;
+
+  private final CurrencyPairId currencyPairId;
+
+  public NoSuchMatchingEngineException(ExchangeId exchangeId, CurrencyPairId currencyPairId, Throwable cause) {
+    super("No such currency pair \"" + currencyPairId.getIdentifier() + "\" on exchange \"" + exchangeId.getIdentifier() + "\"", cause);
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+  }
+
+  public ExchangeId getExchangeId() {
+    return exchangeId;
+  }
+
+  public CurrencyPairId getCurrencyPairId() {
+    return currencyPairId;
+  }
+}
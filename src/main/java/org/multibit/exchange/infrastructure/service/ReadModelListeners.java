@@ -0,0 +1,43 @@
+package org.multibit.exchange.infrastructure.service;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Singleton;
+import org.multibit.exchange.service.ReadModelListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>ReadModelListener to provide the following to the read model builders:</p>
+ * <ul>
+ * <li>One listener to tell of their writes, whichever readers have been added to it</li>
+ * </ul>
+ *
+ * <p>The builders are created before their readers, so the readers add themselves once they are created.</p>
+ *
+ * @since 0.0.1
+ */
+@Singleton
+public class ReadModelListeners implements ReadModelListener {
+
+  private final List<ReadModelListener> listeners = new CopyOnWriteArrayList<>();
+
+  public void add(ReadModelListener listener) {
+    Preconditions.checkNotNull(listener, "listener must not be null");
+    listeners.add(listener);
+  }
+
+  @Override
+  public void quoteChanged(String exchangeId, String currencyPairId) {
+    for (ReadModelListener listener : listeners) {
+      listener.quoteChanged(exchangeId, currencyPairId);
+    }
+  }
+
+  @Override
+  public void marketDepthChanged(String exchangeId, String currencyPairId) {
+    for (ReadModelListener listener : listeners) {
+      listener.marketDepthChanged(exchangeId, currencyPairId);
+    }
+  }
+}
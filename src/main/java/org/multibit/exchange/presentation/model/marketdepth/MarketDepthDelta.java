@@ -0,0 +1,81 @@
+package org.multibit.exchange.presentation.model.marketdepth;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.multibit.exchange.domain.model.Side;
+
+/**
+ * <p>PresentationModel to provide the following to market depth stream clients:</p>
+ * <ul>
+ * <li>The new volume at one price level of one currency pair, zero once the level is empty</li>
+ * <li>Its place in the currency pair's sequence of changes, so a client can tell when it has missed one</li>
+ * </ul>
+ *
+ * @since 0.0.1
+ */
+@JsonPropertyOrder({"exchangeId", "currencyPairId", "sequence", "side", "price", "volume"})
+public class MarketDepthDelta {
+
+  @JsonProperty
+  private final String exchangeId;
+
+  @JsonProperty
+  private final String currencyPairId;
+
+  @JsonProperty
+  private final long sequence;
+
+  @JsonProperty
+  private final Side side;
+
+  @JsonProperty
+  private final String price;
+
+  @JsonProperty
+  private final String volume;
+
+  public MarketDepthDelta(String exchangeId, String currencyPairId, long sequence, Side side, String price, String volume) {
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+    this.sequence = sequence;
+    this.side = side;
+    this.price = price;
+    this.volume = volume;
+  }
+
+  public String getExchangeId() {
+    return exchangeId;
+  }
+
+  public String getCurrencyPairId() {
+    return currencyPairId;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public Side getSide() {
+    return side;
+  }
+
+  public String getPrice() {
+    return price;
+  }
+
+  public String getVolume() {
+    return volume;
+  }
+
+  @Override
+  public String toString() {
+    return "MarketDepthDelta{" +
+        "exchangeId='" + exchangeId + '\'' +
+        ", currencyPairId='" + currencyPairId + '\'' +
+        ", sequence=" + sequence +
+        ", side=" + side +
+        ", price='" + price + '\'' +
+        ", volume='" + volume + '\'' +
+        '}';
+  }
+}
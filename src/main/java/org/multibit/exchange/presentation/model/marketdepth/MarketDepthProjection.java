@@ -0,0 +1,94 @@
+package org.multibit.exchange.presentation.model.marketdepth;
+
+import org.bson.types.ObjectId;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.LimitOrder;
+import org.multibit.exchange.domain.model.Side;
+
+/**
+ * <p>Projection to provide the following to the market depth read model builders:</p>
+ * <ul>
+ * <li>The change each domain event makes to a currency pair's market depth</li>
+ * </ul>
+ *
+ * <p>The live builder and the offline rebuild both apply events through here, so a rebuilt market depth is the
+ * one the live builder would have produced.</p>
+ *
+ * @since 0.0.1
+ */
+public final class MarketDepthProjection {
+
+  private MarketDepthProjection() {
+  }
+
+  public static MarketDepthPresentationModel newMarketDepth(CurrencyPairRegisteredEvent event) {
+    return new MarketDepthPresentationModel(
+        new ObjectId().toString(),
+        event.getExchangeId().getIdentifier(),
+        event.getCurrencyPairId().getIdentifier());
+  }
+
+  public static void apply(MarketDepthPresentationModel model, LimitOrderAddedEvent event) {
+    apply(changesTo(model), event);
+  }
+
+  public static void apply(MarketDepthPresentationModel model, TradeExecutedEvent event) {
+    apply(changesTo(model), event);
+  }
+
+  public static void apply(MarketDepthPresentationModel model, OrderCancelledEvent event) {
+    apply(changesTo(model), event);
+  }
+
+  public static void apply(DepthChanges depth, LimitOrderAddedEvent event) {
+    LimitOrder order = event.getOrder();
+    depth.increaseVolumeAtPrice(order.getSide(), order.getLimitPrice().getRaw(), order.getUnfilledQuantity().getRaw());
+  }
+
+  public static void apply(DepthChanges depth, TradeExecutedEvent event) {
+    depth.decreaseVolumeAtPrice(event.getSide(), event.getTrade().getPrice().getRaw(), event.getTrade().getQuantity().getRaw());
+  }
+
+  /**
+   * Removes what is left of a cancelled limit order, leaving the depth alone for a market order
+   */
+  public static void apply(DepthChanges depth, OrderCancelledEvent event) {
+    if (!event.getOrder().isLimitOrder()) {
+      return;
+    }
+    LimitOrder order = (LimitOrder) event.getOrder();
+    depth.decreaseVolumeAtPrice(order.getSide(), order.getLimitPrice().getRaw(), order.getUnfilledQuantity().getRaw());
+  }
+
+  private static DepthChanges changesTo(final MarketDepthPresentationModel model) {
+    return new DepthChanges() {
+      @Override
+      public void increaseVolumeAtPrice(Side side, String price, String volume) {
+        depthData(model, side).increaseVolumeAtPrice(price, volume);
+      }
+
+      @Override
+      public void decreaseVolumeAtPrice(Side side, String price, String volume) {
+        depthData(model, side).decreaseVolumeAtPrice(price, volume);
+      }
+    };
+  }
+
+  private static DepthData depthData(MarketDepthPresentationModel model, Side side) {
+    return (side == Side.BUY) ? model.getBidDepthData() : model.getAskDepthData();
+  }
+
+  /**
+   * <p>The volume changes the projection makes to the market depth of one currency pair, applied to a model in
+   * memory or straight to where it is stored</p>
+   */
+  public interface DepthChanges {
+
+    void increaseVolumeAtPrice(Side side, String price, String volume);
+
+    void decreaseVolumeAtPrice(Side side, String price, String volume);
+  }
+}
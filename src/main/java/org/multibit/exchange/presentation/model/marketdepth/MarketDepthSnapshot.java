@@ -0,0 +1,40 @@
+package org.multibit.exchange.presentation.model.marketdepth;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * <p>PresentationModel to provide the following to market depth stream clients:</p>
+ * <ul>
+ * <li>The whole market depth of a currency pair</li>
+ * <li>The sequence number of the last {@link MarketDepthDelta} it includes</li>
+ * </ul>
+ *
+ * <p>A client subscribes to the deltas first, then fetches a snapshot, discards the deltas up to and including
+ * its sequence number and applies the rest. A gap in the sequence means a delta was missed, and a new snapshot
+ * is needed.</p>
+ *
+ * @since 0.0.1
+ */
+@JsonPropertyOrder({"sequence", "marketDepth"})
+public class MarketDepthSnapshot {
+
+  @JsonProperty
+  private final long sequence;
+
+  @JsonProperty
+  private final MarketDepthPresentationModel marketDepth;
+
+  public MarketDepthSnapshot(long sequence, MarketDepthPresentationModel marketDepth) {
+    this.sequence = sequence;
+    this.marketDepth = marketDepth;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public MarketDepthPresentationModel getMarketDepth() {
+    return marketDepth;
+  }
+}
@@ -0,0 +1,116 @@
+package org.multibit.exchange.presentation.model.ticker;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.google.common.base.Objects;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>PresentationModel to provide the following to ticker stream clients:</p>
+ * <ul>
+ * <li>The best bid and ask of a currency pair, and the spread between them</li>
+ * <li>The price and quantity of its last trade</li>
+ * </ul>
+ *
+ * <p>A side with no orders has no best price, and then there is no spread either.</p>
+ *
+ * @since 0.0.1
+ */
+@JsonPropertyOrder({"exchangeId", "currencyPairId", "bid", "ask", "spread", "lastPrice", "lastQuantity"})
+public class TickerPresentationModel {
+
+  @JsonProperty
+  private final String exchangeId;
+
+  @JsonProperty
+  private final String currencyPairId;
+
+  @JsonProperty
+  private final String bid;
+
+  @JsonProperty
+  private final String ask;
+
+  @JsonProperty
+  private final String spread;
+
+  @JsonProperty
+  private final String lastPrice;
+
+  @JsonProperty
+  private final String lastQuantity;
+
+  public TickerPresentationModel(String exchangeId, String currencyPairId, String bid, String ask, String lastPrice, String lastQuantity) {
+    this.exchangeId = exchangeId;
+    this.currencyPairId = currencyPairId;
+    this.bid = bid;
+    this.ask = ask;
+    this.spread = (bid == null || ask == null)
+        ? null
+        : new BigDecimal(ask).subtract(new BigDecimal(bid)).stripTrailingZeros().toPlainString();
+    this.lastPrice = lastPrice;
+    this.lastQuantity = lastQuantity;
+  }
+
+  public String getExchangeId() {
+    return exchangeId;
+  }
+
+  public String getCurrencyPairId() {
+    return currencyPairId;
+  }
+
+  public String getBid() {
+    return bid;
+  }
+
+  public String getAsk() {
+    return ask;
+  }
+
+  public String getSpread() {
+    return spread;
+  }
+
+  public String getLastPrice() {
+    return lastPrice;
+  }
+
+  public String getLastQuantity() {
+    return lastQuantity;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    TickerPresentationModel that = (TickerPresentationModel) o;
+
+    return Objects.equal(exchangeId, that.exchangeId)
+        && Objects.equal(currencyPairId, that.currencyPairId)
+        && Objects.equal(bid, that.bid)
+        && Objects.equal(ask, that.ask)
+        && Objects.equal(lastPrice, that.lastPrice)
+        && Objects.equal(lastQuantity, that.lastQuantity);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(exchangeId, currencyPairId, bid, ask, lastPrice, lastQuantity);
+  }
+
+  @Override
+  public String toString() {
+    return "TickerPresentationModel{" +
+        "exchangeId='" + exchangeId + '\'' +
+        ", currencyPairId='" + currencyPairId + '\'' +
+        ", bid='" + bid + '\'' +
+        ", ask='" + ask + '\'' +
+        ", spread='" + spread + '\'' +
+        ", lastPrice='" + lastPrice + '\'' +
+        ", lastQuantity='" + lastQuantity + '\'' +
+        '}';
+  }
+}
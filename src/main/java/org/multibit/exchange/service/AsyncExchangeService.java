@@ -0,0 +1,37 @@
+package org.multibit.exchange.service;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+
+import java.util.List;
+
+/**
+ * <p>Service to provide the following to the applications in the infrastructure layer:</p>
+ * <ul>
+ * <li>Order submission which returns as soon as the command has been dispatched.</li>
+ * </ul>
+ *
+ * <p>Each future completes when the command has been handled, or fails with the exception the
+ * {@link ExchangeService} equivalent would have thrown, so no thread waits while orders are in flight.</p>
+ *
+ * @since 0.0.1
+ */
+public interface AsyncExchangeService {
+
+  ListenableFuture<Void> placeOrder(ExchangeId exchangeId, OrderId orderId, OrderDescriptor order);
+
+  /**
+   * @param orderIds The ids to give the orders, one for each order in the same sequence
+   * @param orders   The orders, all for the same currency pair
+   */
+  ListenableFuture<Void> placeOrders(ExchangeId exchangeId, List<OrderId> orderIds, List<OrderDescriptor> orders);
+
+  /**
+   * @param currencyPairId The currency pair the order was placed for
+   * @param orderId        The id of a resting order, as given when it was placed
+   */
+  ListenableFuture<Void> cancelOrder(ExchangeId exchangeId, CurrencyPairId currencyPairId, OrderId orderId);
+}
@@ -1,11 +1,14 @@
 package org.multibit.exchange.service;
 
+import org.multibit.exchange.domain.model.ItemPrice;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
 
+import java.util.List;
+
 /**
  * <p>Service to provide the following to the applications in the infrastructure layer:</p>
  * <ul>
@@ -21,5 +24,24 @@ public interface ExchangeService {
 
   void placeOrder(ExchangeId exchangeId, OrderId orderId, OrderDescriptor order);
 
+  /**
+   * Places several orders for one currency pair atomically, in the given sequence
+   *
+   * @param orderIds The ids to give the orders, one for each order in the same sequence
+   * @param orders   The orders, all for the same currency pair
+   */
+  void placeOrders(ExchangeId exchangeId, List<OrderId> orderIds, List<OrderDescriptor> orders);
+
+  /**
+   * @param currencyPairId The currency pair the order was placed for
+   * @param orderId        The id of a resting order, as given when it was placed
+   */
+  void cancelOrder(ExchangeId exchangeId, CurrencyPairId currencyPairId, OrderId orderId);
+
   void registerCurrencyPair(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId);
+
+  /**
+   * @param tickSize The minimum price increment of the pair, or null if prices are unrestricted
+   */
+  void registerCurrencyPair(ExchangeId exchangeId, CurrencyPairId currencyPairId, CurrencyId baseCurrencyId, CurrencyId counterCurrencyId, ItemPrice tickSize);
 }
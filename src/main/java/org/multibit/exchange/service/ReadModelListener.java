@@ -0,0 +1,24 @@
+package org.multibit.exchange.service;
+
+/**
+ * <p>Listener to provide the following to the read model builders:</p>
+ * <ul>
+ * <li>A way to tell the readers of a read model that what is stored for a currency pair has changed</li>
+ * </ul>
+ *
+ * <p>The builders call it once the change is written, so a reader reloading on the call sees the change.</p>
+ *
+ * @since 0.0.1
+ */
+public interface ReadModelListener {
+
+  /**
+   * The quote of the currency pair has been written or deleted
+   */
+  void quoteChanged(String exchangeId, String currencyPairId);
+
+  /**
+   * The market depth of the currency pair has been written
+   */
+  void marketDepthChanged(String exchangeId, String currencyPairId);
+}
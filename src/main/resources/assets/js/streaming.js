@@ -2,44 +2,53 @@ function initExchangeStream() {
   var socket = $.atmosphere;
 
   var request = new $.atmosphere.AtmosphereRequest();
-  request.url = document.location.toString() + 'stream/trades';
+  var url = document.location.toString() + 'stream/trades';
+  request.url = url;
   request.contentType = "application/json";
   request.transport = 'websocket';
   request.fallbackTransport = 'long-polling';
 
   var $body = $('body');
 
+  // The sequence number of the last frame received, sent on reconnecting to be replayed what was missed
+  var lastSeq = null;
+
   request.onOpen = function(response) {
 
     $body.append($('<p>',
       { text: 'Atmosphere connected using ' + response.transport }));
   };
 
+  request.onReconnect = function(request, response) {
+    if (lastSeq != null) {
+      request.url = url + '?lastSeq=' + lastSeq;
+    }
+  };
+
   request.onMessage = function(response) {
     var message = response.responseBody;
     try {
-      var json = JSON.parse(message);
+      var frame = JSON.parse(message);
     } catch (e) {
       console.log('Error: ', message.data);
       return
     }
 
-    var buyTriggered = '';
-    var sellTriggered = '';
-    if (json.triggeringSide == 'BUY') {
-      buyTriggered = '*';
-    } else {
-      sellTriggered = '*';
+    // A frame replayed on reconnecting may also have arrived before the connection dropped. A resync is always
+    // applied, as the numbering starts again when the channel has been recreated.
+    if (!frame.resync && lastSeq != null && frame.seq <= lastSeq) {
+      return;
+    }
+    lastSeq = frame.seq;
+    if (frame.resync) {
+      $body.append($('<p>', { text: 'Some trades were missed while disconnected' }));
+      return;
     }
 
-    var trade = json.trade;
-
-    $body.append($('<p>',
-      { text: 'Trade: ' + trade.ticker.symbol +
-      ' buyer: ' + trade.buySideBroker + buyTriggered +
-      ' seller: ' + trade.sellSideBroker + sellTriggered +
-      ' price: ' + trade.price.raw +
-      ' qty: ' + trade.quantity.raw }));
+    // Each frame holds an array of the trades executed within one batch window
+    $.each(frame.data, function(index, tradeExecuted) {
+      appendTrade($body, tradeExecuted);
+    });
   };
 
   request.onTransportFailure = function(errorMessage, request) {
@@ -48,3 +57,22 @@ function initExchangeStream() {
 
   var subSocket = socket.subscribe(request);
 }
+
+function appendTrade($body, json) {
+  var buyTriggered = '';
+  var sellTriggered = '';
+  if (json.triggeringSide == 'BUY') {
+    buyTriggered = '*';
+  } else {
+    sellTriggered = '*';
+  }
+
+  var trade = json.trade;
+
+  $body.append($('<p>',
+    { text: 'Trade: ' + trade.currencyPairId.identifier +
+    ' buyer: ' + trade.buySideBroker + buyTriggered +
+    ' seller: ' + trade.sellSideBroker + sellTriggered +
+    ' price: ' + trade.price.raw +
+    ' qty: ' + trade.quantity.raw }));
+}
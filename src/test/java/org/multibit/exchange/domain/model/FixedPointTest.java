@@ -0,0 +1,72 @@
+package org.multibit.exchange.domain.model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class FixedPointTest {
+
+  @Test
+  public void testToUnits_WholeNumber() {
+    // Act
+    long units = FixedPoint.toUnits(new BigDecimal("12"));
+
+    // Assert
+    assertThat(units).isEqualTo(1200000000L);
+  }
+
+  @Test
+  public void testToUnits_EightDecimalPlaces() {
+    // Act
+    long units = FixedPoint.toUnits(new BigDecimal("0.00000001"));
+
+    // Assert
+    assertThat(units).isEqualTo(1L);
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testToUnits_NineDecimalPlaces() {
+    // Act
+    FixedPoint.toUnits(new BigDecimal("0.000000001"));
+  }
+
+  @Test
+  public void testToPlainString_RoundTrip() {
+    // Arrange
+    String value = "87.12345678";
+
+    // Act
+    String roundTripped = FixedPoint.toPlainString(FixedPoint.toUnits(new BigDecimal(value)));
+
+    // Assert
+    assertThat(roundTripped).isEqualTo(value);
+  }
+
+  @Test
+  public void testToPlainString_TrailingZerosRemoved() {
+    // Act
+    String plain = FixedPoint.toPlainString(1050000000L);
+
+    // Assert
+    assertThat(plain).isEqualTo("10.5");
+  }
+
+  @Test
+  public void testToBigDecimal_Zero() {
+    // Act
+    BigDecimal zero = FixedPoint.toBigDecimal(0);
+
+    // Assert
+    assertThat(zero.toPlainString()).isEqualTo("0");
+  }
+
+  @Test
+  public void testIsRepresentable() {
+    // Assert
+    assertThat(FixedPoint.isRepresentable(new BigDecimal("92233720368.54775807"))).isTrue();
+    assertThat(FixedPoint.isRepresentable(new BigDecimal("92233720368.54775808"))).isFalse();
+    assertThat(FixedPoint.isRepresentable(new BigDecimal("1.000000001"))).isFalse();
+  }
+}
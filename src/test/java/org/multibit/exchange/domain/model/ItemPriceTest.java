@@ -218,4 +218,45 @@ public class ItemPriceTest {
 
     // Assert
   }
+
+  @Test
+  public void testCompareTo_Units() {
+    // Arrange
+    ItemPrice lower = new ItemPrice("10.00000001");
+    ItemPrice higher = new ItemPrice("10.00000002");
+
+    // Assert
+    assertThat(lower.getUnits()).isEqualTo(1000000001L);
+    assertThat(lower.compareTo(higher)).isLessThan(0);
+    assertThat(higher.compareTo(lower)).isGreaterThan(0);
+    assertThat(new ItemPrice("10.10")).isEqualTo(new ItemPrice("10.1"));
+  }
+
+  @Test
+  public void testCompareTo_BeyondUnitRange() {
+    // Arrange
+    ItemPrice largest = new ItemPrice("1000000000000000");
+    ItemPrice small = new ItemPrice("1");
+
+    // Assert
+    assertThat(largest.isRepresentableInUnits()).isFalse();
+    assertThat(largest.compareTo(small)).isGreaterThan(0);
+    assertThat(small.compareTo(largest)).isLessThan(0);
+    assertThat(largest).isEqualTo(new ItemPrice("1000000000000000.00000000"));
+  }
+
+  @Test
+  public void testFromUnits() {
+    // Arrange
+    ItemPrice parsed = new ItemPrice("1344.22845600");
+
+    // Act
+    ItemPrice fromUnits = ItemPrice.fromUnits(parsed.getUnits());
+
+    // Assert
+    assertThat(fromUnits).isEqualTo(parsed);
+    assertThat(fromUnits.getRaw()).isEqualTo("1344.228456");
+    assertThat(fromUnits.getBigDecimalPrice()).isEqualTo(parsed.getBigDecimalPrice());
+  }
+
 }
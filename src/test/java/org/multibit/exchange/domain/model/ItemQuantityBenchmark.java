@@ -0,0 +1,140 @@
+package org.multibit.exchange.domain.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>JMH comparison of the {@link FixedPoint} backed value types against the previous
+ * {@link BigDecimal} implementation, which re-parsed a string on every arithmetic operation.</p>
+ *
+ * <p>Parsing and formatting are measured too, since every order descriptor and read model pays for them.</p>
+ *
+ * <p>Run with <code>main</code> from the test classpath (see {@link BigDecimalQuantity} for the baseline).</p>
+ *
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemQuantityBenchmark {
+
+  private ItemQuantity initial;
+  private ItemQuantity fill;
+  private ItemPrice bid;
+  private ItemPrice ask;
+
+  private BigDecimalQuantity legacyInitial;
+  private BigDecimalQuantity legacyFill;
+  private BigDecimal legacyBid;
+  private BigDecimal legacyAsk;
+
+  @Setup
+  public void setUp() {
+    initial = new ItemQuantity("1250.12345678");
+    fill = new ItemQuantity("17.5");
+    bid = new ItemPrice("612.34");
+    ask = new ItemPrice("612.35");
+
+    legacyInitial = new BigDecimalQuantity("1250.12345678");
+    legacyFill = new BigDecimalQuantity("17.5");
+    legacyBid = new BigDecimal("612.34");
+    legacyAsk = new BigDecimal("612.35");
+  }
+
+  /**
+   * The arithmetic performed per fill: unfilled = initial - filled, traded = min(unfilled, counter)
+   */
+  @Benchmark
+  public ItemQuantity fillArithmetic_FixedPoint() {
+    ItemQuantity unfilled = initial.minus(fill);
+    return unfilled.min(fill).plus(fill);
+  }
+
+  @Benchmark
+  public BigDecimalQuantity fillArithmetic_BigDecimal() {
+    BigDecimalQuantity unfilled = legacyInitial.minus(legacyFill);
+    return unfilled.min(legacyFill).plus(legacyFill);
+  }
+
+  @Benchmark
+  public boolean crossesAt_FixedPoint() {
+    return bid.compareTo(ask) >= 0;
+  }
+
+  @Benchmark
+  public boolean crossesAt_BigDecimal() {
+    return legacyBid.compareTo(legacyAsk) >= 0;
+  }
+
+  @Benchmark
+  public ItemPrice parsePrice_FixedPoint() {
+    return new ItemPrice("612.34");
+  }
+
+  @Benchmark
+  public ItemQuantity parseQuantity_FixedPoint() {
+    return new ItemQuantity("1250.12345678");
+  }
+
+  @Benchmark
+  public BigDecimalQuantity parseQuantity_BigDecimal() {
+    return new BigDecimalQuantity("1250.12345678");
+  }
+
+  @Benchmark
+  public String format_FixedPoint() {
+    return initial.getRaw();
+  }
+
+  /**
+   * <p>The previous {@link ItemQuantity} arithmetic, retained here as the benchmark baseline.</p>
+   */
+  public static class BigDecimalQuantity {
+
+    private final BigDecimal quantity;
+
+    public BigDecimalQuantity(String itemQuantity) {
+      this.quantity = new BigDecimal(itemQuantity).stripTrailingZeros();
+      if (quantity.signum() < 0 || quantity.scale() > FixedPoint.SCALE) {
+        throw new IllegalArgumentException("invalid quantity " + itemQuantity);
+      }
+    }
+
+    public BigDecimalQuantity plus(BigDecimalQuantity that) {
+      return new BigDecimalQuantity(this.quantity.add(that.quantity).toString());
+    }
+
+    public BigDecimalQuantity minus(BigDecimalQuantity that) {
+      return new BigDecimalQuantity(this.quantity.subtract(that.quantity).toString());
+    }
+
+    public BigDecimalQuantity min(BigDecimalQuantity that) {
+      return new BigDecimalQuantity(this.quantity.min(that.quantity).toString());
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ItemQuantityBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
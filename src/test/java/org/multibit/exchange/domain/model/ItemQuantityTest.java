@@ -129,4 +129,65 @@ public class ItemQuantityTest {
     assertThat(itemQuantity.isZero()).isTrue();
   }
 
+  @Test
+  public void testPlus() {
+    // Arrange
+    ItemQuantity a = new ItemQuantity("1.5");
+    ItemQuantity b = new ItemQuantity("0.00000001");
+
+    // Act
+    ItemQuantity sum = a.plus(b);
+
+    // Assert
+    assertThat(sum.getRaw()).isEqualTo("1.50000001");
+    assertThat(sum).isEqualTo(new ItemQuantity("1.50000001"));
+  }
+
+  @Test
+  public void testPlus_TooLarge() {
+    // Arrange
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("quantity must not be greater than 10000000");
+
+    // Act
+    new ItemQuantity("10000000").plus(new ItemQuantity("0.00000001"));
+  }
+
+  @Test
+  public void testMinus() {
+    // Act
+    ItemQuantity difference = new ItemQuantity("100").minus(new ItemQuantity("99.9"));
+
+    // Assert
+    assertThat(difference.getRaw()).isEqualTo("0.1");
+  }
+
+  @Test
+  public void testMinus_Negative() {
+    // Arrange
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("quantity must not be negative");
+
+    // Act
+    new ItemQuantity("1").minus(new ItemQuantity("2"));
+  }
+
+  @Test
+  public void testMinAndMax() {
+    // Arrange
+    ItemQuantity small = new ItemQuantity("0.1");
+    ItemQuantity large = new ItemQuantity("10");
+
+    // Assert
+    assertThat(small.min(large)).isEqualTo(small);
+    assertThat(small.max(large)).isEqualTo(large);
+  }
+
+  @Test
+  public void testEquals_IgnoresTrailingZeros() {
+    // Assert
+    assertThat(new ItemQuantity("1.10")).isEqualTo(new ItemQuantity("1.1"));
+    assertThat(new ItemQuantity("1.10").hashCode()).isEqualTo(new ItemQuantity("1.1").hashCode());
+  }
+
 }
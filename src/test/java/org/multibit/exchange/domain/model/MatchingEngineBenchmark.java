@@ -0,0 +1,85 @@
+package org.multibit.exchange.domain.model;
+
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.profile.GCProfiler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>JMH benchmark of a market order sweeping the sell side of a {@link MatchingEngine}.</p>
+ *
+ * <p>Each operation rests {@link #restingOrders} sell limit orders and then sweeps them all with a
+ * single market buy, so the GC profiler's normalized allocation divided by (restingOrders + 1)
+ * gives the allocation per order.</p>
+ *
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchingEngineBenchmark {
+
+  private static final String TICKER = "BTC/USD";
+
+  @Param({"100"})
+  public int restingOrders;
+
+  private MatchingEngine matchingEngine;
+
+  private PlaceOrderCommand[] sellCommands;
+
+  private PlaceOrderCommand sweepCommand;
+
+  @Setup
+  public void setUp() throws Exception {
+    ExchangeId exchangeId = new ExchangeId("benchmark");
+    matchingEngine = new MatchingEngine(exchangeId, new CurrencyPairId(TICKER), new CurrencyId("BTC"), new CurrencyId("USD"), null);
+    matchingEngine.commitEvents();
+
+    // One order per price level so that the sweep fills each level completely
+    sellCommands = new PlaceOrderCommand[restingOrders];
+    for (int i = 0; i < restingOrders; i++) {
+      String price = String.format("%d.%02d", 100 + i / 100, i % 100);
+      sellCommands[i] = new PlaceOrderCommand(exchangeId, new OrderDescriptor("Seller" + i, "Sell", "1.5", TICKER, price));
+    }
+    sweepCommand = new PlaceOrderCommand(exchangeId, new OrderDescriptor("Buyer", "Buy", String.valueOf(restingOrders * 1.5), TICKER, "M"));
+  }
+
+  @Benchmark
+  public MatchingEngine restAndSweep() throws Exception {
+    for (PlaceOrderCommand sellCommand : sellCommands) {
+      matchingEngine.placeOrder(sellCommand);
+    }
+    matchingEngine.placeOrder(sweepCommand);
+    matchingEngine.commitEvents();
+    return matchingEngine;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(MatchingEngineBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
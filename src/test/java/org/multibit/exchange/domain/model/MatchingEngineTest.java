@@ -0,0 +1,419 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.axonframework.domain.DomainEventStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.multibit.exchange.domain.event.MatchingEngineClosedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.BatchPlaceOrdersCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CancelOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CloseMatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MatchingEngineTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private static final String TICKER = "BTC/USD";
+
+  private static final int RESTING_ORDERS = 10000;
+
+  private static final int ORDERS_PER_LEVEL = 100;
+
+  private ExchangeId exchangeId = new ExchangeId("sweep");
+
+  private CurrencyPairId currencyPairId = new CurrencyPairId(TICKER);
+
+  private MatchingEngine matchingEngine;
+
+  @Before
+  public void setUp() throws Exception {
+    matchingEngine = new MatchingEngine(exchangeId, currencyPairId, new CurrencyId("BTC"), new CurrencyId("USD"), null);
+    matchingEngine.commitEvents();
+  }
+
+  @Test
+  public void testMarketOrderSweepsTenThousandRestingOrders() throws Exception {
+    // Arrange
+    for (int i = 0; i < RESTING_ORDERS; i++) {
+      String price = String.format("10.%02d", i / ORDERS_PER_LEVEL);
+      placeOrder("Seller" + i, "Sell", "2", price);
+    }
+    matchingEngine.commitEvents();
+
+    // Act
+    placeOrder("Buyer", "Buy", String.valueOf(RESTING_ORDERS * 2), MarketOrder.MARKET_PRICE);
+
+    // Assert
+    List<Trade> trades = drainTrades();
+    assertThat(trades).hasSize(RESTING_ORDERS);
+
+    Set<String> sellers = Sets.newHashSet();
+    ItemPrice previousPrice = null;
+    for (Trade trade : trades) {
+      assertThat(trade.getBuySideBroker()).isEqualTo("Buyer");
+      assertThat(trade.getQuantity()).isEqualTo(new ItemQuantity("2"));
+      assertThat(sellers.add(trade.getSellSideBroker())).as("each resting order fills exactly once").isTrue();
+      if (previousPrice != null) {
+        assertThat(trade.getPrice().compareTo(previousPrice)).isGreaterThanOrEqualTo(0);
+      }
+      previousPrice = trade.getPrice();
+    }
+    assertThat(trades.get(0).getSellSideBroker()).isEqualTo("Seller0");
+    assertThat(trades.get(RESTING_ORDERS - 1).getSellSideBroker()).isEqualTo("Seller" + (RESTING_ORDERS - 1));
+
+    // The sell side is now empty
+    placeOrder("LateBuyer", "Buy", "1", MarketOrder.MARKET_PRICE);
+    assertThat(drainTrades()).isEmpty();
+  }
+
+  @Test
+  public void testPartialFillsLeaveRemainderAtTopOfBook() throws Exception {
+    // Arrange
+    placeOrder("Seller1", "Sell", "10", "10.00");
+    placeOrder("Seller2", "Sell", "10", "10.00");
+    matchingEngine.commitEvents();
+
+    // Act
+    placeOrder("Buyer1", "Buy", "4", MarketOrder.MARKET_PRICE);
+    placeOrder("Buyer2", "Buy", "10", MarketOrder.MARKET_PRICE);
+
+    // Assert
+    List<Trade> trades = drainTrades();
+    assertThat(trades).hasSize(3);
+    assertThat(trades.get(0).getSellSideBroker()).isEqualTo("Seller1");
+    assertThat(trades.get(0).getQuantity()).isEqualTo(new ItemQuantity("4"));
+    assertThat(trades.get(1).getSellSideBroker()).isEqualTo("Seller1");
+    assertThat(trades.get(1).getQuantity()).isEqualTo(new ItemQuantity("6"));
+    assertThat(trades.get(2).getSellSideBroker()).isEqualTo("Seller2");
+    assertThat(trades.get(2).getQuantity()).isEqualTo(new ItemQuantity("4"));
+  }
+
+  @Test
+  public void testCancelOrderFromMiddleOfDeepPriceLevel() throws Exception {
+    // Arrange
+    List<OrderId> orderIds = Lists.newArrayList();
+    for (int i = 0; i < RESTING_ORDERS; i++) {
+      orderIds.add(placeOrder("Seller" + i, "Sell", "2", "10.00"));
+    }
+    matchingEngine.commitEvents();
+
+    // Act
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, orderIds.get(RESTING_ORDERS / 2)));
+
+    // Assert
+    List<OrderCancelledEvent> cancellations = drainEvents(OrderCancelledEvent.class);
+    assertThat(cancellations).hasSize(1);
+    assertThat(cancellations.get(0).getExchangeId()).isEqualTo(exchangeId);
+    assertThat(cancellations.get(0).getOrder().getId()).isEqualTo(orderIds.get(RESTING_ORDERS / 2));
+    assertThat(cancellations.get(0).getOrder().getUnfilledQuantity()).isEqualTo(new ItemQuantity("2"));
+
+    placeOrder("Buyer", "Buy", String.valueOf(RESTING_ORDERS * 2), MarketOrder.MARKET_PRICE);
+    List<Trade> trades = drainTrades();
+    assertThat(trades).hasSize(RESTING_ORDERS - 1);
+    for (Trade trade : trades) {
+      assertThat(trade.getSellSideBroker()).isNotEqualTo("Seller" + (RESTING_ORDERS / 2));
+    }
+  }
+
+  @Test
+  public void testCancelPartiallyFilledOrder() throws Exception {
+    // Arrange
+    OrderId orderId = placeOrder("Seller1", "Sell", "10", "10.00");
+    placeOrder("Seller2", "Sell", "10", "10.01");
+    placeOrder("Buyer1", "Buy", "4", MarketOrder.MARKET_PRICE);
+    matchingEngine.commitEvents();
+
+    // Act
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, orderId));
+
+    // Assert
+    List<OrderCancelledEvent> cancellations = drainEvents(OrderCancelledEvent.class);
+    assertThat(cancellations.get(0).getOrder().getUnfilledQuantity()).isEqualTo(new ItemQuantity("6"));
+
+    placeOrder("Buyer2", "Buy", "1", MarketOrder.MARKET_PRICE);
+    List<Trade> trades = drainTrades();
+    assertThat(trades).hasSize(1);
+    assertThat(trades.get(0).getSellSideBroker()).isEqualTo("Seller2");
+  }
+
+  @Test
+  public void testCancelFilledOrder() throws Exception {
+    // Arrange
+    OrderId orderId = placeOrder("Seller", "Sell", "10", "10.00");
+    placeOrder("Buyer", "Buy", "10", MarketOrder.MARKET_PRICE);
+    matchingEngine.commitEvents();
+
+    thrown.expect(NoSuchOrderException.class);
+
+    // Act
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, orderId));
+  }
+
+  @Test
+  public void testCancelUnknownOrder() throws Exception {
+    // Arrange
+    placeOrder("Seller", "Sell", "10", "10.00");
+    thrown.expect(NoSuchOrderException.class);
+
+    // Act
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, new OrderId("doesnt_exist")));
+  }
+
+  @Test
+  public void testBestBidAndAskFollowTheBook() throws Exception {
+    // Arrange
+    assertThat(matchingEngine.getBestBid().isPresent()).isFalse();
+    assertThat(matchingEngine.getBestAsk().isPresent()).isFalse();
+
+    // Act
+    placeOrder("Buyer1", "Buy", "3", "9.98");
+    placeOrder("Buyer2", "Buy", "2", "9.99");
+    placeOrder("Seller1", "Sell", "4", "10.01");
+    placeOrder("Seller2", "Sell", "1", "10.01");
+
+    // Assert
+    assertThat(matchingEngine.getBestBid().get()).isEqualTo(new PriceLevelSnapshot(new ItemPrice("9.99"), new ItemQuantity("2"), 1));
+    assertThat(matchingEngine.getBestAsk().get()).isEqualTo(new PriceLevelSnapshot(new ItemPrice("10.01"), new ItemQuantity("5"), 2));
+
+    // Filling the best bid exposes the next level
+    placeOrder("Seller3", "Sell", "2", MarketOrder.MARKET_PRICE);
+    assertThat(matchingEngine.getBestBid().get()).isEqualTo(new PriceLevelSnapshot(new ItemPrice("9.98"), new ItemQuantity("3"), 1));
+  }
+
+  @Test
+  public void testDepthTracksVolumeAndOrderCountThroughFillsAndCancels() throws Exception {
+    // Arrange
+    placeOrder("Seller1", "Sell", "4", "10.00");
+    placeOrder("Seller2", "Sell", "6", "10.00");
+    placeOrder("Seller3", "Sell", "1.5", "10.02");
+    OrderId cancelled = placeOrder("Seller4", "Sell", "2", "10.01");
+    placeOrder("Seller5", "Sell", "3", "10.01");
+
+    // Act
+    placeOrder("Buyer", "Buy", "5", MarketOrder.MARKET_PRICE);
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, cancelled));
+    matchingEngine.commitEvents();
+
+    // Assert
+    assertThat(matchingEngine.getDepth(Side.SELL, 10)).containsExactly(
+        new PriceLevelSnapshot(new ItemPrice("10.00"), new ItemQuantity("5"), 1),
+        new PriceLevelSnapshot(new ItemPrice("10.01"), new ItemQuantity("3"), 1),
+        new PriceLevelSnapshot(new ItemPrice("10.02"), new ItemQuantity("1.5"), 1));
+    assertThat(matchingEngine.getDepth(Side.SELL, 2)).hasSize(2);
+    assertThat(matchingEngine.getDepth(Side.BUY, 10)).isEmpty();
+  }
+
+  @Test
+  public void testBatchPlaceOrdersMatchesInSequence() throws Exception {
+    // Arrange
+    List<OrderId> orderIds = Lists.newArrayList(new OrderId(), new OrderId(), new OrderId());
+    List<OrderDescriptor> orders = Lists.newArrayList(
+        new OrderDescriptor("Seller1", "Sell", "5", TICKER, "10.01"),
+        new OrderDescriptor("Seller2", "Sell", "5", TICKER, "10.02"),
+        new OrderDescriptor("Buyer", "Buy", "7", TICKER, "10.02"));
+
+    // Act
+    matchingEngine.placeOrders(new BatchPlaceOrdersCommand(exchangeId, orderIds, orders));
+
+    // Assert
+    List<Trade> trades = drainTrades();
+    assertThat(trades).hasSize(2);
+    assertThat(trades.get(0).getSellSideBroker()).isEqualTo("Seller1");
+    assertThat(trades.get(1).getSellSideBroker()).isEqualTo("Seller2");
+    assertThat(trades.get(1).getQuantity()).isEqualTo(new ItemQuantity("2"));
+
+    // The remainder rests under the id given in the batch
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, orderIds.get(1)));
+    assertThat(drainEvents(OrderCancelledEvent.class).get(0).getOrder().getUnfilledQuantity()).isEqualTo(new ItemQuantity("3"));
+  }
+
+  @Test
+  public void testBatchPlaceOrdersWithInvalidOrderPlacesNone() throws Exception {
+    // Arrange
+    MatchingEngine tickedEngine = new MatchingEngine(exchangeId, currencyPairId, new CurrencyId("BTC"), new CurrencyId("USD"), new ItemPrice("0.01"));
+    tickedEngine.commitEvents();
+    List<OrderDescriptor> orders = Lists.newArrayList(
+        new OrderDescriptor("Seller1", "Sell", "5", TICKER, "10.01"),
+        new OrderDescriptor("Seller2", "Sell", "5", TICKER, "10.015"));
+
+    // Act
+    try {
+      tickedEngine.placeOrders(new BatchPlaceOrdersCommand(exchangeId, Lists.newArrayList(new OrderId(), new OrderId()), orders));
+      fail("expected the batch to be rejected");
+    } catch (IllegalArgumentException e) {
+      // Assert
+      assertThat(e.getMessage()).isEqualTo("limit price must be a multiple of the tick size");
+      assertThat(tickedEngine.getUncommittedEventCount()).isEqualTo(0);
+      assertThat(tickedEngine.getBestAsk().isPresent()).isFalse();
+    }
+  }
+
+  @Test
+  public void testBatchPlaceOrdersForSeveralCurrencyPairs() throws Exception {
+    // Arrange
+    List<OrderDescriptor> orders = Lists.newArrayList(
+        new OrderDescriptor("Seller1", "Sell", "5", TICKER, "10.01"),
+        new OrderDescriptor("Seller2", "Sell", "5", "LTC/USD", "10.01"));
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("all orders in a batch must be for the same currency pair");
+
+    // Act
+    new BatchPlaceOrdersCommand(exchangeId, Lists.newArrayList(new OrderId(), new OrderId()), orders);
+  }
+
+  @Test
+  public void testFromSnapshotRestoresRestingOrdersInPriority() throws Exception {
+    // Arrange
+    placeOrder("Seller1", "Sell", "4", "10.00");
+    placeOrder("Seller2", "Sell", "6", "10.00");
+    OrderId cancelled = placeOrder("Seller3", "Sell", "2", "10.01");
+    placeOrder("Buyer1", "Buy", "3", "9.99");
+    placeOrder("Buyer2", "Buy", "1", MarketOrder.MARKET_PRICE);
+    matchingEngine.commitEvents();
+
+    // Act
+    MatchingEngine restored = MatchingEngine.fromSnapshot(matchingEngine.createSnapshot());
+
+    // Assert
+    assertThat(restored.getDepth(Side.SELL, 10)).isEqualTo(matchingEngine.getDepth(Side.SELL, 10));
+    assertThat(restored.getDepth(Side.BUY, 10)).isEqualTo(matchingEngine.getDepth(Side.BUY, 10));
+
+    // The restored engine goes on matching from where the original left off
+    matchingEngine = restored;
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, cancelled));
+    placeOrder("Buyer3", "Buy", "9", MarketOrder.MARKET_PRICE);
+    List<Trade> trades = drainTrades();
+    assertThat(trades).hasSize(2);
+    assertThat(trades.get(0).getSellSideBroker()).isEqualTo("Seller1");
+    assertThat(trades.get(0).getQuantity()).isEqualTo(new ItemQuantity("3"));
+    assertThat(trades.get(1).getSellSideBroker()).isEqualTo("Seller2");
+    assertThat(matchingEngine.getBestAsk().isPresent()).isFalse();
+  }
+
+  @Test
+  public void testClosedEngineRejectsOrders() throws Exception {
+    // Arrange
+    matchingEngine.close(new CloseMatchingEngineCommand(exchangeId, currencyPairId));
+    thrown.expect(NoSuchCurrencyPairException.class);
+
+    // Act
+    placeOrder("Seller", "Sell", "10", "10.00");
+  }
+
+  @Test
+  public void testClosedEngineRejectsBatches() throws Exception {
+    // Arrange
+    matchingEngine.close(new CloseMatchingEngineCommand(exchangeId, currencyPairId));
+    thrown.expect(NoSuchCurrencyPairException.class);
+
+    // Act
+    matchingEngine.placeOrders(new BatchPlaceOrdersCommand(exchangeId, Lists.newArrayList(new OrderId()),
+        Lists.newArrayList(new OrderDescriptor("Seller", "Sell", "10", TICKER, "10.00"))));
+  }
+
+  @Test
+  public void testClosedEngineStillCancelsRestingOrders() throws Exception {
+    // Arrange
+    OrderId orderId = placeOrder("Seller", "Sell", "10", "10.00");
+    matchingEngine.close(new CloseMatchingEngineCommand(exchangeId, currencyPairId));
+    matchingEngine.commitEvents();
+
+    // Act
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, orderId));
+
+    // Assert
+    assertThat(drainEvents(OrderCancelledEvent.class)).hasSize(1);
+    assertThat(matchingEngine.getBestAsk().isPresent()).isFalse();
+  }
+
+  @Test
+  public void testReopenedEngineMatchesAgainstItsBooks() throws Exception {
+    // Arrange
+    placeOrder("Seller", "Sell", "10", "10.00");
+    matchingEngine.close(new CloseMatchingEngineCommand(exchangeId, currencyPairId));
+    matchingEngine.commitEvents();
+
+    // Act
+    matchingEngine.reopen();
+    placeOrder("Buyer", "Buy", "4", MarketOrder.MARKET_PRICE);
+
+    // Assert
+    assertThat(matchingEngine.isClosed()).isFalse();
+    List<Trade> trades = drainTrades();
+    assertThat(trades).hasSize(1);
+    assertThat(trades.get(0).getSellSideBroker()).isEqualTo("Seller");
+  }
+
+  @Test
+  public void testCloseAndReopenApplyOnlyOnChange() throws Exception {
+    // Arrange
+    // Act
+    matchingEngine.reopen();
+    matchingEngine.close(new CloseMatchingEngineCommand(exchangeId, currencyPairId));
+    matchingEngine.close(new CloseMatchingEngineCommand(exchangeId, currencyPairId));
+
+    // Assert
+    List<Object> events = drainEvents(Object.class);
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0)).isInstanceOf(MatchingEngineClosedEvent.class);
+    assertThat(matchingEngine.isClosed()).isTrue();
+  }
+
+  @Test
+  public void testFromSnapshotKeepsEngineClosed() throws Exception {
+    // Arrange
+    matchingEngine.close(new CloseMatchingEngineCommand(exchangeId, currencyPairId));
+    matchingEngine.commitEvents();
+
+    // Act
+    MatchingEngine restored = MatchingEngine.fromSnapshot(matchingEngine.createSnapshot());
+
+    // Assert
+    assertThat(restored.isClosed()).isTrue();
+  }
+
+  private OrderId placeOrder(String broker, String side, String quantity, String price) throws Exception {
+    OrderId orderId = new OrderId();
+    matchingEngine.placeOrder(new PlaceOrderCommand(exchangeId, orderId, new OrderDescriptor(broker, side, quantity, TICKER, price)));
+    return orderId;
+  }
+
+  private List<Trade> drainTrades() {
+    List<Trade> trades = Lists.newArrayList();
+    for (TradeExecutedEvent event : drainEvents(TradeExecutedEvent.class)) {
+      trades.add(event.getTrade());
+    }
+    return trades;
+  }
+
+  private <T> List<T> drainEvents(Class<T> eventType) {
+    List<T> matchingEvents = Lists.newArrayList();
+    DomainEventStream events = matchingEngine.getUncommittedEvents();
+    while (events.hasNext()) {
+      Object payload = events.next().getPayload();
+      if (eventType.isInstance(payload)) {
+        matchingEvents.add(eventType.cast(payload));
+      }
+    }
+    matchingEngine.commitEvents();
+    return matchingEvents;
+  }
+}
@@ -0,0 +1,73 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.yammer.dropwizard.testing.FixtureHelpers;
+import org.junit.Test;
+import org.multibit.exchange.cucumber.TradeRow;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.testing.EventBasedExchangeServiceTestFixture;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * <p>Replays seeded random order flows through the exchange service and compares the trades and the books left
+ * over with those recorded before prices and quantities were held in units and the books were rewritten</p>
+ */
+public class MatchingGoldenMasterTest {
+
+  private static final int SEEDS = 5;
+
+  private static final int ORDERS_PER_SEED = 200;
+
+  @Test
+  public void testMatching_sameTradesAndBooksAsRecorded() throws Exception {
+    // Arrange
+    List<String> expected = Lists.newArrayList(
+        Splitter.on('\n').split(FixtureHelpers.fixture("fixtures/golden/matching.txt")));
+
+    // Act
+    List<String> actual = Lists.newArrayList();
+    for (int seed = 1; seed <= SEEDS; seed++) {
+      replay(seed, actual);
+    }
+
+    // Assert
+    for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+      assertThat(actual.get(i)).as("line " + (i + 1)).isEqualTo(expected.get(i));
+    }
+    assertThat(actual).hasSize(expected.size());
+  }
+
+  private void replay(int seed, List<String> lines) {
+    Random random = new Random(seed);
+    EventBasedExchangeServiceTestFixture fixture = new EventBasedExchangeServiceTestFixture();
+    CurrencyPairDescriptor currencyPair = new CurrencyPairDescriptor("BTC", "USD", null);
+    fixture.registerCurrencyPair(currencyPair);
+
+    for (int i = 0; i < ORDERS_PER_SEED; i++) {
+      String side = random.nextBoolean() ? "Buy" : "Sell";
+      String quantity = (1 + random.nextInt(100)) + (random.nextInt(3) == 0 ? "." + random.nextInt(100) : "");
+      String price = random.nextInt(6) == 0 ? "M" : String.format("%d.%02d", 10, random.nextInt(20));
+      try {
+        fixture.placeOrder(new OrderDescriptor("B" + i, side, quantity, currencyPair.getSymbol(), price));
+      } catch (RuntimeException e) {
+        lines.add("ERR " + i + " " + e.getClass().getSimpleName());
+      }
+    }
+
+    lines.add("seed " + seed);
+    for (TradeRow trade : fixture.getObservedTrades()) {
+      lines.add(trade.toString());
+    }
+    for (Side side : Side.values()) {
+      for (Order order : fixture.getOrderBookReadModel(side).getOpenOrders()) {
+        lines.add(side + " " + order.getBroker() + " " + order.getUnfilledQuantity().getRaw() + " " + order.getPriceString());
+      }
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.collect.Maps;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.commandhandling.annotation.AggregateAnnotationCommandHandler;
+import org.axonframework.commandhandling.annotation.AnnotationCommandHandlerAdapter;
+import org.axonframework.commandhandling.annotation.AnnotationCommandTargetResolver;
+import org.axonframework.commandhandling.callbacks.FutureCallback;
+import org.axonframework.commandhandling.disruptor.DisruptorCommandBus;
+import org.axonframework.commandhandling.disruptor.DisruptorConfiguration;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.axonframework.eventstore.EventStore;
+import org.axonframework.eventstore.EventStreamNotFoundException;
+import org.axonframework.repository.Repository;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OpenMatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>JMH benchmark of order throughput across several currency pairs on a {@link DisruptorCommandBus}.</p>
+ *
+ * <p>Each pair is its own {@link MatchingEngine} aggregate, so with more invoker threads the pairs are
+ * matched concurrently. Compare the results for each {@link #invokerThreads} value up to the core count.</p>
+ *
+ * @since 0.0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiPairThroughputBenchmark {
+
+  private static final int PAIRS = 8;
+
+  private static final int ORDERS_PER_PAIR = 2000;
+
+  private static final String[] CURRENCIES = {"BTC", "LTC", "NMC", "PPC", "XPM", "FTC", "TRC", "DOGE"};
+
+  @Param({"1", "2", "4", "8"})
+  public int invokerThreads;
+
+  private DisruptorCommandBus commandBus;
+
+  private PlaceOrderCommand[] commands;
+
+  @Setup
+  public void setUp() throws Exception {
+    DisruptorConfiguration configuration = new DisruptorConfiguration();
+    configuration.setCommandTargetResolver(new AnnotationCommandTargetResolver());
+    configuration.setInvokerThreadCount(invokerThreads);
+
+    commandBus = new DisruptorCommandBus(new CreationEventsOnlyEventStore(), new SimpleEventBus(), configuration);
+    Repository<MatchingEngine> repository = commandBus.createRepository(new GenericAggregateFactory<>(MatchingEngine.class));
+    AggregateAnnotationCommandHandler.subscribe(MatchingEngine.class, repository, commandBus);
+    AnnotationCommandHandlerAdapter.subscribe(new MatchingEngineCommandHandler(repository), commandBus);
+
+    ExchangeId exchangeId = new ExchangeId("benchmark");
+    String[] tickers = new String[PAIRS];
+    for (int pair = 0; pair < PAIRS; pair++) {
+      tickers[pair] = CURRENCIES[pair] + "/USD";
+      FutureCallback<Object> created = new FutureCallback<>();
+      commandBus.dispatch(GenericCommandMessage.asCommandMessage(new OpenMatchingEngineCommand(
+          exchangeId, new CurrencyPairId(tickers[pair]), new CurrencyId(CURRENCIES[pair]), new CurrencyId("USD"), null)), created);
+      created.get();
+    }
+
+    // Interleave the pairs, each resting a sell that the following buy fills so the books stay small
+    commands = new PlaceOrderCommand[PAIRS * ORDERS_PER_PAIR];
+    int i = 0;
+    for (int order = 0; order < ORDERS_PER_PAIR; order++) {
+      String side = (order % 2 == 0) ? "Sell" : "Buy";
+      for (int pair = 0; pair < PAIRS; pair++) {
+        commands[i++] = new PlaceOrderCommand(exchangeId, new OrderDescriptor("Broker" + pair, side, "1.5", tickers[pair], "100.25"));
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    commandBus.stop();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PAIRS * ORDERS_PER_PAIR)
+  public void placeOrders() throws Exception {
+    LatchCallback callback = new LatchCallback(commands.length);
+    for (PlaceOrderCommand command : commands) {
+      commandBus.dispatch(GenericCommandMessage.asCommandMessage(command), callback);
+    }
+    callback.await();
+  }
+
+  private static class LatchCallback implements CommandCallback<Object> {
+
+    private final CountDownLatch latch;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    LatchCallback(int commands) {
+      latch = new CountDownLatch(commands);
+    }
+
+    @Override
+    public void onSuccess(Object result) {
+      latch.countDown();
+    }
+
+    @Override
+    public void onFailure(Throwable cause) {
+      failure.compareAndSet(null, cause);
+      latch.countDown();
+    }
+
+    void await() throws Exception {
+      latch.await();
+      if (failure.get() != null) {
+        throw new IllegalStateException("command failed", failure.get());
+      }
+    }
+  }
+
+  /**
+   * <p>An {@link EventStore} keeping only each aggregate's creation event, so that a long run does not
+   * accumulate events (an aggregate evicted from the command bus cache is reloaded with empty books).</p>
+   */
+  private static class CreationEventsOnlyEventStore implements EventStore {
+
+    private final ConcurrentMap<Object, DomainEventMessage> creationEvents = Maps.newConcurrentMap();
+
+    @Override
+    public void appendEvents(String type, DomainEventStream events) {
+      while (events.hasNext()) {
+        DomainEventMessage event = events.next();
+        if (event.getSequenceNumber() == 0) {
+          creationEvents.put(event.getAggregateIdentifier(), event);
+        }
+      }
+    }
+
+    @Override
+    public DomainEventStream readEvents(String type, Object identifier) {
+      DomainEventMessage creationEvent = creationEvents.get(identifier);
+      if (creationEvent == null) {
+        throw new EventStreamNotFoundException(type, identifier);
+      }
+      return new SimpleDomainEventStream(creationEvent);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(MultiPairThroughputBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
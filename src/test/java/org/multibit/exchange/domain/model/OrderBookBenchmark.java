@@ -0,0 +1,165 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.base.Optional;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>JMH benchmark of the {@link OrderBook} operations used while matching: reading the top, adding a limit
+ * order and decreasing the top by a trade.</p>
+ *
+ * <p>The book belongs to a {@link MatchingEngine} since its events are applied through the aggregate. It starts
+ * with {@link #priceLevels} levels of {@link #ordersPerLevel} orders, and each add is paired with the fill
+ * of an order so that the book stays the same size.</p>
+ *
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookBenchmark {
+
+  private static final Ticker TICKER = new Ticker("BTC/USD");
+
+  private static final CurrencyPairId CURRENCY_PAIR_ID = new CurrencyPairId(TICKER.getSymbol());
+
+  private static final ItemPrice TOP_PRICE = new ItemPrice("100.01");
+
+  private static final ItemPrice BETTER_PRICE = new ItemPrice("100.00");
+
+  private static final ItemQuantity HALF = new ItemQuantity("1");
+
+  private static final ItemQuantity WHOLE = new ItemQuantity("2");
+
+  @Param({"100"})
+  public int priceLevels;
+
+  @Param({"10"})
+  public int ordersPerLevel;
+
+  private MatchingEngine matchingEngine;
+
+  private OrderBook sellBook;
+
+  /**
+   * Orders for the top level, re-added in turn (more than can rest at once so that their ids never collide)
+   */
+  private LimitOrder[] topLevelOrders;
+
+  private int next;
+
+  private LimitOrder betterOrder;
+
+  private Trade halfFillAtTop;
+
+  private Trade wholeFillAtTop;
+
+  private Trade wholeFillAtBetter;
+
+  @Setup
+  public void setUp() {
+    matchingEngine = new MatchingEngine(new ExchangeId("benchmark"), CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD"), null);
+    sellBook = matchingEngine.getBook(Side.SELL);
+
+    for (int level = 0; level < priceLevels; level++) {
+      ItemPrice price = new ItemPrice(String.format("%d.%02d", 100 + (level + 1) / 100, (level + 1) % 100));
+      for (int i = 0; i < ordersPerLevel; i++) {
+        sellBook.add(sellOrder(price));
+      }
+    }
+    matchingEngine.commitEvents();
+
+    topLevelOrders = new LimitOrder[ordersPerLevel * 2];
+    for (int i = 0; i < topLevelOrders.length; i++) {
+      topLevelOrders[i] = sellOrder(TOP_PRICE);
+    }
+    betterOrder = sellOrder(BETTER_PRICE);
+
+    halfFillAtTop = new Trade(CURRENCY_PAIR_ID, "Buyer", "Seller", TOP_PRICE, HALF);
+    wholeFillAtTop = new Trade(CURRENCY_PAIR_ID, "Buyer", "Seller", TOP_PRICE, WHOLE);
+    wholeFillAtBetter = new Trade(CURRENCY_PAIR_ID, "Buyer", "Seller", BETTER_PRICE, WHOLE);
+  }
+
+  @Benchmark
+  public LimitOrder peekTop() {
+    return sellBook.peekTop();
+  }
+
+  @Benchmark
+  public Optional<Order> getTop() {
+    return sellBook.getTop();
+  }
+
+  /**
+   * Adds to the back of the top level and completely fills the order at its front
+   */
+  @Benchmark
+  public MatchingEngine addToExistingLevelAndFillTopOrder() {
+    sellBook.add(nextTopLevelOrder());
+    sellBook.decreaseTopByTradeQuantity(wholeFillAtTop);
+    matchingEngine.commitEvents();
+    return matchingEngine;
+  }
+
+  /**
+   * Adds to the back of the top level and fills the order at its front in two halves
+   */
+  @Benchmark
+  public MatchingEngine addToExistingLevelAndPartiallyFillTopOrder() {
+    sellBook.add(nextTopLevelOrder());
+    sellBook.decreaseTopByTradeQuantity(halfFillAtTop);
+    sellBook.decreaseTopByTradeQuantity(halfFillAtTop);
+    matchingEngine.commitEvents();
+    return matchingEngine;
+  }
+
+  /**
+   * Adds a new level ahead of the top and fills it completely
+   */
+  @Benchmark
+  public MatchingEngine addToNewLevelAndFillLevel() {
+    sellBook.add(betterOrder);
+    sellBook.decreaseTopByTradeQuantity(wholeFillAtBetter);
+    matchingEngine.commitEvents();
+    return matchingEngine;
+  }
+
+  private LimitOrder nextTopLevelOrder() {
+    LimitOrder order = topLevelOrders[next];
+    next = (next + 1) % topLevelOrders.length;
+    return order;
+  }
+
+  private static LimitOrder sellOrder(ItemPrice price) {
+    return new LimitOrder(new OrderId(), "Seller", Side.SELL, WHOLE, TICKER, price);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(OrderBookBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -6,7 +6,6 @@ import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
-import org.multibit.exchange.infrastructure.adaptor.eventapi.CreateExchangeCommand;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
@@ -34,13 +33,10 @@ public class OrderBookTest {
 
   @Before
   public void setUp() {
-    Exchange exchange = new Exchange(new CreateExchangeCommand(exchangeId));
-
-    MatchingEngine engine = new MatchingEngine(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId);
-    engine.registerAggregateRoot(exchange);
+    MatchingEngine engine = new MatchingEngine(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId, null);
 
     orderBook = new OrderBook(exchangeId, currencyPairId, SideFaker.createValid());
-    orderBook.registerAggregateRoot(exchange);
+    orderBook.registerAggregateRoot(engine);
   }
 
   @Test
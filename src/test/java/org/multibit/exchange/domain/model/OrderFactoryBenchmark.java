@@ -0,0 +1,67 @@
+package org.multibit.exchange.domain.model;
+
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderFactory;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>JMH benchmark of {@link OrderFactory#createOrderFromDescriptor} parsing the descriptors received by the API.</p>
+ *
+ * <p>The order id is supplied so that id generation is not part of the measurement.</p>
+ *
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderFactoryBenchmark {
+
+  private OrderId orderId;
+
+  private OrderDescriptor limitOrderDescriptor;
+
+  private OrderDescriptor marketOrderDescriptor;
+
+  @Setup
+  public void setUp() {
+    orderId = new OrderId();
+    limitOrderDescriptor = new OrderDescriptor("Broker", "Buy", "12.5", "BTC/USD", "612.34");
+    marketOrderDescriptor = new OrderDescriptor("Broker", "Sell", "12.5", "BTC/USD", MarketOrder.MARKET_PRICE);
+  }
+
+  @Benchmark
+  public Order createLimitOrder() {
+    return OrderFactory.createOrderFromDescriptor(orderId, limitOrderDescriptor);
+  }
+
+  @Benchmark
+  public Order createMarketOrder() {
+    return OrderFactory.createOrderFromDescriptor(orderId, marketOrderDescriptor);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(OrderFactoryBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -0,0 +1,165 @@
+package org.multibit.exchange.domain.model;
+
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>JMH benchmark of {@link MatchingEngine#acceptOrder} over batches of orders of different kinds:</p>
+ * <ul>
+ * <li>passiveLimits: limit orders resting on both sides without crossing</li>
+ * <li>crossingLimits: limit orders each filling a resting order</li>
+ * <li>marketSweeps: market orders each sweeping many resting orders</li>
+ * <li>mixed: a seeded random mix of the above</li>
+ * </ul>
+ *
+ * <p>Every batch holds {@link #BATCH} orders and leaves both books empty, so the score is orders per second
+ * and the GC profiler's normalized allocation is per order. The engine fills orders in place so each
+ * invocation accepts copies of the prepared orders.</p>
+ *
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMixBenchmark {
+
+  private static final int BATCH = 1000;
+
+  private static final Ticker TICKER = new Ticker("BTC/USD");
+
+  private MatchingEngine matchingEngine;
+
+  private Order[] passiveLimits;
+
+  private Order[] crossingLimits;
+
+  private Order[] marketSweeps;
+
+  private Order[] mixed;
+
+  @Setup
+  public void setUp() {
+    matchingEngine = new MatchingEngine(new ExchangeId("benchmark"), new CurrencyPairId(TICKER.getSymbol()), new CurrencyId("BTC"), new CurrencyId("USD"), null);
+    matchingEngine.commitEvents();
+
+    passiveLimits = new Order[BATCH];
+    for (int i = 0; i < BATCH - 2; i += 2) {
+      passiveLimits[i] = limitOrder(Side.SELL, price(10001 + i % 50), 1);
+      passiveLimits[i + 1] = limitOrder(Side.BUY, price(9999 - i % 50), 1);
+    }
+    passiveLimits[BATCH - 2] = marketOrder(Side.BUY, BATCH);
+    passiveLimits[BATCH - 1] = marketOrder(Side.SELL, BATCH);
+
+    crossingLimits = new Order[BATCH];
+    for (int i = 0; i < BATCH / 2; i++) {
+      crossingLimits[i] = limitOrder(Side.SELL, price(10000 + i % 50), 1);
+      crossingLimits[BATCH / 2 + i] = limitOrder(Side.BUY, price(10050), 1);
+    }
+
+    int sweeps = BATCH / 100;
+    int restingOrders = BATCH - sweeps;
+    marketSweeps = new Order[BATCH];
+    for (int i = 0; i < restingOrders; i++) {
+      marketSweeps[i] = limitOrder(Side.SELL, price(10000 + i / 10), 1);
+    }
+    for (int i = 0; i < sweeps; i++) {
+      marketSweeps[restingOrders + i] = marketOrder(Side.BUY, restingOrders / sweeps + 1);
+    }
+
+    // 60% passive, 30% crossing limits and 10% small market orders, cleared by the last two
+    Random random = new Random(42);
+    mixed = new Order[BATCH];
+    for (int i = 0; i < BATCH - 2; i++) {
+      Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+      int kind = random.nextInt(10);
+      int quantity = 1 + random.nextInt(5);
+      if (kind < 6) {
+        int ticks = 1 + random.nextInt(50);
+        mixed[i] = limitOrder(side, price(side == Side.BUY ? 10000 - ticks : 10000 + ticks), quantity);
+      } else if (kind < 9) {
+        mixed[i] = limitOrder(side, price(side == Side.BUY ? 10050 : 9950), quantity);
+      } else {
+        mixed[i] = marketOrder(side, quantity);
+      }
+    }
+    mixed[BATCH - 2] = marketOrder(Side.BUY, BATCH * 5);
+    mixed[BATCH - 1] = marketOrder(Side.SELL, BATCH * 5);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public MatchingEngine passiveLimits() {
+    return acceptAll(passiveLimits);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public MatchingEngine crossingLimits() {
+    return acceptAll(crossingLimits);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public MatchingEngine marketSweeps() {
+    return acceptAll(marketSweeps);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public MatchingEngine mixed() {
+    return acceptAll(mixed);
+  }
+
+  private MatchingEngine acceptAll(Order[] orders) {
+    for (Order order : orders) {
+      matchingEngine.acceptOrder(order.copy());
+    }
+    matchingEngine.commitEvents();
+    return matchingEngine;
+  }
+
+  /**
+   * @param cents The price in hundredths
+   */
+  private static ItemPrice price(int cents) {
+    return new ItemPrice(String.format("%d.%02d", cents / 100, cents % 100));
+  }
+
+  private static LimitOrder limitOrder(Side side, ItemPrice price, int quantity) {
+    return new LimitOrder(new OrderId(), "Broker", side, new ItemQuantity(String.valueOf(quantity)), TICKER, price);
+  }
+
+  private static MarketOrder marketOrder(Side side, int quantity) {
+    return new MarketOrder(new OrderId(), "Broker", side, new ItemQuantity(String.valueOf(quantity)), TICKER);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(OrderMixBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -0,0 +1,246 @@
+package org.multibit.exchange.domain.model;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class TickLadderLimitBookTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private static final ItemPrice TICK_SIZE = new ItemPrice("0.01");
+
+  private static final Ticker TICKER = new Ticker("BTC/USD");
+
+  @Test
+  public void testCreate_ZeroTickSize() {
+    // Arrange
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("tick size must be greater than zero");
+
+    // Act
+    new TickLadderLimitBook(Side.BUY, new ItemPrice("0"));
+  }
+
+  @Test
+  public void testAcceptsPrice() {
+    // Arrange
+    TickLadderLimitBook book = new TickLadderLimitBook(Side.SELL, TICK_SIZE);
+
+    // Assert
+    assertThat(book.acceptsPrice(new ItemPrice("10.01"))).isTrue();
+    assertThat(book.acceptsPrice(new ItemPrice("10.015"))).isFalse();
+  }
+
+  @Test
+  public void testAdd_OffTickPrice() {
+    // Arrange
+    TickLadderLimitBook book = new TickLadderLimitBook(Side.SELL, TICK_SIZE);
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("price must be a multiple of the tick size");
+
+    // Act
+    book.add(limitOrder(Side.SELL, "10.015"));
+  }
+
+  @Test
+  public void testTopPriceLevel_BuySide() {
+    // Arrange
+    TickLadderLimitBook book = new TickLadderLimitBook(Side.BUY, TICK_SIZE);
+
+    // Act
+    book.add(limitOrder(Side.BUY, "10.00"));
+    book.add(limitOrder(Side.BUY, "10.02"));
+    book.add(limitOrder(Side.BUY, "9.99"));
+
+    // Assert
+    assertThat(book.getTopPriceLevel().getPrice()).isEqualTo(new ItemPrice("10.02"));
+    book.removeTopPriceLevel();
+    assertThat(book.getTopPriceLevel().getPrice()).isEqualTo(new ItemPrice("10.00"));
+    book.removeTopPriceLevel();
+    assertThat(book.getTopPriceLevel().getPrice()).isEqualTo(new ItemPrice("9.99"));
+    book.removeTopPriceLevel();
+    assertThat(book.isEmpty()).isTrue();
+    assertThat(book.getTopPriceLevel()).isNull();
+  }
+
+  @Test
+  public void testTopPriceLevel_SellSide() {
+    // Arrange
+    TickLadderLimitBook book = new TickLadderLimitBook(Side.SELL, TICK_SIZE);
+
+    // Act
+    book.add(limitOrder(Side.SELL, "10.00"));
+    book.add(limitOrder(Side.SELL, "10.02"));
+    book.add(limitOrder(Side.SELL, "9.99"));
+
+    // Assert
+    assertThat(book.getTopPriceLevel().getPrice()).isEqualTo(new ItemPrice("9.99"));
+    assertThat(book.containsPriceLevel(new ItemPrice("10.02"))).isTrue();
+    assertThat(book.containsPriceLevel(new ItemPrice("10.01"))).isFalse();
+  }
+
+  @Test
+  public void testOverflow_LevelsBeyondCapacityAreRetainedInOrder() {
+    // Arrange
+    TickLadderLimitBook book = new TickLadderLimitBook(Side.SELL, TICK_SIZE, 4);
+
+    // Act
+    book.add(limitOrder(Side.SELL, "10.00"));
+    book.add(limitOrder(Side.SELL, "10.50"));
+    book.add(limitOrder(Side.SELL, "10.03"));
+    book.add(limitOrder(Side.SELL, "9.00"));
+
+    // Assert
+    assertThat(book.getOrders()).hasSize(4);
+    assertThat(book.containsPriceLevel(new ItemPrice("10.50"))).isTrue();
+    assertThat(book.containsPriceLevel(new ItemPrice("10.03"))).isTrue();
+    assertThat(book.getTopPriceLevel().getPrice()).isEqualTo(new ItemPrice("9.00"));
+    book.removeTopPriceLevel();
+    assertThat(book.getTopPriceLevel().getPrice()).isEqualTo(new ItemPrice("10.00"));
+    book.removeTopPriceLevel();
+    assertThat(book.getTopPriceLevel().getPrice()).isEqualTo(new ItemPrice("10.03"));
+    book.removeTopPriceLevel();
+    assertThat(book.getTopPriceLevel().getPrice()).isEqualTo(new ItemPrice("10.50"));
+  }
+
+  @Test
+  public void testGetPriceLevels_IncludesOverflowAndTracksVolume() {
+    // Arrange
+    TickLadderLimitBook book = new TickLadderLimitBook(Side.BUY, TICK_SIZE, 4);
+    LimitOrder cancelled = limitOrder(Side.BUY, "10.00");
+    book.add(cancelled);
+    book.add(limitOrder(Side.BUY, "10.00"));
+    book.add(limitOrder(Side.BUY, "9.98"));
+    book.add(limitOrder(Side.BUY, "9.00"));
+
+    // Act
+    book.remove(cancelled);
+    book.getTopPriceLevel().fillFirst(new ItemQuantity("0.25").getUnits());
+
+    // Assert
+    List<PriceLevel> levels = book.getPriceLevels(10);
+    assertThat(levels).hasSize(3);
+    assertThat(levels.get(0).getPrice()).isEqualTo(new ItemPrice("10.00"));
+    assertThat(levels.get(0).getVolumeUnits()).isEqualTo(new ItemQuantity("0.75").getUnits());
+    assertThat(levels.get(0).size()).isEqualTo(1);
+    assertThat(levels.get(1).getPrice()).isEqualTo(new ItemPrice("9.98"));
+    assertThat(levels.get(2).getPrice()).isEqualTo(new ItemPrice("9.00"));
+    assertThat(book.getPriceLevels(2)).containsExactly(levels.get(0), levels.get(1));
+  }
+
+  @Test
+  public void testRemove_FromMiddleOfLevel() {
+    // Arrange
+    TickLadderLimitBook book = new TickLadderLimitBook(Side.SELL, TICK_SIZE);
+    LimitOrder first = limitOrder(Side.SELL, "10.00");
+    LimitOrder middle = limitOrder(Side.SELL, "10.00");
+    LimitOrder last = limitOrder(Side.SELL, "10.00");
+    book.add(first);
+    book.add(middle);
+    book.add(last);
+
+    // Act
+    book.remove(middle);
+
+    // Assert
+    assertThat(book.getOrders()).containsExactly(first, last);
+    assertThat(book.getTopPriceLevel().size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testRemove_LastOrderRemovesLevel() {
+    // Arrange
+    TickLadderLimitBook book = new TickLadderLimitBook(Side.BUY, TICK_SIZE, 4);
+    LimitOrder top = limitOrder(Side.BUY, "10.00");
+    LimitOrder inLadder = limitOrder(Side.BUY, "9.99");
+    LimitOrder inOverflow = limitOrder(Side.BUY, "9.00");
+    book.add(top);
+    book.add(inLadder);
+    book.add(inOverflow);
+
+    // Act
+    book.remove(inLadder);
+    book.remove(inOverflow);
+
+    // Assert
+    assertThat(book.containsPriceLevel(new ItemPrice("9.99"))).isFalse();
+    assertThat(book.containsPriceLevel(new ItemPrice("9.00"))).isFalse();
+    book.remove(top);
+    assertThat(book.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testRandomOperations_MatchTreeMapLimitBook() {
+    for (Side side : Side.values()) {
+      // Arrange
+      Random random = new Random(42);
+      TickLadderLimitBook ladder = new TickLadderLimitBook(side, TICK_SIZE, 16);
+      TreeMapLimitBook reference = new TreeMapLimitBook(side);
+
+      // An order can only rest in one book at a time so each book gets its own copy
+      List<LimitOrder> ladderOrders = Lists.newArrayList();
+      List<LimitOrder> referenceOrders = Lists.newArrayList();
+
+      for (int i = 0; i < 5000; i++) {
+        // Act
+        int operation = random.nextInt(4);
+        if (operation == 0 && !reference.isEmpty()) {
+          ladder.removeTopPriceLevel();
+          reference.removeTopPriceLevel();
+        } else if (operation == 1 && !reference.isEmpty()) {
+          int index = random.nextInt(referenceOrders.size());
+          LimitOrder referenceOrder = referenceOrders.get(index);
+          if (referenceOrder.priceLevel != null) {
+            ladder.remove(ladderOrders.get(index));
+            reference.remove(referenceOrder);
+          }
+        } else {
+          LimitOrder order = limitOrder(side, String.format("%d.%02d", 90 + random.nextInt(20), random.nextInt(100)));
+          assertThat(ladder.containsPriceLevel(order.getLimitPrice())).isEqualTo(reference.containsPriceLevel(order.getLimitPrice()));
+          ladderOrders.add(order);
+          referenceOrders.add(order.copy());
+          ladder.add(ladderOrders.get(ladderOrders.size() - 1));
+          reference.add(referenceOrders.get(referenceOrders.size() - 1));
+        }
+
+        // Assert
+        assertThat(ladder.isEmpty()).isEqualTo(reference.isEmpty());
+        if (!reference.isEmpty()) {
+          assertThat(ladder.getTopPriceLevel().getPrice()).isEqualTo(reference.getTopPriceLevel().getPrice());
+          assertThat(ladder.getTopPriceLevel().size()).isEqualTo(reference.getTopPriceLevel().size());
+          assertThat(ladder.getTopPriceLevel().getVolumeUnits()).isEqualTo(reference.getTopPriceLevel().getVolumeUnits());
+        }
+      }
+      List<OrderId> expected = Lists.newArrayList();
+      for (LimitOrder order : reference.getOrders()) {
+        expected.add(order.getId());
+      }
+      List<OrderId> actual = Lists.newArrayList();
+      for (LimitOrder order : ladder.getOrders()) {
+        actual.add(order.getId());
+      }
+      assertThat(actual).isEqualTo(expected);
+
+      List<PriceLevel> expectedLevels = reference.getPriceLevels(Integer.MAX_VALUE);
+      List<PriceLevel> actualLevels = ladder.getPriceLevels(Integer.MAX_VALUE);
+      assertThat(actualLevels).hasSize(expectedLevels.size());
+      for (int i = 0; i < expectedLevels.size(); i++) {
+        assertThat(actualLevels.get(i).getPrice()).isEqualTo(expectedLevels.get(i).getPrice());
+        assertThat(actualLevels.get(i).getVolumeUnits()).isEqualTo(expectedLevels.get(i).getVolumeUnits());
+      }
+    }
+  }
+
+  private static LimitOrder limitOrder(Side side, String price) {
+    return new LimitOrder(new OrderId(), "Broker", side, new ItemQuantity("1"), TICKER, new ItemPrice(price));
+  }
+}
@@ -0,0 +1,150 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.collect.ImmutableList;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.Broadcaster;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.ItemQuantity;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.domain.model.Trade;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchingBroadcasterTest {
+
+  private static final String CHANNEL = BroadcastHelper.tradesChannel("test-exchange", "BTC/USD");
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  /**
+   * Long enough that only the test flushes
+   */
+  private final BatchingBroadcaster broadcaster = new BatchingBroadcaster("test", 60000, 3);
+
+  @After
+  public void tearDown() throws Exception {
+    broadcaster.stop();
+    // Destroying the channel releases its fan-out and frames
+    Broadcaster channel = BroadcastHelper.lookupIfSubscribed(CHANNEL);
+    if (channel != null) {
+      channel.destroy();
+    }
+    BroadcasterFactoryFixture.uninstall();
+  }
+
+  @Test
+  public void testDrain_groupsMessagesByChannel() {
+    // Arrange
+    broadcaster.add("/trades", "a");
+    broadcaster.add("/exchanges/test/pairs/BTC/USD/trades", "a");
+
+    // Act
+    Map<String, List<Object>> batches = broadcaster.drain();
+
+    // Assert
+    assertThat(batches.keySet()).containsExactly("/trades", "/exchanges/test/pairs/BTC/USD/trades");
+    assertThat(batches.get("/trades")).containsExactly("a");
+    assertThat(broadcaster.drain()).isEmpty();
+  }
+
+  @Test
+  public void testAdd_sendsAFullBatchAtOnce() {
+    // Arrange
+    broadcaster.add("/trades", "a");
+    broadcaster.add("/trades", "b");
+
+    // Act
+    broadcaster.add("/trades", "c");
+
+    // Assert
+    assertThat(broadcaster.drain()).isEmpty();
+  }
+
+  @Test
+  public void testFlush_dropsChannelsWithoutClients() {
+    // Arrange
+    broadcaster.add("/trades", "a");
+
+    // Act
+    int frames = broadcaster.flush();
+
+    // Assert
+    assertThat(frames).isEqualTo(0);
+    assertThat(broadcaster.drain()).isEmpty();
+  }
+
+  @Test
+  public void testFlush_dropsChannelsWhoseClientsHaveGone() {
+    // Arrange
+    BroadcasterFactoryFixture.install(0);
+    Broadcaster channel = BroadcastHelper.getTradeBroadcaster("test-exchange", "BTC/USD");
+    broadcaster.add(CHANNEL, "a");
+
+    // Act
+    int frames = broadcaster.flush();
+
+    // Assert
+    assertThat(frames).isEqualTo(0);
+    verify(channel, never()).broadcast(any());
+  }
+
+  @Test
+  public void testFlush_sendsOneFramePerChannelWithClients() {
+    // Arrange
+    BroadcasterFactoryFixture.install(0);
+    Broadcaster channel = BroadcastHelper.getTradeBroadcaster("test-exchange", "BTC/USD");
+    Collection<AtmosphereResource> clients = ImmutableList.of(mock(AtmosphereResource.class));
+    when(channel.getAtmosphereResources()).thenReturn(clients);
+    broadcaster.add(CHANNEL, "a");
+    broadcaster.add(CHANNEL, "b");
+
+    // Act
+    int frames = broadcaster.flush();
+
+    // Assert
+    assertThat(frames).isEqualTo(1);
+    verify(channel, times(1)).broadcast(any());
+  }
+
+  @Test
+  public void testFrame_isOneJsonArray() {
+    // Arrange
+    Trade trade = new Trade(new CurrencyPairId("BTC/USD"), "Broker1", "Broker2", new ItemPrice("9.99"), new ItemQuantity("0.5"));
+    TradeExecutedEvent event = new TradeExecutedEvent(new ExchangeId("test"), trade, Side.BUY);
+
+    // Act
+    String frame = BatchingBroadcaster.frame(ImmutableList.<Object>of(event, event));
+
+    // Assert
+    assertThat(frame).startsWith("[{").endsWith("}]");
+    assertThat(frame.split("\"buySideBroker\":\"Broker1\"")).hasSize(3);
+  }
+
+  @Test
+  public void testConstructor_rejectsNonPositiveBatchSize() {
+    // Arrange
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("maxBatchSize must be greater than zero");
+
+    // Act
+    new BatchingBroadcaster("test", 10, 0);
+  }
+}
@@ -0,0 +1,126 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.collect.Lists;
+import com.yammer.metrics.Metrics;
+import org.atmosphere.cpr.Broadcaster;
+import org.atmosphere.cpr.BroadcasterFactory;
+import org.atmosphere.cpr.BroadcasterLifeCyclePolicy;
+import org.atmosphere.cpr.BroadcasterLifeCyclePolicyListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BroadcastHelperTest {
+
+  private static final String EXCHANGE = "test-exchange";
+
+  private static final String BTC_USD = "BTC/USD";
+
+  private static final String CHANNEL = BroadcastHelper.tradesChannel(EXCHANGE, BTC_USD);
+
+  private BroadcasterFactory factory;
+
+  @Before
+  public void setUp() {
+    factory = BroadcasterFactoryFixture.install(0);
+  }
+
+  @After
+  public void tearDown() {
+    BroadcasterFactoryFixture.uninstall();
+    SequencedBroadcasterCache.release(CHANNEL);
+    SequencedBroadcasterCache.release(BroadcastHelper.tickerChannel(EXCHANGE, BTC_USD));
+  }
+
+  @Test
+  public void testGetTradeBroadcaster_createsChannelOnFirstSubscription() {
+    // Arrange
+    assertThat(BroadcastHelper.lookupIfSubscribed(CHANNEL)).isNull();
+
+    // Act
+    Broadcaster broadcaster = BroadcastHelper.getTradeBroadcaster(EXCHANGE, BTC_USD);
+
+    // Assert
+    assertThat(broadcaster.getID()).isEqualTo(CHANNEL);
+    assertThat(BroadcastHelper.lookupIfSubscribed(CHANNEL)).isSameAs(broadcaster);
+    assertThat(BroadcastHelper.getTradeBroadcaster(EXCHANGE, BTC_USD)).isSameAs(broadcaster);
+    verify(factory, times(1)).lookup(CHANNEL, true);
+    verify(broadcaster).setBroadcasterLifeCyclePolicy(any(BroadcasterLifeCyclePolicy.class));
+  }
+
+  @Test
+  public void testGetTradeBroadcaster_routesByExchangeAndPair() {
+    // Arrange
+    Broadcaster btcUsd = BroadcastHelper.getTradeBroadcaster(EXCHANGE, BTC_USD);
+
+    // Act
+    Broadcaster ltcUsd = BroadcastHelper.getTradeBroadcaster(EXCHANGE, "LTC/USD");
+    Broadcaster otherExchange = BroadcastHelper.getTradeBroadcaster("other-exchange", BTC_USD);
+
+    // Assert
+    assertThat(ltcUsd).isNotSameAs(btcUsd);
+    assertThat(otherExchange).isNotSameAs(btcUsd);
+    assertThat(ltcUsd.getID()).isEqualTo("/exchanges/test-exchange/pairs/LTC/USD/trades");
+    assertThat(otherExchange.getID()).isEqualTo("/exchanges/other-exchange/pairs/BTC/USD/trades");
+  }
+
+  @Test
+  public void testDestroy_releasesFanOutAndFrames() {
+    // Arrange
+    Broadcaster broadcaster = BroadcastHelper.getTradeBroadcaster(EXCHANGE, BTC_USD);
+    BroadcastHelper.broadcastJson(broadcaster, "[1]");
+    assertThat(Metrics.defaultRegistry().allMetrics()).containsKey(BroadcastHelper.fanOutName(CHANNEL));
+
+    // Act
+    broadcaster.destroy();
+
+    // Assert
+    assertThat(Metrics.defaultRegistry().allMetrics().containsKey(BroadcastHelper.fanOutName(CHANNEL))).isFalse();
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 1)).containsExactly("{\"seq\":0,\"resync\":true}");
+    assertThat(BroadcastHelper.lookupIfSubscribed(CHANNEL)).isNull();
+  }
+
+  @Test
+  public void testGetPairBroadcaster_clientsSubscribingTogetherShareOneConfiguredChannel() throws Exception {
+    // Arrange
+    factory = BroadcasterFactoryFixture.install(50);
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService clients = Executors.newFixedThreadPool(8);
+    List<Future<Broadcaster>> subscriptions = Lists.newArrayList();
+
+    // Act
+    for (int i = 0; i < 8; i++) {
+      subscriptions.add(clients.submit(new Callable<Broadcaster>() {
+        @Override
+        public Broadcaster call() throws Exception {
+          start.await();
+          return BroadcastHelper.getTickerBroadcaster(EXCHANGE, BTC_USD);
+        }
+      }));
+    }
+    start.countDown();
+    clients.shutdown();
+
+    // Assert
+    Broadcaster broadcaster = subscriptions.get(0).get();
+    for (Future<Broadcaster> subscription : subscriptions) {
+      assertThat(subscription.get()).isSameAs(broadcaster);
+    }
+    verify(broadcaster, times(1)).setBroadcasterLifeCyclePolicy(any(BroadcasterLifeCyclePolicy.class));
+    verify(broadcaster, times(1)).addBroadcasterLifeCyclePolicyListener(any(BroadcasterLifeCyclePolicyListener.class));
+    verify(factory, times(1)).lookup(eq(BroadcastHelper.tickerChannel(EXCHANGE, BTC_USD)), eq(true));
+  }
+}
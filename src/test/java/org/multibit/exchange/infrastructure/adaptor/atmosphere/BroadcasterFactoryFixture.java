@@ -0,0 +1,90 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.Broadcaster;
+import org.atmosphere.cpr.BroadcasterConfig;
+import org.atmosphere.cpr.BroadcasterFactory;
+import org.atmosphere.cpr.BroadcasterLifeCyclePolicyListener;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>Test fixture to provide the following to the stream tests:</p>
+ * <ul>
+ * <li>A default {@link BroadcasterFactory}, which Atmosphere only sets once its servlet has started</li>
+ * <li>Mock broadcasters, created on lookup as Atmosphere does, which notify their lifecycle listeners when
+ * destroyed as an idle channel is</li>
+ * </ul>
+ */
+abstract class BroadcasterFactoryFixture extends BroadcasterFactory {
+
+  /**
+   * @param creationMillis How long creating a broadcaster takes, to widen the window in which clients race
+   *
+   * @return The mock factory, now the default
+   */
+  static BroadcasterFactory install(final long creationMillis) {
+    final ConcurrentMap<Object, Broadcaster> broadcasters = Maps.newConcurrentMap();
+    BroadcasterFactory mockFactory = mock(BroadcasterFactory.class);
+    when(mockFactory.lookup(any(), anyBoolean())).thenAnswer(new Answer<Broadcaster>() {
+      @Override
+      public Broadcaster answer(InvocationOnMock invocation) throws Throwable {
+        Object id = invocation.getArguments()[0];
+        boolean create = (Boolean) invocation.getArguments()[1];
+        Broadcaster broadcaster = broadcasters.get(id);
+        if (broadcaster == null && create) {
+          Thread.sleep(creationMillis);
+          broadcaster = broadcasters.putIfAbsent(id, newBroadcaster(id, broadcasters));
+          if (broadcaster == null) {
+            broadcaster = broadcasters.get(id);
+          }
+        }
+        return broadcaster;
+      }
+    });
+    factory = mockFactory;
+    return mockFactory;
+  }
+
+  static void uninstall() {
+    factory = null;
+  }
+
+  private static Broadcaster newBroadcaster(final Object id, final ConcurrentMap<Object, Broadcaster> broadcasters) {
+    final List<BroadcasterLifeCyclePolicyListener> listeners = Lists.newCopyOnWriteArrayList();
+    Broadcaster broadcaster = mock(Broadcaster.class);
+    when(broadcaster.getID()).thenReturn(id.toString());
+    when(broadcaster.getAtmosphereResources()).thenReturn(Collections.<AtmosphereResource>emptyList());
+    when(broadcaster.getBroadcasterConfig()).thenReturn(mock(BroadcasterConfig.class));
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        listeners.add((BroadcasterLifeCyclePolicyListener) invocation.getArguments()[0]);
+        return null;
+      }
+    }).when(broadcaster).addBroadcasterLifeCyclePolicyListener(any(BroadcasterLifeCyclePolicyListener.class));
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        broadcasters.remove(id);
+        for (BroadcasterLifeCyclePolicyListener listener : listeners) {
+          listener.onDestroy();
+        }
+        return null;
+      }
+    }).when(broadcaster).destroy();
+    return broadcaster;
+  }
+}
@@ -0,0 +1,131 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.google.common.collect.ImmutableList;
+import org.axonframework.domain.GenericEventMessage;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.ItemQuantity;
+import org.multibit.exchange.domain.model.LimitOrder;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.domain.model.Ticker;
+import org.multibit.exchange.domain.model.Trade;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthSnapshot;
+import org.multibit.exchange.presentation.model.ticker.TickerPresentationModel;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class MarketDepthStreamTest {
+
+  private static final ExchangeId EXCHANGE_ID = new ExchangeId("test-exchange");
+
+  private static final CurrencyPairId CURRENCY_PAIR_ID = new CurrencyPairId("BTC/USD");
+
+  private final EventBus eventBus = new SimpleEventBus();
+
+  private final TickerStream tickers = new TickerStream(60000);
+
+  private MarketDepthStream stream;
+
+  @Before
+  public void setUp() {
+    stream = new MarketDepthStream(ImmutableList.<MarketDepthPresentationModel>of(), eventBus, tickers);
+    publish(new CurrencyPairRegisteredEvent(EXCHANGE_ID, CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD")));
+  }
+
+  @Test
+  public void testSnapshot_numbersEveryLevelChange() {
+    // Arrange
+    LimitOrder bid = limitOrder(Side.BUY, "9.99", "2");
+    LimitOrder ask = limitOrder(Side.SELL, "10.01", "1.5");
+    publish(new LimitOrderAddedEvent(EXCHANGE_ID, bid));
+    publish(new LimitOrderAddedEvent(EXCHANGE_ID, ask));
+    Trade trade = new Trade(CURRENCY_PAIR_ID, "Broker1", "Broker2", new ItemPrice("9.99"), new ItemQuantity("0.5"));
+
+    // Act
+    publish(new TradeExecutedEvent(EXCHANGE_ID, trade, Side.BUY));
+    publish(new OrderCancelledEvent(EXCHANGE_ID, ask, "cancelled by broker"));
+    MarketDepthSnapshot snapshot = stream.snapshot(EXCHANGE_ID.getIdentifier(), CURRENCY_PAIR_ID.getIdentifier());
+
+    // Assert
+    assertThat(snapshot.getSequence()).isEqualTo(4);
+    assertThat(snapshot.getMarketDepth().getBidDepthData().getVolumeAtPrice("9.99")).isEqualTo("1.5");
+    assertThat(snapshot.getMarketDepth().getAskDepthData().getPriceLevels()).isEmpty();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    tickers.stop();
+  }
+
+  @Test
+  public void testTicker_followsTopOfBookAndLastTrade() {
+    // Arrange
+    publish(new LimitOrderAddedEvent(EXCHANGE_ID, limitOrder(Side.BUY, "9.99", "2")));
+    publish(new LimitOrderAddedEvent(EXCHANGE_ID, limitOrder(Side.BUY, "9.98", "1")));
+    publish(new LimitOrderAddedEvent(EXCHANGE_ID, limitOrder(Side.SELL, "10.01", "1.5")));
+    Trade trade = new Trade(CURRENCY_PAIR_ID, "Broker1", "Broker2", new ItemPrice("9.99"), new ItemQuantity("2"));
+
+    // Act
+    publish(new TradeExecutedEvent(EXCHANGE_ID, trade, Side.BUY));
+
+    // Assert
+    TickerPresentationModel ticker = tickers.latest(EXCHANGE_ID.getIdentifier(), CURRENCY_PAIR_ID.getIdentifier());
+    assertThat(ticker.getBid()).isEqualTo("9.98");
+    assertThat(ticker.getAsk()).isEqualTo("10.01");
+    assertThat(ticker.getSpread()).isEqualTo("0.03");
+    assertThat(ticker.getLastPrice()).isEqualTo("9.99");
+    assertThat(ticker.getLastQuantity()).isEqualTo("2");
+  }
+
+  @Test
+  public void testSnapshot_isACopy() {
+    // Arrange
+    publish(new LimitOrderAddedEvent(EXCHANGE_ID, limitOrder(Side.BUY, "9.99", "2")));
+    MarketDepthSnapshot before = stream.snapshot(EXCHANGE_ID.getIdentifier(), CURRENCY_PAIR_ID.getIdentifier());
+
+    // Act
+    publish(new LimitOrderAddedEvent(EXCHANGE_ID, limitOrder(Side.BUY, "9.99", "1")));
+
+    // Assert
+    assertThat(before.getSequence()).isEqualTo(1);
+    assertThat(before.getMarketDepth().getBidDepthData().getVolumeAtPrice("9.99")).isEqualTo("2");
+    assertThat(stream.snapshot(EXCHANGE_ID.getIdentifier(), CURRENCY_PAIR_ID.getIdentifier()).getSequence()).isEqualTo(2);
+  }
+
+  @Test
+  public void testSnapshot_startsFromTheGivenMarketDepths() {
+    // Arrange
+    MarketDepthPresentationModel stored = new MarketDepthPresentationModel("1", EXCHANGE_ID.getIdentifier(), "LTC/USD");
+    stored.getAskDepthData().increaseVolumeAtPrice("3.5", "10");
+
+    // Act
+    stream = new MarketDepthStream(ImmutableList.of(stored), new SimpleEventBus(), tickers);
+
+    // Assert
+    MarketDepthSnapshot snapshot = stream.snapshot(EXCHANGE_ID.getIdentifier(), "LTC/USD");
+    assertThat(snapshot.getSequence()).isEqualTo(0);
+    assertThat(snapshot.getMarketDepth().getAskDepthData()).isEqualTo(stored.getAskDepthData());
+    assertThat(stream.snapshot(EXCHANGE_ID.getIdentifier(), "BTC/USD")).isNull();
+  }
+
+  private void publish(Object event) {
+    eventBus.publish(new GenericEventMessage<Object>(event));
+  }
+
+  private static LimitOrder limitOrder(Side side, String price, String quantity) {
+    return new LimitOrder(new OrderId(), "Broker1", side, new ItemQuantity(quantity), new Ticker("BTC/USD"), new ItemPrice(price));
+  }
+}
@@ -0,0 +1,138 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.AtmosphereResourceEvent;
+import org.atmosphere.cpr.AtmosphereResourceEventListener;
+import org.atmosphere.cpr.AtmosphereResponse;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.web.config.MultiBitExchangeExceptionMapper;
+import org.multibit.exchange.infrastructure.service.AxonEventBasedAsyncExchangeService;
+import org.multibit.exchange.testing.ExchangeIdFaker;
+import org.multibit.exchange.testing.OrderDescriptorFaker;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrdersStreamResourceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final CommandGateway commandGateway = mock(CommandGateway.class);
+
+  private final AtmosphereResource resource = mock(AtmosphereResource.class);
+
+  private final AtmosphereResponse response = mock(AtmosphereResponse.class);
+
+  private final StringWriter body = new StringWriter();
+
+  @SuppressWarnings("unchecked")
+  private final ArgumentCaptor<CommandCallback> callback = ArgumentCaptor.forClass(CommandCallback.class);
+
+  private final OrdersStreamResource ordersStreamResource = new OrdersStreamResource();
+
+  private String exchangeId;
+
+  @Before
+  public void setUp() throws Exception {
+    exchangeId = ExchangeIdFaker.createValid().getIdentifier();
+    OrdersStreamResource.configure(
+        new AxonEventBasedAsyncExchangeService(commandGateway),
+        objectMapper,
+        new MultiBitExchangeExceptionMapper());
+
+    when(resource.getResponse()).thenReturn(response);
+    when(response.getWriter()).thenReturn(new PrintWriter(body));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPlaceOrder_respondsWithOrderIdOnceHandled() throws Exception {
+    // Arrange
+    AtmosphereResourceEventListener listener = placeOrder(OrderDescriptorFaker.createValidLimitOrder());
+
+    // Act
+    listener.onSuspend(mock(AtmosphereResourceEvent.class));
+    verify(commandGateway).send(any(), callback.capture());
+    verify(resource, never()).resume();
+    callback.getValue().onSuccess(null);
+
+    // Assert
+    verify(response).setStatus(200);
+    verify(resource).resume();
+    assertThat(objectMapper.readValue(body.toString(), String.class)).isNotEmpty();
+  }
+
+  @Test
+  public void testPlaceOrders_mixedCurrencyPairsIsBadRequest() throws Exception {
+    // Arrange
+    List<OrderDescriptor> orders = Lists.newArrayList(
+        new OrderDescriptor("Buyer", "Buy", "1", "BTC/USD", "10"),
+        new OrderDescriptor("Buyer", "Buy", "1", "LTC/USD", "10"));
+    ordersStreamResource.placeOrders(exchangeId, orders, resource);
+    AtmosphereResourceEventListener listener = addedListener();
+
+    // Act
+    listener.onSuspend(mock(AtmosphereResourceEvent.class));
+
+    // Assert
+    verify(commandGateway, never()).send(any(), any(CommandCallback.class));
+    verify(response).setStatus(400);
+    verify(resource).resume();
+    assertThat(errorBody().get("exception").asText()).isEqualTo(IllegalArgumentException.class.getName());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPlaceOrder_timeoutIsGatewayTimeout() throws Exception {
+    // Arrange
+    AtmosphereResourceEventListener listener = placeOrder(OrderDescriptorFaker.createValidLimitOrder());
+    listener.onSuspend(mock(AtmosphereResourceEvent.class));
+    verify(commandGateway).send(any(), callback.capture());
+
+    AtmosphereResourceEvent timeout = mock(AtmosphereResourceEvent.class);
+    when(timeout.isResumedOnTimeout()).thenReturn(true);
+
+    // Act
+    listener.onResume(timeout);
+    callback.getValue().onSuccess(null);
+
+    // Assert
+    verify(response).setStatus(504);
+    verify(response, never()).setStatus(200);
+    verify(resource, never()).resume();
+    assertThat(errorBody().get("exception").asText()).isEqualTo(TimeoutException.class.getName());
+  }
+
+  private AtmosphereResourceEventListener placeOrder(OrderDescriptor orderDescriptor) {
+    ordersStreamResource.placeOrder(exchangeId, orderDescriptor, resource);
+    return addedListener();
+  }
+
+  private AtmosphereResourceEventListener addedListener() {
+    ArgumentCaptor<AtmosphereResourceEventListener> listener
+        = ArgumentCaptor.forClass(AtmosphereResourceEventListener.class);
+    verify(resource).addEventListener(listener.capture());
+    return listener.getValue();
+  }
+
+  private JsonNode errorBody() throws Exception {
+    return objectMapper.readTree(body.toString());
+  }
+}
@@ -0,0 +1,133 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import org.atmosphere.cpr.AtmosphereRequest;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SequencedBroadcasterCacheTest {
+
+  private static final String CHANNEL = "/exchanges/test/pairs/BTC/USD/trades";
+
+  @Before
+  public void setUp() {
+    SequencedBroadcasterCache.setCapacity(3, SequencedBroadcasterCache.DEFAULT_CAPACITY_BYTES);
+  }
+
+  @After
+  public void tearDown() {
+    SequencedBroadcasterCache.release(CHANNEL);
+    SequencedBroadcasterCache.setCapacity(
+        SequencedBroadcasterCache.DEFAULT_CAPACITY, SequencedBroadcasterCache.DEFAULT_CAPACITY_BYTES);
+  }
+
+  @Test
+  public void testAppend_numbersFramesPerChannel() {
+    // Arrange
+    SequencedBroadcasterCache.append(CHANNEL, "[1]");
+
+    // Act
+    String frame = SequencedBroadcasterCache.append(CHANNEL, "[2]");
+
+    // Assert
+    assertThat(frame).isEqualTo("{\"seq\":2,\"data\":[2]}");
+  }
+
+  @Test
+  public void testSince_replaysExactlyTheMissedFrames() {
+    // Arrange
+    for (int i = 1; i <= 4; i++) {
+      SequencedBroadcasterCache.append(CHANNEL, "[" + i + "]");
+    }
+
+    // Act
+    // Assert
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 2)).containsExactly(
+        "{\"seq\":3,\"data\":[3]}", "{\"seq\":4,\"data\":[4]}");
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 1)).hasSize(3);
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 4)).isEmpty();
+  }
+
+  @Test
+  public void testSince_asksForResyncOnceFramesAreOverwritten() {
+    // Arrange
+    for (int i = 1; i <= 5; i++) {
+      SequencedBroadcasterCache.append(CHANNEL, "[" + i + "]");
+    }
+
+    // Act
+    // Assert
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 1)).containsExactly("{\"seq\":5,\"resync\":true}");
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 9)).containsExactly("{\"seq\":5,\"resync\":true}");
+  }
+
+  @Test
+  public void testSince_asksForResyncOnceFramesExceedTheBytes() {
+    // Arrange
+    String frame = "{\"seq\":1,\"data\":[1]}";
+    SequencedBroadcasterCache.release(CHANNEL);
+    SequencedBroadcasterCache.setCapacity(3, 2 * frame.length());
+
+    // Act
+    for (int i = 1; i <= 3; i++) {
+      SequencedBroadcasterCache.append(CHANNEL, "[" + i + "]");
+    }
+
+    // Assert
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 1)).containsExactly(
+        "{\"seq\":2,\"data\":[2]}", "{\"seq\":3,\"data\":[3]}");
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 0)).containsExactly("{\"seq\":3,\"resync\":true}");
+  }
+
+  @Test
+  public void testAppend_keepsTheNewestFrameOverTheBytes() {
+    // Arrange
+    SequencedBroadcasterCache.release(CHANNEL);
+    SequencedBroadcasterCache.setCapacity(3, 1);
+    SequencedBroadcasterCache.append(CHANNEL, "[1]");
+
+    // Act
+    SequencedBroadcasterCache.append(CHANNEL, "[2]");
+
+    // Assert
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 1)).containsExactly("{\"seq\":2,\"data\":[2]}");
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 0)).containsExactly("{\"seq\":2,\"resync\":true}");
+  }
+
+  @Test
+  public void testSince_asksForResyncOnAReleasedChannel() {
+    // Arrange
+    SequencedBroadcasterCache.append(CHANNEL, "[1]");
+
+    // Act
+    SequencedBroadcasterCache.release(CHANNEL);
+
+    // Assert
+    assertThat(SequencedBroadcasterCache.since(CHANNEL, 1)).containsExactly("{\"seq\":0,\"resync\":true}");
+  }
+
+  @Test
+  public void testRetrieveFromCache_replaysNothingWithoutLastSeq() {
+    // Arrange
+    SequencedBroadcasterCache.append(CHANNEL, "[1]");
+    SequencedBroadcasterCache cache = new SequencedBroadcasterCache();
+
+    // Act
+    // Assert
+    assertThat(cache.retrieveFromCache(CHANNEL, resource(null))).isEmpty();
+    assertThat(cache.retrieveFromCache(CHANNEL, resource("0"))).containsExactly("{\"seq\":1,\"data\":[1]}");
+  }
+
+  private static AtmosphereResource resource(String lastSeq) {
+    AtmosphereRequest request = mock(AtmosphereRequest.class);
+    when(request.getParameter(SequencedBroadcasterCache.LAST_SEQ_PARAMETER)).thenReturn(lastSeq);
+    AtmosphereResource resource = mock(AtmosphereResource.class);
+    when(resource.getRequest()).thenReturn(request);
+    return resource;
+  }
+}
@@ -0,0 +1,95 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.multibit.exchange.presentation.model.ticker.TickerPresentationModel;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class TickerStreamTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  /**
+   * Long enough that only the test publishes
+   */
+  private final TickerStream stream = new TickerStream(60000);
+
+  @After
+  public void tearDown() throws Exception {
+    stream.stop();
+  }
+
+  @Test
+  public void testPublish_conflatesUpdatesToTheLatest() {
+    // Arrange
+    stream.update(ticker("BTC/USD", "9.98", "10.01"));
+    stream.update(ticker("BTC/USD", "9.99", "10.01"));
+    stream.update(ticker("LTC/USD", "3.5", null));
+
+    // Act
+    int published = stream.publish();
+
+    // Assert
+    assertThat(published).isEqualTo(2);
+    assertThat(stream.latest("test-exchange", "BTC/USD")).isEqualTo(ticker("BTC/USD", "9.99", "10.01"));
+    assertThat(stream.publish()).isEqualTo(0);
+  }
+
+  @Test
+  public void testPublish_skipsUnchangedTickers() {
+    // Arrange
+    stream.update(ticker("BTC/USD", "9.99", "10.01"));
+    stream.publish();
+
+    // Act
+    stream.update(ticker("BTC/USD", "9.99", "10.01"));
+
+    // Assert
+    assertThat(stream.publish()).isEqualTo(0);
+  }
+
+  @Test
+  public void testRepublish_publishesTheLatestAgain() {
+    // Arrange
+    stream.update(ticker("BTC/USD", "9.99", "10.01"));
+    stream.publish();
+
+    // Act
+    stream.republish("test-exchange", "BTC/USD");
+    stream.republish("test-exchange", "LTC/USD");
+
+    // Assert
+    assertThat(stream.publish()).isEqualTo(1);
+  }
+
+  @Test
+  public void testTicker_hasNoSpreadWithAnEmptySide() {
+    // Arrange
+    TickerPresentationModel oneSided = ticker("BTC/USD", "9.99", null);
+
+    // Act
+    TickerPresentationModel twoSided = ticker("BTC/USD", "9.99", "10.015");
+
+    // Assert
+    assertThat(oneSided.getSpread()).isNull();
+    assertThat(twoSided.getSpread()).isEqualTo("0.025");
+  }
+
+  @Test
+  public void testConstructor_rejectsNonPositiveInterval() {
+    // Arrange
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("publishIntervalMillis must be greater than zero");
+
+    // Act
+    new TickerStream(0);
+  }
+
+  private static TickerPresentationModel ticker(String currencyPairId, String bid, String ask) {
+    return new TickerPresentationModel("test-exchange", currencyPairId, bid, ask, null, null);
+  }
+}
@@ -0,0 +1,57 @@
+package org.multibit.exchange.infrastructure.adaptor.atmosphere;
+
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.Broadcaster;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class TradesStreamResourceTest {
+
+  private final TradesStreamResource tradesStreamResource = new TradesStreamResource();
+
+  @Before
+  public void setUp() {
+    BroadcasterFactoryFixture.install(0);
+  }
+
+  @After
+  public void tearDown() {
+    BroadcasterFactoryFixture.uninstall();
+  }
+
+  @Test
+  public void testSuspend_subscribesToTheTradesOfThePair() {
+    // Arrange
+    AtmosphereResource resource = mock(AtmosphereResource.class);
+
+    // Act
+    tradesStreamResource.suspend("test-exchange", "BTC", "USD", resource);
+
+    // Assert
+    assertThat(subscribedChannel(resource)).isEqualTo("/exchanges/test-exchange/pairs/BTC/USD/trades");
+  }
+
+  @Test
+  public void testSuspend_subscribesToAllTrades() {
+    // Arrange
+    AtmosphereResource resource = mock(AtmosphereResource.class);
+
+    // Act
+    tradesStreamResource.suspend(resource);
+
+    // Assert
+    assertThat(subscribedChannel(resource)).isEqualTo(BroadcastHelper.TRADES_CHANNEL);
+  }
+
+  private static String subscribedChannel(AtmosphereResource resource) {
+    ArgumentCaptor<Broadcaster> broadcaster = ArgumentCaptor.forClass(Broadcaster.class);
+    verify(resource).setBroadcaster(broadcaster.capture());
+    return broadcaster.getValue().getID();
+  }
+}
@@ -0,0 +1,219 @@
+package org.multibit.exchange.infrastructure.adaptor.eventbus;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.mongodb.MongoException;
+import org.axonframework.domain.EventMessage;
+import org.axonframework.domain.GenericEventMessage;
+import org.axonframework.eventhandling.EventListener;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.TransientMongoFailure;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class QueuedClusterTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private QueuedCluster cluster;
+
+  @After
+  public void tearDown() {
+    if (cluster != null) {
+      cluster.close();
+    }
+  }
+
+  @Test
+  public void testPublish_doesNotWaitForListeners() throws Exception {
+    // Arrange
+    cluster = new QueuedCluster("no-wait", 16, QueuedCluster.BackPressure.BLOCK, 0, 0, Predicates.alwaysFalse());
+    BlockedListener listener = new BlockedListener();
+    cluster.subscribe(listener);
+
+    // Act
+    cluster.publish(event("1"), event("2"), event("3"));
+
+    // Assert
+    assertThat(listener.started.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(cluster.queued()).isEqualTo(2);
+    Thread.sleep(20);
+    assertThat(cluster.getLagMillis()).isGreaterThan(0);
+
+    listener.release.countDown();
+    cluster.close();
+    assertThat(listener.handled).containsExactly("1", "2", "3");
+    assertThat(cluster.getLagMillis()).isEqualTo(0);
+  }
+
+  @Test
+  public void testPublish_dropsWhenFull() throws Exception {
+    // Arrange
+    cluster = new QueuedCluster("drop", 2, QueuedCluster.BackPressure.DROP, 0, 0, Predicates.alwaysFalse());
+    BlockedListener listener = new BlockedListener();
+    cluster.subscribe(listener);
+    cluster.publish(event("1"));
+    assertThat(listener.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // Act
+    cluster.publish(event("2"), event("3"), event("4"), event("5"));
+
+    // Assert
+    assertThat(cluster.getDroppedCount()).isEqualTo(2);
+    listener.release.countDown();
+    cluster.close();
+    assertThat(listener.handled).containsExactly("1", "2", "3");
+  }
+
+  @Test
+  public void testPublish_blocksWhenFull() throws Exception {
+    // Arrange
+    cluster = new QueuedCluster("block", 1, QueuedCluster.BackPressure.BLOCK, 0, 0, Predicates.alwaysFalse());
+    final BlockedListener listener = new BlockedListener();
+    cluster.subscribe(listener);
+    cluster.publish(event("1"));
+    assertThat(listener.started.await(5, TimeUnit.SECONDS)).isTrue();
+    cluster.publish(event("2"));
+
+    // Act
+    final CountDownLatch published = new CountDownLatch(1);
+    new Thread(new Runnable() {
+      @Override
+      public void run() {
+        cluster.publish(event("3"));
+        published.countDown();
+      }
+    }).start();
+
+    // Assert
+    assertThat(published.await(100, TimeUnit.MILLISECONDS)).as("publisher waits for room").isFalse();
+    listener.release.countDown();
+    assertThat(published.await(5, TimeUnit.SECONDS)).isTrue();
+    cluster.close();
+    assertThat(listener.handled).containsExactly("1", "2", "3");
+  }
+
+  @Test
+  public void testHandle_retriesThenSkipsFailedEvent() {
+    // Arrange
+    cluster = new QueuedCluster("retry", 16, QueuedCluster.BackPressure.BLOCK, 2, 1, TransientMongoFailure.INSTANCE);
+    final AtomicInteger attempts = new AtomicInteger();
+    final List<Object> handled = Collections.synchronizedList(Lists.newArrayList());
+    cluster.subscribe(new EventListener() {
+      @Override
+      public void handle(EventMessage event) {
+        if ("poison".equals(event.getPayload())) {
+          attempts.incrementAndGet();
+          throw new MongoException.Network("Mongo is down", new IOException());
+        }
+        handled.add(event.getPayload());
+      }
+    });
+
+    // Act
+    cluster.publish(event("1"), event("poison"), event("2"));
+    cluster.close();
+
+    // Assert
+    assertThat(attempts.get()).isEqualTo(3);
+    assertThat(cluster.getFailedCount()).isEqualTo(1);
+    assertThat(handled).containsExactly("1", "2");
+  }
+
+  @Test
+  public void testHandle_retriedEventSucceeds() {
+    // Arrange
+    cluster = new QueuedCluster("recover", 16, QueuedCluster.BackPressure.BLOCK, 3, 1, TransientMongoFailure.INSTANCE);
+    final AtomicInteger attempts = new AtomicInteger();
+    cluster.subscribe(new EventListener() {
+      @Override
+      public void handle(EventMessage event) {
+        if (attempts.incrementAndGet() < 3) {
+          throw new MongoException.Network("Mongo is down", new IOException());
+        }
+      }
+    });
+
+    // Act
+    cluster.publish(event("1"));
+    cluster.close();
+
+    // Assert
+    assertThat(attempts.get()).isEqualTo(3);
+    assertThat(cluster.getFailedCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testHandle_skipsNonTransientFailureWithoutRetrying() {
+    // Arrange
+    cluster = new QueuedCluster("bug", 16, QueuedCluster.BackPressure.BLOCK, 3, 10000, TransientMongoFailure.INSTANCE);
+    final AtomicInteger attempts = new AtomicInteger();
+    final List<Object> handled = Collections.synchronizedList(Lists.newArrayList());
+    cluster.subscribe(new EventListener() {
+      @Override
+      public void handle(EventMessage event) {
+        if ("poison".equals(event.getPayload())) {
+          attempts.incrementAndGet();
+          throw new NullPointerException();
+        }
+        handled.add(event.getPayload());
+      }
+    });
+
+    // Act
+    cluster.publish(event("1"), event("poison"), event("2"));
+    cluster.close();
+
+    // Assert
+    assertThat(attempts.get()).isEqualTo(1);
+    assertThat(cluster.getFailedCount()).isEqualTo(1);
+    assertThat(handled).containsExactly("1", "2");
+  }
+
+  @Test
+  public void testPublish_closed() {
+    // Arrange
+    cluster = new QueuedCluster("closed", 16, QueuedCluster.BackPressure.BLOCK, 0, 0, Predicates.alwaysFalse());
+    cluster.close();
+
+    thrown.expect(IllegalStateException.class);
+
+    // Act
+    cluster.publish(event("1"));
+  }
+
+  private static EventMessage event(String payload) {
+    return new GenericEventMessage<String>(payload);
+  }
+
+  /**
+   * Holds up the first event until released, recording every payload it handles
+   */
+  private static class BlockedListener implements EventListener {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<Object> handled = Collections.synchronizedList(Lists.newArrayList());
+
+    @Override
+    public void handle(EventMessage event) {
+      started.countDown();
+      Uninterruptibles.awaitUninterruptibly(release);
+      handled.add(event.getPayload());
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.batch;
+
+import com.google.common.collect.Lists;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.repository.ConcurrencyException;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.multibit.exchange.infrastructure.adaptor.persistence.journal.JournalEventStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class BatchingEventStoreTest {
+
+  private static final String TYPE = "MatchingEngine";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private RecordingEventStore recordingEventStore;
+
+  private BatchingEventStore eventStore;
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws IOException {
+    JournalEventStore journal = new JournalEventStore(folder.newFolder("journal"), 64 * 1024, new XStreamSerializer(),
+        JournalEventStore.FsyncPolicy.NEVER, 0);
+    recordingEventStore = new RecordingEventStore(journal);
+    eventStore = new BatchingEventStore(recordingEventStore, 4, 0);
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    executor.shutdownNow();
+    recordingEventStore.release();
+    eventStore.close();
+  }
+
+  @Test
+  public void testAppendEvents_isReadableOnReturn() {
+    // Arrange
+    eventStore.appendEvents(TYPE, events("BTC/USD", 0, 2));
+
+    // Act
+    List<DomainEventMessage> read = readAll("BTC/USD");
+
+    // Assert
+    assertThat(read).hasSize(2);
+    assertThat(recordingEventStore.batchSizes).containsExactly(1);
+  }
+
+  @Test
+  public void testAppendEvents_concurrentAppendsShareABatch() throws Exception {
+    // Arrange
+    recordingEventStore.hold();
+    Future<?> first = appendLater("BTC/USD", 0);
+    recordingEventStore.awaitHeld();
+    List<Future<?>> waiting = Lists.newArrayList();
+    for (String aggregate : new String[]{"LTC/USD", "BTC/EUR", "LTC/EUR"}) {
+      waiting.add(appendLater(aggregate, 0));
+    }
+    awaitQueued(3);
+
+    // Act
+    recordingEventStore.release();
+    first.get(5, TimeUnit.SECONDS);
+    for (Future<?> future : waiting) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+
+    // Assert
+    assertThat(recordingEventStore.batchSizes).containsExactly(1, 3);
+    assertThat(readAll("LTC/EUR")).hasSize(1);
+  }
+
+  @Test
+  public void testAppendEvents_batchIsLimitedInSize() throws Exception {
+    // Arrange
+    recordingEventStore.hold();
+    Future<?> first = appendLater("Aggregate0", 0);
+    recordingEventStore.awaitHeld();
+    List<Future<?>> waiting = Lists.newArrayList();
+    for (int i = 1; i <= 6; i++) {
+      waiting.add(appendLater("Aggregate" + i, 0));
+    }
+    awaitQueued(6);
+
+    // Act
+    recordingEventStore.release();
+    first.get(5, TimeUnit.SECONDS);
+    for (Future<?> future : waiting) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+
+    // Assert
+    assertThat(recordingEventStore.batchSizes).containsExactly(1, 4, 2);
+  }
+
+  @Test
+  public void testAppendEvents_rejectedAppendFailsOnItsOwn() throws Exception {
+    // Arrange
+    eventStore.appendEvents(TYPE, events("BTC/USD", 0, 2));
+    recordingEventStore.hold();
+    Future<?> first = appendLater("Aggregate0", 0);
+    recordingEventStore.awaitHeld();
+    Future<?> stale = appendLater("BTC/USD", 1);
+    Future<?> fresh = appendLater("LTC/USD", 0);
+    awaitQueued(2);
+
+    // Act
+    recordingEventStore.release();
+    first.get(5, TimeUnit.SECONDS);
+    fresh.get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertThat(readAll("LTC/USD")).hasSize(1);
+    assertThat(readAll("BTC/USD")).hasSize(2);
+    try {
+      stale.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(ConcurrencyException.class);
+      return;
+    }
+    throw new AssertionError("The stale append should have failed");
+  }
+
+  @Test
+  public void testAppendEvents_closed() throws IOException {
+    // Arrange
+    eventStore.close();
+
+    thrown.expect(IllegalStateException.class);
+
+    // Act
+    eventStore.appendEvents(TYPE, events("BTC/USD", 0, 1));
+  }
+
+  private Future<?> appendLater(final String aggregate, final long firstSequenceNumber) {
+    return executor.submit(new Callable<Void>() {
+      @Override
+      public Void call() {
+        eventStore.appendEvents(TYPE, events(aggregate, firstSequenceNumber, 1));
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Waits for the given number of appends to be queued behind the held batch
+   */
+  private void awaitQueued(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (eventStore.queuedAppends() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(eventStore.queuedAppends()).isEqualTo(count);
+  }
+
+  private List<DomainEventMessage> readAll(String aggregateIdentifier) {
+    List<DomainEventMessage> read = Lists.newArrayList();
+    DomainEventStream events = eventStore.readEvents(TYPE, aggregateIdentifier);
+    while (events.hasNext()) {
+      read.add(events.next());
+    }
+    return read;
+  }
+
+  private static DomainEventStream events(String aggregateIdentifier, long firstSequenceNumber, int count) {
+    DomainEventMessage[] events = new DomainEventMessage[count];
+    for (int i = 0; i < count; i++) {
+      events[i] = new GenericDomainEventMessage<String>(aggregateIdentifier, firstSequenceNumber + i, "event " + (firstSequenceNumber + i));
+    }
+    return new SimpleDomainEventStream(events);
+  }
+
+  /**
+   * <p>Records the size of every batch, and can hold a batch write so that later appends queue up behind it</p>
+   */
+  private static class RecordingEventStore implements BatchAppendingEventStore, Closeable {
+
+    private final JournalEventStore journal;
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(Lists.<Integer>newArrayList());
+
+    private volatile CountDownLatch held = new CountDownLatch(0);
+
+    private volatile CountDownLatch released = new CountDownLatch(0);
+
+    RecordingEventStore(JournalEventStore journal) {
+      this.journal = journal;
+    }
+
+    void hold() {
+      held = new CountDownLatch(1);
+      released = new CountDownLatch(1);
+    }
+
+    void awaitHeld() throws InterruptedException {
+      assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    void release() {
+      released.countDown();
+    }
+
+    @Override
+    public List<EventAppend> appendBatch(List<EventAppend> appends) {
+      batchSizes.add(appends.size());
+      held.countDown();
+      try {
+        released.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return journal.appendBatch(appends);
+    }
+
+    @Override
+    public void appendEvents(String type, DomainEventStream events) {
+      journal.appendEvents(type, events);
+    }
+
+    @Override
+    public void appendSnapshotEvent(String type, DomainEventMessage snapshotEvent) {
+      journal.appendSnapshotEvent(type, snapshotEvent);
+    }
+
+    @Override
+    public DomainEventStream readEvents(String type, Object identifier) {
+      return journal.readEvents(type, identifier);
+    }
+
+    @Override
+    public void close() throws IOException {
+      journal.close();
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.journal;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventstore.EventStreamNotFoundException;
+import org.axonframework.eventstore.EventVisitor;
+import org.axonframework.repository.ConcurrencyException;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.multibit.exchange.infrastructure.adaptor.persistence.batch.EventAppend;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class JournalEventStoreTest {
+
+  private static final String TYPE = "MatchingEngine";
+
+  private static final String AGGREGATE = "BTC/USD";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private File directory;
+
+  private JournalEventStore eventStore;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = folder.newFolder("journal");
+    eventStore = open(64 * 1024);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    eventStore.close();
+  }
+
+  @Test
+  public void testReadEvents_returnsAppendedEvents() {
+    // Arrange
+    DomainEventMessage event = new GenericDomainEventMessage<String>(AGGREGATE, 0, "placed", ImmutableMap.of("broker", "Broker1"));
+    eventStore.appendEvents(TYPE, new SimpleDomainEventStream(event, new GenericDomainEventMessage<String>(AGGREGATE, 1, "traded")));
+    eventStore.appendEvents("Exchange", events("exchange", 0, 1));
+
+    // Act
+    List<DomainEventMessage> read = readAll(TYPE, AGGREGATE);
+
+    // Assert
+    assertThat(read).hasSize(2);
+    assertThat(read.get(0).getIdentifier()).isEqualTo(event.getIdentifier());
+    assertThat(read.get(0).getTimestamp().getMillis()).isEqualTo(event.getTimestamp().getMillis());
+    assertThat(read.get(0).getAggregateIdentifier()).isEqualTo(AGGREGATE);
+    assertThat(read.get(0).getPayload()).isEqualTo("placed");
+    assertThat(read.get(0).getMetaData().get("broker")).isEqualTo("Broker1");
+    assertThat(read.get(1).getSequenceNumber()).isEqualTo(1);
+    assertThat(read.get(1).getPayload()).isEqualTo("traded");
+  }
+
+  @Test
+  public void testReopen_recoversIndex() throws IOException {
+    // Arrange
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 0, 3));
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 3, 2));
+    eventStore.close();
+
+    // Act
+    eventStore = open(64 * 1024);
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 5, 1));
+
+    // Assert
+    assertThat(sequenceNumbers(readAll(TYPE, AGGREGATE))).containsExactly(0L, 1L, 2L, 3L, 4L, 5L);
+  }
+
+  @Test
+  public void testReopen_dropsIncompleteCommit() throws IOException {
+    // Arrange
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 0, 2));
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 2, 3));
+    eventStore.close();
+    // Cut the second commit short by tearing its last record, as a crash mid-write would
+    File segment = new File(directory, "journal-00000000.seg");
+    try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+      int position = 0;
+      int lastRecord = 0;
+      while (true) {
+        file.seek(position);
+        int length = file.readInt();
+        if (length == 0) {
+          break;
+        }
+        lastRecord = position;
+        position += JournalSegment.HEADER_SIZE + length;
+      }
+      file.seek(lastRecord + JournalSegment.HEADER_SIZE);
+      file.writeByte(0x7f);
+    }
+
+    // Act
+    eventStore = open(64 * 1024);
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 2, 1));
+    eventStore.close();
+    eventStore = open(64 * 1024);
+
+    // Assert
+    assertThat(sequenceNumbers(readAll(TYPE, AGGREGATE))).containsExactly(0L, 1L, 2L);
+  }
+
+  @Test
+  public void testAppendEvents_rollsSegments() throws IOException {
+    // Arrange
+    eventStore.close();
+    directory = folder.newFolder("small-segments");
+    eventStore = open(1024);
+
+    // Act
+    for (int i = 0; i < 20; i++) {
+      eventStore.appendEvents(TYPE, events(AGGREGATE, i, 1));
+    }
+    eventStore.close();
+    eventStore = open(1024);
+
+    // Assert
+    assertThat(directory.list().length).isGreaterThan(1);
+    assertThat(readAll(TYPE, AGGREGATE)).hasSize(20);
+  }
+
+  @Test
+  public void testReadEvents_startsFromLatestSnapshot() throws IOException {
+    // Arrange
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 0, 5));
+    eventStore.appendSnapshotEvent(TYPE, new GenericDomainEventMessage<String>(AGGREGATE, 3, "snapshot"));
+    eventStore.appendSnapshotEvent(TYPE, new GenericDomainEventMessage<String>(AGGREGATE, 1, "older snapshot"));
+    eventStore.close();
+    eventStore = open(64 * 1024);
+
+    // Act
+    List<DomainEventMessage> read = readAll(TYPE, AGGREGATE);
+
+    // Assert
+    assertThat(sequenceNumbers(read)).containsExactly(3L, 4L);
+    assertThat(read.get(0).getPayload()).isEqualTo("snapshot");
+  }
+
+  @Test
+  public void testAppendEvents_rejectsStoredSequenceNumber() {
+    // Arrange
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 0, 2));
+
+    thrown.expect(ConcurrencyException.class);
+
+    // Act
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 1, 1));
+  }
+
+  @Test
+  public void testAppendBatch_returnsRejectedAppends() throws IOException {
+    // Arrange
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 0, 2));
+    EventAppend stale = new EventAppend(TYPE, toList(events(AGGREGATE, 1, 1)));
+    EventAppend next = new EventAppend(TYPE, toList(events(AGGREGATE, 2, 2)));
+    EventAppend other = new EventAppend(TYPE, toList(events("LTC/USD", 0, 1)));
+
+    // Act
+    List<EventAppend> unwritten = eventStore.appendBatch(Lists.newArrayList(stale, next, other));
+    eventStore.close();
+    eventStore = open(64 * 1024);
+
+    // Assert
+    assertThat(unwritten).containsExactly(stale);
+    assertThat(sequenceNumbers(readAll(TYPE, AGGREGATE))).containsExactly(0L, 1L, 2L, 3L);
+    assertThat(readAll(TYPE, "LTC/USD")).hasSize(1);
+  }
+
+  @Test
+  public void testVisitEvents_visitsEveryEventInStoredOrderAcrossSegments() throws IOException {
+    // Arrange
+    eventStore.close();
+    directory = folder.newFolder("visited-segments");
+    eventStore = open(1024);
+    for (int i = 0; i < 10; i++) {
+      eventStore.appendEvents(TYPE, events(AGGREGATE, i, 1));
+      eventStore.appendEvents(TYPE, events("LTC/USD", i, 1));
+    }
+    eventStore.appendSnapshotEvent(TYPE, new GenericDomainEventMessage<String>(AGGREGATE, 9, "snapshot"));
+    final List<DomainEventMessage> visited = Lists.newArrayList();
+
+    // Act
+    eventStore.visitEvents(new EventVisitor() {
+      @Override
+      public void doWithEvent(DomainEventMessage domainEvent) {
+        visited.add(domainEvent);
+      }
+    });
+
+    // Assert
+    assertThat(directory.list().length).isGreaterThan(1);
+    assertThat(visited).hasSize(20);
+    for (int i = 0; i < 10; i++) {
+      assertThat(visited.get(2 * i).getAggregateIdentifier()).isEqualTo(AGGREGATE);
+      assertThat(visited.get(2 * i).getSequenceNumber()).isEqualTo(i);
+      assertThat(visited.get(2 * i + 1).getAggregateIdentifier()).isEqualTo("LTC/USD");
+    }
+  }
+
+  @Test
+  public void testReadEvents_unknownAggregate() {
+    // Arrange
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 0, 1));
+
+    thrown.expect(EventStreamNotFoundException.class);
+
+    // Act
+    eventStore.readEvents(TYPE, "LTC/USD");
+  }
+
+  private JournalEventStore open(int segmentSize) {
+    return new JournalEventStore(directory, segmentSize, new XStreamSerializer(), JournalEventStore.FsyncPolicy.ALWAYS, 0);
+  }
+
+  private List<DomainEventMessage> readAll(String type, String aggregateIdentifier) {
+    List<DomainEventMessage> read = Lists.newArrayList();
+    DomainEventStream events = eventStore.readEvents(type, aggregateIdentifier);
+    while (events.hasNext()) {
+      read.add(events.next());
+    }
+    return read;
+  }
+
+  private static List<DomainEventMessage> toList(DomainEventStream events) {
+    List<DomainEventMessage> list = Lists.newArrayList();
+    while (events.hasNext()) {
+      list.add(events.next());
+    }
+    return list;
+  }
+
+  private static List<Long> sequenceNumbers(List<DomainEventMessage> events) {
+    List<Long> sequenceNumbers = Lists.newArrayList();
+    for (DomainEventMessage event : events) {
+      sequenceNumbers.add(event.getSequenceNumber());
+    }
+    return sequenceNumbers;
+  }
+
+  private static DomainEventStream events(String aggregateIdentifier, long firstSequenceNumber, int count) {
+    DomainEventMessage[] events = new DomainEventMessage[count];
+    for (int i = 0; i < count; i++) {
+      events[i] = new GenericDomainEventMessage<String>(aggregateIdentifier, firstSequenceNumber + i, "event " + (firstSequenceNumber + i));
+    }
+    return new SimpleDomainEventStream(events);
+  }
+}
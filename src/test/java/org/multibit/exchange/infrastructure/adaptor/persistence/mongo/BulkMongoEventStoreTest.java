@@ -0,0 +1,108 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.google.common.collect.ImmutableList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.eventstore.mongo.MongoTemplate;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.Before;
+import org.junit.Test;
+import org.multibit.exchange.infrastructure.adaptor.persistence.batch.EventAppend;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkMongoEventStoreTest {
+
+  private final DBCollection events = mock(DBCollection.class);
+
+  private BulkMongoEventStore eventStore;
+
+  @Before
+  public void setUp() {
+    MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    when(mongoTemplate.domainEventCollection()).thenReturn(events);
+    eventStore = new BulkMongoEventStore(new XStreamSerializer(), mongoTemplate);
+  }
+
+  @Test
+  public void testAppendBatch_storedWholeReturnsNothing() {
+    // Arrange
+    EventAppend append = append("engine-1", 0, 2);
+
+    // Act
+    List<EventAppend> unwritten = eventStore.appendBatch(ImmutableList.of(append));
+
+    // Assert
+    assertThat(unwritten).isEmpty();
+    verify(events, never()).count(any(DBObject.class));
+  }
+
+  @Test
+  public void testAppendBatch_returnsTheAppendsNotStoredWhole() {
+    // Arrange
+    EventAppend stored = append("engine-1", 0, 2);
+    EventAppend partial = append("engine-2", 0, 2);
+    EventAppend missing = append("engine-3", 0, 2);
+    doThrow(new MongoException("E11000 duplicate key")).when(events).insert(anyListOf(DBObject.class));
+    when(events.count(eventsOf(stored))).thenReturn(2L);
+    when(events.count(eventsOf(partial))).thenReturn(1L);
+    when(events.count(eventsOf(missing))).thenReturn(0L);
+
+    // Act
+    List<EventAppend> unwritten = eventStore.appendBatch(ImmutableList.of(stored, partial, missing));
+
+    // Assert
+    assertThat(unwritten).containsExactly(partial, missing);
+    verify(events).remove(eventsOf(partial));
+    verify(events, never()).remove(eventsOf(stored));
+    verify(events, never()).remove(eventsOf(missing));
+  }
+
+  @Test
+  public void testAppendBatch_returnsAPartialAppendItCouldNotDelete() {
+    // Arrange
+    EventAppend partial = append("engine-1", 0, 3);
+    doThrow(new MongoException("E11000 duplicate key")).when(events).insert(anyListOf(DBObject.class));
+    when(events.count(eventsOf(partial))).thenReturn(2L);
+    when(events.remove(eventsOf(partial))).thenThrow(new MongoException.Network("Mongo is down", new IOException()));
+
+    // Act
+    List<EventAppend> unwritten = eventStore.appendBatch(ImmutableList.of(partial));
+
+    // Assert
+    assertThat(unwritten).containsExactly(partial);
+  }
+
+  private static EventAppend append(String aggregateIdentifier, long firstSequenceNumber, int count) {
+    ImmutableList.Builder<DomainEventMessage> messages = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      messages.add(new GenericDomainEventMessage<>(aggregateIdentifier, firstSequenceNumber + i, "event-" + i));
+    }
+    return new EventAppend("MatchingEngine", messages.build());
+  }
+
+  /**
+   * @return The query for the stored events of an append
+   */
+  private static DBObject eventsOf(EventAppend append) {
+    ImmutableList.Builder<String> identifiers = ImmutableList.builder();
+    for (DomainEventMessage event : append.getEvents()) {
+      identifiers.add(event.getIdentifier());
+    }
+    return new BasicDBObject("eventIdentifier", new BasicDBObject("$in", identifiers.build()));
+  }
+}
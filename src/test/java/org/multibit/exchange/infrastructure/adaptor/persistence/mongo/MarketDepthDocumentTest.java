@@ -0,0 +1,43 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class MarketDepthDocumentTest {
+
+  @Test
+  public void testFromPresentationModel_thenToPresentationModel() {
+    // Arrange
+    MarketDepthPresentationModel model = new MarketDepthPresentationModel(new ObjectId().toString(), "exchange", "BTC/USD");
+    model.getBidDepthData().increaseVolumeAtPrice("10.10", "12.884");
+    model.getBidDepthData().increaseVolumeAtPrice("11", "20000");
+    model.getAskDepthData().increaseVolumeAtPrice("22.50", "0.00000001");
+
+    // Act
+    MarketDepthDocument document = MarketDepthDocument.fromPresentationModel(model);
+    MarketDepthPresentationModel restored = document.toPresentationModel();
+
+    // Assert
+    assertThat(document.getBids().get("10_1")).isEqualTo(1288400000L);
+    assertThat(document.getAsks().get("22_5")).isEqualTo(1L);
+    assertThat(restored.getId()).isEqualTo(model.getId());
+    assertThat(restored.getCurrencyPairId()).isEqualTo("BTC/USD");
+    assertThat(restored.getBidDepthData()).isEqualTo(model.getBidDepthData());
+    assertThat(restored.getAskDepthData()).isEqualTo(model.getAskDepthData());
+  }
+
+  @Test
+  public void testLevelField_samePathForEveryWayOfWritingThePrice() {
+    // Act
+    String field = MarketDepthDocument.levelField(Side.BUY, "10.10");
+
+    // Assert
+    assertThat(field).isEqualTo("bids.10_1");
+    assertThat(MarketDepthDocument.levelField(Side.BUY, "10.1000")).isEqualTo(field);
+    assertThat(MarketDepthDocument.levelField(Side.SELL, "10")).isEqualTo("asks.10");
+  }
+}
@@ -0,0 +1,74 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.junit.Before;
+import org.junit.Test;
+import org.multibit.exchange.domain.event.LimitOrderAddedToExistingPriceLevelEvent;
+import org.multibit.exchange.domain.event.TopOrderCompletelyFilledEvent;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.ItemQuantity;
+import org.multibit.exchange.domain.model.LimitOrder;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.domain.model.Ticker;
+import org.multibit.exchange.domain.model.Trade;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.service.ReadModelListener;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MongoQuoteReadModelBuilderTest {
+
+  private static final ExchangeId EXCHANGE_ID = new ExchangeId("test-exchange");
+
+  private final DBCollection quotes = mock(DBCollection.class);
+
+  private final ReadModelListener readModelListener = mock(ReadModelListener.class);
+
+  private MongoQuoteReadModelBuilder builder;
+
+  @Before
+  public void setUp() {
+    DB mongoDb = mock(DB.class);
+    when(mongoDb.getCollection(ReadModelCollections.QUOTES)).thenReturn(quotes);
+    // No quote stored for any pair
+    DBCursor noQuotes = mock(DBCursor.class, RETURNS_DEEP_STUBS);
+    when(quotes.find(any(DBObject.class), any(DBObject.class))).thenReturn(noQuotes);
+    builder = new MongoQuoteReadModelBuilder(mongoDb, new SimpleEventBus(), readModelListener);
+  }
+
+  @Test
+  public void testHandle_orderAddedToExistingPriceLevelWithoutQuote() {
+    // Arrange
+    LimitOrder order = new LimitOrder(new OrderId(), "Broker1", Side.BUY, new ItemQuantity("1"), new Ticker("BTC/USD"), new ItemPrice("9.99"));
+
+    // Act
+    builder.handle(new LimitOrderAddedToExistingPriceLevelEvent(EXCHANGE_ID, order, new ItemPrice("9.99")));
+
+    // Assert
+    verify(quotes, never()).remove(any(DBObject.class));
+  }
+
+  @Test
+  public void testHandle_topOrderFilledWithoutQuote() {
+    // Arrange
+    Trade trade = new Trade(new CurrencyPairId("BTC/USD"), "Broker1", "Broker2", new ItemPrice("9.99"), new ItemQuantity("0.5"));
+
+    // Act
+    builder.handle(new TopOrderCompletelyFilledEvent(EXCHANGE_ID, Side.BUY, new ItemPrice("9.99"), trade));
+
+    // Assert
+    verify(quotes, never()).remove(any(DBObject.class));
+    verify(readModelListener).quoteChanged(EXCHANGE_ID.getIdentifier(), "BTC/USD");
+  }
+}
@@ -0,0 +1,45 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.mongo;
+
+import com.mongodb.MongoException;
+import org.junit.Test;
+import org.mongojack.MongoJsonMappingException;
+
+import java.io.IOException;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class TransientMongoFailureTest {
+
+  @Test
+  public void testApply_mongoErrorsAreTransient() {
+    // Assert
+    assertThat(TransientMongoFailure.INSTANCE.apply(new MongoException("not master"))).isTrue();
+    assertThat(TransientMongoFailure.INSTANCE.apply(new MongoException.Network("connection reset", new IOException()))).isTrue();
+  }
+
+  @Test
+  public void testApply_wrappedMongoErrorIsTransient() {
+    // Arrange
+    RuntimeException failure = new IllegalStateException("could not write", new MongoException("not master"));
+
+    // Act
+    boolean retryable = TransientMongoFailure.INSTANCE.apply(failure);
+
+    // Assert
+    assertThat(retryable).isTrue();
+  }
+
+  @Test
+  public void testApply_permanentMongoErrorsAreNotTransient() {
+    // Assert
+    assertThat(TransientMongoFailure.INSTANCE.apply(new MongoException.DuplicateKey(11000, "duplicate key"))).isFalse();
+    assertThat(TransientMongoFailure.INSTANCE.apply(new MongoJsonMappingException("bad document"))).isFalse();
+  }
+
+  @Test
+  public void testApply_bugsAreNotTransient() {
+    // Assert
+    assertThat(TransientMongoFailure.INSTANCE.apply(new NullPointerException())).isFalse();
+    assertThat(TransientMongoFailure.INSTANCE.apply(new IllegalStateException("Mongo is down"))).isFalse();
+  }
+}
@@ -0,0 +1,163 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.rebuild;
+
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.CurrencyPairRemovedEvent;
+import org.multibit.exchange.domain.event.ExchangeCreatedEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CancelOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.persistence.journal.JournalEventStore;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class MatchingEngineMigrationTest {
+
+  private static final String EXCHANGE_TYPE = "Exchange";
+
+  private static final String MATCHING_ENGINE_TYPE = "MatchingEngine";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ExchangeId exchangeId = new ExchangeId("migration");
+
+  private JournalEventStore eventStore;
+
+  private long exchangeSequenceNumber;
+
+  @Before
+  public void setUp() throws IOException {
+    eventStore = new JournalEventStore(folder.newFolder("journal"), 64 * 1024, new XStreamSerializer(), JournalEventStore.FsyncPolicy.NEVER, 0);
+    appendToExchange(new ExchangeCreatedEvent(exchangeId));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    eventStore.close();
+  }
+
+  @Test
+  public void testMigrate_opensEngineWithOrdersTheExchangeMatched() throws Exception {
+    // Arrange
+    MatchingEngine legacyBooks = tradeInExchange("BTC/USD");
+
+    // Act
+    List<MatchingEngineId> migrated = new MatchingEngineMigration(eventStore, eventStore).migrate();
+
+    // Assert
+    MatchingEngineId matchingEngineId = new MatchingEngineId(exchangeId, new CurrencyPairId("BTC/USD"));
+    assertThat(migrated).containsExactly(matchingEngineId);
+    MatchingEngine matchingEngine = load(matchingEngineId);
+    assertThat(matchingEngine.getIdentifier()).isEqualTo(matchingEngineId);
+    assertThat(matchingEngine.getDepth(Side.BUY, 10)).isEqualTo(legacyBooks.getDepth(Side.BUY, 10));
+    assertThat(matchingEngine.getDepth(Side.SELL, 10)).isEqualTo(legacyBooks.getDepth(Side.SELL, 10));
+    assertThat(matchingEngine.getBestAsk().get().getPrice()).isEqualTo(new ItemPrice("10.05"));
+
+    // The migrated engine matches against the orders it took over
+    placeOrder(matchingEngine, "BTC/USD", "Buyer3", "Buy", "3", "10.05");
+    assertThat(matchingEngine.getBestAsk().isPresent()).isFalse();
+  }
+
+  @Test
+  public void testMigrate_leavesPairsWithEnginesAndRemovedPairs() throws Exception {
+    // Arrange
+    tradeInExchange("LTC/USD");
+    appendToExchange(new CurrencyPairRemovedEvent(exchangeId, new CurrencyPairId("LTC/USD")));
+    CurrencyPairId currencyPairId = register("BTC/EUR");
+    MatchingEngine matchingEngine = new MatchingEngine(exchangeId, currencyPairId, new CurrencyId("BTC"), new CurrencyId("EUR"), null);
+    placeOrder(matchingEngine, "BTC/EUR", "Seller1", "Sell", "5", "10.00");
+    eventStore.appendEvents(MATCHING_ENGINE_TYPE, matchingEngine.getUncommittedEvents());
+    matchingEngine.commitEvents();
+
+    // Act
+    List<MatchingEngineId> migrated = new MatchingEngineMigration(eventStore, eventStore).migrate();
+
+    // Assert
+    assertThat(migrated).isEmpty();
+  }
+
+  @Test
+  public void testMigrate_secondRunDoesNothing() throws Exception {
+    // Arrange
+    tradeInExchange("BTC/USD");
+    register("LTC/USD");
+    assertThat(new MatchingEngineMigration(eventStore, eventStore).migrate()).hasSize(2);
+
+    // Act
+    List<MatchingEngineId> migrated = new MatchingEngineMigration(eventStore, eventStore).migrate();
+
+    // Assert
+    assertThat(migrated).isEmpty();
+  }
+
+  /**
+   * Stores the events of a few orders in the Exchange's stream, as the Exchange did when it matched the orders
+   *
+   * @return An engine that matched the same orders, leaving an ask of 3 at 10.05 and a bid of 1 at 10.00
+   */
+  private MatchingEngine tradeInExchange(String ticker) throws Exception {
+    CurrencyPairId currencyPairId = register(ticker);
+    MatchingEngine matchingEngine = new MatchingEngine(exchangeId, currencyPairId, new CurrencyId(ticker.substring(0, 3)), new CurrencyId(ticker.substring(4)), null);
+    matchingEngine.commitEvents();
+    placeOrder(matchingEngine, ticker, "Seller1", "Sell", "5", "10.00");
+    placeOrder(matchingEngine, ticker, "Seller2", "Sell", "3", "10.05");
+    OrderId cancelled = placeOrder(matchingEngine, ticker, "Buyer1", "Buy", "2", "9.90");
+    placeOrder(matchingEngine, ticker, "Buyer2", "Buy", "6", "10.00");
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, cancelled));
+
+    DomainEventStream events = matchingEngine.getUncommittedEvents();
+    boolean traded = false;
+    while (events.hasNext()) {
+      Object event = events.next().getPayload();
+      traded |= event instanceof TradeExecutedEvent;
+      appendToExchange(event);
+    }
+    matchingEngine.commitEvents();
+    assertThat(traded).isTrue();
+    return matchingEngine;
+  }
+
+  private CurrencyPairId register(String ticker) {
+    CurrencyPairId currencyPairId = new CurrencyPairId(ticker);
+    appendToExchange(new CurrencyPairRegisteredEvent(exchangeId, currencyPairId, new CurrencyId(ticker.substring(0, 3)), new CurrencyId(ticker.substring(4))));
+    return currencyPairId;
+  }
+
+  private void appendToExchange(Object event) {
+    eventStore.appendEvents(EXCHANGE_TYPE, new SimpleDomainEventStream(
+        new GenericDomainEventMessage<Object>(exchangeId.getIdentifier(), exchangeSequenceNumber++, event)));
+  }
+
+  private MatchingEngine load(MatchingEngineId matchingEngineId) {
+    MatchingEngine matchingEngine = new MatchingEngine();
+    matchingEngine.initializeState(eventStore.readEvents(MATCHING_ENGINE_TYPE, matchingEngineId));
+    return matchingEngine;
+  }
+
+  private OrderId placeOrder(MatchingEngine matchingEngine, String ticker, String broker, String side, String quantity, String price) throws Exception {
+    OrderId orderId = new OrderId();
+    matchingEngine.placeOrder(new PlaceOrderCommand(exchangeId, orderId, new OrderDescriptor(broker, side, quantity, ticker, price)));
+    return orderId;
+  }
+}
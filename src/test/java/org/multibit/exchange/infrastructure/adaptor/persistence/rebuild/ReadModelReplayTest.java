@@ -0,0 +1,169 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.rebuild;
+
+import com.google.common.collect.Maps;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.CurrencyPairRemovedEvent;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CancelOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.persistence.journal.JournalEventStore;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ReadModelReplayTest {
+
+  private static final String EXCHANGE_TYPE = "Exchange";
+
+  private static final String MATCHING_ENGINE_TYPE = "MatchingEngine";
+
+  private static final String[] TICKERS = {"BTC/USD", "LTC/USD", "BTC/EUR", "LTC/EUR", "BTC/GBP"};
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private ExchangeId exchangeId = new ExchangeId("replay");
+
+  private JournalEventStore eventStore;
+
+  private long exchangeSequenceNumber;
+
+  @Before
+  public void setUp() throws IOException {
+    eventStore = new JournalEventStore(folder.newFolder("journal"), 64 * 1024, new XStreamSerializer(), JournalEventStore.FsyncPolicy.NEVER, 0);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    eventStore.close();
+  }
+
+  @Test
+  public void testReplay_rebuildsMarketDepthOfEveryCurrencyPair() throws Exception {
+    // Arrange
+    for (String ticker : TICKERS) {
+      trade(ticker);
+    }
+
+    // Act
+    Map<String, ReadModelPartition> partitions = byCurrencyPair(new ReadModelReplay(eventStore, 3).replay());
+
+    // Assert
+    assertThat(partitions).hasSize(TICKERS.length);
+    for (String ticker : TICKERS) {
+      MarketDepthPresentationModel marketDepth = partitions.get(ticker).getMarketDepth();
+      assertThat(marketDepth.getExchangeId()).isEqualTo(exchangeId.getIdentifier());
+      assertThat(marketDepth.getAskDepthData().getPriceLevels()).hasSize(1);
+      assertThat(marketDepth.getAskDepthData().getVolumeAtPrice("10.05")).isEqualTo("3");
+      assertThat(marketDepth.getBidDepthData().getPriceLevels()).hasSize(1);
+      assertThat(marketDepth.getBidDepthData().getVolumeAtPrice("10.00")).isEqualTo("1");
+      assertThat(partitions.get(ticker).getQuote()).isNull();
+    }
+  }
+
+  @Test
+  public void testReplay_sameReadModelsWithAnyNumberOfWorkers() throws Exception {
+    // Arrange
+    for (String ticker : TICKERS) {
+      trade(ticker);
+    }
+
+    // Act
+    Map<String, ReadModelPartition> sequential = byCurrencyPair(new ReadModelReplay(eventStore, 1).replay());
+    Map<String, ReadModelPartition> parallel = byCurrencyPair(new ReadModelReplay(eventStore, 4).replay());
+
+    // Assert
+    assertThat(parallel.keySet()).isEqualTo(sequential.keySet());
+    for (String ticker : TICKERS) {
+      assertThat(parallel.get(ticker).getMarketDepth().getBidDepthData()).isEqualTo(sequential.get(ticker).getMarketDepth().getBidDepthData());
+      assertThat(parallel.get(ticker).getMarketDepth().getAskDepthData()).isEqualTo(sequential.get(ticker).getMarketDepth().getAskDepthData());
+    }
+  }
+
+  @Test
+  public void testReplay_keepsQuoteOfUntradedCurrencyPair() throws Exception {
+    // Arrange
+    register("BTC/USD");
+    register("LTC/USD");
+    eventStore.appendEvents(EXCHANGE_TYPE, new SimpleDomainEventStream(new GenericDomainEventMessage<CurrencyPairRemovedEvent>(
+        exchangeId.getIdentifier(), exchangeSequenceNumber++, new CurrencyPairRemovedEvent(exchangeId, new CurrencyPairId("LTC/USD")))));
+
+    // Act
+    ReadModelReplay replay = new ReadModelReplay(eventStore, 2);
+    Map<String, ReadModelPartition> partitions = byCurrencyPair(replay.replay());
+
+    // Assert
+    assertThat(replay.getEventCount()).isEqualTo(3);
+    assertThat(partitions.get("BTC/USD").getQuote()).isNotNull();
+    assertThat(partitions.get("BTC/USD").getMarketDepth().getBidDepthData().getPriceLevels()).isEmpty();
+    assertThat(partitions.get("LTC/USD").getQuote()).isNull();
+  }
+
+  @Test
+  public void testConstructor_rejectsNoWorkers() {
+    // Arrange
+    thrown.expect(IllegalArgumentException.class);
+
+    // Act
+    new ReadModelReplay(eventStore, 0);
+  }
+
+  /**
+   * Leaves an ask of 3 at 10.05 and a bid of 1 at 10.00, after a trade, a partial fill and a cancellation
+   */
+  private void trade(String ticker) throws Exception {
+    CurrencyPairId currencyPairId = register(ticker);
+    MatchingEngine matchingEngine = new MatchingEngine(exchangeId, currencyPairId, new CurrencyId(ticker.substring(0, 3)), new CurrencyId(ticker.substring(4)), null);
+    placeOrder(matchingEngine, ticker, "Seller1", "Sell", "5", "10.00");
+    placeOrder(matchingEngine, ticker, "Seller2", "Sell", "3", "10.05");
+    OrderId cancelled = placeOrder(matchingEngine, ticker, "Buyer1", "Buy", "2", "9.90");
+    placeOrder(matchingEngine, ticker, "Buyer2", "Buy", "6", "10.00");
+    matchingEngine.cancelOrder(new CancelOrderCommand(exchangeId, currencyPairId, cancelled));
+
+    eventStore.appendEvents(MATCHING_ENGINE_TYPE, matchingEngine.getUncommittedEvents());
+    matchingEngine.commitEvents();
+  }
+
+  private CurrencyPairId register(String ticker) {
+    CurrencyPairId currencyPairId = new CurrencyPairId(ticker);
+    CurrencyPairRegisteredEvent registered = new CurrencyPairRegisteredEvent(exchangeId, currencyPairId, new CurrencyId(ticker.substring(0, 3)), new CurrencyId(ticker.substring(4)));
+    eventStore.appendEvents(EXCHANGE_TYPE, new SimpleDomainEventStream(
+        new GenericDomainEventMessage<CurrencyPairRegisteredEvent>(exchangeId.getIdentifier(), exchangeSequenceNumber++, registered)));
+    return currencyPairId;
+  }
+
+  private OrderId placeOrder(MatchingEngine matchingEngine, String ticker, String broker, String side, String quantity, String price) throws Exception {
+    OrderId orderId = new OrderId();
+    matchingEngine.placeOrder(new PlaceOrderCommand(exchangeId, orderId, new OrderDescriptor(broker, side, quantity, ticker, price)));
+    return orderId;
+  }
+
+  private static Map<String, ReadModelPartition> byCurrencyPair(Collection<ReadModelPartition> partitions) {
+    Map<String, ReadModelPartition> byCurrencyPair = Maps.newHashMap();
+    for (ReadModelPartition partition : partitions) {
+      byCurrencyPair.put(partition.getKey().getCurrencyPairId(), partition);
+    }
+    return byCurrencyPair;
+  }
+}
@@ -0,0 +1,169 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.snapshot;
+
+import com.google.common.collect.Lists;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>JMH benchmark of loading a {@link MatchingEngine} as its repository does, from its stored events:</p>
+ * <ul>
+ * <li>historyOrders: the number of orders placed since the engine was created</li>
+ * <li>snapshots: whether loading starts from a snapshot taken {@link #TAIL_ORDERS} orders before the end</li>
+ * </ul>
+ *
+ * <p>The events and snapshot are held serialized by the XStream serializer the event stores use, so every load
+ * deserializes and applies them. Without snapshots the time grows with the whole history; with them it depends
+ * only on the resting orders and the events since the snapshot.</p>
+ *
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregateLoadBenchmark {
+
+  private static final String TICKER = "BTC/USD";
+
+  private static final int TAIL_ORDERS = 100;
+
+  @Param({"1000", "10000", "50000"})
+  private int historyOrders;
+
+  @Param({"false", "true"})
+  private boolean snapshots;
+
+  private final XStreamSerializer serializer = new XStreamSerializer();
+
+  private final MatchingEngineAggregateFactory aggregateFactory = new MatchingEngineAggregateFactory();
+
+  private Object aggregateIdentifier;
+
+  private List<StoredEvent> storedEvents;
+
+  @Setup
+  public void setUp() throws Exception {
+    MatchingEngine matchingEngine = new MatchingEngine(new ExchangeId("benchmark"), new CurrencyPairId(TICKER), new CurrencyId("BTC"), new CurrencyId("USD"), new ItemPrice("0.01"));
+    aggregateIdentifier = matchingEngine.getIdentifier();
+
+    List<DomainEventMessage> history = Lists.newArrayList();
+    commit(matchingEngine, history);
+
+    // 60% passive and 40% crossing limit orders, as in the order mix benchmark
+    Random random = new Random(42);
+    List<StoredEvent> tail = Lists.newArrayList();
+    DomainEventMessage snapshot = null;
+    for (int i = 0; i < historyOrders; i++) {
+      if (i == historyOrders - TAIL_ORDERS) {
+        snapshot = new ExchangeSnapshotter().createSnapshot(
+            MatchingEngine.class.getSimpleName(), aggregateIdentifier, new SimpleDomainEventStream(history));
+      }
+      boolean buy = random.nextBoolean();
+      int ticks = random.nextInt(10) < 6 ? 1 + random.nextInt(50) : -50;
+      int cents = buy ? 10000 - ticks : 10000 + ticks;
+      String price = String.format("%d.%02d", cents / 100, cents % 100);
+      String quantity = String.valueOf(1 + random.nextInt(5));
+      matchingEngine.placeOrder(new PlaceOrderCommand(new ExchangeId("benchmark"), new OrderId(),
+          new OrderDescriptor("Broker", buy ? "Buy" : "Sell", quantity, TICKER, price)));
+      commit(matchingEngine, (snapshot == null) ? history : null, tail);
+    }
+
+    storedEvents = Lists.newArrayList();
+    if (snapshots) {
+      storedEvents.add(store(snapshot));
+      storedEvents.addAll(tail);
+    } else {
+      for (DomainEventMessage event : history) {
+        storedEvents.add(store(event));
+      }
+      storedEvents.addAll(tail);
+    }
+  }
+
+  @Benchmark
+  public MatchingEngine load() {
+    List<DomainEventMessage> events = Lists.newArrayListWithCapacity(storedEvents.size());
+    for (StoredEvent storedEvent : storedEvents) {
+      events.add(new GenericDomainEventMessage<Object>(aggregateIdentifier, storedEvent.sequenceNumber,
+          serializer.deserialize(storedEvent.payload)));
+    }
+    DomainEventStream eventStream = new SimpleDomainEventStream(events);
+    MatchingEngine matchingEngine = aggregateFactory.createAggregate(aggregateIdentifier, eventStream.peek());
+    matchingEngine.initializeState(eventStream);
+    return matchingEngine;
+  }
+
+  private void commit(MatchingEngine matchingEngine, List<DomainEventMessage> history) {
+    commit(matchingEngine, history, null);
+  }
+
+  /**
+   * Collects the new events into the history until the snapshot is taken and into the stored tail after it
+   */
+  private void commit(MatchingEngine matchingEngine, List<DomainEventMessage> history, List<StoredEvent> tail) {
+    DomainEventStream events = matchingEngine.getUncommittedEvents();
+    while (events.hasNext()) {
+      DomainEventMessage event = events.next();
+      if (history != null) {
+        history.add(event);
+      } else {
+        tail.add(store(event));
+      }
+    }
+    matchingEngine.commitEvents();
+  }
+
+  private StoredEvent store(DomainEventMessage event) {
+    return new StoredEvent(event.getSequenceNumber(), serializer.serialize(event.getPayload(), byte[].class));
+  }
+
+  private static class StoredEvent {
+
+    private final long sequenceNumber;
+
+    private final SerializedObject<byte[]> payload;
+
+    StoredEvent(long sequenceNumber, SerializedObject<byte[]> payload) {
+      this.sequenceNumber = sequenceNumber;
+      this.payload = payload;
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(AggregateLoadBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
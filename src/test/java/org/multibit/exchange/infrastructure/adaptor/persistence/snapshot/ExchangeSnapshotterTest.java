@@ -0,0 +1,109 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.snapshot;
+
+import com.google.common.collect.Lists;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.Before;
+import org.junit.Test;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.domain.model.MatchingEngineSnapshot;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ExchangeSnapshotterTest {
+
+  private static final String TICKER = "BTC/USD";
+
+  private ExchangeId exchangeId = new ExchangeId("snapshots");
+
+  private MatchingEngine matchingEngine;
+
+  private List<DomainEventMessage> history = Lists.newArrayList();
+
+  @Before
+  public void setUp() {
+    matchingEngine = new MatchingEngine(exchangeId, new CurrencyPairId(TICKER), new CurrencyId("BTC"), new CurrencyId("USD"), new ItemPrice("0.01"));
+    commit();
+  }
+
+  @Test
+  public void testCreateSnapshot_matchingEngine() throws Exception {
+    // Arrange
+    placeOrder("Seller1", "Sell", "5", "10.01");
+    placeOrder("Seller2", "Sell", "5", "10.02");
+    placeOrder("Buyer1", "Buy", "7", "10.02");
+    placeOrder("Buyer2", "Buy", "2", "9.99");
+    commit();
+
+    // Act
+    DomainEventMessage snapshotEvent = new ExchangeSnapshotter()
+        .createSnapshot(MatchingEngine.class.getSimpleName(), matchingEngine.getIdentifier(), new SimpleDomainEventStream(history));
+
+    // Assert
+    assertThat(snapshotEvent.getSequenceNumber()).isEqualTo(matchingEngine.getVersion());
+    assertThat(snapshotEvent.getPayload()).isInstanceOf(MatchingEngineSnapshot.class);
+    MatchingEngineSnapshot snapshot = (MatchingEngineSnapshot) snapshotEvent.getPayload();
+    assertThat(snapshot.getSellOrders()).hasSize(1);
+    assertThat(snapshot.getBuyOrders()).hasSize(1);
+  }
+
+  @Test
+  public void testLoadFromSnapshotAndLaterEvents() throws Exception {
+    // Arrange
+    placeOrder("Seller1", "Sell", "5", "10.01");
+    placeOrder("Seller2", "Sell", "5", "10.02");
+    commit();
+    DomainEventMessage snapshotEvent = serializeAndDeserialize(new ExchangeSnapshotter()
+        .createSnapshot(MatchingEngine.class.getSimpleName(), matchingEngine.getIdentifier(), new SimpleDomainEventStream(history)));
+    history.clear();
+
+    placeOrder("Buyer1", "Buy", "7", "10.02");
+    commit();
+    history.add(0, snapshotEvent);
+
+    // Act
+    DomainEventStream events = new SimpleDomainEventStream(history);
+    MatchingEngine loaded = new MatchingEngineAggregateFactory().createAggregate(matchingEngine.getIdentifier(), events.peek());
+    loaded.initializeState(events);
+
+    // Assert
+    assertThat(loaded.getVersion()).isEqualTo(matchingEngine.getVersion());
+    assertThat(loaded.getDepth(Side.SELL, 10)).isEqualTo(matchingEngine.getDepth(Side.SELL, 10));
+    assertThat(loaded.getDepth(Side.BUY, 10)).isEqualTo(matchingEngine.getDepth(Side.BUY, 10));
+  }
+
+  private void placeOrder(String broker, String side, String quantity, String price) throws Exception {
+    matchingEngine.placeOrder(new PlaceOrderCommand(exchangeId, new OrderId(), new OrderDescriptor(broker, side, quantity, TICKER, price)));
+  }
+
+  private void commit() {
+    DomainEventStream events = matchingEngine.getUncommittedEvents();
+    while (events.hasNext()) {
+      history.add(events.next());
+    }
+    matchingEngine.commitEvents();
+  }
+
+  /**
+   * Snapshots are kept with the same serializer as the events in the Mongo and file system stores
+   */
+  private static DomainEventMessage serializeAndDeserialize(DomainEventMessage snapshotEvent) {
+    XStreamSerializer serializer = new XStreamSerializer();
+    SerializedObject<byte[]> payload = serializer.serialize(snapshotEvent.getPayload(), byte[].class);
+    return new GenericDomainEventMessage<Object>(snapshotEvent.getAggregateIdentifier(), snapshotEvent.getSequenceNumber(), serializer.deserialize(payload));
+  }
+}
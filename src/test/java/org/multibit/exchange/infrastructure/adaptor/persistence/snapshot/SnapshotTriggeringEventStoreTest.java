@@ -0,0 +1,122 @@
+package org.multibit.exchange.infrastructure.adaptor.persistence.snapshot;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.axonframework.eventstore.SnapshotEventStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SnapshotTriggeringEventStoreTest {
+
+  private static final String TYPE = "MatchingEngine";
+
+  private static final String AGGREGATE = "BTC/USD";
+
+  private SnapshotEventStore delegate = mock(SnapshotEventStore.class);
+
+  private Snapshotter snapshotter = mock(Snapshotter.class);
+
+  private SnapshotTriggeringEventStore eventStore;
+
+  private long sequenceNumber;
+
+  @Before
+  public void setUp() {
+    // The delegate consumes every event appended, as a real store does
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        DomainEventStream events = (DomainEventStream) invocation.getArguments()[1];
+        while (events.hasNext()) {
+          events.next();
+        }
+        return null;
+      }
+    }).when(delegate).appendEvents(anyString(), any(DomainEventStream.class));
+
+    eventStore = new SnapshotTriggeringEventStore(delegate, snapshotter, 5);
+  }
+
+  @Test
+  public void testAppendEvents_snapshotsEveryNEvents() {
+    // Arrange
+
+    // Act
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 3));
+    eventStore.appendEvents("Exchange", events("exchange", 4));
+    verify(snapshotter, never()).scheduleSnapshot(anyString(), any());
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 2));
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 4));
+
+    // Assert
+    verify(snapshotter, times(1)).scheduleSnapshot(TYPE, AGGREGATE);
+    verify(snapshotter, never()).scheduleSnapshot(eq("Exchange"), any());
+  }
+
+  @Test
+  public void testReadEvents_countsEventsSinceLastSnapshot() {
+    // Arrange
+    when(delegate.readEvents(TYPE, AGGREGATE)).thenReturn(events(AGGREGATE, 4));
+    DomainEventStream loaded = eventStore.readEvents(TYPE, AGGREGATE);
+    while (loaded.hasNext()) {
+      loaded.next();
+    }
+
+    // Act
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 1));
+
+    // Assert
+    verify(snapshotter, times(1)).scheduleSnapshot(TYPE, AGGREGATE);
+  }
+
+  @Test
+  public void testSnapshotPendingAggregates() {
+    // Arrange
+    eventStore.appendEvents(TYPE, events(AGGREGATE, 1));
+    eventStore.appendEvents("Exchange", events("exchange", 1));
+
+    // Act
+    eventStore.snapshotPendingAggregates();
+    eventStore.snapshotPendingAggregates();
+
+    // Assert
+    verify(snapshotter, times(1)).scheduleSnapshot(TYPE, AGGREGATE);
+    verify(snapshotter, times(1)).scheduleSnapshot("Exchange", "exchange");
+  }
+
+  @Test
+  public void testAppendSnapshotEvent_delegates() {
+    // Arrange
+    DomainEventMessage snapshot = new GenericDomainEventMessage<String>(AGGREGATE, 10, "snapshot");
+
+    // Act
+    eventStore.appendSnapshotEvent(TYPE, snapshot);
+
+    // Assert
+    verify(delegate).appendSnapshotEvent(TYPE, snapshot);
+    verify(snapshotter, never()).scheduleSnapshot(anyString(), any());
+  }
+
+  private DomainEventStream events(String aggregateIdentifier, int count) {
+    DomainEventMessage[] events = new DomainEventMessage[count];
+    for (int i = 0; i < count; i++) {
+      events[i] = new GenericDomainEventMessage<String>(aggregateIdentifier, sequenceNumber++, "event");
+    }
+    return new SimpleDomainEventStream(events);
+  }
+}
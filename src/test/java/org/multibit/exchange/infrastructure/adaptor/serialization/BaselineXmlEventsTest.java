@@ -0,0 +1,97 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+import com.yammer.dropwizard.testing.FixtureHelpers;
+import org.axonframework.serializer.SimpleSerializedObject;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.Test;
+import org.multibit.exchange.domain.event.LimitOrderAddedToNewPriceLevelEvent;
+import org.multibit.exchange.domain.event.MarketOrderAddedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.TopOrderPartiallyFilledEvent;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.ItemQuantity;
+import org.multibit.exchange.domain.model.LimitOrder;
+
+import java.io.IOException;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+/**
+ * <p>Reads events as XStream wrote them before prices, quantities and fills were held in units</p>
+ */
+public class BaselineXmlEventsTest {
+
+  private final XStreamSerializer xStreamSerializer = new XStreamSerializer();
+
+  private final ExchangeBinarySerializer serializer = new ExchangeBinarySerializer(xStreamSerializer);
+
+  @Test
+  public void testDeserialize_limitOrderAdded() throws Exception {
+    // Arrange
+    // Act
+    LimitOrderAddedToNewPriceLevelEvent event = deserialize("limit-order-added-to-new-price-level.xml",
+        LimitOrderAddedToNewPriceLevelEvent.class);
+
+    // Assert
+    LimitOrder order = event.getOrder();
+    assertThat(order.getInitialQuantity()).isEqualTo(new ItemQuantity("2.5"));
+    assertThat(order.getFilledQuantity().isZero()).isTrue();
+    assertThat(order.getLimitPrice()).isEqualTo(new ItemPrice("10.25"));
+    assertThat(order.getLimitPrice().compareTo(new ItemPrice("10.24"))).isGreaterThan(0);
+    assertThat(event.getPriceLevel().getUnits()).isEqualTo(new ItemPrice("10.25").getUnits());
+  }
+
+  @Test
+  public void testDeserialize_marketOrderAdded() throws Exception {
+    // Arrange
+    // Act
+    MarketOrderAddedEvent event = deserialize("market-order-added.xml", MarketOrderAddedEvent.class);
+
+    // Assert
+    assertThat(event.getOrder().getUnfilledQuantity()).isEqualTo(new ItemQuantity("1"));
+  }
+
+  @Test
+  public void testDeserialize_topOrderPartiallyFilled() throws Exception {
+    // Arrange
+    // Act
+    TopOrderPartiallyFilledEvent event = deserialize("top-order-partially-filled.xml", TopOrderPartiallyFilledEvent.class);
+
+    // Assert
+    assertThat(event.getTrade().getPrice()).isEqualTo(new ItemPrice("10.25"));
+    assertThat(event.getTrade().getQuantity()).isEqualTo(new ItemQuantity("0.5"));
+    assertThat(event.getTrade().getQuantity().getRaw()).isEqualTo("0.5");
+  }
+
+  @Test
+  public void testDeserialize_orderCancelledKeepsItsFill() throws Exception {
+    // Arrange
+    // Act
+    OrderCancelledEvent event = deserialize("order-cancelled.xml", OrderCancelledEvent.class);
+
+    // Assert
+    assertThat(event.getOrder().getFilledQuantity()).isEqualTo(new ItemQuantity("0.5"));
+    assertThat(event.getOrder().getUnfilledQuantity()).isEqualTo(new ItemQuantity("2"));
+  }
+
+  @Test
+  public void testSerialize_writesOnlyTheCurrentForm() throws Exception {
+    // Arrange
+    OrderCancelledEvent event = deserialize("order-cancelled.xml", OrderCancelledEvent.class);
+
+    // Act
+    String xml = xStreamSerializer.serialize(event, String.class).getData();
+
+    // Assert
+    assertThat(xml).contains("<filledUnits>50000000</filledUnits>");
+    assertThat(xml).doesNotContain("<filledQuantity>").doesNotContain("<quantity>");
+  }
+
+  /**
+   * Through the binary serializer, which reads XML stored before it was introduced
+   */
+  private <T> T deserialize(String fixture, Class<T> type) throws IOException {
+    String xml = FixtureHelpers.fixture("fixtures/events/baseline/" + fixture);
+    return serializer.deserialize(new SimpleSerializedObject<String>(xml, String.class, type.getName(), null));
+  }
+}
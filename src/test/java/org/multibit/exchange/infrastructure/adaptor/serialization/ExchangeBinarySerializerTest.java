@@ -0,0 +1,249 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+import com.google.common.collect.ImmutableList;
+import com.thoughtworks.xstream.XStream;
+import org.axonframework.domain.MetaData;
+import org.axonframework.serializer.SerializationException;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.SimpleSerializedObject;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.multibit.exchange.domain.event.CurrencyPairRegisteredEvent;
+import org.multibit.exchange.domain.event.CurrencyPairRemovedEvent;
+import org.multibit.exchange.domain.event.ExchangeCreatedEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedToExistingPriceLevelEvent;
+import org.multibit.exchange.domain.event.LimitOrderAddedToNewPriceLevelEvent;
+import org.multibit.exchange.domain.event.MarketOrderAddedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineClosedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineCreatedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineMigratedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineReopenedEvent;
+import org.multibit.exchange.domain.event.OrderCancelledEvent;
+import org.multibit.exchange.domain.event.PriceLevelCompletelyFilledEvent;
+import org.multibit.exchange.domain.event.TopOrderCompletelyFilledEvent;
+import org.multibit.exchange.domain.event.TopOrderPartiallyFilledEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.ItemQuantity;
+import org.multibit.exchange.domain.model.LimitOrder;
+import org.multibit.exchange.domain.model.MarketOrder;
+import org.multibit.exchange.domain.model.MatchingEngineSnapshot;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.domain.model.Ticker;
+import org.multibit.exchange.domain.model.Trade;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.BatchPlaceOrdersCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CancelOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CreateExchangeCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CloseMatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.MatchingEngineId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OpenMatchingEngineCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.RegisterCurrencyPairCommand;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.RemoveCurrencyPairCommand;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ExchangeBinarySerializerTest {
+
+  private static final ExchangeId EXCHANGE_ID = new ExchangeId("exchange");
+
+  private static final CurrencyPairId CURRENCY_PAIR_ID = new CurrencyPairId("BTC/USD");
+
+  private static final Ticker TICKER = new Ticker("BTC/USD");
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private final XStreamSerializer xStreamSerializer = new XStreamSerializer();
+
+  private final ExchangeBinarySerializer serializer = new ExchangeBinarySerializer(xStreamSerializer);
+
+  private final XStreamSerializer xmlWithoutReferences = new XStreamSerializer(xStreamWithoutReferences());
+
+  @Test
+  public void testRoundTrip_everyMessage() {
+    // Arrange
+    LimitOrder buyOrder = limitOrder(Side.BUY, "9.99");
+    LimitOrder partlyFilledSellOrder = (LimitOrder) limitOrder(Side.SELL, "10.01").decreasedBy(new ItemQuantity("0.5"));
+    MarketOrder marketOrder = new MarketOrder(new OrderId(), "Broker3", Side.SELL, new ItemQuantity("2"), TICKER);
+    Trade trade = new Trade(CURRENCY_PAIR_ID, "Broker1", "Broker2", new ItemPrice("10.01"), new ItemQuantity("0.5"));
+    ItemPrice tickSize = new ItemPrice("0.01");
+    OrderDescriptor orderDescriptor = new OrderDescriptor("Broker1", "Buy", "1.5", "BTC/USD", "9.99");
+
+    List<Object> messages = ImmutableList.of(
+        new ExchangeCreatedEvent(EXCHANGE_ID),
+        new CurrencyPairRegisteredEvent(EXCHANGE_ID, CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD"), tickSize),
+        new CurrencyPairRegisteredEvent(EXCHANGE_ID, CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD")),
+        new CurrencyPairRemovedEvent(EXCHANGE_ID, CURRENCY_PAIR_ID),
+        new MatchingEngineCreatedEvent(EXCHANGE_ID, CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD"), tickSize),
+        new MatchingEngineClosedEvent(EXCHANGE_ID, CURRENCY_PAIR_ID),
+        new MatchingEngineReopenedEvent(EXCHANGE_ID, CURRENCY_PAIR_ID),
+        new MatchingEngineMigratedEvent(EXCHANGE_ID, CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD"), tickSize,
+            ImmutableList.of(buyOrder), ImmutableList.of(partlyFilledSellOrder)),
+        new LimitOrderAddedEvent(EXCHANGE_ID, buyOrder),
+        new LimitOrderAddedToNewPriceLevelEvent(EXCHANGE_ID, buyOrder, buyOrder.getLimitPrice()),
+        new LimitOrderAddedToExistingPriceLevelEvent(EXCHANGE_ID, partlyFilledSellOrder, partlyFilledSellOrder.getLimitPrice()),
+        new MarketOrderAddedEvent(EXCHANGE_ID, TICKER, Side.SELL, marketOrder),
+        new OrderCancelledEvent(EXCHANGE_ID, partlyFilledSellOrder, "cancelled by broker"),
+        new OrderCancelledEvent(EXCHANGE_ID, marketOrder, null),
+        new TradeExecutedEvent(EXCHANGE_ID, trade, Side.SELL),
+        new TopOrderPartiallyFilledEvent(EXCHANGE_ID, Side.SELL, trade.getPrice(), trade),
+        new TopOrderCompletelyFilledEvent(EXCHANGE_ID, Side.SELL, trade.getPrice(), trade),
+        new PriceLevelCompletelyFilledEvent(EXCHANGE_ID, Side.SELL, trade.getPrice(), trade),
+        new MatchingEngineSnapshot(new MatchingEngineId(EXCHANGE_ID, CURRENCY_PAIR_ID), EXCHANGE_ID, CURRENCY_PAIR_ID,
+            new CurrencyId("BTC"), new CurrencyId("USD"), tickSize,
+            ImmutableList.of(buyOrder), ImmutableList.of(partlyFilledSellOrder)),
+        new MatchingEngineSnapshot(new MatchingEngineId(EXCHANGE_ID, CURRENCY_PAIR_ID), EXCHANGE_ID, CURRENCY_PAIR_ID,
+            new CurrencyId("BTC"), new CurrencyId("USD"), null, ImmutableList.<LimitOrder>of(), ImmutableList.<LimitOrder>of(), true),
+        new CreateExchangeCommand(EXCHANGE_ID),
+        new RegisterCurrencyPairCommand(EXCHANGE_ID, CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD"), tickSize),
+        new RemoveCurrencyPairCommand(EXCHANGE_ID, CURRENCY_PAIR_ID),
+        new OpenMatchingEngineCommand(EXCHANGE_ID, CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD"), tickSize),
+        new CloseMatchingEngineCommand(EXCHANGE_ID, CURRENCY_PAIR_ID),
+        new PlaceOrderCommand(EXCHANGE_ID, new OrderId(), orderDescriptor),
+        new BatchPlaceOrdersCommand(EXCHANGE_ID, ImmutableList.of(new OrderId(), new OrderId()),
+            ImmutableList.of(orderDescriptor, orderDescriptor.withSide("Sell").withPrice("M"))),
+        new CancelOrderCommand(EXCHANGE_ID, CURRENCY_PAIR_ID, new OrderId())
+    );
+
+    for (Object message : messages) {
+      // Act
+      SerializedObject<byte[]> serialized = serializer.serialize(message, byte[].class);
+      Object deserialized = serializer.deserialize(serialized);
+
+      // Assert
+      assertThat(serialized.getType().getRevision()).isEqualTo("binary-" + ExchangeBinarySerializer.SCHEMA_VERSION);
+      assertThat((Object) deserialized.getClass()).isEqualTo(message.getClass());
+      // XStream writes every field, so equal XML means every field came back equal
+      assertThat(toXml(deserialized)).isEqualTo(toXml(message));
+    }
+  }
+
+  @Test
+  public void testSerialize_isSmallerThanXml() {
+    // Arrange
+    Trade trade = new Trade(CURRENCY_PAIR_ID, "Broker1", "Broker2", new ItemPrice("10.01"), new ItemQuantity("0.5"));
+    LimitOrderAddedToNewPriceLevelEvent event = new LimitOrderAddedToNewPriceLevelEvent(EXCHANGE_ID, limitOrder(Side.BUY, "9.99"), new ItemPrice("9.99"));
+
+    // Act
+    int tradeBytes = serializer.serialize(new TopOrderPartiallyFilledEvent(EXCHANGE_ID, Side.SELL, trade.getPrice(), trade), byte[].class).getData().length;
+    int orderBytes = serializer.serialize(event, byte[].class).getData().length;
+
+    // Assert
+    assertThat(tradeBytes * 5).isLessThan(xStreamSerializer.serialize(new TopOrderPartiallyFilledEvent(EXCHANGE_ID, Side.SELL, trade.getPrice(), trade), byte[].class).getData().length);
+    assertThat(orderBytes * 5).isLessThan(xStreamSerializer.serialize(event, byte[].class).getData().length);
+  }
+
+  @Test
+  public void testRoundTrip_asString() {
+    // Arrange
+    OrderCancelledEvent event = new OrderCancelledEvent(EXCHANGE_ID, limitOrder(Side.BUY, "9.99"), "ünïcödé reason");
+
+    // Act
+    SerializedObject<String> serialized = serializer.serialize(event, String.class);
+    Object deserialized = serializer.deserialize(serialized);
+
+    // Assert
+    assertThat(toXml(deserialized)).isEqualTo(toXml(event));
+  }
+
+  @Test
+  public void testDeserialize_readsMessagesStoredAsXml() {
+    // Arrange
+    ExchangeCreatedEvent event = new ExchangeCreatedEvent(EXCHANGE_ID);
+    SerializedObject<String> storedAsXml = xStreamSerializer.serialize(event, String.class);
+
+    // Act
+    ExchangeCreatedEvent deserialized = serializer.deserialize(storedAsXml);
+
+    // Assert
+    assertThat(deserialized.getExchangeId()).isEqualTo(EXCHANGE_ID);
+  }
+
+  @Test
+  public void testSerialize_fallsBackForOtherTypes() {
+    // Arrange
+    MetaData metaData = MetaData.from(Collections.singletonMap("broker", "Broker1"));
+
+    // Act
+    SerializedObject<byte[]> serialized = serializer.serialize(metaData, byte[].class);
+    MetaData deserialized = serializer.deserialize(serialized);
+
+    // Assert
+    assertThat(serialized.getType().getRevision()).isNull();
+    assertThat(deserialized).isEqualTo(metaData);
+  }
+
+  @Test
+  public void testDeserialize_identifiersAreShared() {
+    // Arrange
+    SerializedObject<byte[]> serialized = serializer.serialize(new ExchangeCreatedEvent(EXCHANGE_ID), byte[].class);
+
+    // Act
+    ExchangeCreatedEvent first = serializer.deserialize(serialized);
+    ExchangeCreatedEvent second = serializer.deserialize(serialized);
+
+    // Assert
+    assertThat(first.getExchangeId()).isSameAs(second.getExchangeId());
+  }
+
+  @Test
+  public void testDeserialize_snapshotOfSchemaVersion1IsOpen() {
+    // Arrange
+    MatchingEngineSnapshot snapshot = new MatchingEngineSnapshot(new MatchingEngineId(EXCHANGE_ID, CURRENCY_PAIR_ID),
+        EXCHANGE_ID, CURRENCY_PAIR_ID, new CurrencyId("BTC"), new CurrencyId("USD"), null,
+        ImmutableList.of(limitOrder(Side.BUY, "9.99")), ImmutableList.<LimitOrder>of(), true);
+    SerializedObject<byte[]> serialized = serializer.serialize(snapshot, byte[].class);
+    // Version 1 ended before the closed flag
+    byte[] version1 = Arrays.copyOf(serialized.getData(), serialized.getData().length - 1);
+
+    // Act
+    MatchingEngineSnapshot deserialized = serializer.deserialize(
+        new SimpleSerializedObject<byte[]>(version1, byte[].class, serialized.getType().getName(), "binary-1"));
+
+    // Assert
+    assertThat(deserialized.isClosed()).isFalse();
+    assertThat(deserialized.getBuyOrders()).hasSize(1);
+  }
+
+  @Test
+  public void testDeserialize_newerSchemaVersion() {
+    // Arrange
+    SerializedObject<byte[]> serialized = serializer.serialize(new ExchangeCreatedEvent(EXCHANGE_ID), byte[].class);
+    SerializedObject<byte[]> newer = new SimpleSerializedObject<byte[]>(serialized.getData(), byte[].class,
+        serialized.getType().getName(), "binary-" + (ExchangeBinarySerializer.SCHEMA_VERSION + 1));
+
+    thrown.expect(SerializationException.class);
+    thrown.expectMessage("schema version");
+
+    // Act
+    serializer.deserialize(newer);
+  }
+
+  private String toXml(Object message) {
+    // Without references, so equal values held once or twice give the same XML
+    return xmlWithoutReferences.serialize(message, String.class).getData();
+  }
+
+  private static XStream xStreamWithoutReferences() {
+    XStream xStream = new XStream();
+    xStream.setMode(XStream.NO_REFERENCES);
+    return xStream;
+  }
+
+  private static LimitOrder limitOrder(Side side, String price) {
+    return new LimitOrder(new OrderId(), "Broker1", side, new ItemQuantity("1.5"), TICKER, new ItemPrice(price));
+  }
+}
@@ -0,0 +1,124 @@
+package org.multibit.exchange.infrastructure.adaptor.serialization;
+
+import com.google.common.collect.Lists;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.Serializer;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.multibit.exchange.domain.model.ItemPrice;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>JMH comparison of the {@link ExchangeBinarySerializer} against XStream, the format the event stores used
+ * before it:</p>
+ * <ul>
+ * <li>format: the serializer measured</li>
+ * <li>serialize / deserialize: the cost per event of the event mix a {@link MatchingEngine} produces for 60%
+ * passive and 40% crossing limit orders</li>
+ * </ul>
+ *
+ * <p>The mean size of an event in each format is printed during setup.</p>
+ *
+ * @since 0.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+  private static final String TICKER = "BTC/USD";
+
+  private static final int ORDERS = 1000;
+
+  @Param({"XSTREAM", "BINARY"})
+  private String format;
+
+  private Serializer serializer;
+
+  private List<Object> events;
+
+  private List<SerializedObject<byte[]>> serializedEvents;
+
+  private int next;
+
+  @Setup
+  public void setUp() throws Exception {
+    XStreamSerializer xStreamSerializer = new XStreamSerializer();
+    serializer = format.equals("BINARY") ? new ExchangeBinarySerializer(xStreamSerializer) : xStreamSerializer;
+
+    ExchangeId exchangeId = new ExchangeId("benchmark");
+    MatchingEngine matchingEngine = new MatchingEngine(exchangeId, new CurrencyPairId(TICKER), new CurrencyId("BTC"), new CurrencyId("USD"), new ItemPrice("0.01"));
+    Random random = new Random(42);
+    for (int i = 0; i < ORDERS; i++) {
+      boolean buy = random.nextBoolean();
+      int ticks = random.nextInt(10) < 6 ? 1 + random.nextInt(50) : -50;
+      int cents = buy ? 10000 - ticks : 10000 + ticks;
+      matchingEngine.placeOrder(new PlaceOrderCommand(exchangeId, new OrderId(), new OrderDescriptor(
+          "Broker" + random.nextInt(20), buy ? "Buy" : "Sell", String.valueOf(1 + random.nextInt(5)), TICKER,
+          String.format("%d.%02d", cents / 100, cents % 100))));
+    }
+
+    events = Lists.newArrayList();
+    DomainEventStream uncommitted = matchingEngine.getUncommittedEvents();
+    while (uncommitted.hasNext()) {
+      events.add(uncommitted.next().getPayload());
+    }
+
+    long bytes = 0;
+    serializedEvents = Lists.newArrayListWithCapacity(events.size());
+    for (Object event : events) {
+      SerializedObject<byte[]> serialized = serializer.serialize(event, byte[].class);
+      serializedEvents.add(serialized);
+      bytes += serialized.getData().length;
+    }
+    System.out.printf("%n%s: %d events, %d bytes per event%n", format, events.size(), bytes / events.size());
+  }
+
+  @Benchmark
+  public SerializedObject<byte[]> serialize() {
+    return serializer.serialize(events.get(nextIndex()), byte[].class);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(serializedEvents.get(nextIndex()));
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % events.size();
+    return next;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(SerializerBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
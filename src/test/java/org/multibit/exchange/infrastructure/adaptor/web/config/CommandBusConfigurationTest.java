@@ -0,0 +1,110 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import org.axonframework.commandhandling.disruptor.DisruptorConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class CommandBusConfigurationTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private final ObjectMapper yaml = new ObjectMapper(new YAMLFactory());
+
+  private final Executor executor = MoreExecutors.sameThreadExecutor();
+
+  @Test
+  public void testDefaults() {
+    // Arrange
+    CommandBusConfiguration configuration = new CommandBusConfiguration();
+
+    // Act
+    DisruptorConfiguration disruptorConfiguration = configuration.newDisruptorConfiguration(executor);
+
+    // Assert
+    assertThat(configuration.getProfile()).isEqualTo(CommandBusConfiguration.Profile.DEFAULT);
+    assertThat(disruptorConfiguration.getBufferSize()).isEqualTo(CommandBusConfiguration.DEFAULT_BUFFER_SIZE);
+    assertThat(disruptorConfiguration.getWaitStrategy()).isInstanceOf(BlockingWaitStrategy.class);
+    assertThat(disruptorConfiguration.getInvokerThreadCount()).isEqualTo(Runtime.getRuntime().availableProcessors());
+    assertThat(disruptorConfiguration.getPublisherThreadCount()).isEqualTo(1);
+    assertThat(disruptorConfiguration.getExecutor()).isSameAs(executor);
+  }
+
+  @Test
+  public void testProfile_lowLatency() throws Exception {
+    // Arrange
+    CommandBusConfiguration configuration = yaml.readValue("profile: LOW_LATENCY", CommandBusConfiguration.class);
+
+    // Act
+    DisruptorConfiguration disruptorConfiguration = configuration.newDisruptorConfiguration(executor);
+
+    // Assert
+    assertThat(disruptorConfiguration.getWaitStrategy()).isInstanceOf(BusySpinWaitStrategy.class);
+  }
+
+  @Test
+  public void testProfile_settingsOverrideProfile() throws Exception {
+    // Arrange
+    String settings = "profile: LOW_CPU\n" +
+        "bufferSize: 1024\n" +
+        "waitStrategy: BUSY_SPIN\n" +
+        "invokerThreads: 3\n" +
+        "publisherThreads: 2\n";
+
+    // Act
+    CommandBusConfiguration configuration = yaml.readValue(settings, CommandBusConfiguration.class);
+
+    // Assert
+    assertThat(configuration.getWaitStrategy()).isEqualTo(CommandBusConfiguration.Strategy.BUSY_SPIN);
+    assertThat(configuration.getInvokerThreads()).isEqualTo(3);
+
+    DisruptorConfiguration disruptorConfiguration = configuration.newDisruptorConfiguration(executor);
+    assertThat(disruptorConfiguration.getBufferSize()).isEqualTo(1024);
+    assertThat(disruptorConfiguration.getInvokerThreadCount()).isEqualTo(3);
+    assertThat(disruptorConfiguration.getPublisherThreadCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testBufferSize_mustBePowerOfTwo() throws Exception {
+    // Arrange
+    CommandBusConfiguration configuration = yaml.readValue("bufferSize: 1000", CommandBusConfiguration.class);
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("bufferSize must be a power of 2");
+
+    // Act
+    configuration.newDisruptorConfiguration(executor);
+  }
+
+  @Test
+  public void testNewExecutor_namesBusThreads() throws Exception {
+    // Arrange
+    CommandBusConfiguration configuration = new CommandBusConfiguration();
+    ExecutorService busExecutor = configuration.newExecutor();
+    final AtomicReference<String> threadName = new AtomicReference<>();
+
+    // Act
+    busExecutor.submit(new Runnable() {
+      @Override
+      public void run() {
+        threadName.set(Thread.currentThread().getName());
+      }
+    }).get();
+    busExecutor.shutdown();
+
+    // Assert
+    assertThat(threadName.get()).startsWith("command-bus-");
+  }
+}
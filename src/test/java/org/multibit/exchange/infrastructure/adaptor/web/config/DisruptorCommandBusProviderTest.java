@@ -0,0 +1,54 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import org.axonframework.commandhandling.disruptor.DisruptorCommandBus;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.multibit.exchange.testing.InMemoryEventStore;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class DisruptorCommandBusProviderTest {
+
+  private DisruptorCommandBusProvider provider;
+
+  @Before
+  public void setUp() {
+    provider = new DisruptorCommandBusProvider(new InMemoryEventStore(), new SimpleEventBus(), new CommandBusConfiguration());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    provider.stop();
+  }
+
+  @Test
+  public void testGet_returnsTheOneCommandBus() {
+    // Arrange
+    // Act
+    DisruptorCommandBus commandBus = provider.get();
+
+    // Assert
+    assertThat(provider.get()).isSameAs(commandBus);
+  }
+
+  @Test
+  public void testStop_stopsTheCommandBusThreads() throws Exception {
+    // Arrange
+    provider.get();
+
+    // Act
+    provider.stop();
+
+    // Assert
+    Thread[] threads = new Thread[Thread.activeCount() * 2];
+    int count = Thread.enumerate(threads);
+    for (int i = 0; i < count; i++) {
+      if (threads[i].getName().startsWith("command-bus-")) {
+        threads[i].join(5000);
+        assertThat(threads[i].isAlive()).isFalse();
+      }
+    }
+  }
+}
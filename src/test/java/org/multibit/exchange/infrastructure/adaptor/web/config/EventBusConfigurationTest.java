@@ -0,0 +1,109 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.collect.Lists;
+import org.axonframework.domain.GenericEventMessage;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.axonframework.eventhandling.annotation.AnnotationEventListenerAdapter;
+import org.axonframework.eventhandling.annotation.EventHandler;
+import org.junit.After;
+import org.junit.Test;
+import org.multibit.exchange.infrastructure.adaptor.eventbus.QueuedCluster;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class EventBusConfigurationTest {
+
+  private final ObjectMapper yaml = new ObjectMapper(new YAMLFactory());
+
+  private final List<QueuedCluster> clusters = Lists.newArrayList();
+
+  @After
+  public void tearDown() {
+    for (QueuedCluster cluster : clusters) {
+      cluster.close();
+    }
+  }
+
+  @Test
+  public void testDefaults() {
+    // Arrange
+    EventBusConfiguration configuration = new EventBusConfiguration();
+
+    // Act
+    EventBus eventBus = configuration.newEventBus(clusters);
+
+    // Assert
+    assertThat(eventBus).isNotInstanceOf(SimpleEventBus.class);
+    assertThat(configuration.getGroups()).hasSize(4);
+    assertThat(clusters).hasSize(4);
+    assertThat(configuration.getGroups().get(2).getBackPressure()).isEqualTo(QueuedCluster.BackPressure.DROP);
+  }
+
+  @Test
+  public void testType_simple() throws Exception {
+    // Arrange
+    EventBusConfiguration configuration = yaml.readValue("type: SIMPLE", EventBusConfiguration.class);
+
+    // Act
+    EventBus eventBus = configuration.newEventBus(clusters);
+
+    // Assert
+    assertThat(eventBus).isInstanceOf(SimpleEventBus.class);
+  }
+
+  @Test
+  public void testGroups_groupedListenersLeaveThePublishingThread() throws Exception {
+    // Arrange
+    String settings = "groups:\n" +
+        "  - name: test-grouped\n" +
+        "    listeners: [" + GroupedListener.class.getName() + "]\n" +
+        "    queueSize: 16\n" +
+        "    backPressure: DROP\n" +
+        "    maxRetries: 0\n" +
+        "    retryDelay: 10ms\n";
+    EventBusConfiguration configuration = yaml.readValue(settings, EventBusConfiguration.class);
+    EventBus eventBus = configuration.newEventBus(clusters);
+    GroupedListener grouped = new GroupedListener();
+    UngroupedListener ungrouped = new UngroupedListener();
+    AnnotationEventListenerAdapter.subscribe(grouped, eventBus);
+    AnnotationEventListenerAdapter.subscribe(ungrouped, eventBus);
+
+    // Act
+    eventBus.publish(new GenericEventMessage<String>("traded"));
+
+    // Assert
+    assertThat(configuration.getGroups().get(0).getRetryDelay().toMilliseconds()).isEqualTo(10);
+    assertThat(ungrouped.threads.poll()).isSameAs(Thread.currentThread());
+    Thread groupThread = grouped.threads.poll(5, TimeUnit.SECONDS);
+    assertThat(groupThread).isNotNull();
+    assertThat(groupThread.getName()).startsWith("event-group-test-grouped");
+  }
+
+  public static class GroupedListener {
+
+    private final BlockingQueue<Thread> threads = new ArrayBlockingQueue<Thread>(1);
+
+    @EventHandler
+    public void handle(String event) {
+      threads.offer(Thread.currentThread());
+    }
+  }
+
+  public static class UngroupedListener {
+
+    private final BlockingQueue<Thread> threads = new ArrayBlockingQueue<Thread>(1);
+
+    @EventHandler
+    public void handle(String event) {
+      threads.offer(Thread.currentThread());
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package org.multibit.exchange.infrastructure.adaptor.web.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.collect.Lists;
+import org.axonframework.domain.GenericEventMessage;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.annotation.AnnotationEventListenerAdapter;
+import org.axonframework.eventhandling.annotation.EventHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class EventBusProviderTest {
+
+  private EventBusProvider provider;
+
+  @Before
+  public void setUp() throws Exception {
+    String settings = "groups:\n" +
+        "  - name: test-slow\n" +
+        "    listeners: [" + SlowListener.class.getName() + "]\n" +
+        "    queueSize: 16\n";
+    provider = new EventBusProvider(new ObjectMapper(new YAMLFactory()).readValue(settings, EventBusConfiguration.class));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    provider.stop();
+  }
+
+  @Test
+  public void testGet_returnsTheOneEventBus() {
+    // Arrange
+    // Act
+    EventBus eventBus = provider.get();
+
+    // Assert
+    assertThat(provider.get()).isSameAs(eventBus);
+  }
+
+  @Test
+  public void testStop_handlesTheQueuedEvents() throws Exception {
+    // Arrange
+    SlowListener listener = new SlowListener();
+    AnnotationEventListenerAdapter.subscribe(listener, provider.get());
+    for (int i = 0; i < 10; i++) {
+      provider.get().publish(new GenericEventMessage<String>("event-" + i));
+    }
+
+    // Act
+    provider.stop();
+
+    // Assert
+    assertThat(listener.handled).hasSize(10);
+  }
+
+  public static class SlowListener {
+
+    private final List<String> handled = Collections.synchronizedList(Lists.<String>newArrayList());
+
+    @EventHandler
+    public void handle(String event) throws InterruptedException {
+      Thread.sleep(10);
+      handled.add(event);
+    }
+  }
+}
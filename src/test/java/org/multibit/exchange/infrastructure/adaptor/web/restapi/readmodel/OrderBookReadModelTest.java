@@ -127,4 +127,35 @@ public class OrderBookReadModelTest {
     assertThat(orderBookReadModel.getOpenOrders().size()).isEqualTo(expectedOpenOrders);
     assertThat(orderBookReadModel.getPriceLevels().size()).isEqualTo(expectedPriceLevels);
   }
+
+  @Test
+  public void getUnfilledQuantity_TwoLevelsExist() {
+    // Arrange
+    Side side = SideFaker.createValid();
+    OrderBookReadModel orderBookReadModel = new OrderBookReadModel(side);
+    ItemPrice priceLevel1 = new ItemPrice("567.32");
+    ItemQuantity quantity1 = new ItemQuantity("55.4444");
+    LimitOrder order1 = (LimitOrder) OrderFactory.createOrderFromDescriptor(OrderDescriptorFaker
+        .createValidLimitOrder()
+        .withPrice(priceLevel1.getRaw())
+        .withQty(quantity1.getRaw()));
+
+    ItemPrice priceLevel2 = new ItemPrice("7000");
+    ItemQuantity quantity2 = new ItemQuantity("700");
+    LimitOrder order2 = (LimitOrder) OrderFactory.createOrderFromDescriptor(OrderDescriptorFaker
+        .createValidLimitOrder()
+        .withPrice(priceLevel2.getRaw())
+        .withQty(quantity2.getRaw()));
+
+    orderBookReadModel.addNewPriceLevel(order1.getLimitPrice(), order1);
+    orderBookReadModel.addNewPriceLevel(order2.getLimitPrice(), order2);
+
+    // Act
+    BigDecimal unfilledQuantity1 = orderBookReadModel.getUnfilledQuantity(priceLevel1);
+    BigDecimal unfilledQuantity2 = orderBookReadModel.getUnfilledQuantity(priceLevel2);
+
+    // Assert
+    assertThat(unfilledQuantity1).isEqualByComparingTo(quantity1.getQuantity());
+    assertThat(unfilledQuantity2).isEqualByComparingTo(quantity2.getQuantity());
+  }
 }
@@ -1,9 +1,11 @@
 package org.multibit.exchange.infrastructure.adaptor.web.restapi.resources;
 
 import org.junit.Test;
+import org.multibit.exchange.domain.model.ItemPrice;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairDescriptor;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
 import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.CurrencyPairListViewModel;
 import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.CurrencyPairReadModel;
 
@@ -27,7 +29,34 @@ public class CurrencyPairsResourceTest extends BaseResourceTest {
     currencyPairsResource.add(getExchangeIdName(), cpd);
 
     // Assert
-    verify(exchangeService, times(1)).registerCurrencyPair(fixture.getExchangeId(), currencyPairId, baseCurrencyId, counterCurrencyId);
+    verify(exchangeService, times(1)).registerCurrencyPair(fixture.getExchangeId(), currencyPairId, baseCurrencyId, counterCurrencyId, null);
+  }
+
+  @Test
+  public void testAddCurrencyPair_WithTickSize() {
+    // Arrange
+    final CurrencyPairDescriptor cpd = new CurrencyPairDescriptor("BTC", "USD", "0.01");
+    CurrencyPairId currencyPairId = new CurrencyPairId(cpd.getSymbol());
+    CurrencyId baseCurrencyId = new CurrencyId(cpd.getBaseCurrency());
+    CurrencyId counterCurrencyId = new CurrencyId(cpd.getCounterCurrency());
+
+    // Act
+    currencyPairsResource.add(getExchangeIdName(), cpd);
+
+    // Assert
+    verify(exchangeService, times(1)).registerCurrencyPair(fixture.getExchangeId(), currencyPairId, baseCurrencyId, counterCurrencyId, new ItemPrice("0.01"));
+  }
+
+  @Test
+  public void testCancelOrder() {
+    // Arrange
+    String orderId = "order-1";
+
+    // Act
+    currencyPairsResource.cancelOrder(getExchangeIdName(), "btc", "usd", orderId);
+
+    // Assert
+    verify(exchangeService, times(1)).cancelOrder(fixture.getExchangeId(), new CurrencyPairId("BTC/USD"), new OrderId(orderId));
   }
 
   @Test
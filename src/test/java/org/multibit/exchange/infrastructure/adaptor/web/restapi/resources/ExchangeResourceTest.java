@@ -1,10 +1,20 @@
 package org.multibit.exchange.infrastructure.adaptor.web.restapi.resources;
 
+import com.google.common.collect.Lists;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.multibit.exchange.domain.model.MarketOrder;
 import org.multibit.exchange.domain.model.Side;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
 import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 
 public class ExchangeResourceTest extends BaseResourceTest {
@@ -73,4 +83,28 @@ public class ExchangeResourceTest extends BaseResourceTest {
     // Assert
     assertPlaceOrderCalledOnExchangeService(broker, qty, ticker, expectedSide);
   }
+
+  @Test
+  public void testPlaceOrders_ReturnsOrderIdsInSequence() {
+    // Arrange
+    ExchangeId exchangeId = fixture.getExchangeId();
+    List<OrderDescriptor> orderDescriptors = Lists.newArrayList(
+        new OrderDescriptor("broker", "Buy", "10", "BTC/USD", "99.98"),
+        new OrderDescriptor("broker", "Buy", "10", "BTC/USD", "99.99"),
+        new OrderDescriptor("broker", "Sell", "10", "BTC/USD", "100.01"));
+
+    // Act
+    List<String> identifiers = exchangeResource.placeOrders(exchangeId.getIdentifier(), orderDescriptors);
+
+    // Assert
+    ArgumentCaptor<List> orderIdsCaptor = ArgumentCaptor.forClass(List.class);
+    verify(exchangeService, times(1)).placeOrders(eq(exchangeId), orderIdsCaptor.capture(), eq(orderDescriptors));
+
+    List<String> expectedIdentifiers = Lists.newArrayList();
+    for (Object orderId : orderIdsCaptor.getValue()) {
+      expectedIdentifiers.add(((OrderId) orderId).getIdentifier());
+    }
+    assertThat(identifiers).hasSize(3);
+    assertThat(identifiers).isEqualTo(expectedIdentifiers);
+  }
 }
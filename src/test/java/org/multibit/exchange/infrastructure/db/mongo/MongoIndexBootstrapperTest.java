@@ -0,0 +1,62 @@
+package org.multibit.exchange.infrastructure.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.yammer.metrics.core.HealthCheck;
+import org.junit.After;
+import org.junit.Test;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoDbHealthCheck;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoIndexBootstrapper;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.ReadModelCollections;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class MongoIndexBootstrapperTest extends BaseMongoDbTest {
+
+  @After
+  public void tearDown() {
+    dropAllCollections(db);
+  }
+
+  @Test
+  public void testMissingIndexes_beforeStart() {
+    // Arrange
+    MongoIndexBootstrapper indexes = new MongoIndexBootstrapper(db);
+
+    // Act
+    int missing = indexes.missingIndexes().size();
+
+    // Assert
+    assertThat(missing).isEqualTo(4);
+  }
+
+  @Test
+  public void testStart_createsEveryReadModelIndex() throws Exception {
+    // Arrange
+    MongoIndexBootstrapper indexes = new MongoIndexBootstrapper(db);
+
+    // Act
+    indexes.start();
+
+    // Assert
+    assertThat(indexes.missingIndexes()).isEmpty();
+    assertThat(db.getCollection(ReadModelCollections.MARKET_DEPTH).find(
+        new BasicDBObject("exchangeId", "test-exchange")).explain().get("cursor").toString()).startsWith("BtreeCursor");
+  }
+
+  @Test
+  public void testHealthCheck_reportsMissingIndexes() throws Exception {
+    // Arrange
+    MongoIndexBootstrapper indexes = new MongoIndexBootstrapper(db);
+    MongoDbHealthCheck healthCheck = new MongoDbHealthCheck(db.getMongo(), indexes);
+
+    // Act
+    HealthCheck.Result before = healthCheck.execute();
+    indexes.ensureIndexes();
+    HealthCheck.Result after = healthCheck.execute();
+
+    // Assert
+    assertThat(before.isHealthy()).isFalse();
+    assertThat(before.getMessage()).contains(ReadModelCollections.QUOTES);
+    assertThat(after.isHealthy()).isTrue();
+  }
+}
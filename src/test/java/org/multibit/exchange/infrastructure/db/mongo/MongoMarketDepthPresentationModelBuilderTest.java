@@ -23,11 +23,15 @@ import org.multibit.exchange.presentation.model.marketdepth.BidDepthData;
 import org.multibit.exchange.presentation.model.marketdepth.DepthDataAsserts;
 import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
 import org.multibit.exchange.service.QueryProcessor;
+import org.multibit.exchange.service.ReadModelListener;
 import org.multibit.exchange.testing.CurrencyPairFaker;
 import org.multibit.exchange.testing.ExchangeIdFaker;
 import org.multibit.exchange.testing.OrderDescriptorFaker;
 
 import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 public class MongoMarketDepthPresentationModelBuilderTest extends BaseMongoDbTest {
 
@@ -35,6 +39,7 @@ public class MongoMarketDepthPresentationModelBuilderTest extends BaseMongoDbTes
 
   private QueryProcessor queryProcessor;
   private EventBus eventBus = new SimpleEventBus();
+  private ReadModelListener readModelListener = mock(ReadModelListener.class);
   private ExchangeId exchangeId;
   private CurrencyPair currencyPair;
   private CurrencyPairId currencyPairId;
@@ -45,7 +50,7 @@ public class MongoMarketDepthPresentationModelBuilderTest extends BaseMongoDbTes
     currencyPair = CurrencyPairFaker.createValid();
     currencyPairId = new CurrencyPairId(currencyPair.getSymbol());
     queryProcessor = new MongoQueryProcessor(db);
-    modelBuilder = new MongoMarketDepthPresentationModelBuilder(db, eventBus, queryProcessor);
+    modelBuilder = new MongoMarketDepthPresentationModelBuilder(db, eventBus, readModelListener);
   }
 
   @After
@@ -107,6 +112,37 @@ public class MongoMarketDepthPresentationModelBuilderTest extends BaseMongoDbTes
     );
   }
 
+  @Test
+  public void fetchMarketDepth_coalescedUntilFlush() {
+    // Arrange
+    eventBus = new SimpleEventBus();
+    ReadModelListener flushListener = mock(ReadModelListener.class);
+    MongoMarketDepthPresentationModelBuilder coalescingBuilder
+        = new MongoMarketDepthPresentationModelBuilder(db, eventBus, flushListener, 0, 1000);
+    publishCurrencyPairRegistered();
+    publishBuyLimitOrder("10", "10.10");
+    publishBuyLimitOrder("10", "17.31");
+    publishSellLimitOrder("12", "10");
+    assertThat(queryProcessor.fetchMarketDepth(exchangeId.getIdentifier(), currencyPairId)).isNull();
+    verify(flushListener, never()).marketDepthChanged(exchangeId.getIdentifier(), currencyPairId.getIdentifier());
+
+    // Act
+    coalescingBuilder.flush();
+
+    // Assert
+    verify(flushListener).marketDepthChanged(exchangeId.getIdentifier(), currencyPairId.getIdentifier());
+    MarketDepthPresentationModel model
+        = queryProcessor.fetchMarketDepth(exchangeId.getIdentifier(), currencyPairId);
+    DepthDataAsserts.assertPriceLevelVolumesAndOrder(
+        model.getBidDepthData(),
+        new PriceVolume("10", "27.41")
+    );
+    DepthDataAsserts.assertPriceLevelVolumesAndOrder(
+        model.getAskDepthData(),
+        new PriceVolume("12", "10")
+    );
+  }
+
   private void publishSellLimitOrder(String price, String qty) {
     LimitOrder sellOrder = createSellLimitOrder(price, qty);
     LimitOrderAddedToNewPriceLevelEvent e3 = new LimitOrderAddedToNewPriceLevelEvent(exchangeId, sellOrder, sellOrder.getLimitPrice());
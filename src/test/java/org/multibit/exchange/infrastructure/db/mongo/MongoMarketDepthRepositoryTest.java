@@ -0,0 +1,88 @@
+package org.multibit.exchange.infrastructure.db.mongo;
+
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.multibit.exchange.domain.model.Side;
+import org.multibit.exchange.infrastructure.adaptor.persistence.mongo.MongoMarketDepthRepository;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class MongoMarketDepthRepositoryTest extends BaseMongoDbTest {
+
+  private static final String EXCHANGE_ID = "test-exchange";
+
+  private static final String CURRENCY_PAIR_ID = "BTC/USD";
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private MongoMarketDepthRepository repository;
+
+  @Before
+  public void setUp() {
+    repository = new MongoMarketDepthRepository(db);
+    repository.save(new MarketDepthPresentationModel(new ObjectId().toString(), EXCHANGE_ID, CURRENCY_PAIR_ID));
+  }
+
+  @After
+  public void tearDown() {
+    dropAllCollections(db);
+  }
+
+  @Test
+  public void testIncreaseVolume_addsToLevel() {
+    // Arrange
+    repository.increaseVolume(EXCHANGE_ID, CURRENCY_PAIR_ID, Side.BUY, "10.10", "1.5");
+
+    // Act
+    long units = repository.increaseVolume(EXCHANGE_ID, CURRENCY_PAIR_ID, Side.BUY, "10.1", "0.25");
+
+    // Assert
+    assertThat(units).isEqualTo(175000000L);
+    MarketDepthPresentationModel model = repository.find(EXCHANGE_ID, CURRENCY_PAIR_ID);
+    assertThat(model.getBidDepthData().getVolumeAtPrice("10.1")).isEqualTo("1.75");
+    assertThat(model.getAskDepthData().getPriceLevels()).isEmpty();
+  }
+
+  @Test
+  public void testDecreaseVolume_removesEmptyLevel() {
+    // Arrange
+    repository.increaseVolume(EXCHANGE_ID, CURRENCY_PAIR_ID, Side.SELL, "12", "3");
+    repository.increaseVolume(EXCHANGE_ID, CURRENCY_PAIR_ID, Side.SELL, "13", "1");
+
+    // Act
+    repository.decreaseVolume(EXCHANGE_ID, CURRENCY_PAIR_ID, Side.SELL, "12", "1");
+    long units = repository.decreaseVolume(EXCHANGE_ID, CURRENCY_PAIR_ID, Side.SELL, "12", "2");
+
+    // Assert
+    assertThat(units).isEqualTo(0);
+    MarketDepthPresentationModel model = repository.find(EXCHANGE_ID, CURRENCY_PAIR_ID);
+    assertThat(model.getAskDepthData().getPriceLevels()).hasSize(1);
+    assertThat(model.getAskDepthData().getVolumeAtPrice("13")).isEqualTo("1");
+  }
+
+  @Test
+  public void testDecreaseVolume_moreThanLevelHas() {
+    // Arrange
+    repository.increaseVolume(EXCHANGE_ID, CURRENCY_PAIR_ID, Side.BUY, "10", "1");
+
+    thrown.expect(IllegalArgumentException.class);
+
+    // Act
+    repository.decreaseVolume(EXCHANGE_ID, CURRENCY_PAIR_ID, Side.BUY, "10", "1.00000001");
+  }
+
+  @Test
+  public void testIncreaseVolume_unknownCurrencyPair() {
+    // Arrange
+    thrown.expect(IllegalStateException.class);
+
+    // Act
+    repository.increaseVolume(EXCHANGE_ID, "LTC/USD", Side.BUY, "10", "1");
+  }
+}
@@ -0,0 +1,80 @@
+package org.multibit.exchange.infrastructure.service;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.repository.AggregateNotFoundException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.PlaceOrderCommand;
+import org.multibit.exchange.testing.ExchangeIdFaker;
+import org.multibit.exchange.testing.OrderDescriptorFaker;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AxonEventBasedAsyncExchangeServiceTest {
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  private CommandGateway commandGateway = mock(CommandGateway.class);
+  private AxonEventBasedAsyncExchangeService service;
+  private ExchangeId exchangeId;
+
+  @SuppressWarnings("unchecked")
+  private ArgumentCaptor<CommandCallback> callback = ArgumentCaptor.forClass(CommandCallback.class);
+
+  @Before
+  public void setUp() {
+    exchangeId = ExchangeIdFaker.createValid();
+    service = new AxonEventBasedAsyncExchangeService(commandGateway);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPlaceOrder_completesWhenCommandIsHandled() throws Exception {
+    // Arrange
+    OrderId orderId = new OrderId();
+    OrderDescriptor order = OrderDescriptorFaker.createValidLimitOrder();
+
+    // Act
+    ListenableFuture<Void> future = service.placeOrder(exchangeId, orderId, order);
+
+    // Assert
+    ArgumentCaptor<PlaceOrderCommand> command = ArgumentCaptor.forClass(PlaceOrderCommand.class);
+    verify(commandGateway).send(command.capture(), callback.capture());
+    assertThat(command.getValue().getOrderId()).isEqualTo(orderId);
+    assertThat(future.isDone()).isFalse();
+
+    callback.getValue().onSuccess(null);
+    assertThat(future.isDone()).isTrue();
+    assertThat(future.get()).isNull();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPlaceOrder_unknownMatchingEngine() throws Exception {
+    // Arrange
+    ListenableFuture<Void> future = service.placeOrder(exchangeId, new OrderId(), OrderDescriptorFaker.createValidLimitOrder());
+    verify(commandGateway).send(any(), callback.capture());
+
+    // Act
+    callback.getValue().onFailure(new AggregateNotFoundException("missing", "no such aggregate"));
+
+    // Assert
+    thrown.expect(ExecutionException.class);
+    thrown.expectMessage(NoSuchMatchingEngineException.class.getName());
+    future.get();
+  }
+}
@@ -0,0 +1,142 @@
+package org.multibit.exchange.infrastructure.service;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.CurrencyPairReadModel;
+import org.multibit.exchange.presentation.model.marketdepth.MarketDepthPresentationModel;
+import org.multibit.exchange.service.QueryProcessor;
+
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingQueryProcessorTest {
+
+  private static final ExchangeId EXCHANGE_ID = new ExchangeId("test-exchange");
+
+  private static final CurrencyPairId BTC_USD = new CurrencyPairId("BTC/USD");
+
+  private static final CurrencyPairId BTC_EUR = new CurrencyPairId("BTC/EUR");
+
+  private final QueryProcessor delegate = mock(QueryProcessor.class);
+
+  private CachingQueryProcessor queryProcessor;
+
+  @Before
+  public void setUp() {
+    queryProcessor = new CachingQueryProcessor(delegate, 100, 60000);
+  }
+
+  @Test
+  public void testFetchMarketDepth_repeatedReadsHitTheCache() {
+    // Arrange
+    MarketDepthPresentationModel marketDepth = marketDepth(BTC_USD);
+    when(delegate.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD)).thenReturn(marketDepth);
+
+    // Act
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+    MarketDepthPresentationModel fetched = queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+
+    // Assert
+    assertThat(fetched).isSameAs(marketDepth);
+    verify(delegate, times(1)).fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+  }
+
+  @Test
+  public void testFetchMarketDepth_missingResultIsCached() {
+    // Act
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+    MarketDepthPresentationModel fetched = queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+
+    // Assert
+    assertThat(fetched).isNull();
+    verify(delegate, times(1)).fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+  }
+
+  @Test
+  public void testMarketDepthChanged_invalidatesOnlyThatMarketDepth() {
+    // Arrange
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_EUR);
+    queryProcessor.fetchQuotes(EXCHANGE_ID.getIdentifier());
+
+    // Act
+    queryProcessor.marketDepthChanged(EXCHANGE_ID.getIdentifier(), BTC_USD.getIdentifier());
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_EUR);
+    queryProcessor.fetchQuotes(EXCHANGE_ID.getIdentifier());
+
+    // Assert
+    verify(delegate, times(2)).fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+    verify(delegate, times(1)).fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_EUR);
+    verify(delegate, times(1)).fetchQuotes(EXCHANGE_ID.getIdentifier());
+  }
+
+  @Test
+  public void testQuoteChanged_invalidatesQuotesAndCurrencyPairs() {
+    // Arrange
+    List<CurrencyPairReadModel> before = ImmutableList.of();
+    List<CurrencyPairReadModel> after = ImmutableList.of(
+        new CurrencyPairReadModel("1", EXCHANGE_ID.getIdentifier(), "BTC/USD", "BTC", "USD"));
+    when(delegate.fetchCurrencyPairs(EXCHANGE_ID.getIdentifier())).thenReturn(before, after);
+    queryProcessor.fetchCurrencyPairs(EXCHANGE_ID.getIdentifier());
+    queryProcessor.fetchQuotes(EXCHANGE_ID.getIdentifier());
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+
+    // Act
+    queryProcessor.quoteChanged(EXCHANGE_ID.getIdentifier(), BTC_USD.getIdentifier());
+    List<CurrencyPairReadModel> fetched = queryProcessor.fetchCurrencyPairs(EXCHANGE_ID.getIdentifier());
+    queryProcessor.fetchQuotes(EXCHANGE_ID.getIdentifier());
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+
+    // Assert
+    assertThat(fetched).isEqualTo(after);
+    verify(delegate, times(2)).fetchQuotes(EXCHANGE_ID.getIdentifier());
+    verify(delegate, times(1)).fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+  }
+
+  @Test
+  public void testReadModelListeners_invalidateTheAddedCache() {
+    // Arrange
+    ReadModelListeners readModelListeners = new ReadModelListeners();
+    readModelListeners.add(queryProcessor);
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+
+    // Act
+    readModelListeners.marketDepthChanged(EXCHANGE_ID.getIdentifier(), BTC_USD.getIdentifier());
+    queryProcessor.fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+
+    // Assert
+    verify(delegate, times(2)).fetchMarketDepth(EXCHANGE_ID.getIdentifier(), BTC_USD);
+  }
+
+  @Test
+  public void testMaximumSize_evictsLeastRecentlyUsed() {
+    // Arrange
+    queryProcessor = new CachingQueryProcessor(delegate, 2, 60000);
+    queryProcessor.fetchCurrencyPairs("exchange-1");
+    queryProcessor.fetchCurrencyPairs("exchange-2");
+    queryProcessor.fetchCurrencyPairs("exchange-1");
+
+    // Act
+    queryProcessor.fetchCurrencyPairs("exchange-3");
+    queryProcessor.fetchCurrencyPairs("exchange-1");
+    queryProcessor.fetchCurrencyPairs("exchange-2");
+
+    // Assert
+    assertThat(queryProcessor.size()).isEqualTo(2);
+    verify(delegate, times(1)).fetchCurrencyPairs("exchange-1");
+    verify(delegate, times(2)).fetchCurrencyPairs("exchange-2");
+  }
+
+  private static MarketDepthPresentationModel marketDepth(CurrencyPairId currencyPairId) {
+    return new MarketDepthPresentationModel("1", EXCHANGE_ID.getIdentifier(), currencyPairId.getIdentifier());
+  }
+}
@@ -0,0 +1,151 @@
+package org.multibit.exchange.infrastructure.service;
+
+import com.google.common.collect.Lists;
+import org.axonframework.commandhandling.CommandExecutionException;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.annotation.AggregateAnnotationCommandHandler;
+import org.axonframework.commandhandling.annotation.AnnotationCommandHandlerAdapter;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.domain.EventMessage;
+import org.axonframework.eventhandling.EventListener;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.axonframework.eventstore.EventStore;
+import org.junit.Before;
+import org.junit.Test;
+import org.multibit.exchange.domain.event.MatchingEngineClosedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineCreatedEvent;
+import org.multibit.exchange.domain.event.MatchingEngineReopenedEvent;
+import org.multibit.exchange.domain.event.TradeExecutedEvent;
+import org.multibit.exchange.domain.model.Exchange;
+import org.multibit.exchange.domain.model.MarketOrder;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.domain.model.MatchingEngineCommandHandler;
+import org.multibit.exchange.domain.model.NoSuchCurrencyPairException;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.CurrencyPairId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.ExchangeId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderDescriptor;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
+import org.multibit.exchange.infrastructure.adaptor.eventapi.RemoveCurrencyPairCommand;
+import org.multibit.exchange.testing.ExchangeIdFaker;
+import org.multibit.exchange.testing.InMemoryEventStore;
+
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MatchingEngineLifecycleListenerTest {
+
+  private static final String TICKER = "BTC/USD";
+
+  private final CurrencyPairId currencyPairId = new CurrencyPairId(TICKER);
+
+  private final List<Object> events = Lists.newArrayList();
+
+  private ExchangeId exchangeId;
+
+  private CommandGateway commandGateway;
+
+  private AxonEventBasedExchangeService exchangeService;
+
+  @Before
+  public void setUp() {
+    SimpleEventBus eventBus = new SimpleEventBus();
+    SimpleCommandBus commandBus = new SimpleCommandBus();
+    EventStore eventStore = new InMemoryEventStore();
+    commandGateway = new DefaultCommandGateway(commandBus);
+
+    EventSourcingRepository<Exchange> exchangeRepository
+        = new EventSourcingRepository<>(new GenericAggregateFactory<>(Exchange.class), eventStore);
+    exchangeRepository.setEventBus(eventBus);
+    AggregateAnnotationCommandHandler.subscribe(Exchange.class, exchangeRepository, commandBus);
+
+    EventSourcingRepository<MatchingEngine> matchingEngineRepository
+        = new EventSourcingRepository<>(new GenericAggregateFactory<>(MatchingEngine.class), eventStore);
+    matchingEngineRepository.setEventBus(eventBus);
+    AggregateAnnotationCommandHandler.subscribe(MatchingEngine.class, matchingEngineRepository, commandBus);
+    AnnotationCommandHandlerAdapter.subscribe(new MatchingEngineCommandHandler(matchingEngineRepository), commandBus);
+
+    new MatchingEngineLifecycleListener(commandGateway, eventBus);
+    eventBus.subscribe(new EventListener() {
+      @Override
+      public void handle(EventMessage event) {
+        events.add(event.getPayload());
+      }
+    });
+
+    exchangeId = ExchangeIdFaker.createValid();
+    exchangeService = new AxonEventBasedExchangeService(commandGateway);
+    exchangeService.initializeExchange(exchangeId);
+  }
+
+  @Test
+  public void testRegisterCurrencyPair_opensMatchingEngine() {
+    // Arrange
+    // Act
+    registerCurrencyPair();
+
+    // Assert
+    assertThat(eventsOf(MatchingEngineCreatedEvent.class)).hasSize(1);
+    placeOrder("Seller", "Sell", "10.00");
+  }
+
+  @Test
+  public void testRemoveCurrencyPair_closesMatchingEngine() {
+    // Arrange
+    registerCurrencyPair();
+
+    // Act
+    commandGateway.sendAndWait(new RemoveCurrencyPairCommand(exchangeId, currencyPairId));
+
+    // Assert
+    assertThat(eventsOf(MatchingEngineClosedEvent.class)).hasSize(1);
+    try {
+      placeOrder("Seller", "Sell", "10.00");
+      fail("a removed pair must not take orders");
+    } catch (CommandExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(NoSuchCurrencyPairException.class);
+    }
+  }
+
+  @Test
+  public void testRegisterCurrencyPairAgain_reopensMatchingEngineWithItsBooks() {
+    // Arrange
+    registerCurrencyPair();
+    placeOrder("Seller", "Sell", "10.00");
+    commandGateway.sendAndWait(new RemoveCurrencyPairCommand(exchangeId, currencyPairId));
+
+    // Act
+    registerCurrencyPair();
+    placeOrder("Buyer", "Buy", MarketOrder.MARKET_PRICE);
+
+    // Assert
+    assertThat(eventsOf(MatchingEngineCreatedEvent.class)).hasSize(1);
+    assertThat(eventsOf(MatchingEngineReopenedEvent.class)).hasSize(1);
+    List<TradeExecutedEvent> trades = eventsOf(TradeExecutedEvent.class);
+    assertThat(trades).hasSize(1);
+    assertThat(trades.get(0).getTrade().getSellSideBroker()).isEqualTo("Seller");
+  }
+
+  private void registerCurrencyPair() {
+    exchangeService.registerCurrencyPair(exchangeId, currencyPairId, new CurrencyId("BTC"), new CurrencyId("USD"));
+  }
+
+  private void placeOrder(String broker, String side, String price) {
+    exchangeService.placeOrder(exchangeId, new OrderId(), new OrderDescriptor(broker, side, "1", TICKER, price));
+  }
+
+  private <T> List<T> eventsOf(Class<T> eventType) {
+    List<T> matchingEvents = Lists.newArrayList();
+    for (Object event : events) {
+      if (eventType.isInstance(event)) {
+        matchingEvents.add(eventType.cast(event));
+      }
+    }
+    return matchingEvents;
+  }
+}
@@ -6,6 +6,7 @@ import org.axonframework.commandhandling.CommandBus;
 import org.axonframework.commandhandling.CommandCallback;
 import org.axonframework.commandhandling.SimpleCommandBus;
 import org.axonframework.commandhandling.annotation.AggregateAnnotationCommandHandler;
+import org.axonframework.commandhandling.annotation.AnnotationCommandHandlerAdapter;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
 import org.axonframework.eventhandling.EventBus;
@@ -27,6 +28,8 @@ import org.multibit.exchange.domain.event.TopOrderPartiallyFilledEvent;
 import org.multibit.exchange.domain.model.Exchange;
 import org.multibit.exchange.domain.model.ItemPrice;
 import org.multibit.exchange.domain.model.LimitOrder;
+import org.multibit.exchange.domain.model.MatchingEngine;
+import org.multibit.exchange.domain.model.MatchingEngineCommandHandler;
 import org.multibit.exchange.domain.model.Side;
 import org.multibit.exchange.domain.model.Ticker;
 import org.multibit.exchange.domain.model.Trade;
@@ -39,6 +42,7 @@ import org.multibit.exchange.infrastructure.adaptor.eventapi.OrderId;
 import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.OrderBookReadModel;
 import org.multibit.exchange.infrastructure.adaptor.web.restapi.readmodel.QuoteReadModel;
 import org.multibit.exchange.infrastructure.service.AxonEventBasedExchangeService;
+import org.multibit.exchange.infrastructure.service.MatchingEngineLifecycleListener;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -86,6 +90,16 @@ public class EventBasedExchangeServiceTestFixture implements MatchingEngineTestF
     AggregateAnnotationCommandHandler commandHandler = new AggregateAnnotationCommandHandler<>(aggregateType, repository, commandBus);
     commandHandler.subscribe();
 
+    // each currency pair is matched by its own aggregate
+    EventSourcingRepository<MatchingEngine> matchingEngineRepository
+        = new CachingEventSourcingRepository<>(new GenericAggregateFactory<>(MatchingEngine.class), eventStore);
+    matchingEngineRepository.setEventBus(eventBus);
+    AggregateAnnotationCommandHandler.subscribe(MatchingEngine.class, matchingEngineRepository, commandBus);
+    AnnotationCommandHandlerAdapter.subscribe(new MatchingEngineCommandHandler(matchingEngineRepository), commandBus);
+
+    // open each pair's matching engine as the pair is registered
+    new MatchingEngineLifecycleListener(commandGateway, eventBus);
+
     // register test event recorder
     eventObserver = new EventObserver();
     AnnotationEventListenerAdapter.subscribe(eventObserver, eventBus);
@@ -139,7 +153,8 @@ public class EventBasedExchangeServiceTestFixture implements MatchingEngineTestF
     CurrencyPairId currencyPairId = new CurrencyPairId(cpd.getSymbol());
     CurrencyId baseCurrencyId = new CurrencyId(cpd.getBaseCurrency());
     CurrencyId counterCurrencyId = new CurrencyId(cpd.getCounterCurrency());
-    exchangeService.registerCurrencyPair(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId);
+    ItemPrice tickSize = (cpd.getTickSize() == null) ? null : new ItemPrice(cpd.getTickSize());
+    exchangeService.registerCurrencyPair(exchangeId, currencyPairId, baseCurrencyId, counterCurrencyId, tickSize);
   }
 
   private class EventObserver {
@@ -6,6 +6,7 @@ import com.google.common.collect.PeekingIterator;
 import org.axonframework.domain.DomainEventMessage;
 import org.axonframework.domain.DomainEventStream;
 import org.axonframework.eventstore.EventStore;
+import org.axonframework.eventstore.EventStreamNotFoundException;
 
 import java.util.HashMap;
 import java.util.List;
@@ -88,7 +89,7 @@ public class InMemoryEventStore implements EventStore {
   public DomainEventStream readEvents(String type, Object aggregateIdentifier) {
     List<DomainEventMessage> eventList = findEventList(type, aggregateIdentifier);
     if (eventList == null) {
-      return new InMemoryEventStream();
+      throw new EventStreamNotFoundException(type, aggregateIdentifier);
     }
     return new InMemoryEventStream(eventList);
   }